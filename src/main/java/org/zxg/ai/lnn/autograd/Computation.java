@@ -16,6 +16,7 @@
  */
 package org.zxg.ai.lnn.autograd;
 
+import org.zxg.ai.lnn.LnnException;
 import org.zxg.ai.lnn.tensor.Tensor;
 
 /**
@@ -24,9 +25,28 @@ import org.zxg.ai.lnn.tensor.Tensor;
 public abstract class Computation {
 
 	protected final Variable creator;
+	private final Tensor[] savedTensors;
+	private final int[] savedVersions;
 
-	public Computation(Variable creator) {
+	/**
+	 * @param savedTensors the tensors which the backward pass reads, which
+	 *                     must not be modified in place before it
+	 */
+	public Computation(Variable creator, Tensor... savedTensors) {
 		this.creator = creator;
+		this.savedTensors = savedTensors;
+		this.savedVersions = new int[savedTensors.length];
+		for (int i = 0; i < savedTensors.length; i++) {
+			savedVersions[i] = savedTensors[i].version();
+		}
+	}
+
+	void checkSavedTensors() {
+		for (int i = 0; i < savedTensors.length; i++) {
+			if (savedTensors[i].version() != savedVersions[i]) {
+				throw new LnnException("A tensor saved for backward has been modified by an in-place operation.");
+			}
+		}
 	}
 
 	protected Tensor gradient() {
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.autograd;
+
+/**
+ * Whether the operations on variables record the graph for backward, which
+ * is set for each thread. When it is disabled, for example for inference, the
+ * operations only compute their values, and neither create computations nor
+ * keep tensors for backward:
+ *
+ * <pre>
+ * try (GradientMode mode = GradientMode.noGradient()) {
+ * 	output = net.forward(input);
+ * }
+ * </pre>
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public final class GradientMode implements AutoCloseable {
+
+	private static volatile boolean DEFAULT_ENABLED = true;
+	private static final ThreadLocal<Boolean> ENABLED = new ThreadLocal<>();
+
+	/**
+	 * Sets whether the graph is recorded in the threads which have not set it
+	 * themselves, for example to disable it in a process which only runs
+	 * inference.
+	 */
+	public static void defaultEnabled(boolean enabled) {
+		DEFAULT_ENABLED = enabled;
+	}
+
+	public static boolean defaultEnabled() {
+		return DEFAULT_ENABLED;
+	}
+
+	public static boolean isEnabled() {
+		Boolean enabled = ENABLED.get();
+		return null != enabled ? enabled : DEFAULT_ENABLED;
+	}
+
+	/**
+	 * Sets whether the graph is recorded in the current thread.
+	 */
+	public static void setEnabled(boolean enabled) {
+		ENABLED.set(enabled);
+	}
+
+	/**
+	 * Disables the recording of the graph in the current thread until the
+	 * returned mode is closed, which restores the previous setting.
+	 */
+	public static GradientMode noGradient() {
+		return enable(false);
+	}
+
+	/**
+	 * Enables the recording of the graph in the current thread until the
+	 * returned mode is closed, for example to train inside a scope which
+	 * disables it.
+	 */
+	public static GradientMode enableGradient() {
+		return enable(true);
+	}
+
+	private static GradientMode enable(boolean enabled) {
+		GradientMode mode = new GradientMode(ENABLED.get());
+		ENABLED.set(enabled);
+		return mode;
+	}
+
+	private final Boolean previous;
+	private boolean closed;
+
+	private GradientMode(Boolean previous) {
+		this.previous = previous;
+	}
+
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		if (null == previous) {
+			ENABLED.remove();
+		} else {
+			ENABLED.set(previous);
+		}
+	}
+}
@@ -27,7 +27,7 @@ final class LeftDotComputation extends Computation {
 	private final Tensor constant;
 
 	public LeftDotComputation(Variable creator, Tensor constant) {
-		super(creator);
+		super(creator, constant);
 		this.constant = constant;
 	}
 
@@ -27,7 +27,7 @@ final class RightDotComputation extends Computation {
 	private final Tensor constant;
 
 	public RightDotComputation(Variable creator, Tensor constant) {
-		super(creator);
+		super(creator, constant);
 		this.constant = constant;
 	}
 
@@ -16,12 +16,23 @@
  */
 package org.zxg.ai.lnn.autograd;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.zxg.ai.lnn.LnnException;
+import org.zxg.ai.lnn.opencl.BufferArena;
 import org.zxg.ai.lnn.opencl.IntArray;
 import org.zxg.ai.lnn.tensor.Tensor;
+import org.zxg.ai.lnn.tuple.IntTuple2;
+import org.zxg.ai.lnn.tuple.IntTuple3;
 
 /**
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
@@ -32,6 +43,7 @@ public class Variable {
 	private Tensor gradient;
 	private List<Computation> computations;
 	private boolean requiresGradient;
+	private boolean graphReleased;
 
 	public Variable(Tensor value) {
 		this(value, true);
@@ -40,9 +52,21 @@ public class Variable {
 	public Variable(Tensor value, boolean requiresGradient) {
 		this.value = value;
 		this.requiresGradient = requiresGradient;
-		if (requiresGradient) {
-			this.gradient = new Tensor(value.shape());
-		}
+	}
+
+	/**
+	 * Returns whether an operation on the operands records its computations
+	 * for backward, which it does only when the {@link GradientMode} is enabled
+	 * and one of the operands requires the gradient. Otherwise the result of
+	 * the operation is a variable which requires no gradient, and the
+	 * operation creates no computation.
+	 */
+	private static boolean recordsGraph(Variable operand) {
+		return operand.requiresGradient && GradientMode.isEnabled();
+	}
+
+	private static boolean recordsGraph(Variable operand1, Variable operand2) {
+		return (operand1.requiresGradient || operand2.requiresGradient) && GradientMode.isEnabled();
 	}
 
 	protected Variable(Tensor value, Computation... computations) {
@@ -62,45 +86,118 @@ public class Variable {
 		}
 	}
 
-	private static final class BackwardContext {
-		final Tensor forwardGradient;
-		final Computation computation;
-
-		BackwardContext(Tensor forwardGradient, Computation computation) {
-			this.forwardGradient = forwardGradient;
-			this.computation = computation;
-		}
-	}
-
 	public void backward(Tensor gradient) {
+		backward(gradient, false);
+	}
+
+	/**
+	 * Computes the gradients of the leaf variables of the graph ending at this
+	 * variable.
+	 *
+	 * @param retainGraph whether to keep the graph for another backward pass;
+	 *                    otherwise the computations of each variable, and the
+	 *                    tensors which they hold, are released as soon as the
+	 *                    gradient of the variable has been propagated
+	 */
+	public void backward(Tensor gradient, boolean retainGraph) {
 		if (null == gradient) {
-			gradient = new Tensor(this.value.shape());
+			gradient = new Tensor(this.value.device(), this.value.shape());
 			gradient.ones();
 		} else {
 			value.checkSameShape(gradient);
 		}
-		Deque<BackwardContext> contextStack = new LinkedList<>();
-		contextStack.push(new BackwardContext(gradient, new OnesGradientComputation(this)));
-		while (!contextStack.isEmpty()) {
-			BackwardContext context = contextStack.pop();
-			Computation contextComputation = context.computation;
-			Tensor variableGradient = contextComputation.backward(context.forwardGradient);
-			Variable variable = contextComputation.creator;
+		List<Variable> order = reverseTopologicalOrder();
+		Map<Variable, Tensor> gradients = new IdentityHashMap<>();
+		// The gradients created by the accumulation, which can be added to in
+		// place, unlike the ones returned by computations, which may be shared.
+		Set<Tensor> ownedGradients = Collections.newSetFromMap(new IdentityHashMap<>());
+		gradients.put(this, gradient);
+		for (int i = 0; i < order.size(); i++) {
+			Variable variable = order.get(i);
+			order.set(i, null);
+			Tensor variableGradient = gradients.remove(variable);
+			if (null == variableGradient) {
+				continue;
+			}
 			if (variable.computations != null) {
 				for (Computation c : variable.computations) {
-					contextStack.push(new BackwardContext(variableGradient, c));
+					c.checkSavedTensors();
+					// The operands broadcast by an operation get gradients with
+					// its shape, which are summed back to their own shapes.
+					Tensor creatorGradient = c.backward(variableGradient).sumTo(c.creator.value.shape());
+					Tensor accumulatedGradient = gradients.get(c.creator);
+					if (null == accumulatedGradient) {
+						gradients.put(c.creator, creatorGradient);
+					} else if (ownedGradients.contains(accumulatedGradient)) {
+						accumulatedGradient.addi(creatorGradient);
+					} else {
+						accumulatedGradient = accumulatedGradient.add(creatorGradient);
+						ownedGradients.add(accumulatedGradient);
+						gradients.put(c.creator, accumulatedGradient);
+					}
+				}
+				if (!retainGraph) {
+					variable.computations = null;
+					variable.graphReleased = true;
 				}
-			} else if (variable.gradient != null) {
-				variable.gradient = variable.gradient.add(variableGradient);
+			} else if (variable.requiresGradient) {
+				variable.gradient().addi(variableGradient);
 			}
 		}
 	}
 
+	/**
+	 * Returns the variables of the graph ending at this variable, where each
+	 * variable comes before the variables which it is computed from. So the
+	 * gradient of a variable is complete when it is reached, and each variable
+	 * is visited once however many paths lead to it.
+	 */
+	private List<Variable> reverseTopologicalOrder() {
+		List<Variable> order = new ArrayList<>();
+		Set<Variable> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+		Deque<Variable> variables = new ArrayDeque<>();
+		Deque<Iterator<Computation>> iterators = new ArrayDeque<>();
+		checkGraph();
+		visited.add(this);
+		variables.push(this);
+		iterators.push(iteratorOfComputations());
+		while (!variables.isEmpty()) {
+			Iterator<Computation> iterator = iterators.peek();
+			if (iterator.hasNext()) {
+				Variable creator = iterator.next().creator;
+				if (visited.add(creator)) {
+					creator.checkGraph();
+					variables.push(creator);
+					iterators.push(creator.iteratorOfComputations());
+				}
+			} else {
+				order.add(variables.pop());
+				iterators.pop();
+			}
+		}
+		Collections.reverse(order);
+		return order;
+	}
+
+	private void checkGraph() {
+		if (graphReleased) {
+			throw new LnnException(
+					"The graph has been released by a backward pass, which must retain the graph to allow another one.");
+		}
+	}
+
+	private Iterator<Computation> iteratorOfComputations() {
+		return null != computations ? computations.iterator() : Collections.emptyIterator();
+	}
+
 	public void backward() {
 		backward(null);
 	}
 
 	public Variable reshape(int... shape) {
+		if (!recordsGraph(this)) {
+			return new Variable(value.reshape(shape), false);
+		}
 		return new Variable(value.reshape(shape), new Computation(this) {
 
 			@Override
@@ -111,6 +208,9 @@ public class Variable {
 	}
 
 	public Variable expandDims(int axis, int times) {
+		if (!recordsGraph(this)) {
+			return new Variable(value.expandDims(axis, times), false);
+		}
 		return new Variable(value.expandDims(axis, times), new Computation(this) {
 
 			@Override
@@ -121,6 +221,9 @@ public class Variable {
 	}
 
 	public Variable contractDims(int axis, int times) {
+		if (!recordsGraph(this)) {
+			return new Variable(value.contractDims(axis, times), false);
+		}
 		return new Variable(value.contractDims(axis, times), new Computation(this) {
 
 			@Override
@@ -131,6 +234,9 @@ public class Variable {
 	}
 
 	public Variable broadcastTo(int... shape) {
+		if (!recordsGraph(this)) {
+			return new Variable(value.broadcastTo(shape), false);
+		}
 		return new Variable(value.broadcastTo(shape), new Computation(this) {
 
 			@Override
@@ -147,6 +253,9 @@ public class Variable {
 	}
 
 	public Variable broadcastTo(IntArray shape) {
+		if (!recordsGraph(this)) {
+			return new Variable(value.broadcastTo(shape), false);
+		}
 		return new Variable(value.broadcastTo(shape), new Computation(this) {
 
 			@Override
@@ -163,6 +272,9 @@ public class Variable {
 	}
 
 	public Variable negative() {
+		if (!recordsGraph(this)) {
+			return new Variable(value.negative(), false);
+		}
 		return new Variable(value.negative(), new Computation(this) {
 
 			@Override
@@ -173,7 +285,10 @@ public class Variable {
 	}
 
 	public Variable abs() {
-		return new Variable(value.abs(), new Computation(this) {
+		if (!recordsGraph(this)) {
+			return new Variable(value.abs(), false);
+		}
+		return new Variable(value.abs(), new Computation(this, value) {
 
 			@Override
 			protected Tensor gradient() {
@@ -183,27 +298,45 @@ public class Variable {
 	}
 
 	public Variable add(float constant) {
+		if (!recordsGraph(this)) {
+			return new Variable(value.add(constant), false);
+		}
 		return new Variable(value.add(constant), new OnesGradientComputation(this));
 	}
 
 	public Variable add(Tensor constant) {
+		if (!recordsGraph(this)) {
+			return new Variable(value.add(constant), false);
+		}
 		return new Variable(value.add(constant), new OnesGradientComputation(this));
 	}
 
 	public Variable add(Variable other) {
+		if (!recordsGraph(this, other)) {
+			return new Variable(this.value.add(other.value), false);
+		}
 		return new Variable(this.value.add(other.value), new OnesGradientComputation(this),
 				new OnesGradientComputation(other));
 	}
 
 	public Variable sub(float constant) {
+		if (!recordsGraph(this)) {
+			return new Variable(value.sub(constant), false);
+		}
 		return new Variable(value.sub(constant), new OnesGradientComputation(this));
 	}
 
 	public Variable sub(Tensor constant) {
+		if (!recordsGraph(this)) {
+			return new Variable(value.sub(constant), false);
+		}
 		return new Variable(value.sub(constant), new OnesGradientComputation(this));
 	}
 
 	public Variable sub(Variable other) {
+		if (!recordsGraph(this, other)) {
+			return new Variable(this.value.sub(other.value), false);
+		}
 		return new Variable(this.value.sub(other.value), new OnesGradientComputation(this), new Computation(other) {
 
 			@Override
@@ -214,6 +347,9 @@ public class Variable {
 	}
 
 	public Variable mul(float constant) {
+		if (!recordsGraph(this)) {
+			return new Variable(value.mul(constant), false);
+		}
 		return new Variable(value.mul(constant), new Computation(this) {
 
 			@Override
@@ -224,7 +360,10 @@ public class Variable {
 	}
 
 	public Variable mul(Tensor constant) {
-		return new Variable(value.mul(constant), new Computation(this) {
+		if (!recordsGraph(this)) {
+			return new Variable(value.mul(constant), false);
+		}
+		return new Variable(value.mul(constant), new Computation(this, constant) {
 
 			@Override
 			protected Tensor gradient() {
@@ -234,13 +373,16 @@ public class Variable {
 	}
 
 	public Variable mul(Variable other) {
-		return new Variable(this.value.mul(other.value), new Computation(this) {
+		if (!recordsGraph(this, other)) {
+			return new Variable(this.value.mul(other.value), false);
+		}
+		return new Variable(this.value.mul(other.value), new Computation(this, other.value) {
 
 			@Override
 			protected Tensor gradient() {
 				return other.value;
 			}
-		}, new Computation(other) {
+		}, new Computation(other, value) {
 
 			@Override
 			protected Tensor gradient() {
@@ -250,7 +392,10 @@ public class Variable {
 	}
 
 	public Variable square() {
-		return new Variable(value.square(), new Computation(this) {
+		if (!recordsGraph(this)) {
+			return new Variable(value.square(), false);
+		}
+		return new Variable(value.square(), new Computation(this, value) {
 
 			@Override
 			protected Tensor gradient() {
@@ -260,6 +405,9 @@ public class Variable {
 	}
 
 	public Variable div(float constant) {
+		if (!recordsGraph(this)) {
+			return new Variable(value.div(constant), false);
+		}
 		return new Variable(value.div(constant), new Computation(this) {
 
 			@Override
@@ -270,7 +418,10 @@ public class Variable {
 	}
 
 	public Variable div(Tensor constant) {
-		return new Variable(value.div(constant), new Computation(this) {
+		if (!recordsGraph(this)) {
+			return new Variable(value.div(constant), false);
+		}
+		return new Variable(value.div(constant), new Computation(this, constant) {
 
 			@Override
 			protected Tensor gradient() {
@@ -280,14 +431,17 @@ public class Variable {
 	}
 
 	public Variable div(Variable other) {
+		if (!recordsGraph(this, other)) {
+			return new Variable(this.value.div(other.value), false);
+		}
 		Tensor resultValue = this.value.div(other.value);
-		return new Variable(resultValue, new Computation(this) {
+		return new Variable(resultValue, new Computation(this, other.value) {
 
 			@Override
 			protected Tensor gradient() {
 				return other.value.reciprocal();
 			}
-		}, new Computation(other) {
+		}, new Computation(other, resultValue, other.value) {
 
 			@Override
 			protected Tensor gradient() {
@@ -297,8 +451,11 @@ public class Variable {
 	}
 
 	public Variable dividedBy(float constant) {
+		if (!recordsGraph(this)) {
+			return new Variable(value.dividedBy(constant), false);
+		}
 		Tensor resultValue = value.dividedBy(constant);
-		return new Variable(resultValue, new Computation(this) {
+		return new Variable(resultValue, new Computation(this, resultValue, value) {
 
 			@Override
 			protected Tensor gradient() {
@@ -308,8 +465,11 @@ public class Variable {
 	}
 
 	public Variable reciprocal() {
+		if (!recordsGraph(this)) {
+			return new Variable(value.reciprocal(), false);
+		}
 		Tensor resultValue = value.reciprocal();
-		return new Variable(resultValue, new Computation(this) {
+		return new Variable(resultValue, new Computation(this, resultValue, value) {
 
 			@Override
 			protected Tensor gradient() {
@@ -319,8 +479,11 @@ public class Variable {
 	}
 
 	public Variable sqrt() {
+		if (!recordsGraph(this)) {
+			return new Variable(value.sqrt(), false);
+		}
 		Tensor resultValue = value.sqrt();
-		return new Variable(resultValue, new Computation(this) {
+		return new Variable(resultValue, new Computation(this, resultValue) {
 
 			@Override
 			protected Tensor gradient() {
@@ -330,8 +493,11 @@ public class Variable {
 	}
 
 	public Variable exp() {
+		if (!recordsGraph(this)) {
+			return new Variable(value.exp(), false);
+		}
 		Tensor resultValue = value.exp();
-		return new Variable(resultValue, new Computation(this) {
+		return new Variable(resultValue, new Computation(this, resultValue) {
 
 			@Override
 			protected Tensor gradient() {
@@ -341,7 +507,10 @@ public class Variable {
 	}
 
 	public Variable pow(float exponent) {
-		return new Variable(value.pow(exponent), new Computation(this) {
+		if (!recordsGraph(this)) {
+			return new Variable(value.pow(exponent), false);
+		}
+		return new Variable(value.pow(exponent), new Computation(this, value) {
 
 			@Override
 			protected Tensor gradient() {
@@ -351,7 +520,10 @@ public class Variable {
 	}
 
 	public Variable pow(Tensor exponent) {
-		return new Variable(value.pow(exponent), new Computation(this) {
+		if (!recordsGraph(this)) {
+			return new Variable(value.pow(exponent), false);
+		}
+		return new Variable(value.pow(exponent), new Computation(this, value, exponent) {
 
 			@Override
 			protected Tensor gradient() {
@@ -361,14 +533,17 @@ public class Variable {
 	}
 
 	public Variable pow(Variable exponent) {
+		if (!recordsGraph(this, exponent)) {
+			return new Variable(this.value.pow(exponent.value), false);
+		}
 		Tensor resultValue = this.value.pow(exponent.value);
-		return new Variable(resultValue, new Computation(this) {
+		return new Variable(resultValue, new Computation(this, value, exponent.value) {
 
 			@Override
 			protected Tensor gradient() {
 				return Variable.this.value.pow(exponent.value.sub(1)).mul(exponent.value);
 			}
-		}, new Computation(exponent) {
+		}, new Computation(exponent, value, resultValue) {
 
 			@Override
 			protected Tensor gradient() {
@@ -378,7 +553,10 @@ public class Variable {
 	}
 
 	public Variable ln() {
-		return new Variable(value.ln(), new Computation(this) {
+		if (!recordsGraph(this)) {
+			return new Variable(value.ln(), false);
+		}
+		return new Variable(value.ln(), new Computation(this, value) {
 
 			@Override
 			protected Tensor gradient() {
@@ -388,8 +566,11 @@ public class Variable {
 	}
 
 	public Variable log(Tensor antilogarithm) {
+		if (!recordsGraph(this)) {
+			return new Variable(value.log(antilogarithm), false);
+		}
 		Tensor resultValue = value.log(antilogarithm);
-		return new Variable(resultValue, new Computation(this) {
+		return new Variable(resultValue, new Computation(this, resultValue, value) {
 
 			@Override
 			protected Tensor gradient() {
@@ -399,6 +580,9 @@ public class Variable {
 	}
 
 	public Variable log(Variable antilogarithm) {
+		if (!recordsGraph(this, antilogarithm)) {
+			return new Variable(this.value.log(antilogarithm.value), false);
+		}
 		Tensor resultValue = this.value.log(antilogarithm.value);
 		CachedComputation lnThis = new CachedComputation() {
 
@@ -407,13 +591,13 @@ public class Variable {
 				return Variable.this.value.ln();
 			}
 		};
-		return new Variable(resultValue, new Computation(this) {
+		return new Variable(resultValue, new Computation(this, resultValue, value) {
 
 			@Override
 			protected Tensor gradient() {
 				return resultValue.div(lnThis.result()).div(Variable.this.value).negative();
 			}
-		}, new Computation(antilogarithm) {
+		}, new Computation(antilogarithm, value, antilogarithm.value) {
 
 			@Override
 			protected Tensor gradient() {
@@ -423,8 +607,11 @@ public class Variable {
 	}
 
 	public Variable tanh() {
+		if (!recordsGraph(this)) {
+			return new Variable(value.tanh(), false);
+		}
 		Tensor resultValue = value.tanh();
-		return new Variable(resultValue, new Computation(this) {
+		return new Variable(resultValue, new Computation(this, resultValue) {
 
 			@Override
 			protected Tensor gradient() {
@@ -434,8 +621,11 @@ public class Variable {
 	}
 
 	public Variable relu() {
+		if (!recordsGraph(this)) {
+			return new Variable(value.relu(), false);
+		}
 		Tensor resultValue = value.relu();
-		return new Variable(resultValue, new Computation(this) {
+		return new Variable(resultValue, new Computation(this, resultValue) {
 
 			@Override
 			protected Tensor gradient() {
@@ -445,6 +635,9 @@ public class Variable {
 	}
 
 	public Variable transpose() {
+		if (!recordsGraph(this)) {
+			return new Variable(this.value.transpose(), false);
+		}
 		return new Variable(this.value.transpose(), new Computation(this) {
 
 			@Override
@@ -455,6 +648,9 @@ public class Variable {
 	}
 
 	public Variable transpose(int... permutation) {
+		if (!recordsGraph(this)) {
+			return new Variable(this.value.transpose(permutation), false);
+		}
 		return new Variable(this.value.transpose(permutation), new Computation(this) {
 
 			@Override
@@ -473,14 +669,151 @@ public class Variable {
 	}
 
 	public Variable dot(Tensor constant) {
+		if (!recordsGraph(this)) {
+			return new Variable(this.value.dot(constant), false);
+		}
 		return new Variable(this.value.dot(constant), new RightDotComputation(this, constant));
 	}
 
 	public Variable dot(Variable other) {
+		if (!recordsGraph(this, other)) {
+			return new Variable(this.value.dot(other.value), false);
+		}
 		return new Variable(this.value.dot(other.value), new RightDotComputation(this, other.value),
 				new LeftDotComputation(other, this.value));
 	}
 
+	public Variable conv1d(Variable weight) {
+		return conv1d(weight, 1);
+	}
+
+	public Variable conv1d(Variable weight, int stride) {
+		return conv1d(weight, stride, 0);
+	}
+
+	public Variable conv1d(Variable weight, int stride, int padding) {
+		return conv1d(weight, stride, padding, 1);
+	}
+
+	public Variable conv1d(Variable weight, int stride, int padding, int dilation) {
+		return conv1d(weight, stride, padding, dilation, 1);
+	}
+
+	public Variable conv1d(Variable weight, int stride, int padding, int dilation, int groups) {
+		Tensor resultValue = value.conv1d(weight.value, stride, padding, dilation, groups);
+		if (!recordsGraph(this, weight)) {
+			return new Variable(resultValue, false);
+		}
+		final int kernelWidth = weight.value.shape().get(2);
+		// The transposed convolution of the gradient may be shorter than the
+		// input, when the stride skips the last elements of the input.
+		final int outputPadding = value.shape().get(2) - ((resultValue.shape().get(2) - 1) * stride - 2 * padding
+				+ dilation * (kernelWidth - 1) + 1);
+		return new Variable(resultValue, new Computation(this, weight.value) {
+
+			@Override
+			protected Tensor backward(Tensor forwardGradient) {
+				return forwardGradient.convTranspose1d(weight.value, stride, padding, outputPadding, groups, dilation);
+			}
+		}, new Computation(weight, value) {
+
+			@Override
+			protected Tensor backward(Tensor forwardGradient) {
+				return Variable.this.value.conv1dWeightGradient(forwardGradient, kernelWidth, stride, padding, dilation,
+						groups);
+			}
+		});
+	}
+
+	public Variable conv2d(Variable weight) {
+		return conv2d(weight, new IntTuple2(1, 1));
+	}
+
+	public Variable conv2d(Variable weight, IntTuple2 stride) {
+		return conv2d(weight, stride, new IntTuple2(0, 0));
+	}
+
+	public Variable conv2d(Variable weight, IntTuple2 stride, IntTuple2 padding) {
+		return conv2d(weight, stride, padding, new IntTuple2(1, 1));
+	}
+
+	public Variable conv2d(Variable weight, IntTuple2 stride, IntTuple2 padding, IntTuple2 dilation) {
+		return conv2d(weight, stride, padding, dilation, 1);
+	}
+
+	public Variable conv2d(Variable weight, IntTuple2 stride, IntTuple2 padding, IntTuple2 dilation, int groups) {
+		Tensor resultValue = value.conv2d(weight.value, stride, padding, dilation, groups);
+		if (!recordsGraph(this, weight)) {
+			return new Variable(resultValue, false);
+		}
+		final IntTuple2 kernelSize = new IntTuple2(weight.value.shape().get(2), weight.value.shape().get(3));
+		final IntTuple2 outputPadding = new IntTuple2(
+				value.shape().get(2) - ((resultValue.shape().get(2) - 1) * stride.e0 - 2 * padding.e0
+						+ dilation.e0 * (kernelSize.e0 - 1) + 1),
+				value.shape().get(3) - ((resultValue.shape().get(3) - 1) * stride.e1 - 2 * padding.e1
+						+ dilation.e1 * (kernelSize.e1 - 1) + 1));
+		return new Variable(resultValue, new Computation(this, weight.value) {
+
+			@Override
+			protected Tensor backward(Tensor forwardGradient) {
+				return forwardGradient.convTranspose2d(weight.value, stride, padding, outputPadding, groups, dilation);
+			}
+		}, new Computation(weight, value) {
+
+			@Override
+			protected Tensor backward(Tensor forwardGradient) {
+				return Variable.this.value.conv2dWeightGradient(forwardGradient, kernelSize, stride, padding, dilation,
+						groups);
+			}
+		});
+	}
+
+	public Variable conv3d(Variable weight) {
+		return conv3d(weight, new IntTuple3(1, 1, 1));
+	}
+
+	public Variable conv3d(Variable weight, IntTuple3 stride) {
+		return conv3d(weight, stride, new IntTuple3(0, 0, 0));
+	}
+
+	public Variable conv3d(Variable weight, IntTuple3 stride, IntTuple3 padding) {
+		return conv3d(weight, stride, padding, new IntTuple3(1, 1, 1));
+	}
+
+	public Variable conv3d(Variable weight, IntTuple3 stride, IntTuple3 padding, IntTuple3 dilation) {
+		return conv3d(weight, stride, padding, dilation, 1);
+	}
+
+	public Variable conv3d(Variable weight, IntTuple3 stride, IntTuple3 padding, IntTuple3 dilation, int groups) {
+		Tensor resultValue = value.conv3d(weight.value, stride, padding, dilation, groups);
+		if (!recordsGraph(this, weight)) {
+			return new Variable(resultValue, false);
+		}
+		final IntTuple3 kernelSize = new IntTuple3(weight.value.shape().get(2), weight.value.shape().get(3),
+				weight.value.shape().get(4));
+		final IntTuple3 outputPadding = new IntTuple3(
+				value.shape().get(2) - ((resultValue.shape().get(2) - 1) * stride.e0 - 2 * padding.e0
+						+ dilation.e0 * (kernelSize.e0 - 1) + 1),
+				value.shape().get(3) - ((resultValue.shape().get(3) - 1) * stride.e1 - 2 * padding.e1
+						+ dilation.e1 * (kernelSize.e1 - 1) + 1),
+				value.shape().get(4) - ((resultValue.shape().get(4) - 1) * stride.e2 - 2 * padding.e2
+						+ dilation.e2 * (kernelSize.e2 - 1) + 1));
+		return new Variable(resultValue, new Computation(this, weight.value) {
+
+			@Override
+			protected Tensor backward(Tensor forwardGradient) {
+				return forwardGradient.convTranspose3d(weight.value, stride, padding, outputPadding, groups, dilation);
+			}
+		}, new Computation(weight, value) {
+
+			@Override
+			protected Tensor backward(Tensor forwardGradient) {
+				return Variable.this.value.conv3dWeightGradient(forwardGradient, kernelSize, stride, padding, dilation,
+						groups);
+			}
+		});
+	}
+
 	public Tensor value() {
 		return value;
 	}
@@ -489,12 +822,27 @@ public class Variable {
 		this.value = value;
 	}
 
+	/**
+	 * Returns the gradient accumulated by the backward passes, which is
+	 * allocated on the first call, so that the variables which are only used
+	 * for inference take no memory for it. Returns null if the variable
+	 * requires no gradient.
+	 */
 	public Tensor gradient() {
+		if (null == gradient && requiresGradient) {
+			gradient = new Tensor(value.device(), value.shape());
+			// The gradient is allocated in the backward pass, which may run in
+			// a BufferArena, but lives as long as this variable.
+			BufferArena.detach(gradient.storage());
+			BufferArena.detach(gradient.dimSizes());
+		}
 		return gradient;
 	}
 
 	public void zeroGradient() {
-		gradient.zeros();
+		if (null != gradient) {
+			gradient.zeros();
+		}
 	}
 
 	public boolean requiresGradient() {
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.cpu;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.zxg.ai.lnn.LnnException;
+import org.zxg.ai.lnn.opencl.Device;
+import org.zxg.ai.lnn.opencl.Kernel;
+
+/**
+ * A device which runs the kernels in Java on a fork/join pool, so it needs no
+ * OpenCL platform. The kernel of a type {@code a.b.XKernel} is implemented by
+ * the subclass {@code a.b.cpu.XKernel}, which works on the host buffers of the
+ * arrays.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class CpuDevice extends Device {
+
+	/**
+	 * The minimum count of cheap work items, such as elementwise operations,
+	 * done by one task.
+	 */
+	public static final int DEFAULT_GRAIN = 1 << 14;
+
+	/**
+	 * Returns the grain for work items which cost about {@code cost} cheap
+	 * operations each.
+	 */
+	public static int grain(int cost) {
+		return Math.max(1, DEFAULT_GRAIN / Math.max(1, cost));
+	}
+
+	@FunctionalInterface
+	public static interface Task {
+		void run(int begin, int end);
+	}
+
+	private final ForkJoinPool pool;
+	private final int parallelism;
+
+	public CpuDevice() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	public CpuDevice(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism < 1");
+		}
+		this.parallelism = parallelism;
+		this.pool = new ForkJoinPool(parallelism);
+	}
+
+	/**
+	 * Splits the processors of the host into {@code count} devices with their
+	 * own pools, so that work which is spread over several devices, such as a
+	 * {@link org.zxg.ai.lnn.nn.DataParallel} training, can run without OpenCL.
+	 */
+	public static List<CpuDevice> logicalDevices(int count) {
+		if (count < 1) {
+			throw new IllegalArgumentException("count < 1");
+		}
+		final int processors = Runtime.getRuntime().availableProcessors();
+		List<CpuDevice> devices = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			devices.add(new CpuDevice(Math.max(1, processors * (i + 1) / count - processors * i / count)));
+		}
+		return devices;
+	}
+
+	public int parallelism() {
+		return parallelism;
+	}
+
+	@Override
+	protected Kernel createKernel(Class<? extends Kernel> type) throws ReflectiveOperationException {
+		String name = type.getPackage().getName() + ".cpu." + type.getSimpleName();
+		Class<?> cpuType;
+		try {
+			cpuType = Class.forName(name, true, type.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			throw new LnnException("No CPU implementation of " + type.getName() + ".", e);
+		}
+		if (!type.isAssignableFrom(cpuType)) {
+			throw new LnnException(name + " is not a subclass of " + type.getName() + ".");
+		}
+		return (Kernel) cpuType.getDeclaredConstructor().newInstance();
+	}
+
+	/**
+	 * Runs the task over the range {@code [0, length)}, split into chunks of at
+	 * least {@link #DEFAULT_GRAIN} items.
+	 */
+	public void parallelFor(int length, Task task) {
+		parallelFor(length, DEFAULT_GRAIN, task);
+	}
+
+	/**
+	 * Runs the task over the range {@code [0, length)}, split into chunks of at
+	 * least {@code grain} items, which are run in parallel on the pool of this
+	 * device.
+	 */
+	public void parallelFor(int length, int grain, Task task) {
+		if (length <= 0) {
+			return;
+		}
+		if (parallelism == 1 || length <= grain) {
+			task.run(0, length);
+			return;
+		}
+		final int chunk = Math.max(Math.max(grain, 1), (length + parallelism * 4 - 1) / (parallelism * 4));
+		pool.invoke(new RangeAction(task, 0, length, chunk));
+	}
+
+	private static final class RangeAction extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Task task;
+		private final int begin;
+		private final int end;
+		private final int chunk;
+
+		RangeAction(Task task, int begin, int end, int chunk) {
+			this.task = task;
+			this.begin = begin;
+			this.end = end;
+			this.chunk = chunk;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - begin <= chunk) {
+				task.run(begin, end);
+			} else {
+				int middle = (begin + end) >>> 1;
+				invokeAll(new RangeAction(task, begin, middle, chunk), new RangeAction(task, middle, end, chunk));
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		super.close();
+		pool.shutdown();
+	}
+}
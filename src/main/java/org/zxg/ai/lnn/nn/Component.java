@@ -22,6 +22,7 @@ import java.util.Map.Entry;
 import java.util.function.Consumer;
 
 import org.zxg.ai.lnn.autograd.Constant;
+import org.zxg.ai.lnn.autograd.GradientMode;
 import org.zxg.ai.lnn.autograd.Variable;
 import org.zxg.ai.lnn.tensor.Tensor;
 
@@ -40,12 +41,22 @@ public interface Component {
 
 	Iterable<Component> components();
 
+	/**
+	 * Computes the output for tensors, by default through
+	 * {@link #forward(Variable...)} with the {@link GradientMode} disabled, since
+	 * the graph could not be used for backward anyway.
+	 */
 	default Tensor[] forward(Tensor... input) {
 		Variable[] variables = new Variable[input.length];
 		for (int i = 0; i < input.length; i++) {
 			variables[i] = new Constant(input[i]);
 		}
-		variables = forward(variables);
+		GradientMode mode = GradientMode.noGradient();
+		try {
+			variables = forward(variables);
+		} finally {
+			mode.close();
+		}
 		Tensor[] output = new Tensor[variables.length];
 		for (int i = 0; i < output.length; i++) {
 			output[i] = variables[i].value();
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.nn;
+
+import org.zxg.ai.lnn.autograd.Variable;
+import org.zxg.ai.lnn.opencl.Device;
+import org.zxg.ai.lnn.tensor.Tensor;
+import org.zxg.ai.lnn.tuple.IntTuple2;
+
+/**
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class Conv2d extends StatefulLayer {
+
+	private int inChannels;
+	private int outChannels;
+	private IntTuple2 kernelSize;
+	private IntTuple2 stride;
+	private IntTuple2 padding;
+	private IntTuple2 dilation;
+	private int groups;
+	private Variable weight;
+	private Variable bias;
+
+	public Conv2d(int inChannels, int outChannels, IntTuple2 kernelSize) {
+		this(inChannels, outChannels, kernelSize, new IntTuple2(1, 1), new IntTuple2(0, 0));
+	}
+
+	public Conv2d(int inChannels, int outChannels, IntTuple2 kernelSize, IntTuple2 stride, IntTuple2 padding) {
+		this(inChannels, outChannels, kernelSize, stride, padding, new IntTuple2(1, 1), 1, true);
+	}
+
+	public Conv2d(int inChannels, int outChannels, IntTuple2 kernelSize, IntTuple2 stride, IntTuple2 padding,
+			IntTuple2 dilation, int groups, boolean bias) {
+		this(Tensor.defaultDevice(), inChannels, outChannels, kernelSize, stride, padding, dilation, groups, bias);
+	}
+
+	public Conv2d(Device device, int inChannels, int outChannels, IntTuple2 kernelSize, IntTuple2 stride,
+			IntTuple2 padding, IntTuple2 dilation, int groups, boolean bias) {
+		this(Tensor.defaultPrecision(), device, inChannels, outChannels, kernelSize, stride, padding, dilation, groups,
+				bias);
+	}
+
+	public Conv2d(float precision, Device device, int inChannels, int outChannels, IntTuple2 kernelSize,
+			IntTuple2 stride, IntTuple2 padding, IntTuple2 dilation, int groups, boolean bias) {
+		if (inChannels % groups != 0 || outChannels % groups != 0) {
+			throw new IllegalArgumentException("The channels are not divisible by the groups.");
+		}
+		this.inChannels = inChannels;
+		this.outChannels = outChannels;
+		this.kernelSize = kernelSize;
+		this.stride = stride;
+		this.padding = padding;
+		this.dilation = dilation;
+		this.groups = groups;
+		this.weight = new Variable(new Tensor(precision, device, outChannels, inChannels / groups,
+				kernelSize.e0, kernelSize.e1));
+		registerParameter("weight", this.weight);
+		if (bias) {
+			this.bias = new Variable(new Tensor(precision, device, outChannels));
+			registerParameter("bias", this.bias);
+		}
+	}
+
+	@Override
+	public Variable[] forward(Variable... input) {
+		Variable output = input[0].conv2d(this.weight, this.stride, this.padding, this.dilation, this.groups);
+		if (null != this.bias) {
+			output = output.add(this.bias.reshape(outChannels, 1, 1));
+		}
+		return new Variable[] { output };
+	}
+
+	@Override
+	public Tensor[] forward(Tensor... input) {
+		Tensor output = input[0].conv2d(this.weight.value(), this.stride, this.padding, this.dilation, this.groups);
+		if (null != this.bias) {
+			output = output.add(this.bias.value().reshape(outChannels, 1, 1));
+		}
+		return new Tensor[] { output };
+	}
+
+	@Override
+	protected void appendExtraRepresentation(StringBuilder builder) {
+		builder.append("inChannels=");
+		builder.append(this.inChannels);
+		builder.append(", outChannels=");
+		builder.append(this.outChannels);
+		builder.append(", kernelSize=");
+		builder.append(this.kernelSize);
+		builder.append(", stride=");
+		builder.append(this.stride);
+		builder.append(", padding=");
+		builder.append(this.padding);
+		builder.append(", dilation=");
+		builder.append(this.dilation);
+		builder.append(", groups=");
+		builder.append(this.groups);
+		builder.append(", bias=");
+		builder.append(null != this.bias);
+	}
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.nn;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.zxg.ai.lnn.LnnException;
+import org.zxg.ai.lnn.autograd.Constant;
+import org.zxg.ai.lnn.autograd.Variable;
+import org.zxg.ai.lnn.opencl.Device;
+import org.zxg.ai.lnn.optimizer.Optimizer;
+import org.zxg.ai.lnn.tensor.Tensor;
+
+/**
+ * Trains a component on several devices at once. Each device has a replica
+ * of the component, and each batch is split along its first axis into a
+ * shard per device. The replicas run the forward and backward passes of
+ * their shards concurrently, then their gradients are summed, so that they
+ * are the gradients of the whole batch.
+ * <p>
+ * The replica on the first device is the {@link #module()}, which the
+ * optimizer must update. The other replicas get its parameters after each
+ * step.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class DataParallel implements Closeable {
+
+	private final List<Device> devices;
+	private final List<Component> replicas = new ArrayList<>();
+	private final List<List<Variable>> replicaParameters = new ArrayList<>();
+	private final ExecutorService executor;
+
+	/**
+	 * @param factory creates the replica of the component on a device; the
+	 *                replicas must have the same parameters in the same order
+	 */
+	public DataParallel(List<? extends Device> devices, Function<Device, Component> factory) {
+		if (devices.isEmpty()) {
+			throw new IllegalArgumentException("No device.");
+		}
+		this.devices = Collections.unmodifiableList(new ArrayList<>(devices));
+		for (Device device : this.devices) {
+			Component replica = factory.apply(device);
+			List<Variable> parameters = new ArrayList<>();
+			for (Variable parameter : replica.parameters()) {
+				parameters.add(parameter);
+			}
+			if (!replicaParameters.isEmpty()) {
+				List<Variable> masterParameters = replicaParameters.get(0);
+				if (masterParameters.size() != parameters.size()) {
+					throw new LnnException("The replicas have different parameters.");
+				}
+				for (int i = 0; i < parameters.size(); i++) {
+					masterParameters.get(i).value().checkSameShape(parameters.get(i).value());
+				}
+			}
+			replicas.add(replica);
+			replicaParameters.add(parameters);
+		}
+		this.executor = Executors.newFixedThreadPool(this.devices.size(), runnable -> {
+			Thread thread = new Thread(runnable, "data-parallel");
+			thread.setDaemon(true);
+			return thread;
+		});
+		broadcastParameters();
+	}
+
+	public List<Device> devices() {
+		return devices;
+	}
+
+	/**
+	 * Returns the replica on the first device, whose parameters are the ones
+	 * to optimize and to save.
+	 */
+	public Component module() {
+		return replicas.get(0);
+	}
+
+	public Component replica(int index) {
+		return replicas.get(index);
+	}
+
+	/**
+	 * Runs a training step: the forward and backward passes of the batch, the
+	 * step of the optimizer of the {@link #module()}, and the copy of the new
+	 * parameters to the other replicas.
+	 *
+	 * @return the sum of the elements of the loss of the whole batch
+	 */
+	public float train(Tensor input, Tensor target, BiFunction<Variable, Tensor, Variable> loss,
+			Optimizer optimizer) {
+		float lossSum = forwardBackward(input, target, loss);
+		optimizer.step();
+		broadcastParameters();
+		return lossSum;
+	}
+
+	/**
+	 * Splits the batch into a shard per device, runs the forward and backward
+	 * passes of the shards concurrently, and all-reduces the gradients. The
+	 * gradients of the replicas are replaced, not accumulated.
+	 * <p>
+	 * The backward pass starts from a gradient of ones, so the gradients are
+	 * those of the sum of the elements of the loss, as with
+	 * {@code loss.backward(null)} on a single device.
+	 *
+	 * @param loss computes the loss of the output of a replica for its shard of
+	 *             the target
+	 * @return the sum of the elements of the loss of the whole batch
+	 */
+	public float forwardBackward(Tensor input, Tensor target, BiFunction<Variable, Tensor, Variable> loss) {
+		final int batchSize = input.shape().get(0);
+		if (target.shape().get(0) != batchSize) {
+			throw new LnnException("The input and the target have different batch sizes.");
+		}
+		final int shardCount = Math.min(devices.size(), batchSize);
+		List<Future<Float>> futures = new ArrayList<>(shardCount);
+		for (int i = 0; i < shardCount; i++) {
+			final int begin = (int) ((long) batchSize * i / shardCount);
+			final int end = (int) ((long) batchSize * (i + 1) / shardCount);
+			final Device device = devices.get(i);
+			final Component replica = replicas.get(i);
+			final Tensor shardInput = input.slice(begin, end).to(device);
+			final Tensor shardTarget = target.slice(begin, end).to(device);
+			futures.add(executor.submit(() -> {
+				replica.zeroGradient();
+				Variable output = replica.forward(new Constant(shardInput))[0];
+				Variable shardLoss = loss.apply(output, shardTarget);
+				shardLoss.backward(null);
+				return shardLoss.value().sum().scalar();
+			}));
+		}
+		float lossSum = 0;
+		for (Future<Float> future : futures) {
+			try {
+				lossSum += future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new LnnException(e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				throw new LnnException(cause);
+			}
+		}
+		allReduceGradients(shardCount);
+		return lossSum;
+	}
+
+	/**
+	 * Sums the gradients of the first {@code replicaCount} replicas, and gives
+	 * the sums to all the replicas. The gradients are moved between the devices
+	 * through the host.
+	 */
+	public void allReduceGradients(int replicaCount) {
+		List<Variable> masterParameters = replicaParameters.get(0);
+		for (int p = 0; p < masterParameters.size(); p++) {
+			Tensor sum = masterParameters.get(p).gradient();
+			if (null == sum) {
+				continue;
+			}
+			for (int r = 1; r < replicaCount; r++) {
+				Tensor gradient = replicaParameters.get(r).get(p).gradient();
+				Tensor movedGradient = gradient.to(sum.device());
+				sum.addi(movedGradient);
+				if (movedGradient != gradient) {
+					movedGradient.close();
+				}
+			}
+			for (int r = 1; r < replicas.size(); r++) {
+				replicaParameters.get(r).get(p).gradient().copyFrom(sum);
+			}
+		}
+	}
+
+	/**
+	 * Copies the parameters of the {@link #module()} to the other replicas.
+	 */
+	public void broadcastParameters() {
+		List<Variable> masterParameters = replicaParameters.get(0);
+		for (int r = 1; r < replicas.size(); r++) {
+			List<Variable> parameters = replicaParameters.get(r);
+			for (int p = 0; p < masterParameters.size(); p++) {
+				parameters.get(p).value().copyFrom(masterParameters.get(p).value());
+			}
+		}
+	}
+
+	/**
+	 * Stops the threads which drive the devices. The devices and the replicas
+	 * are not closed.
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+	}
+}
@@ -57,9 +57,7 @@ public class Linear extends StatefulLayer {
 	public Variable[] forward(Variable... input) {
 		Variable output = input[0].dot(this.weight);
 		if (null != this.bias) {
-			Tensor outputTensor = output.value();
-			output = output
-					.add(this.bias.expandDims(0, outputTensor.ndim() - 1).broadcastTo(outputTensor.shape().clone()));
+			output = output.add(this.bias);
 		}
 		return new Variable[] { output };
 	}
@@ -68,7 +66,7 @@ public class Linear extends StatefulLayer {
 	public Tensor[] forward(Tensor... input) {
 		Tensor output = input[0].dot(this.weight.value());
 		if (null != this.bias) {
-			output = output.add(this.bias.value().expandDims(0, output.ndim() - 1).broadcastTo(output.shape().clone()));
+			output = output.add(this.bias.value());
 		}
 		return new Tensor[] { output };
 	}
@@ -64,7 +64,7 @@ public class StatefulLayer extends Layer {
 		if (name.contains(".")) {
 			throw new LnnException("Parameter name can not contain \".\".");
 		}
-		if (null == parameter.gradient()) {
+		if (!parameter.requiresGradient()) {
 			throw new LnnException("Parameter has no gradient.");
 		}
 		state.put(name, parameter);
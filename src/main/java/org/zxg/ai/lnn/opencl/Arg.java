@@ -28,6 +28,14 @@ public abstract class Arg implements Closeable {
 
 	public abstract void input(CLKernel kernel, CLCommandQueue queue);
 
+	/**
+	 * Puts the argument to the kernel of a calling at a {@link Device}, whose
+	 * buffers can be used by the argument.
+	 */
+	public void input(CLKernel kernel, CLCommandQueue queue, Device device) {
+		input(kernel, queue);
+	}
+
 	public void output(CLCommandQueue queue) {
 	}
 
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.opencl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.zxg.ai.lnn.LnnException;
+
+/**
+ * Closes together all the arrays created by a thread while the arena is open,
+ * such as the intermediate tensors of a training step, so that their buffers
+ * go back to the {@link BufferPool} at once. The arrays which must outlive the
+ * arena are kept with {@link #keep(Closeable)}. Other resources, such as the
+ * references of tensor views to shared data, can be registered too. Arenas can
+ * be nested, and must be closed in the reverse order of their opening.
+ *
+ * <pre>
+ * try (BufferArena arena = BufferArena.open()) {
+ * 	Variable loss = net.forward(input);
+ * 	loss.backward();
+ * 	optimizer.step();
+ * }
+ * </pre>
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public final class BufferArena implements Closeable {
+
+	private static final ThreadLocal<BufferArena> CURRENT = new ThreadLocal<>();
+
+	private final BufferArena parent;
+	private final Set<Closeable> resources = Collections.newSetFromMap(new IdentityHashMap<>());
+	private boolean closed;
+
+	private BufferArena(BufferArena parent) {
+		this.parent = parent;
+	}
+
+	public static BufferArena open() {
+		BufferArena arena = new BufferArena(CURRENT.get());
+		CURRENT.set(arena);
+		return arena;
+	}
+
+	/**
+	 * Returns the innermost open arena of the current thread, or null.
+	 */
+	public static BufferArena current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Registers the resource to be closed with the innermost open arena of the
+	 * current thread, if any. The arrays register themselves when they are
+	 * allocated.
+	 */
+	public static void register(Closeable resource) {
+		BufferArena arena = CURRENT.get();
+		if (null != arena) {
+			arena.resources.add(resource);
+		}
+	}
+
+	/**
+	 * Takes the resource out of the arena of the current thread which
+	 * registered it, for an array which is owned by a longer-lived object, such
+	 * as a cache, and is closed with that object.
+	 */
+	public static void detach(Closeable resource) {
+		BufferArena arena = CURRENT.get();
+		if (null != arena) {
+			arena.resources.remove(resource);
+		}
+	}
+
+	/**
+	 * Moves the array, which replaces the previous array as the data of an
+	 * object, to the open arena of the current thread which holds the previous
+	 * array, or takes it out of the arenas if none does, so that the array
+	 * lives as long as the object.
+	 */
+	public static void replace(BufferArray previous, BufferArray array) {
+		BufferArena current = CURRENT.get();
+		if (null == current) {
+			return;
+		}
+		current.resources.remove(array);
+		for (BufferArena arena = current; null != arena; arena = arena.parent) {
+			if (arena.resources.contains(previous)) {
+				arena.resources.add(array);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Keeps the resource from being closed with this arena. The resource is
+	 * handed to the enclosing arena, if any.
+	 */
+	public void keep(Closeable resource) {
+		if (resources.remove(resource) && null != parent) {
+			parent.resources.add(resource);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		if (CURRENT.get() != this) {
+			throw new LnnException("Arenas must be closed in the reverse order of their opening.");
+		}
+		closed = true;
+		if (null != parent) {
+			CURRENT.set(parent);
+		} else {
+			CURRENT.remove();
+		}
+		try {
+			for (Closeable resource : resources) {
+				resource.close();
+			}
+		} catch (IOException e) {
+			throw new LnnException(e);
+		} finally {
+			resources.clear();
+		}
+	}
+}
@@ -34,7 +34,17 @@ public class BufferArg extends Arg {
 
 	public final Type type;
 	private Buffer directBuffer;
+	private BufferArray array;
 	private CLBuffer<?> clBuffer;
+	private boolean resident;
+
+	public BufferArg(BufferArray array, Type type) {
+		if (null == array || null == type) {
+			throw new NullPointerException();
+		}
+		this.array = array;
+		this.type = type;
+	}
 
 	public BufferArg(Buffer directBuffer, Type type) {
 		if (null == directBuffer || null == type) {
@@ -55,6 +65,21 @@ public class BufferArg extends Arg {
 		return type == Type.OUT || type == Type.IN_OUT;
 	}
 
+	/**
+	 * Returns the array or the direct buffer which is passed.
+	 */
+	Object target() {
+		return null != array ? array : directBuffer;
+	}
+
+	/**
+	 * Returns the array whose device buffer is passed, or null if the argument
+	 * is copied to a temporary buffer of the call.
+	 */
+	BufferArray residentArray() {
+		return resident ? array : null;
+	}
+
 	protected static int argTypeToFlags(Type type) {
 		switch (type) {
 		case IN:
@@ -68,6 +93,10 @@ public class BufferArg extends Arg {
 
 	@Override
 	public void input(CLKernel kernel, CLCommandQueue queue) {
+		if (null != array) {
+			array.touchHost();
+			directBuffer = array.buffer();
+		}
 		clBuffer = kernel.getContext().createBuffer(directBuffer, argTypeToFlags(type));
 		kernel.putArg(clBuffer);
 		if (isIn()) {
@@ -75,17 +104,35 @@ public class BufferArg extends Arg {
 		}
 	}
 
+	@Override
+	public void input(CLKernel kernel, CLCommandQueue queue, Device device) {
+		if (null != array && null != device) {
+			resident = true;
+			clBuffer = array.deviceBuffer(device, queue, isIn());
+			kernel.putArg(clBuffer);
+		} else {
+			input(kernel, queue);
+		}
+	}
+
 	@Override
 	public void output(CLCommandQueue queue) {
 		if (isOut()) {
-			queue.putReadBuffer(clBuffer, false);
+			if (resident) {
+				array.deviceModified();
+			} else {
+				queue.putReadBuffer(clBuffer, false);
+			}
 		}
 	}
 
 	@Override
 	public void close() {
-		clBuffer.release();
+		if (!resident) {
+			clBuffer.release();
+		}
 		clBuffer = null;
 		directBuffer = null;
+		array = null;
 	}
 }
@@ -17,14 +17,248 @@
 package org.zxg.ai.lnn.opencl;
 
 import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.io.Closeable;
+
+import org.zxg.ai.lnn.LnnException;
+
+import com.jogamp.opencl.CLBuffer;
+import com.jogamp.opencl.CLCommandQueue;
+import com.jogamp.opencl.CLException;
 
 /**
+ * An array in a direct buffer, which can also be kept in a buffer of a
+ * {@link Device}. When an array is passed to a kernel as a
+ * {@link BufferArray}, its data stays on the device after the call, and the
+ * host buffer is only synchronized when the data is read or written on the
+ * host.
+ * <p>
+ * The host buffer comes from the {@link BufferPool}, and goes back to it when
+ * the array is closed, directly or by a {@link BufferArena}.
+ * <p>
+ * On an asynchronous {@link Device}, an array remembers the event of the last
+ * call which uses its device buffer. The following calls wait for it on the
+ * device, and the host only waits for it when it reads, writes or frees the
+ * host buffer.
+ *
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
-public abstract class BufferArray {
+public abstract class BufferArray implements Closeable {
 
+	private Device device;
+	private CLBuffer<?> clBuffer;
+	/** The data on the device is newer than the data on the host. */
+	private volatile boolean hostStale;
+	/** The data on the host is newer than the data on the device. */
+	private boolean deviceStale;
+	/** The last asynchronous call which uses the device buffer, or null. */
+	private DeviceEvent event;
+	private ByteBuffer pooledBuffer;
+	private MemoryTracker.TrackedArray trackedArray;
+	private boolean closed;
+
+	/**
+	 * Allocates the host buffer of the array from the {@link BufferPool}.
+	 *
+	 * @param zero whether the buffer must be filled with zeros, otherwise its
+	 *             content is undefined
+	 * @return a buffer of exactly the given bytes in the native byte order
+	 */
+	protected final ByteBuffer allocate(int bytes, boolean zero) {
+		pooledBuffer = BufferPool.acquire(bytes, zero);
+		trackedArray = MemoryTracker.allocated(this, bytes);
+		BufferArena.register(this);
+		ByteBuffer buffer = pooledBuffer.duplicate();
+		buffer.clear();
+		buffer.limit(bytes);
+		return buffer.slice().order(ByteOrder.nativeOrder());
+	}
+
+	/**
+	 * Returns the host buffer without synchronizing it with the device.
+	 */
 	protected abstract Buffer buffer();
 
+	/**
+	 * Makes the host buffer up to date before it is read on the host.
+	 */
+	protected final void syncHost() {
+		if (closed) {
+			throw new LnnException("The array has been closed.");
+		}
+		if (hostStale) {
+			synchronized (this) {
+				if (hostStale) {
+					await();
+					try {
+						device.queue().putReadBuffer(clBuffer, true);
+					} catch (CLException e) {
+						throw new LnnCLException(e);
+					}
+					hostStale = false;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Makes the host buffer up to date before it is written on the host, and
+	 * marks the device buffer as out of date.
+	 */
+	protected final void touchHost() {
+		syncHost();
+		if (null != clBuffer) {
+			// An upload of the host buffer may still be reading it.
+			await();
+			deviceStale = true;
+		}
+	}
+
+	/**
+	 * Returns the buffer of this array on the device, creating it if needed. If
+	 * the array lives on another device, its data is moved through the host.
+	 *
+	 * @param read whether the kernel reads the array, in which case the data
+	 *             written on the host is uploaded first
+	 */
+	synchronized CLBuffer<?> deviceBuffer(Device device, CLCommandQueue queue, boolean read) {
+		if (closed) {
+			throw new LnnException("The array has been closed.");
+		}
+		if (this.device != device) {
+			releaseDeviceBuffer();
+		}
+		if (null == clBuffer) {
+			clBuffer = device.createResidentBuffer(this);
+			this.device = device;
+			deviceStale = true;
+		}
+		if (read && deviceStale) {
+			queue.putWriteBuffer(clBuffer, false);
+			deviceStale = false;
+		}
+		return clBuffer;
+	}
+
+	/**
+	 * Returns the event of the last asynchronous call which uses the device
+	 * buffer with a reference for the caller, who must release it, or null.
+	 */
+	synchronized DeviceEvent retainEvent() {
+		if (null == event) {
+			return null;
+		}
+		event.retain();
+		return event;
+	}
+
+	/**
+	 * Records an asynchronous call which uses the device buffer.
+	 */
+	synchronized void event(DeviceEvent event) {
+		event.retain();
+		if (null != this.event) {
+			this.event.release();
+		}
+		this.event = event;
+	}
+
+	/**
+	 * Blocks until the asynchronous calls which use this array are complete.
+	 * The data of the array is only available on the host after that, which
+	 * the methods reading it on the host take care of.
+	 */
+	public synchronized void await() {
+		if (null != event) {
+			event.await();
+			event.release();
+			event = null;
+		}
+	}
+
+	/**
+	 * Marks the data on the device as the newest one after a kernel wrote it.
+	 */
+	synchronized void deviceModified() {
+		hostStale = true;
+		deviceStale = false;
+	}
+
+	/**
+	 * Copies the data of the source array on the device when the source array
+	 * has newer data on its device than on the host.
+	 *
+	 * @return whether the data has been copied
+	 */
+	protected boolean copyOnDevice(BufferArray source) {
+		synchronized (source) {
+			if (!source.hostStale) {
+				return false;
+			}
+			source.await();
+			await();
+			Device device = source.device;
+			CLCommandQueue queue = device.queue();
+			try {
+				CLBuffer<?> destination = deviceBuffer(device, queue, false);
+				queue.putCopyBuffer(source.clBuffer, destination).finish();
+			} catch (CLException e) {
+				throw new LnnCLException(e);
+			}
+			deviceModified();
+			return true;
+		}
+	}
+
+	/**
+	 * Returns the device which keeps the data of this array, or null.
+	 */
+	public Device device() {
+		return device;
+	}
+
+	/**
+	 * Copies the data back to the host and releases the buffer on the device.
+	 */
+	public synchronized void releaseDeviceBuffer() {
+		if (null != clBuffer) {
+			syncHost();
+			device.releaseResidentBuffer(this, clBuffer);
+			clBuffer = null;
+			device = null;
+			deviceStale = false;
+		}
+	}
+
+	/**
+	 * Releases the buffer of this array on the device without reading it back,
+	 * and gives the host buffer back to the {@link BufferPool}. The array must
+	 * not be used any more. Closing a closed array has no effect.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			await();
+			closed = true;
+			if (null != clBuffer) {
+				device.releaseResidentBuffer(this, clBuffer);
+				clBuffer = null;
+				device = null;
+			}
+		}
+		if (null != trackedArray) {
+			MemoryTracker.closed(trackedArray);
+			trackedArray = null;
+		}
+		BufferPool.release(pooledBuffer);
+		pooledBuffer = null;
+	}
+
 	public void print() {
 		System.out.println(toString());
 	}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.opencl;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recycles the direct buffers of the arrays. The buffers are grouped into
+ * size classes of powers of two bytes, and a buffer released by a closed
+ * array is handed to the next array of the same size class, instead of
+ * waiting for the garbage collector to free it. The pool keeps at most
+ * {@link #maxPooledBytes()} bytes of free buffers.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public final class BufferPool {
+
+	public static final int MIN_SIZE_CLASS = 6;
+	public static final int MAX_SIZE_CLASS = 30;
+	public static final long DEFAULT_MAX_POOLED_BYTES = 256L << 20;
+
+	private static final ByteBuffer ZEROS = ByteBuffer.allocateDirect(1 << 16);
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static final ConcurrentLinkedDeque<ByteBuffer>[] freeBuffers = new ConcurrentLinkedDeque[MAX_SIZE_CLASS
+			+ 1];
+	private static volatile long maxPooledBytes = DEFAULT_MAX_POOLED_BYTES;
+	private static final AtomicLong pooledBytes = new AtomicLong();
+	private static final AtomicLong outstandingBytes = new AtomicLong();
+	private static final AtomicLong hits = new AtomicLong();
+	private static final AtomicLong misses = new AtomicLong();
+
+	static {
+		for (int i = MIN_SIZE_CLASS; i <= MAX_SIZE_CLASS; i++) {
+			freeBuffers[i] = new ConcurrentLinkedDeque<>();
+		}
+	}
+
+	private BufferPool() {
+	}
+
+	private static int sizeClass(int bytes) {
+		if (bytes <= 1 << MIN_SIZE_CLASS) {
+			return MIN_SIZE_CLASS;
+		}
+		return 32 - Integer.numberOfLeadingZeros(bytes - 1);
+	}
+
+	/**
+	 * Returns a direct buffer of at least the given bytes, whose first bytes
+	 * are zeros if requested. The buffers larger than the greatest size class
+	 * are not pooled.
+	 */
+	static ByteBuffer acquire(int bytes, boolean zero) {
+		final int sizeClass = sizeClass(bytes);
+		if (sizeClass > MAX_SIZE_CLASS) {
+			misses.incrementAndGet();
+			outstandingBytes.addAndGet(bytes);
+			return ByteBuffer.allocateDirect(bytes);
+		}
+		final int capacity = 1 << sizeClass;
+		outstandingBytes.addAndGet(capacity);
+		ByteBuffer buffer = freeBuffers[sizeClass].pollFirst();
+		if (null == buffer) {
+			misses.incrementAndGet();
+			return ByteBuffer.allocateDirect(capacity);
+		}
+		hits.incrementAndGet();
+		pooledBytes.addAndGet(-capacity);
+		if (zero) {
+			fillZeros(buffer, bytes);
+		}
+		return buffer;
+	}
+
+	private static void fillZeros(ByteBuffer buffer, int bytes) {
+		ByteBuffer destination = buffer.duplicate();
+		destination.clear();
+		while (destination.position() < bytes) {
+			ByteBuffer zeros = ZEROS.duplicate();
+			zeros.limit(Math.min(zeros.capacity(), bytes - destination.position()));
+			destination.put(zeros);
+		}
+	}
+
+	/**
+	 * Gives back a buffer returned by {@link #acquire(int, boolean)}, which
+	 * must not be used any more.
+	 */
+	static void release(ByteBuffer buffer) {
+		final int capacity = buffer.capacity();
+		final int sizeClass = sizeClass(capacity);
+		outstandingBytes.addAndGet(-capacity);
+		if (sizeClass > MAX_SIZE_CLASS || capacity != 1 << sizeClass) {
+			return;
+		}
+		if (pooledBytes.addAndGet(capacity) > maxPooledBytes) {
+			pooledBytes.addAndGet(-capacity);
+			return;
+		}
+		freeBuffers[sizeClass].offerFirst(buffer);
+	}
+
+	public static long maxPooledBytes() {
+		return maxPooledBytes;
+	}
+
+	public static void maxPooledBytes(long maxPooledBytes) {
+		BufferPool.maxPooledBytes = maxPooledBytes;
+		if (pooledBytes.get() > maxPooledBytes) {
+			clear();
+		}
+	}
+
+	/**
+	 * Drops the free buffers of the pool, which are then freed by the garbage
+	 * collector.
+	 */
+	public static void clear() {
+		for (int i = MIN_SIZE_CLASS; i <= MAX_SIZE_CLASS; i++) {
+			ByteBuffer buffer;
+			while ((buffer = freeBuffers[i].pollFirst()) != null) {
+				pooledBytes.addAndGet(-buffer.capacity());
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of the allocations which reused a pooled buffer.
+	 */
+	public static long hits() {
+		return hits.get();
+	}
+
+	/**
+	 * Returns the number of the allocations which allocated a new buffer.
+	 */
+	public static long misses() {
+		return misses.get();
+	}
+
+	/**
+	 * Returns the bytes of the free buffers kept by the pool.
+	 */
+	public static long pooledBytes() {
+		return pooledBytes.get();
+	}
+
+	/**
+	 * Returns the bytes of the buffers held by the arrays which have not been
+	 * closed, including the arrays left to the garbage collector.
+	 */
+	public static long outstandingBytes() {
+		return outstandingBytes.get();
+	}
+}
@@ -17,11 +17,16 @@
 package org.zxg.ai.lnn.opencl;
 
 import java.nio.Buffer;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import com.jogamp.opencl.CLCommandQueue;
 import com.jogamp.opencl.CLDevice;
+import com.jogamp.opencl.CLEvent;
+import com.jogamp.opencl.CLEventList;
 import com.jogamp.opencl.CLException;
 import com.jogamp.opencl.CLKernel;
 import com.jogamp.opencl.CLProgram;
@@ -31,17 +36,27 @@ import com.jogamp.opencl.CLProgram;
  */
 public class Calling {
 
+	private Program owner;
 	private CLProgram program;
 	private String function;
 	private List<Arg> args = new LinkedList<>();
 	private List<Range> ranges = new LinkedList<>();
 	private CLDevice device;
+	private Device residentDevice;
+	private CLCommandQueue queue;
+	private String name;
+	private LocalSizeTuner localSizeTuner;
 
 	public Calling(CLProgram program, String function) {
 		this.program = program;
 		this.function = function;
 	}
 
+	Calling(Program owner, String function) {
+		this(owner.clProgram(), function);
+		this.owner = owner;
+	}
+
 	public Calling arg(Arg arg) {
 		this.args.add(arg);
 		return this;
@@ -88,7 +103,7 @@ public class Calling {
 	}
 
 	public Calling arg(BufferArray array, BufferArg.Type type) {
-		return arg(array.buffer(), type);
+		return arg(new BufferArg(array, type));
 	}
 
 	public Calling in(BufferArray array) {
@@ -111,6 +126,19 @@ public class Calling {
 		return arg(new CacheArg(type, number));
 	}
 
+	public Calling local(CacheArg.Type type, int number) {
+		return arg(new LocalArg(type, number));
+	}
+
+	/**
+	 * Names the calling, usually after its kernel class. Only named callings
+	 * have their local sizes tuned.
+	 */
+	public Calling name(String name) {
+		this.name = name;
+		return this;
+	}
+
 	public Calling pass(Range range) {
 		this.ranges.add(range);
 		return this;
@@ -121,24 +149,127 @@ public class Calling {
 			throw new LnnCLException();
 		}
 		this.device = device;
+		this.residentDevice = null;
+		this.queue = null;
+		this.localSizeTuner = null;
 		return this;
 	}
 
+	/**
+	 * Calls at the device with its command queue. The {@link BufferArray}
+	 * arguments are kept on the device after the call.
+	 */
+	public Calling at(Device device) throws LnnCLException {
+		at(device.clDevice);
+		this.residentDevice = device;
+		this.queue = device.queue();
+		this.localSizeTuner = device.localSizeTuner();
+		return this;
+	}
+
+	/**
+	 * Whether the local sizes of the range can be tuned, which launches the
+	 * kernel many times, so no buffer may be both read and written, whether by
+	 * one argument or by an input and an output argument passing it twice.
+	 */
+	private boolean tunable(Range range) {
+		if (null == localSizeTuner || null == name || null != range.localSize()) {
+			return false;
+		}
+		final Set<Object> read = Collections.newSetFromMap(new IdentityHashMap<>());
+		final Set<Object> written = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (Arg arg : args) {
+			if (arg instanceof BufferArg) {
+				BufferArg bufferArg = (BufferArg) arg;
+				if (bufferArg.isIn()) {
+					read.add(bufferArg.target());
+				}
+				if (bufferArg.isOut()) {
+					written.add(bufferArg.target());
+				}
+			}
+		}
+		for (Object buffer : written) {
+			if (read.contains(buffer)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Whether the call can return without waiting for the device, which needs
+	 * an asynchronous device, and all the arrays kept on it so that nothing has
+	 * to be read back after the call.
+	 */
+	private boolean isAsync() {
+		if (null == residentDevice || !residentDevice.async()) {
+			return false;
+		}
+		boolean hasArray = false;
+		for (Arg arg : args) {
+			if (arg instanceof BufferArg) {
+				if (null == ((BufferArg) arg).residentArray()) {
+					return false;
+				}
+				hasArray = true;
+			}
+		}
+		return hasArray;
+	}
+
+	/**
+	 * Makes the queue wait for the asynchronous calls which use the resident
+	 * arrays, which may have been enqueued to the queues of other threads.
+	 */
+	private void waitForResidentArrays(CLCommandQueue queue) {
+		List<DeviceEvent> events = new LinkedList<>();
+		for (Arg arg : args) {
+			if (arg instanceof BufferArg) {
+				BufferArray array = ((BufferArg) arg).residentArray();
+				DeviceEvent event = null != array ? array.retainEvent() : null;
+				if (null != event) {
+					events.add(event);
+				}
+			}
+		}
+		if (events.isEmpty()) {
+			return;
+		}
+		try {
+			CLEvent[] condition = new CLEvent[events.size()];
+			int i = 0;
+			for (DeviceEvent event : events) {
+				condition[i++] = event.event();
+			}
+			queue.putWaitForEvents(new CLEventList(condition), false);
+		} finally {
+			for (DeviceEvent event : events) {
+				event.release();
+			}
+		}
+	}
+
 	public void execute() throws LnnCLException {
 		if (ranges.isEmpty() || null == device) {
 			throw new NullPointerException();
 		}
 		try {
-			CLCommandQueue queue = device.createCommandQueue();
+			CLCommandQueue queue = null != this.queue ? this.queue : device.createCommandQueue();
 			try {
 				CLKernel kernel;
-				synchronized (program) {
-					kernel = program.createCLKernel(function);
+				if (null != owner) {
+					kernel = owner.kernel(function);
+				} else {
+					synchronized (program) {
+						kernel = program.createCLKernel(function);
+					}
 				}
 				try {
 					for (Arg arg : args) {
-						arg.input(kernel, queue);
+						arg.input(kernel, queue, residentDevice);
 					}
+					waitForResidentArrays(queue);
 					if (ranges.size() > 1) {
 						int passIdArgIndex = args.size(), passId = 0;
 						for (Range range : ranges) {
@@ -151,20 +282,42 @@ public class Calling {
 							passId++;
 						}
 					} else {
-						ranges.get(0).putToQueue(queue, kernel);
+						Range range = ranges.get(0);
+						if (tunable(range)) {
+							String key = LocalSizeTuner.key(name, function, device, range);
+							range.putToQueue(queue, kernel, localSizeTuner.tune(key, queue, kernel, range));
+						} else {
+							range.putToQueue(queue, kernel);
+						}
 					}
 					for (Arg arg : args) {
 						arg.output(queue);
 					}
-					queue.finish();
+					if (isAsync()) {
+						CLEventList events = new CLEventList(1);
+						queue.putMarker(events);
+						DeviceEvent event = new DeviceEvent(events);
+						for (Arg arg : args) {
+							if (arg instanceof BufferArg) {
+								((BufferArg) arg).residentArray().event(event);
+							}
+						}
+						queue.flush();
+					} else {
+						queue.finish();
+					}
 					for (Arg arg : args) {
 						arg.close();
 					}
 				} finally {
-					kernel.release();
+					if (null == owner) {
+						kernel.release();
+					}
 				}
 			} finally {
-				queue.release();
+				if (queue != this.queue) {
+					queue.release();
+				}
 			}
 		} catch (CLException e) {
 			throw new LnnCLException(e);
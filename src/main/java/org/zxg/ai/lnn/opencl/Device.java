@@ -17,18 +17,39 @@
 package org.zxg.ai.lnn.opencl;
 
 import java.io.Closeable;
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.zxg.ai.lnn.LnnIOException;
+
+import com.jogamp.opencl.CLBuffer;
+import com.jogamp.opencl.CLCommandQueue;
 import com.jogamp.opencl.CLDevice;
+import com.jogamp.opencl.CLException;
+import com.jogamp.opencl.llb.CLMemObjBinding;
 
 /**
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
 public class Device implements Closeable {
 
-	private static Device DEFAULT_DEVICE;
+	private static volatile Device DEFAULT_DEVICE;
 
 	public static Device defaultDevice() {
 		if (null == DEFAULT_DEVICE) {
@@ -41,39 +62,363 @@ public class Device implements Closeable {
 		return DEFAULT_DEVICE;
 	}
 
+	private static volatile List<Device> ALL_DEVICES;
+
+	/**
+	 * Returns a device for each OpenCL device of the default context, for
+	 * example to train on all of them with a
+	 * {@link org.zxg.ai.lnn.nn.DataParallel}. The default device is one of
+	 * them.
+	 */
+	public static List<Device> allDevices() {
+		if (null == ALL_DEVICES) {
+			synchronized (Device.class) {
+				if (null == ALL_DEVICES) {
+					Device defaultDevice = defaultDevice();
+					List<Device> devices = new ArrayList<>();
+					for (CLDevice clDevice : Program.defaultContext().getDevices()) {
+						devices.add(clDevice.equals(defaultDevice.clDevice) ? defaultDevice : new Device(clDevice));
+					}
+					ALL_DEVICES = Collections.unmodifiableList(devices);
+				}
+			}
+		}
+		return ALL_DEVICES;
+	}
+
+	public static final int DEFAULT_QUEUE_COUNT = 2;
+
 	public final CLDevice clDevice;
-	private Map<Class<? extends Kernel>, Kernel> kernels;
+	private final Map<Class<? extends Kernel>, Kernel> kernels = new ConcurrentHashMap<>();
+	private final Map<Class<? extends Kernel>, Object> kernelLocks = new HashMap<>();
+	private final Map<String, Program> programs = new ConcurrentHashMap<>();
+	private final Map<String, Object> programLocks = new HashMap<>();
+	private final CLCommandQueue[] queues;
+	private final AtomicInteger nextQueueIndex = new AtomicInteger();
+	private final ThreadLocal<Integer> threadQueueIndex;
+	private final Map<CLBuffer<?>, ResidentBuffer> residentBuffers = new IdentityHashMap<>();
+	private final ReferenceQueue<BufferArray> collectedArrays = new ReferenceQueue<>();
+	private volatile LocalSizeTuner localSizeTuner;
+	private volatile boolean async;
+	private volatile ProgramCache programCache;
+
+	private static final class ResidentBuffer extends WeakReference<BufferArray> {
+		final CLBuffer<?> clBuffer;
+
+		ResidentBuffer(BufferArray array, CLBuffer<?> clBuffer, ReferenceQueue<BufferArray> queue) {
+			super(array, queue);
+			this.clBuffer = clBuffer;
+		}
+	}
 
 	public Device(CLDevice clDevice) {
+		this(clDevice, DEFAULT_QUEUE_COUNT);
+	}
+
+	public Device(CLDevice clDevice, int queueCount) {
+		if (queueCount < 1) {
+			throw new IllegalArgumentException("queueCount < 1");
+		}
 		this.clDevice = clDevice;
-		kernels = new HashMap<>();
+		queues = new CLCommandQueue[queueCount];
+		threadQueueIndex = ThreadLocal.withInitial(() -> nextQueueIndex.getAndIncrement() % queueCount);
+	}
+
+	/**
+	 * Creates a device which is not backed by OpenCL. Such a device has no
+	 * command queue, and provides its own kernels through
+	 * {@link #createKernel(Class)}.
+	 */
+	protected Device() {
+		this.clDevice = null;
+		queues = new CLCommandQueue[0];
+		threadQueueIndex = null;
+	}
+
+	/**
+	 * Returns the command queue of the current thread. The queues are created
+	 * lazily, live as long as this device, and are shared by all kernels, so a
+	 * kernel call is a plain enqueue instead of a queue setup and teardown.
+	 */
+	public CLCommandQueue queue() {
+		if (null == clDevice) {
+			throw new LnnCLException("The device is not an OpenCL device.");
+		}
+		final int index = threadQueueIndex.get();
+		CLCommandQueue queue = queues[index];
+		if (null == queue) {
+			synchronized (queues) {
+				queue = queues[index];
+				if (null == queue) {
+					try {
+						queue = clDevice.createCommandQueue();
+					} catch (CLException e) {
+						throw new LnnCLException(e);
+					}
+					queues[index] = queue;
+				}
+			}
+		}
+		return queue;
+	}
+
+	/**
+	 * Returns the tuner of the local sizes of the kernel launches on this
+	 * device, or null if the local sizes are not tuned.
+	 */
+	public LocalSizeTuner localSizeTuner() {
+		return localSizeTuner;
+	}
+
+	public void localSizeTuner(LocalSizeTuner localSizeTuner) {
+		this.localSizeTuner = localSizeTuner;
+	}
+
+	/**
+	 * Returns the cache of the binaries of the programs built for this device,
+	 * or null if the programs are always compiled.
+	 */
+	public ProgramCache programCache() {
+		return programCache;
+	}
+
+	public void programCache(ProgramCache programCache) {
+		this.programCache = programCache;
+	}
+
+	/**
+	 * Returns whether the kernel calls return as soon as they are enqueued.
+	 */
+	public boolean async() {
+		return async;
+	}
+
+	/**
+	 * Sets whether the kernel calls return as soon as they are enqueued instead
+	 * of waiting for the device. The calls are chained by events through the
+	 * arrays which they use, and the host waits for an array when it reads it,
+	 * so asynchronous calls give the same results while the launches of the
+	 * following calls overlap the work of the device.
+	 */
+	public void async(boolean async) {
+		this.async = async;
+	}
+
+	/**
+	 * Creates the device buffer which keeps the data of the array between
+	 * kernel calls. The buffer is released when the array is released from
+	 * the device, when the array is garbage collected, or when this device is
+	 * closed.
+	 */
+	CLBuffer<?> createResidentBuffer(BufferArray array) {
+		releaseCollectedBuffers();
+		CLBuffer<?> clBuffer;
+		try {
+			clBuffer = clDevice.getContext().createBuffer(array.buffer(), CLMemObjBinding.CL_MEM_READ_WRITE);
+		} catch (CLException e) {
+			throw new LnnCLException(e);
+		}
+		synchronized (residentBuffers) {
+			residentBuffers.put(clBuffer, new ResidentBuffer(array, clBuffer, collectedArrays));
+		}
+		return clBuffer;
+	}
+
+	void releaseResidentBuffer(BufferArray array, CLBuffer<?> clBuffer) {
+		ResidentBuffer residentBuffer;
+		synchronized (residentBuffers) {
+			residentBuffer = residentBuffers.remove(clBuffer);
+		}
+		if (null != residentBuffer) {
+			residentBuffer.clear();
+			clBuffer.release();
+		}
+	}
+
+	private void releaseCollectedBuffers() {
+		Reference<? extends BufferArray> reference;
+		while ((reference = collectedArrays.poll()) != null) {
+			CLBuffer<?> clBuffer = ((ResidentBuffer) reference).clBuffer;
+			boolean resident;
+			synchronized (residentBuffers) {
+				resident = null != residentBuffers.remove(clBuffer);
+			}
+			if (resident) {
+				clBuffer.release();
+			}
+		}
+	}
+
+	/**
+	 * Creates the kernel of the given type for this device. The returned kernel
+	 * must be an instance of the given type.
+	 */
+	protected Kernel createKernel(Class<? extends Kernel> type) throws ReflectiveOperationException {
+		return type.getDeclaredConstructor().newInstance();
 	}
 
+	/**
+	 * Returns the kernel of the given type for this device, creating it and
+	 * building its program on the first use. The kernels of different types are
+	 * created concurrently.
+	 */
 	@SuppressWarnings("unchecked")
 	public <T extends Kernel> T kernel(Class<T> type) {
 		Kernel kernel = kernels.get(type);
 		if (null == kernel) {
-			synchronized (kernels) {
+			Object lock;
+			synchronized (kernelLocks) {
+				lock = kernelLocks.computeIfAbsent(type, t -> new Object());
+			}
+			synchronized (lock) {
 				kernel = kernels.get(type);
 				if (null == kernel) {
 					try {
-						kernel = type.getDeclaredConstructor().newInstance();
-						kernel.init(clDevice);
-						kernels.put(type, kernel);
-					} catch (InstantiationException | IllegalAccessException | NoSuchMethodException
-							| InvocationTargetException e) {
+						kernel = createKernel(type);
+					} catch (ReflectiveOperationException e) {
 						throw new LnnCLException(e);
 					}
+					kernel.init(this);
+					kernels.put(type, kernel);
 				}
 			}
 		}
 		return (T) kernel;
 	}
 
+	/**
+	 * Returns the program of a program file, which is built once for this
+	 * device and shared by the kernels calling its functions.
+	 *
+	 * @param path the resource path of the program file
+	 */
+	Program program(ClassLoader loader, String path) {
+		Program program = programs.get(path);
+		if (null == program) {
+			Object lock;
+			synchronized (programLocks) {
+				lock = programLocks.computeIfAbsent(path, p -> new Object());
+			}
+			synchronized (lock) {
+				program = programs.get(path);
+				if (null == program) {
+					InputStream in = loader.getResourceAsStream(path);
+					if (null == in) {
+						throw new LnnCLException("The program file " + path + " is not found.");
+					}
+					try {
+						program = new Program(clDevice, in, programCache);
+					} finally {
+						try {
+							in.close();
+						} catch (IOException e) {
+							throw new LnnIOException(e);
+						}
+					}
+					programs.put(path, program);
+				}
+			}
+		}
+		return program;
+	}
+
+	/**
+	 * Builds the program files of this library in parallel, so that the first
+	 * calls of the kernels do not wait for the compiler. With a
+	 * {@link ProgramCache}, the programs are loaded from their binaries when
+	 * they have been built before.
+	 */
+	public void warmUp() {
+		if (null == clDevice) {
+			return;
+		}
+		List<Runnable> tasks = new ArrayList<>();
+		for (String path : Kernel.programFiles()) {
+			tasks.add(() -> program(Kernel.class.getClassLoader(), path));
+		}
+		runInParallel(tasks);
+	}
+
+	/**
+	 * Creates the kernels of the given types, building their programs in
+	 * parallel.
+	 */
+	public void warmUp(Collection<Class<? extends Kernel>> types) {
+		if (null == clDevice) {
+			return;
+		}
+		List<Runnable> tasks = new ArrayList<>();
+		for (Class<? extends Kernel> type : types) {
+			tasks.add(() -> kernel(type));
+		}
+		runInParallel(tasks);
+	}
+
+	private static void runInParallel(List<Runnable> tasks) {
+		if (tasks.isEmpty()) {
+			return;
+		}
+		ExecutorService executor = Executors
+				.newFixedThreadPool(Math.min(tasks.size(), Runtime.getRuntime().availableProcessors()));
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (Runnable task : tasks) {
+				futures.add(executor.submit(task));
+			}
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					}
+					throw new LnnCLException(cause);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new LnnCLException(e);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
 	@Override
 	public void close() {
+		List<ResidentBuffer> buffers;
+		synchronized (residentBuffers) {
+			buffers = new ArrayList<>(residentBuffers.values());
+		}
+		for (ResidentBuffer buffer : buffers) {
+			BufferArray array = buffer.get();
+			if (null != array) {
+				array.releaseDeviceBuffer();
+			}
+		}
+		synchronized (residentBuffers) {
+			for (CLBuffer<?> clBuffer : residentBuffers.keySet()) {
+				clBuffer.release();
+			}
+			residentBuffers.clear();
+		}
 		for (Kernel k : kernels.values()) {
 			k.close();
 		}
+		// The kernels hold the released programs, so they are created again on
+		// their next use.
+		kernels.clear();
+		for (Program program : programs.values()) {
+			program.close();
+		}
+		programs.clear();
+		synchronized (queues) {
+			for (int i = 0; i < queues.length; i++) {
+				if (queues[i] != null) {
+					queues[i].release();
+					queues[i] = null;
+				}
+			}
+		}
 	}
 }
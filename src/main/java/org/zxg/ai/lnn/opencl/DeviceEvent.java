@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.opencl;
+
+import com.jogamp.opencl.CLEvent;
+import com.jogamp.opencl.CLEventList;
+import com.jogamp.opencl.CLException;
+
+/**
+ * The completion of a kernel call which has been enqueued without waiting for
+ * it. The event is shared by the arrays which the call uses, and is released
+ * when none of them refers to it any more.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+final class DeviceEvent {
+
+	private final CLEventList events;
+	private int references;
+
+	/**
+	 * @param events the list holding the single event of the call
+	 */
+	DeviceEvent(CLEventList events) {
+		this.events = events;
+	}
+
+	CLEvent event() {
+		return events.getEvent(0);
+	}
+
+	synchronized void retain() {
+		references++;
+	}
+
+	synchronized void release() {
+		if (0 == --references) {
+			events.release();
+		}
+	}
+
+	/**
+	 * Blocks until the call is complete. The caller must hold a reference.
+	 */
+	void await() {
+		try {
+			events.waitForEvents();
+		} catch (CLException e) {
+			throw new LnnCLException(e);
+		}
+	}
+}
@@ -28,21 +28,16 @@ public class DoubleArray extends BufferArray {
 	public final int length;
 
 	public static void copy(DoubleArray src, int srcPos, DoubleArray dest, int destPos, int length) {
-		final DoubleBuffer srcBuffer = src.buffer;
-		final DoubleBuffer destBuffer = dest.buffer;
-		final int originalSrcPosition = srcBuffer.position();
-		final int originalSrcLimit = srcBuffer.limit();
-		final int originalDestPosition = destBuffer.position();
-		try {
-			srcBuffer.position(srcPos);
-			srcBuffer.limit(srcPos + length);
-			destBuffer.position(destPos);
-			destBuffer.put(srcBuffer);
-		} finally {
-			srcBuffer.position(originalSrcPosition);
-			srcBuffer.limit(originalSrcLimit);
-			destBuffer.position(originalDestPosition);
-		}
+		src.syncHost();
+		dest.touchHost();
+		// Positions are set on duplicates, so that the arrays can be read by
+		// several threads at once.
+		final DoubleBuffer srcBuffer = src.buffer.duplicate();
+		final DoubleBuffer destBuffer = dest.buffer.duplicate();
+		srcBuffer.position(srcPos);
+		srcBuffer.limit(srcPos + length);
+		destBuffer.position(destPos);
+		destBuffer.put(srcBuffer);
 	}
 
 	public static DoubleArray copyOfRange(DoubleArray original, int from, int to) {
@@ -56,41 +51,47 @@ public class DoubleArray extends BufferArray {
 	}
 
 	public DoubleArray(int length) {
-		this.buffer = Buffers.newDirectDoubleBuffer(length);
+		this.buffer = allocate(length * Buffers.SIZEOF_DOUBLE, true).asDoubleBuffer();
 		this.length = length;
 	}
 
 	public DoubleArray(double[] elements) {
-		this.buffer = Buffers.newDirectDoubleBuffer(elements);
+		this.buffer = allocate(elements.length * Buffers.SIZEOF_DOUBLE, false).asDoubleBuffer();
+		this.buffer.put(elements);
+		this.buffer.rewind();
 		this.length = elements.length;
 	}
 
 	public DoubleArray(DoubleArray other) {
-		this.buffer = Buffers.copyDoubleBuffer(other.buffer);
+		this.buffer = allocate(other.length * Buffers.SIZEOF_DOUBLE, false).asDoubleBuffer();
 		this.length = other.length;
+		if (!copyOnDevice(other)) {
+			copy(other, 0, this, 0, length);
+		}
 	}
 
 	public DoubleArray(DoubleBuffer buffer) {
-		this.buffer = Buffers.copyDoubleBuffer(buffer);
-		this.length = this.buffer.capacity() / Buffers.SIZEOF_DOUBLE;
+		this.length = buffer.remaining();
+		this.buffer = allocate(length * Buffers.SIZEOF_DOUBLE, false).asDoubleBuffer();
+		this.buffer.put(buffer.duplicate());
+		this.buffer.rewind();
 	}
 
 	public double get(int index) {
+		syncHost();
 		return buffer.get(index);
 	}
 
 	public void set(int index, double value) {
+		touchHost();
 		buffer.put(index, value);
 	}
 
 	public void get(int begin, double[] elements, int offset, int length) {
-		final int originalPosition = buffer.position();
-		try {
-			buffer.position(begin);
-			buffer.get(elements, offset, length);
-		} finally {
-			buffer.position(originalPosition);
-		}
+		syncHost();
+		final DoubleBuffer view = buffer.duplicate();
+		view.position(begin);
+		view.get(elements, offset, length);
 	}
 
 	public double[] get(int begin, int end) {
@@ -104,13 +105,10 @@ public class DoubleArray extends BufferArray {
 	}
 
 	public void set(int begin, double[] elements, int offset, int length) {
-		final int originalPosition = buffer.position();
-		try {
-			buffer.position(begin);
-			buffer.put(elements, offset, length);
-		} finally {
-			buffer.position(originalPosition);
-		}
+		touchHost();
+		final DoubleBuffer view = buffer.duplicate();
+		view.position(begin);
+		view.put(elements, offset, length);
 	}
 
 	public void set(int begin, double[] elements, int offset) {
@@ -133,6 +131,23 @@ public class DoubleArray extends BufferArray {
 		set(0, elements);
 	}
 
+	/**
+	 * Returns the host buffer for reading it on the host, for example by a
+	 * kernel of a device which is not backed by OpenCL.
+	 */
+	public DoubleBuffer hostBuffer() {
+		syncHost();
+		return buffer;
+	}
+
+	/**
+	 * Returns the host buffer for writing it on the host.
+	 */
+	public DoubleBuffer writableHostBuffer() {
+		touchHost();
+		return buffer;
+	}
+
 	@Override
 	public DoubleArray clone() {
 		return new DoubleArray(this);
@@ -140,6 +155,7 @@ public class DoubleArray extends BufferArray {
 
 	@Override
 	public int hashCode() {
+		syncHost();
 		return buffer.hashCode();
 	}
 
@@ -155,6 +171,8 @@ public class DoubleArray extends BufferArray {
 			return false;
 		}
 		DoubleArray other = (DoubleArray) obj;
+		syncHost();
+		other.syncHost();
 		return buffer.equals(other.buffer);
 	}
 
@@ -165,6 +183,7 @@ public class DoubleArray extends BufferArray {
 
 	@Override
 	public String toString() {
+		syncHost();
 		StringBuilder builder = new StringBuilder();
 		builder.append('[');
 		if (length > 0) {
@@ -28,21 +28,16 @@ public class FloatArray extends BufferArray {
 	public final int length;
 
 	public static void copy(FloatArray src, int srcPos, FloatArray dest, int destPos, int length) {
-		final FloatBuffer srcBuffer = src.buffer;
-		final FloatBuffer destBuffer = dest.buffer;
-		final int originalSrcPosition = srcBuffer.position();
-		final int originalSrcLimit = srcBuffer.limit();
-		final int originalDestPosition = destBuffer.position();
-		try {
-			srcBuffer.position(srcPos);
-			srcBuffer.limit(srcPos + length);
-			destBuffer.position(destPos);
-			destBuffer.put(srcBuffer);
-		} finally {
-			srcBuffer.position(originalSrcPosition);
-			srcBuffer.limit(originalSrcLimit);
-			destBuffer.position(originalDestPosition);
-		}
+		src.syncHost();
+		dest.touchHost();
+		// Positions are set on duplicates, so that the arrays can be read by
+		// several threads at once.
+		final FloatBuffer srcBuffer = src.buffer.duplicate();
+		final FloatBuffer destBuffer = dest.buffer.duplicate();
+		srcBuffer.position(srcPos);
+		srcBuffer.limit(srcPos + length);
+		destBuffer.position(destPos);
+		destBuffer.put(srcBuffer);
 	}
 
 	public static FloatArray copyOfRange(FloatArray original, int from, int to) {
@@ -55,42 +50,61 @@ public class FloatArray extends BufferArray {
 		return newArray;
 	}
 
+	/**
+	 * Creates an array whose content is undefined, for scratch data which is
+	 * written before it is read, so that its pooled buffer is not filled with
+	 * zeros first.
+	 */
+	public static FloatArray uninitialized(int length) {
+		return new FloatArray(length, false);
+	}
+
 	public FloatArray(int length) {
-		this.buffer = Buffers.newDirectFloatBuffer(length);
+		this(length, true);
+	}
+
+	private FloatArray(int length, boolean zero) {
+		this.buffer = allocate(length * Buffers.SIZEOF_FLOAT, zero).asFloatBuffer();
 		this.length = length;
 	}
 
 	public FloatArray(float[] elements) {
-		this.buffer = Buffers.newDirectFloatBuffer(elements);
+		this.buffer = allocate(elements.length * Buffers.SIZEOF_FLOAT, false).asFloatBuffer();
+		this.buffer.put(elements);
+		this.buffer.rewind();
 		this.length = elements.length;
 	}
 
 	public FloatArray(FloatArray other) {
-		this.buffer = Buffers.copyFloatBuffer(other.buffer);
+		this.buffer = allocate(other.length * Buffers.SIZEOF_FLOAT, false).asFloatBuffer();
 		this.length = other.length;
+		if (!copyOnDevice(other)) {
+			copy(other, 0, this, 0, length);
+		}
 	}
 
 	public FloatArray(FloatBuffer buffer) {
-		this.buffer = Buffers.copyFloatBuffer(buffer);
-		this.length = this.buffer.capacity() / Buffers.SIZEOF_FLOAT;
+		this.length = buffer.remaining();
+		this.buffer = allocate(length * Buffers.SIZEOF_FLOAT, false).asFloatBuffer();
+		this.buffer.put(buffer.duplicate());
+		this.buffer.rewind();
 	}
 
 	public float get(int index) {
+		syncHost();
 		return buffer.get(index);
 	}
 
 	public void set(int index, float value) {
+		touchHost();
 		buffer.put(index, value);
 	}
 
 	public void get(int begin, float[] elements, int offset, int length) {
-		final int originalPosition = buffer.position();
-		try {
-			buffer.position(begin);
-			buffer.get(elements, offset, length);
-		} finally {
-			buffer.position(originalPosition);
-		}
+		syncHost();
+		final FloatBuffer view = buffer.duplicate();
+		view.position(begin);
+		view.get(elements, offset, length);
 	}
 
 	public float[] get(int begin, int end) {
@@ -104,13 +118,10 @@ public class FloatArray extends BufferArray {
 	}
 
 	public void set(int begin, float[] elements, int offset, int length) {
-		final int originalPosition = buffer.position();
-		try {
-			buffer.position(begin);
-			buffer.put(elements, offset, length);
-		} finally {
-			buffer.position(originalPosition);
-		}
+		touchHost();
+		final FloatBuffer view = buffer.duplicate();
+		view.position(begin);
+		view.put(elements, offset, length);
 	}
 
 	public void set(int begin, float[] elements, int offset) {
@@ -133,6 +144,23 @@ public class FloatArray extends BufferArray {
 		set(0, elements);
 	}
 
+	/**
+	 * Returns the host buffer for reading it on the host, for example by a
+	 * kernel of a device which is not backed by OpenCL.
+	 */
+	public FloatBuffer hostBuffer() {
+		syncHost();
+		return buffer;
+	}
+
+	/**
+	 * Returns the host buffer for writing it on the host.
+	 */
+	public FloatBuffer writableHostBuffer() {
+		touchHost();
+		return buffer;
+	}
+
 	@Override
 	public FloatArray clone() {
 		return new FloatArray(this);
@@ -140,6 +168,7 @@ public class FloatArray extends BufferArray {
 
 	@Override
 	public int hashCode() {
+		syncHost();
 		return buffer.hashCode();
 	}
 
@@ -155,6 +184,8 @@ public class FloatArray extends BufferArray {
 			return false;
 		}
 		FloatArray other = (FloatArray) obj;
+		syncHost();
+		other.syncHost();
 		return buffer.equals(other.buffer);
 	}
 
@@ -165,6 +196,7 @@ public class FloatArray extends BufferArray {
 
 	@Override
 	public String toString() {
+		syncHost();
 		StringBuilder builder = new StringBuilder();
 		builder.append('[');
 		if (length > 0) {
@@ -30,21 +30,16 @@ public class IntArray extends BufferArray {
 	public final int length;
 
 	public static void copy(IntArray src, int srcPos, IntArray dest, int destPos, int length) {
-		final IntBuffer srcBuffer = src.buffer;
-		final IntBuffer destBuffer = dest.buffer;
-		final int originalSrcPosition = srcBuffer.position();
-		final int originalSrcLimit = srcBuffer.limit();
-		final int originalDestPosition = destBuffer.position();
-		try {
-			srcBuffer.position(srcPos);
-			srcBuffer.limit(srcPos + length);
-			destBuffer.position(destPos);
-			destBuffer.put(srcBuffer);
-		} finally {
-			srcBuffer.position(originalSrcPosition);
-			srcBuffer.limit(originalSrcLimit);
-			destBuffer.position(originalDestPosition);
-		}
+		src.syncHost();
+		dest.touchHost();
+		// Positions are set on duplicates, so that the arrays can be read by
+		// several threads at once.
+		final IntBuffer srcBuffer = src.buffer.duplicate();
+		final IntBuffer destBuffer = dest.buffer.duplicate();
+		srcBuffer.position(srcPos);
+		srcBuffer.limit(srcPos + length);
+		destBuffer.position(destPos);
+		destBuffer.put(srcBuffer);
 	}
 
 	public static IntArray copyOfRange(IntArray original, int from, int to) {
@@ -58,41 +53,47 @@ public class IntArray extends BufferArray {
 	}
 
 	public IntArray(int length) {
-		this.buffer = Buffers.newDirectIntBuffer(length);
+		this.buffer = allocate(length * Buffers.SIZEOF_INT, true).asIntBuffer();
 		this.length = length;
 	}
 
 	public IntArray(int[] elements) {
-		this.buffer = Buffers.newDirectIntBuffer(elements);
+		this.buffer = allocate(elements.length * Buffers.SIZEOF_INT, false).asIntBuffer();
+		this.buffer.put(elements);
+		this.buffer.rewind();
 		this.length = elements.length;
 	}
 
 	public IntArray(IntArray other) {
-		this.buffer = Buffers.copyIntBuffer(other.buffer);
+		this.buffer = allocate(other.length * Buffers.SIZEOF_INT, false).asIntBuffer();
 		this.length = other.length;
+		if (!copyOnDevice(other)) {
+			copy(other, 0, this, 0, length);
+		}
 	}
 
 	public IntArray(IntBuffer buffer) {
-		this.buffer = Buffers.copyIntBuffer(buffer);
-		this.length = this.buffer.capacity() / Buffers.SIZEOF_INT;
+		this.length = buffer.remaining();
+		this.buffer = allocate(length * Buffers.SIZEOF_INT, false).asIntBuffer();
+		this.buffer.put(buffer.duplicate());
+		this.buffer.rewind();
 	}
 
 	public int get(int index) {
+		syncHost();
 		return buffer.get(index);
 	}
 
 	public void set(int index, int value) {
+		touchHost();
 		buffer.put(index, value);
 	}
 
 	public void get(int begin, int[] elements, int offset, int length) {
-		final int originalPosition = buffer.position();
-		try {
-			buffer.position(begin);
-			buffer.get(elements, offset, length);
-		} finally {
-			buffer.position(originalPosition);
-		}
+		syncHost();
+		final IntBuffer view = buffer.duplicate();
+		view.position(begin);
+		view.get(elements, offset, length);
 	}
 
 	public int[] get(int begin, int end) {
@@ -106,13 +107,10 @@ public class IntArray extends BufferArray {
 	}
 
 	public void set(int begin, int[] elements, int offset, int length) {
-		final int originalPosition = buffer.position();
-		try {
-			buffer.position(begin);
-			buffer.put(elements, offset, length);
-		} finally {
-			buffer.position(originalPosition);
-		}
+		touchHost();
+		final IntBuffer view = buffer.duplicate();
+		view.position(begin);
+		view.put(elements, offset, length);
 	}
 
 	public void set(int begin, int[] elements, int offset) {
@@ -135,6 +133,23 @@ public class IntArray extends BufferArray {
 		set(0, elements);
 	}
 
+	/**
+	 * Returns the host buffer for reading it on the host, for example by a
+	 * kernel of a device which is not backed by OpenCL.
+	 */
+	public IntBuffer hostBuffer() {
+		syncHost();
+		return buffer;
+	}
+
+	/**
+	 * Returns the host buffer for writing it on the host.
+	 */
+	public IntBuffer writableHostBuffer() {
+		touchHost();
+		return buffer;
+	}
+
 	@Override
 	public IntArray clone() {
 		return new IntArray(this);
@@ -142,6 +157,7 @@ public class IntArray extends BufferArray {
 
 	@Override
 	public int hashCode() {
+		syncHost();
 		return buffer.hashCode();
 	}
 
@@ -157,6 +173,8 @@ public class IntArray extends BufferArray {
 			return false;
 		}
 		IntArray other = (IntArray) obj;
+		syncHost();
+		other.syncHost();
 		return buffer.equals(other.buffer);
 	}
 
@@ -167,6 +185,7 @@ public class IntArray extends BufferArray {
 
 	@Override
 	public String toString() {
+		syncHost();
 		StringBuilder builder = new StringBuilder();
 		builder.append('[');
 		if (length > 0) {
@@ -16,31 +16,161 @@
  */
 package org.zxg.ai.lnn.opencl;
 
+import java.io.ByteArrayInputStream;
 import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 
-import com.jogamp.opencl.CLDevice;
+import org.zxg.ai.lnn.LnnIOException;
 
 /**
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
 public abstract class Kernel implements Closeable {
 
-	private CLDevice device;
+	private Device device;
 	private Program program;
+	private String function;
+	private final Map<String, Program> generatedPrograms = new HashMap<>();
 
-	void init(CLDevice device) {
+	/**
+	 * Takes the program of this kernel from the device, which is either the
+	 * shared program named by {@link SharedProgram} or the own program file of
+	 * the kernel class.
+	 */
+	void init(Device device) {
 		this.device = device;
+		if (null == device.clDevice) {
+			return;
+		}
 		Class<?> type = this.getClass();
-		String fileName = type.getSimpleName() + ".cl";
-		program = new Program(device.getContext(), type.getResourceAsStream(fileName));
+		SharedProgram sharedProgram = type.getAnnotation(SharedProgram.class);
+		String fileName;
+		if (null != sharedProgram) {
+			fileName = sharedProgram.value();
+			String name = type.getSimpleName();
+			function = Character.toLowerCase(name.charAt(0)) + name.substring(1);
+		} else {
+			fileName = type.getSimpleName() + ".cl";
+			function = "run";
+		}
+		if (null != type.getResource(fileName)) {
+			String path = type.getPackage().getName().replace('.', '/') + '/' + fileName;
+			program = device.program(type.getClassLoader(), path);
+		}
+	}
+
+	/**
+	 * Returns the paths of the program files of this library, found in its
+	 * directory or jar file.
+	 */
+	static List<String> programFiles() {
+		List<String> programFiles = new ArrayList<>();
+		try {
+			File location = new File(Kernel.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+			if (location.isDirectory()) {
+				listProgramFiles(location, "", programFiles);
+			} else {
+				try (JarFile jar = new JarFile(location)) {
+					Enumeration<JarEntry> entries = jar.entries();
+					while (entries.hasMoreElements()) {
+						String name = entries.nextElement().getName();
+						if (name.endsWith(".cl")) {
+							programFiles.add(name);
+						}
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new LnnIOException(e);
+		} catch (URISyntaxException | SecurityException e) {
+			throw new LnnCLException(e);
+		}
+		return programFiles;
+	}
+
+	private static void listProgramFiles(File directory, String prefix, List<String> programFiles) {
+		File[] files = directory.listFiles();
+		if (null == files) {
+			return;
+		}
+		for (File file : files) {
+			if (file.isDirectory()) {
+				listProgramFiles(file, prefix + file.getName() + '/', programFiles);
+			} else if (file.getName().endsWith(".cl")) {
+				programFiles.add(prefix + file.getName());
+			}
+		}
+	}
+
+	protected Device device() {
+		return device;
+	}
+
+	/**
+	 * Returns the largest work-group size of the function of this kernel on its
+	 * device, which is below the limit of the device for a function using too
+	 * much local memory or too many registers.
+	 */
+	protected long maxWorkGroupSize() {
+		if (null == program) {
+			throw new LnnCLException("The kernel has no program file.");
+		}
+		return program.kernel(function).getWorkGroupSize(device.clDevice);
 	}
 
 	protected Calling call() {
-		return program.call().at(device);
+		if (null == program) {
+			throw new LnnCLException("The kernel has no program file.");
+		}
+		return program.call(function).at(device).name(getClass().getName());
+	}
+
+	/**
+	 * Returns the program built from a generated source, which is built once
+	 * for each key on the device of this kernel.
+	 */
+	protected Program program(String key, Supplier<String> source) {
+		synchronized (generatedPrograms) {
+			Program generatedProgram = generatedPrograms.get(key);
+			if (null == generatedProgram) {
+				generatedProgram = new Program(device.clDevice,
+						new ByteArrayInputStream(source.get().getBytes(StandardCharsets.UTF_8)), device.programCache());
+				generatedPrograms.put(key, generatedProgram);
+			}
+			return generatedProgram;
+		}
+	}
+
+	/**
+	 * Calls the run function of a generated program, whose local sizes are
+	 * tuned under the given name.
+	 */
+	protected Calling call(Program generatedProgram, String name) {
+		return generatedProgram.call().at(device).name(name);
 	}
 
+	/**
+	 * Closes the generated programs of this kernel. The program files are
+	 * closed with the device.
+	 */
 	@Override
 	public void close() {
-		program.close();
+		synchronized (generatedPrograms) {
+			for (Program generatedProgram : generatedPrograms.values()) {
+				generatedProgram.close();
+			}
+			generatedPrograms.clear();
+		}
 	}
 }
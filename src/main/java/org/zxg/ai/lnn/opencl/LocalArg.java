@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.opencl;
+
+import com.jogamp.opencl.CLCommandQueue;
+import com.jogamp.opencl.CLKernel;
+
+/**
+ * An argument in the local memory of a work-group, which is shared by the
+ * work items of the work-group.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class LocalArg extends Arg {
+
+	public final int size;
+
+	public LocalArg(CacheArg.Type type, int number) {
+		this(type.size * number);
+	}
+
+	public LocalArg(int size) {
+		this.size = size;
+	}
+
+	@Override
+	public void input(CLKernel kernel, CLCommandQueue queue) {
+		kernel.putNullArg(size);
+	}
+}
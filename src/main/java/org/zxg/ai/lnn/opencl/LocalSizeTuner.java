@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.opencl;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.zxg.ai.lnn.LnnIOException;
+
+import com.jogamp.opencl.CLCommandQueue;
+import com.jogamp.opencl.CLDevice;
+import com.jogamp.opencl.CLException;
+import com.jogamp.opencl.CLKernel;
+
+/**
+ * Chooses the local sizes of kernel launches by timing the candidates of a
+ * {@link Range}. The best local sizes are cached by kernel, device and global
+ * sizes, and the cache is kept in a properties file, so a launch is tuned only
+ * once across runs. A tuner is enabled with
+ * {@link Device#localSizeTuner(LocalSizeTuner)}.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class LocalSizeTuner {
+
+	public static final int DEFAULT_REPEAT = 3;
+
+	private final File file;
+	private final int repeat;
+	private final Properties localSizes = new Properties();
+
+	public LocalSizeTuner(File file) throws LnnIOException {
+		this(file, DEFAULT_REPEAT);
+	}
+
+	/**
+	 * @param file   the file which keeps the cache, or null to keep it in
+	 *               memory only
+	 * @param repeat how many times each candidate is timed
+	 */
+	public LocalSizeTuner(File file, int repeat) throws LnnIOException {
+		if (repeat < 1) {
+			throw new IllegalArgumentException("repeat < 1");
+		}
+		this.file = file;
+		this.repeat = repeat;
+		if (null != file && file.isFile()) {
+			try (InputStream in = new FileInputStream(file)) {
+				localSizes.load(in);
+			} catch (IOException e) {
+				throw new LnnIOException(e);
+			}
+		}
+	}
+
+	static String key(String kernelName, String function, CLDevice device, Range range) {
+		return kernelName + '#' + function + '@' + device.getName() + '/' + device.getDriverVersion() + ':' + range;
+	}
+
+	/**
+	 * Returns the cached local sizes of the key, or null.
+	 */
+	public synchronized long[] localSize(String key) {
+		String value = localSizes.getProperty(key);
+		if (null == value) {
+			return null;
+		}
+		String[] sizes = value.split("x");
+		long[] localSize = new long[sizes.length];
+		for (int i = 0; i < sizes.length; i++) {
+			localSize[i] = Long.parseLong(sizes[i]);
+		}
+		return localSize;
+	}
+
+	/**
+	 * Returns the best local sizes of the launch, timing the candidates of the
+	 * range if they are not cached yet. The kernel is launched many times, so
+	 * it must not read the buffers which it writes.
+	 */
+	long[] tune(String key, CLCommandQueue queue, CLKernel kernel, Range range) throws CLException {
+		long[] best = localSize(key);
+		if (null != best) {
+			return best;
+		}
+		long bestTime = Long.MAX_VALUE;
+		for (long[] candidate : range.localSizeCandidates(queue.getDevice(), kernel)) {
+			long time = Long.MAX_VALUE;
+			try {
+				// The first launch is a warm-up.
+				range.putToQueue(queue, kernel, candidate);
+				queue.finish();
+				for (int i = 0; i < repeat; i++) {
+					final long start = System.nanoTime();
+					range.putToQueue(queue, kernel, candidate);
+					queue.finish();
+					time = Math.min(time, System.nanoTime() - start);
+				}
+			} catch (CLException e) {
+				// The device refuses the work-group size.
+				continue;
+			}
+			if (time < bestTime) {
+				bestTime = time;
+				best = candidate;
+			}
+		}
+		if (null == best) {
+			best = range.autoLocalSize(queue.getDevice(), kernel);
+		}
+		store(key, best);
+		return best;
+	}
+
+	private synchronized void store(String key, long[] localSize) throws LnnIOException {
+		StringBuilder value = new StringBuilder();
+		for (long size : localSize) {
+			if (value.length() > 0) {
+				value.append('x');
+			}
+			value.append(size);
+		}
+		localSizes.setProperty(key, value.toString());
+		if (null != file) {
+			try (OutputStream out = new FileOutputStream(file)) {
+				localSizes.store(out, "Local sizes of kernel launches");
+			} catch (IOException e) {
+				throw new LnnIOException(e);
+			}
+		}
+	}
+}
@@ -28,21 +28,16 @@ public class LongArray extends BufferArray {
 	public final int length;
 
 	public static void copy(LongArray src, int srcPos, LongArray dest, int destPos, int length) {
-		final LongBuffer srcBuffer = src.buffer;
-		final LongBuffer destBuffer = dest.buffer;
-		final int originalSrcPosition = srcBuffer.position();
-		final int originalSrcLimit = srcBuffer.limit();
-		final int originalDestPosition = destBuffer.position();
-		try {
-			srcBuffer.position(srcPos);
-			srcBuffer.limit(srcPos + length);
-			destBuffer.position(destPos);
-			destBuffer.put(srcBuffer);
-		} finally {
-			srcBuffer.position(originalSrcPosition);
-			srcBuffer.limit(originalSrcLimit);
-			destBuffer.position(originalDestPosition);
-		}
+		src.syncHost();
+		dest.touchHost();
+		// Positions are set on duplicates, so that the arrays can be read by
+		// several threads at once.
+		final LongBuffer srcBuffer = src.buffer.duplicate();
+		final LongBuffer destBuffer = dest.buffer.duplicate();
+		srcBuffer.position(srcPos);
+		srcBuffer.limit(srcPos + length);
+		destBuffer.position(destPos);
+		destBuffer.put(srcBuffer);
 	}
 
 	public static LongArray copyOfRange(LongArray original, int from, int to) {
@@ -56,41 +51,47 @@ public class LongArray extends BufferArray {
 	}
 
 	public LongArray(int length) {
-		this.buffer = Buffers.newDirectLongBuffer(length);
+		this.buffer = allocate(length * Buffers.SIZEOF_LONG, true).asLongBuffer();
 		this.length = length;
 	}
 
 	public LongArray(long[] elements) {
-		this.buffer = Buffers.newDirectLongBuffer(elements);
+		this.buffer = allocate(elements.length * Buffers.SIZEOF_LONG, false).asLongBuffer();
+		this.buffer.put(elements);
+		this.buffer.rewind();
 		this.length = elements.length;
 	}
 
 	public LongArray(LongArray other) {
-		this.buffer = Buffers.copyLongBuffer(other.buffer);
+		this.buffer = allocate(other.length * Buffers.SIZEOF_LONG, false).asLongBuffer();
 		this.length = other.length;
+		if (!copyOnDevice(other)) {
+			copy(other, 0, this, 0, length);
+		}
 	}
 
 	public LongArray(LongBuffer buffer) {
-		this.buffer = Buffers.copyLongBuffer(buffer);
-		this.length = this.buffer.capacity() / Buffers.SIZEOF_LONG;
+		this.length = buffer.remaining();
+		this.buffer = allocate(length * Buffers.SIZEOF_LONG, false).asLongBuffer();
+		this.buffer.put(buffer.duplicate());
+		this.buffer.rewind();
 	}
 
 	public long get(int index) {
+		syncHost();
 		return buffer.get(index);
 	}
 
 	public void set(int index, long value) {
+		touchHost();
 		buffer.put(index, value);
 	}
 
 	public void get(int begin, long[] elements, int offset, int length) {
-		final int originalPosition = buffer.position();
-		try {
-			buffer.position(begin);
-			buffer.get(elements, offset, length);
-		} finally {
-			buffer.position(originalPosition);
-		}
+		syncHost();
+		final LongBuffer view = buffer.duplicate();
+		view.position(begin);
+		view.get(elements, offset, length);
 	}
 
 	public long[] get(int begin, int end) {
@@ -104,13 +105,10 @@ public class LongArray extends BufferArray {
 	}
 
 	public void set(int begin, long[] elements, int offset, int length) {
-		final int originalPosition = buffer.position();
-		try {
-			buffer.position(begin);
-			buffer.put(elements, offset, length);
-		} finally {
-			buffer.position(originalPosition);
-		}
+		touchHost();
+		final LongBuffer view = buffer.duplicate();
+		view.position(begin);
+		view.put(elements, offset, length);
 	}
 
 	public void set(int begin, long[] elements, int offset) {
@@ -133,6 +131,23 @@ public class LongArray extends BufferArray {
 		set(0, elements);
 	}
 
+	/**
+	 * Returns the host buffer for reading it on the host, for example by a
+	 * kernel of a device which is not backed by OpenCL.
+	 */
+	public LongBuffer hostBuffer() {
+		syncHost();
+		return buffer;
+	}
+
+	/**
+	 * Returns the host buffer for writing it on the host.
+	 */
+	public LongBuffer writableHostBuffer() {
+		touchHost();
+		return buffer;
+	}
+
 	@Override
 	public LongArray clone() {
 		return new LongArray(this);
@@ -140,6 +155,7 @@ public class LongArray extends BufferArray {
 
 	@Override
 	public int hashCode() {
+		syncHost();
 		return buffer.hashCode();
 	}
 
@@ -155,6 +171,8 @@ public class LongArray extends BufferArray {
 			return false;
 		}
 		LongArray other = (LongArray) obj;
+		syncHost();
+		other.syncHost();
 		return buffer.equals(other.buffer);
 	}
 
@@ -165,6 +183,7 @@ public class LongArray extends BufferArray {
 
 	@Override
 	public String toString() {
+		syncHost();
 		StringBuilder builder = new StringBuilder();
 		builder.append('[');
 		if (length > 0) {
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.opencl;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Tracks the bytes of the live arrays, which hold the data of tensors. An
+ * array is live from its creation until it is closed or garbage collected, so
+ * the peak is an upper bound of the memory which was really needed. The tracking
+ * is disabled by default, and arrays created while it is disabled are not
+ * counted.
+ *
+ * <pre>
+ * MemoryTracker.enabled(true);
+ * MemoryTracker.resetPeak();
+ * loss.backward();
+ * long peak = MemoryTracker.peakBytes();
+ * </pre>
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public final class MemoryTracker {
+
+	private static volatile boolean enabled;
+	private static long liveBytes;
+	private static long peakBytes;
+	private static final ReferenceQueue<BufferArray> collectedArrays = new ReferenceQueue<>();
+	private static final Set<TrackedArray> trackedArrays = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	static final class TrackedArray extends PhantomReference<BufferArray> {
+		final long bytes;
+
+		TrackedArray(BufferArray array, long bytes) {
+			super(array, collectedArrays);
+			this.bytes = bytes;
+		}
+	}
+
+	private MemoryTracker() {
+	}
+
+	public static boolean enabled() {
+		return enabled;
+	}
+
+	public static void enabled(boolean enabled) {
+		MemoryTracker.enabled = enabled;
+	}
+
+	/**
+	 * @return the tracking of the array, or null if the tracking is disabled
+	 */
+	static TrackedArray allocated(BufferArray array, long bytes) {
+		if (!enabled) {
+			return null;
+		}
+		TrackedArray trackedArray = new TrackedArray(array, bytes);
+		synchronized (trackedArrays) {
+			releaseCollectedArrays();
+			trackedArrays.add(trackedArray);
+			liveBytes += bytes;
+			if (liveBytes > peakBytes) {
+				peakBytes = liveBytes;
+			}
+		}
+		return trackedArray;
+	}
+
+	static void closed(TrackedArray trackedArray) {
+		synchronized (trackedArrays) {
+			if (trackedArrays.remove(trackedArray)) {
+				liveBytes -= trackedArray.bytes;
+			}
+		}
+		trackedArray.clear();
+	}
+
+	private static void releaseCollectedArrays() {
+		Reference<? extends BufferArray> reference;
+		while ((reference = collectedArrays.poll()) != null) {
+			TrackedArray trackedArray = (TrackedArray) reference;
+			if (trackedArrays.remove(trackedArray)) {
+				liveBytes -= trackedArray.bytes;
+			}
+		}
+	}
+
+	/**
+	 * Returns the bytes of the tracked arrays which have not been closed or
+	 * garbage collected yet.
+	 */
+	public static long liveBytes() {
+		synchronized (trackedArrays) {
+			releaseCollectedArrays();
+			return liveBytes;
+		}
+	}
+
+	/**
+	 * Returns the greatest number of live bytes since the last
+	 * {@link #resetPeak()}.
+	 */
+	public static long peakBytes() {
+		synchronized (trackedArrays) {
+			return peakBytes;
+		}
+	}
+
+	/**
+	 * Starts a new measurement of the peak, such as the one of a training
+	 * step, from the current live bytes.
+	 */
+	public static void resetPeak() {
+		synchronized (trackedArrays) {
+			releaseCollectedArrays();
+			peakBytes = liveBytes;
+		}
+	}
+}
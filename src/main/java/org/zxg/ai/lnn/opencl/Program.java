@@ -16,15 +16,22 @@
  */
 package org.zxg.ai.lnn.opencl;
 
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 
 import org.zxg.ai.lnn.LnnIOException;
 
 import com.jogamp.opencl.CLContext;
 import com.jogamp.opencl.CLDevice;
 import com.jogamp.opencl.CLException;
+import com.jogamp.opencl.CLKernel;
 import com.jogamp.opencl.CLProgram;
 
 /**
@@ -32,8 +39,8 @@ import com.jogamp.opencl.CLProgram;
  */
 public class Program implements Closeable {
 
-	private static CLContext DEFAULT_CONTEXT;
-	private static CLDevice DEFAULT_DEVICE;
+	private static volatile CLContext DEFAULT_CONTEXT;
+	private static volatile CLDevice DEFAULT_DEVICE;
 
 	public static CLContext defaultContext() {
 		if (null == DEFAULT_CONTEXT) {
@@ -48,12 +55,18 @@ public class Program implements Closeable {
 
 	public static CLDevice defaultDevice() {
 		if (null == DEFAULT_DEVICE) {
-			DEFAULT_DEVICE = defaultContext().getMaxFlopsDevice();
+			synchronized (Program.class) {
+				if (null == DEFAULT_DEVICE) {
+					DEFAULT_DEVICE = defaultContext().getMaxFlopsDevice();
+				}
+			}
 		}
 		return DEFAULT_DEVICE;
 	}
 
 	private CLProgram program;
+	private final List<CLKernel> createdKernels = new LinkedList<>();
+	private final ThreadLocal<Map<String, CLKernel>> threadKernels = ThreadLocal.withInitial(HashMap::new);
 
 	protected Program() {
 	}
@@ -70,6 +83,14 @@ public class Program implements Closeable {
 		init(ctx, in);
 	}
 
+	/**
+	 * Builds the source for the device only, through the cache if it is not
+	 * null.
+	 */
+	public Program(CLDevice device, InputStream in, ProgramCache cache) throws LnnIOException, LnnCLException {
+		init(device, in, cache);
+	}
+
 	protected void init(CLContext ctx) throws LnnIOException, LnnCLException {
 		init(ctx, this.getClass().getSimpleName() + ".cl");
 	}
@@ -89,16 +110,72 @@ public class Program implements Closeable {
 		}
 	}
 
+	protected void init(CLDevice device, InputStream in, ProgramCache cache) throws LnnIOException, LnnCLException {
+		try {
+			if (null == cache) {
+				this.program = device.getContext().createProgram(in).build(device);
+			} else {
+				this.program = cache.build(device, new String(readAll(in), StandardCharsets.UTF_8));
+			}
+		} catch (IOException e) {
+			throw new LnnIOException(e);
+		} catch (CLException e) {
+			throw new LnnCLException(e);
+		}
+	}
+
+	static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int length;
+		while ((length = in.read(buffer)) > 0) {
+			out.write(buffer, 0, length);
+		}
+		return out.toByteArray();
+	}
+
 	public Calling call() {
 		return call("run");
 	}
 
 	public Calling call(String function) {
-		return new Calling(program, function);
+		return new Calling(this, function);
+	}
+
+	/**
+	 * Returns the kernel object of the function for the current thread. A
+	 * {@link CLKernel} holds its arguments, so it can not be shared between
+	 * threads, but it can be reused by the following calls of the same thread.
+	 */
+	CLKernel kernel(String function) throws LnnCLException {
+		Map<String, CLKernel> kernels = threadKernels.get();
+		CLKernel kernel = kernels.get(function);
+		if (null == kernel) {
+			try {
+				synchronized (this) {
+					kernel = program.createCLKernel(function);
+					createdKernels.add(kernel);
+				}
+			} catch (CLException e) {
+				throw new LnnCLException(e);
+			}
+			kernels.put(function, kernel);
+		}
+		return kernel.rewind();
+	}
+
+	CLProgram clProgram() {
+		return program;
 	}
 
 	@Override
 	public void close() {
+		synchronized (this) {
+			for (CLKernel kernel : createdKernels) {
+				kernel.release();
+			}
+			createdKernels.clear();
+		}
 		this.program.release();
 	}
 }
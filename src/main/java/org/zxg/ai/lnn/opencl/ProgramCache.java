@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.opencl;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+
+import org.zxg.ai.lnn.LnnIOException;
+
+import com.jogamp.opencl.CLDevice;
+import com.jogamp.opencl.CLException;
+import com.jogamp.opencl.CLProgram;
+
+/**
+ * Keeps the binaries of the built programs in a directory, so a program is
+ * compiled only once across runs. A binary is keyed by the hash of the device
+ * name, the driver version and the source, so a new driver or a changed source
+ * builds the program again. A binary which the driver refuses is replaced by a
+ * new build. A cache is enabled with {@link Device#programCache(ProgramCache)}.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class ProgramCache {
+
+	private final File directory;
+
+	public ProgramCache(File directory) throws LnnIOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new LnnIOException(new IOException("Can not create the directory " + directory + "."));
+		}
+		this.directory = directory;
+	}
+
+	static String key(CLDevice device, String source) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		digest.update((device.getName() + '\n' + device.getDriverVersion() + '\n').getBytes(StandardCharsets.UTF_8));
+		digest.update(source.getBytes(StandardCharsets.UTF_8));
+		StringBuilder key = new StringBuilder();
+		for (byte b : digest.digest()) {
+			key.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Returns the program of the source built for the device, from its cached
+	 * binary if there is one.
+	 */
+	CLProgram build(CLDevice device, String source) throws LnnIOException, LnnCLException {
+		final File file = new File(directory, key(device, source) + ".bin");
+		if (file.isFile()) {
+			CLProgram program = null;
+			try {
+				program = device.getContext().createProgram(Collections.singletonMap(device, read(file)));
+				return program.build(device);
+			} catch (IOException | CLException e) {
+				// The binary is damaged or belongs to another driver.
+				if (null != program) {
+					program.release();
+				}
+			}
+		}
+		CLProgram program;
+		try {
+			program = device.getContext().createProgram(source).build(device);
+		} catch (CLException e) {
+			throw new LnnCLException(e);
+		}
+		byte[] binary = program.getBinaries().get(device);
+		if (null != binary && binary.length > 0) {
+			write(file, binary);
+		}
+		return program;
+	}
+
+	private static byte[] read(File file) throws IOException {
+		try (InputStream in = new FileInputStream(file)) {
+			return Program.readAll(in);
+		}
+	}
+
+	/**
+	 * Writes the binary to a temporary file first, so other processes never
+	 * load a partly written binary.
+	 */
+	private void write(File file, byte[] binary) throws LnnIOException {
+		try {
+			File temporaryFile = File.createTempFile(file.getName(), ".tmp", directory);
+			try (OutputStream out = new FileOutputStream(temporaryFile)) {
+				out.write(binary);
+			}
+			if (!temporaryFile.renameTo(file)) {
+				temporaryFile.delete();
+			}
+		} catch (IOException e) {
+			throw new LnnIOException(e);
+		}
+	}
+}
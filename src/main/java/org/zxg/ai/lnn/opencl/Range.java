@@ -16,13 +16,190 @@
  */
 package org.zxg.ai.lnn.opencl;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.zxg.ai.lnn.LnnException;
+
 import com.jogamp.opencl.CLCommandQueue;
+import com.jogamp.opencl.CLDevice;
 import com.jogamp.opencl.CLKernel;
 
 /**
+ * The global and local sizes of a kernel launch. A local size of 0 lets the
+ * range choose the local size from the limits of the device and the kernel.
+ * When a global size is not a multiple of a chosen local size, the remainder
+ * is launched separately with a global offset and a local size chosen by the
+ * driver, so the kernels need no guards. A kernel relying on its group ids or
+ * on local memory tiles gives an explicit local size instead, which must
+ * divide the global size.
+ *
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
 public abstract class Range {
 
-	public abstract void putToQueue(CLCommandQueue queue, CLKernel kernel);
+	/** The largest work-group size which is chosen automatically. */
+	public static final int MAX_AUTO_LOCAL_SIZE = 256;
+	/** The smallest work-group size which is tried by a tuner. */
+	public static final int MIN_CANDIDATE_LOCAL_SIZE = 16;
+
+	/**
+	 * Returns the global sizes, one per dimension.
+	 */
+	public abstract long[] globalSize();
+
+	/**
+	 * Returns the local sizes, or null if they are chosen automatically.
+	 */
+	public abstract long[] localSize();
+
+	public void putToQueue(CLCommandQueue queue, CLKernel kernel) {
+		long[] localSize = localSize();
+		if (null == localSize) {
+			localSize = autoLocalSize(queue.getDevice(), kernel);
+		} else {
+			final long[] globalSize = globalSize();
+			for (int d = 0; d < localSize.length; d++) {
+				if (0 != globalSize[d] % localSize[d]) {
+					throw new LnnException("The global size " + this + " is not a multiple of the local size.");
+				}
+			}
+		}
+		putToQueue(queue, kernel, localSize);
+	}
+
+	/**
+	 * Launches the kernel with the given local sizes.
+	 */
+	public void putToQueue(CLCommandQueue queue, CLKernel kernel, long[] localSize) {
+		final long[] globalSize = globalSize();
+		final int dimensions = globalSize.length;
+		final long[] fullSize = new long[dimensions];
+		for (int d = 0; d < dimensions; d++) {
+			fullSize[d] = globalSize[d] / localSize[d] * localSize[d];
+		}
+		final long[] offset = new long[dimensions];
+		final long[] size = new long[dimensions];
+		// Each bit of the part selects the remainder instead of the full part
+		// of a dimension.
+		for (int part = 0, parts = 1 << dimensions; part < parts; part++) {
+			boolean empty = false;
+			for (int d = 0; d < dimensions; d++) {
+				if (0 == (part & (1 << d))) {
+					offset[d] = 0;
+					size[d] = fullSize[d];
+				} else {
+					offset[d] = fullSize[d];
+					size[d] = globalSize[d] - fullSize[d];
+				}
+				empty |= 0 == size[d];
+			}
+			if (!empty) {
+				put(queue, kernel, offset, size, 0 == part ? localSize : new long[dimensions]);
+			}
+		}
+	}
+
+	private static void put(CLCommandQueue queue, CLKernel kernel, long[] offset, long[] size, long[] localSize) {
+		switch (size.length) {
+		case 1:
+			queue.put1DRangeKernel(kernel, offset[0], size[0], localSize[0]);
+			break;
+		case 2:
+			queue.put2DRangeKernel(kernel, offset[0], offset[1], size[0], size[1], localSize[0], localSize[1]);
+			break;
+		default:
+			queue.put3DRangeKernel(kernel, offset[0], offset[1], offset[2], size[0], size[1], size[2], localSize[0],
+					localSize[1], localSize[2]);
+		}
+	}
+
+	/**
+	 * Returns the largest work-group size of the kernel on the device, bounded
+	 * by {@link #MAX_AUTO_LOCAL_SIZE}.
+	 */
+	protected static long maxLocalSize(CLDevice device, CLKernel kernel, long bound) {
+		return Math.max(1, Math.min(bound, Math.min(kernel.getWorkGroupSize(device), device.getMaxWorkGroupSize())));
+	}
+
+	private static long floorPowerOfTwo(long value) {
+		return value < 1 ? 1 : Long.highestOneBit(value);
+	}
+
+	/**
+	 * Chooses power-of-two local sizes which fit the global sizes, the limits
+	 * of the device and the kernel, and {@link #MAX_AUTO_LOCAL_SIZE}. A global
+	 * size below the limit of a one-dimensional range is used as the local size.
+	 */
+	public long[] autoLocalSize(CLDevice device, CLKernel kernel) {
+		final long[] globalSize = globalSize();
+		final int[] maxItemSizes = device.getMaxWorkItemSizes();
+		final long total = maxLocalSize(device, kernel, MAX_AUTO_LOCAL_SIZE);
+		final long[] localSize = new long[globalSize.length];
+		if (1 == globalSize.length && globalSize[0] <= Math.min(total, maxItemSizes[0])) {
+			localSize[0] = Math.max(1, globalSize[0]);
+			return localSize;
+		}
+		long product = 1;
+		for (int d = 0; d < localSize.length; d++) {
+			localSize[d] = floorPowerOfTwo(Math.min(globalSize[d], maxItemSizes[d]));
+			product *= localSize[d];
+		}
+		while (product > total) {
+			int largest = 0;
+			for (int d = 1; d < localSize.length; d++) {
+				if (localSize[d] > localSize[largest]) {
+					largest = d;
+				}
+			}
+			localSize[largest] /= 2;
+			product /= 2;
+		}
+		return localSize;
+	}
+
+	/**
+	 * Returns the local sizes which a tuner tries: the automatic ones, and all
+	 * the power-of-two sizes which fit the global sizes and the limits of the
+	 * device and the kernel.
+	 */
+	public List<long[]> localSizeCandidates(CLDevice device, CLKernel kernel) {
+		final long[] globalSize = globalSize();
+		final int[] maxItemSizes = device.getMaxWorkItemSizes();
+		final long total = maxLocalSize(device, kernel, Long.MAX_VALUE);
+		final List<long[]> candidates = new ArrayList<>();
+		candidates.add(autoLocalSize(device, kernel));
+		addCandidates(candidates, new long[globalSize.length], 0, 1, globalSize, maxItemSizes, total);
+		return candidates;
+	}
+
+	private static void addCandidates(List<long[]> candidates, long[] localSize, int dimension, long product,
+			long[] globalSize, int[] maxItemSizes, long total) {
+		if (dimension == localSize.length) {
+			if (product >= Math.min(MIN_CANDIDATE_LOCAL_SIZE, total)) {
+				candidates.add(localSize.clone());
+			}
+			return;
+		}
+		final long bound = Math.min(globalSize[dimension], maxItemSizes[dimension]);
+		for (long size = 1; size <= bound && product * size <= total; size *= 2) {
+			localSize[dimension] = size;
+			addCandidates(candidates, localSize, dimension + 1, product * size, globalSize, maxItemSizes, total);
+		}
+	}
+
+	/**
+	 * Returns the global sizes as a string like {@code 1024x768}.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (long size : globalSize()) {
+			if (builder.length() > 0) {
+				builder.append('x');
+			}
+			builder.append(size);
+		}
+		return builder.toString();
+	}
 }
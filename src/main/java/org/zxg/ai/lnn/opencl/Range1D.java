@@ -16,9 +16,6 @@
  */
 package org.zxg.ai.lnn.opencl;
 
-import com.jogamp.opencl.CLCommandQueue;
-import com.jogamp.opencl.CLKernel;
-
 /**
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
@@ -28,7 +25,7 @@ public class Range1D extends Range {
 	private int localWidth;
 
 	public Range1D(int globalWidth) {
-		this(globalWidth, 1);
+		this(globalWidth, 0);
 	}
 
 	public Range1D(int globalWidth, int localWidth) {
@@ -37,7 +34,15 @@ public class Range1D extends Range {
 	}
 
 	@Override
-	public void putToQueue(CLCommandQueue queue, CLKernel kernel) {
-		queue.put1DRangeKernel(kernel, 0, globalWidth, localWidth);
+	public long[] globalSize() {
+		return new long[] { globalWidth };
+	}
+
+	@Override
+	public long[] localSize() {
+		if (0 == localWidth) {
+			return null;
+		}
+		return new long[] { localWidth };
 	}
 }
@@ -16,9 +16,6 @@
  */
 package org.zxg.ai.lnn.opencl;
 
-import com.jogamp.opencl.CLCommandQueue;
-import com.jogamp.opencl.CLKernel;
-
 /**
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
@@ -30,7 +27,7 @@ public class Range2D extends Range {
 	private int localHeight;
 
 	public Range2D(int globalWidth, int globalHeight) {
-		this(globalWidth, globalHeight, 1, 1);
+		this(globalWidth, globalHeight, 0, 0);
 	}
 
 	public Range2D(int globalWidth, int globalHeight, int localWidth, int localHeight) {
@@ -41,7 +38,15 @@ public class Range2D extends Range {
 	}
 
 	@Override
-	public void putToQueue(CLCommandQueue queue, CLKernel kernel) {
-		queue.put2DRangeKernel(kernel, 0, 0, globalWidth, globalHeight, localWidth, localHeight);
+	public long[] globalSize() {
+		return new long[] { globalWidth, globalHeight };
+	}
+
+	@Override
+	public long[] localSize() {
+		if (0 == localWidth || 0 == localHeight) {
+			return null;
+		}
+		return new long[] { localWidth, localHeight };
 	}
 }
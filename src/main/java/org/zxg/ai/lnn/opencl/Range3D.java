@@ -16,9 +16,6 @@
  */
 package org.zxg.ai.lnn.opencl;
 
-import com.jogamp.opencl.CLCommandQueue;
-import com.jogamp.opencl.CLKernel;
-
 /**
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
@@ -32,7 +29,7 @@ public class Range3D extends Range {
 	private int localDepth;
 
 	public Range3D(int globalWidth, int globalHeight, int globalDepth) {
-		this(globalWidth, globalHeight, globalDepth, 1, 1, 1);
+		this(globalWidth, globalHeight, globalDepth, 0, 0, 0);
 	}
 
 	public Range3D(int globalWidth, int globalHeight, int globalDepth, int localWidth, int localHeight,
@@ -46,8 +43,15 @@ public class Range3D extends Range {
 	}
 
 	@Override
-	public void putToQueue(CLCommandQueue queue, CLKernel kernel) {
-		queue.put3DRangeKernel(kernel, 0, 0, 0, globalWidth, globalHeight, globalDepth, localWidth, localHeight,
-				localDepth);
+	public long[] globalSize() {
+		return new long[] { globalWidth, globalHeight, globalDepth };
+	}
+
+	@Override
+	public long[] localSize() {
+		if (0 == localWidth || 0 == localHeight || 0 == localDepth) {
+			return null;
+		}
+		return new long[] { localWidth, localHeight, localDepth };
 	}
 }
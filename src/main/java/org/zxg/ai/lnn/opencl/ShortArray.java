@@ -28,21 +28,16 @@ public class ShortArray extends BufferArray {
 	public final int length;
 
 	public static void copy(ShortArray src, int srcPos, ShortArray dest, int destPos, int length) {
-		final ShortBuffer srcBuffer = src.buffer;
-		final ShortBuffer destBuffer = dest.buffer;
-		final int originalSrcPosition = srcBuffer.position();
-		final int originalSrcLimit = srcBuffer.limit();
-		final int originalDestPosition = destBuffer.position();
-		try {
-			srcBuffer.position(srcPos);
-			srcBuffer.limit(srcPos + length);
-			destBuffer.position(destPos);
-			destBuffer.put(srcBuffer);
-		} finally {
-			srcBuffer.position(originalSrcPosition);
-			srcBuffer.limit(originalSrcLimit);
-			destBuffer.position(originalDestPosition);
-		}
+		src.syncHost();
+		dest.touchHost();
+		// Positions are set on duplicates, so that the arrays can be read by
+		// several threads at once.
+		final ShortBuffer srcBuffer = src.buffer.duplicate();
+		final ShortBuffer destBuffer = dest.buffer.duplicate();
+		srcBuffer.position(srcPos);
+		srcBuffer.limit(srcPos + length);
+		destBuffer.position(destPos);
+		destBuffer.put(srcBuffer);
 	}
 
 	public static ShortArray copyOfRange(ShortArray original, int from, int to) {
@@ -56,41 +51,47 @@ public class ShortArray extends BufferArray {
 	}
 
 	public ShortArray(int length) {
-		this.buffer = Buffers.newDirectShortBuffer(length);
+		this.buffer = allocate(length * Buffers.SIZEOF_SHORT, true).asShortBuffer();
 		this.length = length;
 	}
 
 	public ShortArray(short[] elements) {
-		this.buffer = Buffers.newDirectShortBuffer(elements);
+		this.buffer = allocate(elements.length * Buffers.SIZEOF_SHORT, false).asShortBuffer();
+		this.buffer.put(elements);
+		this.buffer.rewind();
 		this.length = elements.length;
 	}
 
 	public ShortArray(ShortArray other) {
-		this.buffer = Buffers.copyShortBuffer(other.buffer);
+		this.buffer = allocate(other.length * Buffers.SIZEOF_SHORT, false).asShortBuffer();
 		this.length = other.length;
+		if (!copyOnDevice(other)) {
+			copy(other, 0, this, 0, length);
+		}
 	}
 
 	public ShortArray(ShortBuffer buffer) {
-		this.buffer = Buffers.copyShortBuffer(buffer);
-		this.length = this.buffer.capacity() / Buffers.SIZEOF_SHORT;
+		this.length = buffer.remaining();
+		this.buffer = allocate(length * Buffers.SIZEOF_SHORT, false).asShortBuffer();
+		this.buffer.put(buffer.duplicate());
+		this.buffer.rewind();
 	}
 
 	public short get(int index) {
+		syncHost();
 		return buffer.get(index);
 	}
 
 	public void set(int index, short value) {
+		touchHost();
 		buffer.put(index, value);
 	}
 
 	public void get(int begin, short[] elements, int offset, int length) {
-		final int originalPosition = buffer.position();
-		try {
-			buffer.position(begin);
-			buffer.get(elements, offset, length);
-		} finally {
-			buffer.position(originalPosition);
-		}
+		syncHost();
+		final ShortBuffer view = buffer.duplicate();
+		view.position(begin);
+		view.get(elements, offset, length);
 	}
 
 	public short[] get(int begin, int end) {
@@ -104,13 +105,10 @@ public class ShortArray extends BufferArray {
 	}
 
 	public void set(int begin, short[] elements, int offset, int length) {
-		final int originalPosition = buffer.position();
-		try {
-			buffer.position(begin);
-			buffer.put(elements, offset, length);
-		} finally {
-			buffer.position(originalPosition);
-		}
+		touchHost();
+		final ShortBuffer view = buffer.duplicate();
+		view.position(begin);
+		view.put(elements, offset, length);
 	}
 
 	public void set(int begin, short[] elements, int offset) {
@@ -133,6 +131,23 @@ public class ShortArray extends BufferArray {
 		set(0, elements);
 	}
 
+	/**
+	 * Returns the host buffer for reading it on the host, for example by a
+	 * kernel of a device which is not backed by OpenCL.
+	 */
+	public ShortBuffer hostBuffer() {
+		syncHost();
+		return buffer;
+	}
+
+	/**
+	 * Returns the host buffer for writing it on the host.
+	 */
+	public ShortBuffer writableHostBuffer() {
+		touchHost();
+		return buffer;
+	}
+
 	@Override
 	public ShortArray clone() {
 		return new ShortArray(this);
@@ -140,6 +155,7 @@ public class ShortArray extends BufferArray {
 
 	@Override
 	public int hashCode() {
+		syncHost();
 		return buffer.hashCode();
 	}
 
@@ -155,6 +171,8 @@ public class ShortArray extends BufferArray {
 			return false;
 		}
 		ShortArray other = (ShortArray) obj;
+		syncHost();
+		other.syncHost();
 		return buffer.equals(other.buffer);
 	}
 
@@ -165,6 +183,7 @@ public class ShortArray extends BufferArray {
 
 	@Override
 	public String toString() {
+		syncHost();
 		StringBuilder builder = new StringBuilder();
 		builder.append('[');
 		if (length > 0) {
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.opencl.kernel.cpu;
+
+import java.nio.IntBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.IntArray;
+
+/**
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class ArangeIntKernel extends org.zxg.ai.lnn.opencl.kernel.ArangeIntKernel {
+
+	@Override
+	public void execute(int start, int stop, int step, int repeat, IntArray result) {
+		final IntBuffer resultBuffer = result.writableHostBuffer();
+		((CpuDevice) device()).parallelFor(result.length, (begin, end) -> {
+			for (int i = begin; i < end; i++) {
+				final int value = start + (i / repeat) * step;
+				if (value < stop) {
+					resultBuffer.put(i, value);
+				}
+			}
+		});
+	}
+}
@@ -69,15 +69,23 @@ public class Adadelta extends Optimizer {
 						state.put(param, paramState);
 					}
 					Tensor gradientSum = paramState[0];
-					gradientSum = null != gradientSum ? gradient.mul(gradient).mul(oneSubRho).add(gradientSum.mul(rho))
-							: gradient.mul(gradient).mul(oneSubRho);
-					paramState[0] = gradientSum;
+					if (null != gradientSum) {
+						gradientSum.lazy().mul(rho).add(gradient.lazy().square().mul(oneSubRho)).evaluate(gradientSum);
+					} else {
+						gradientSum = gradient.lazy().square().mul(oneSubRho).evaluate().keep();
+						paramState[0] = gradientSum;
+					}
 					Tensor deltaSum = paramState[1];
-					Tensor delta = null != deltaSum ? gradient.mul(deltaSum.add(eps).div(gradientSum.add(eps)).sqrt())
-							: gradient.mul(gradientSum.add(eps).reciprocal().mul(eps).sqrt());
-					param.value(param.value().sub(delta));
-					paramState[1] = null != deltaSum ? delta.mul(delta).mul(oneSubRho).add(deltaSum.mul(rho))
-							: delta.mul(delta).mul(oneSubRho);
+					Tensor delta = null != deltaSum
+							? gradient.lazy().mul(deltaSum.lazy().add(eps).div(gradientSum.lazy().add(eps)).sqrt())
+									.evaluate()
+							: gradient.lazy().mul(gradientSum.lazy().add(eps).reciprocal().mul(eps).sqrt()).evaluate();
+					param.value().subi(delta);
+					if (null != deltaSum) {
+						deltaSum.lazy().mul(rho).add(delta.lazy().square().mul(oneSubRho)).evaluate(deltaSum);
+					} else {
+						paramState[1] = delta.lazy().square().mul(oneSubRho).evaluate().keep();
+					}
 				}
 			}
 		}
@@ -63,10 +63,15 @@ public class Adagrad extends Optimizer {
 				if (param.requiresGradient()) {
 					Tensor gradient = param.gradient();
 					Tensor gradientSum = (Tensor) state.get(param);
-					gradientSum = null != gradientSum ? gradient.mul(gradient).add(gradientSum)
-							: gradient.mul(gradient);
-					state.put(param, gradientSum);
-					param.value(param.value().sub(gradient.mul(learningRate).div(gradientSum.add(eps).sqrt())));
+					if (null != gradientSum) {
+						gradientSum.lazy().add(gradient.lazy().square()).evaluate(gradientSum);
+					} else {
+						gradientSum = gradient.square().keep();
+						state.put(param, gradientSum);
+					}
+					Tensor value = param.value();
+					value.lazy().sub(gradient.lazy().mul(learningRate).div(gradientSum.lazy().add(eps).sqrt()))
+							.evaluate(value);
 				}
 			}
 		}
@@ -86,16 +86,24 @@ public class Adam extends Optimizer {
 						state.put(param, paramState);
 					}
 					++paramState.step;
-					paramState.gradientSum = null != paramState.gradientSum
-							? gradient.mul(oneSubBeta1).add(paramState.gradientSum.mul(beta1))
-							: gradient.mul(oneSubBeta1);
-					paramState.gradientSquareSum = null != paramState.gradientSquareSum
-							? gradient.mul(gradient).mul(oneSubBeta2).add(paramState.gradientSquareSum.mul(beta2))
-							: gradient.mul(gradient).mul(oneSubBeta2);
-					param.value(param.value()
-							.sub(paramState.gradientSum.div((float) (1 - Math.pow(beta1, paramState.step)))
-									.mul(learningRate).div(paramState.gradientSquareSum
-											.div((float) (1 - Math.pow(beta2, paramState.step))).add(eps).sqrt())));
+					if (null != paramState.gradientSum) {
+						paramState.gradientSum.lazy().mul(beta1).add(gradient.lazy().mul(oneSubBeta1))
+								.evaluate(paramState.gradientSum);
+					} else {
+						paramState.gradientSum = gradient.mul(oneSubBeta1).keep();
+					}
+					if (null != paramState.gradientSquareSum) {
+						paramState.gradientSquareSum.lazy().mul(beta2).add(gradient.lazy().square().mul(oneSubBeta2))
+								.evaluate(paramState.gradientSquareSum);
+					} else {
+						paramState.gradientSquareSum = gradient.lazy().square().mul(oneSubBeta2).evaluate().keep();
+					}
+					Tensor value = param.value();
+					value.lazy()
+							.sub(paramState.gradientSum.lazy().div((float) (1 - Math.pow(beta1, paramState.step)))
+									.mul(learningRate).div(paramState.gradientSquareSum.lazy()
+											.div((float) (1 - Math.pow(beta2, paramState.step))).add(eps).sqrt()))
+							.evaluate(value);
 				}
 			}
 		}
@@ -75,14 +75,21 @@ public class RMSprop extends Optimizer {
 					Tensor gradient = param.gradient();
 					if (0 != momentumFactor) {
 						Tensor gradientSum = (Tensor) state.get(param);
-						gradientSum = null != gradientSum
-								? gradient.mul(gradient).mul(oneSubMomentumFactor).add(gradientSum.mul(momentumFactor))
-								: gradient.mul(gradient).mul(oneSubMomentumFactor);
-						state.put(param, gradientSum);
-						param.value(param.value().sub(gradient.mul(learningRate).div(gradientSum.add(eps).sqrt())));
+						if (null != gradientSum) {
+							gradientSum.lazy().mul(momentumFactor)
+									.add(gradient.lazy().square().mul(oneSubMomentumFactor)).evaluate(gradientSum);
+						} else {
+							gradientSum = gradient.lazy().square().mul(oneSubMomentumFactor).evaluate().keep();
+							state.put(param, gradientSum);
+						}
+						Tensor value = param.value();
+						value.lazy().sub(gradient.lazy().mul(learningRate).div(gradientSum.lazy().add(eps).sqrt()))
+								.evaluate(value);
 					} else {
-						param.value(param.value()
-								.sub(gradient.mul(learningRate).div(gradient.mul(gradient).add(eps).sqrt())));
+						Tensor value = param.value();
+						value.lazy()
+								.sub(gradient.lazy().mul(learningRate).div(gradient.lazy().square().add(eps).sqrt()))
+								.evaluate(value);
 					}
 				}
 			}
@@ -70,12 +70,16 @@ public class SGD extends Optimizer {
 					Tensor deltaParam = param.gradient();
 					if (0 != momentumFactor) {
 						Tensor lastMomentum = (Tensor) state.get(param);
-						lastMomentum = null != lastMomentum ? deltaParam.add(lastMomentum.mul(momentumFactor))
-								: deltaParam;
-						state.put(param, lastMomentum);
-						deltaParam = nesterov ? deltaParam.add(lastMomentum.mul(momentumFactor)) : lastMomentum;
+						if (null != lastMomentum) {
+							lastMomentum.lazy().mul(momentumFactor).add(deltaParam).evaluate(lastMomentum);
+						} else {
+							lastMomentum = deltaParam.clone().keep();
+							state.put(param, lastMomentum);
+						}
+						deltaParam = nesterov ? deltaParam.lazy().add(lastMomentum.lazy().mul(momentumFactor)).evaluate()
+								: lastMomentum;
 					}
-					param.value(param.value().sub(deltaParam.mul(learningRate)));
+					param.value().axpy(-learningRate, deltaParam);
 				}
 			}
 		}
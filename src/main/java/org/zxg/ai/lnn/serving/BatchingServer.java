@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.serving;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.zxg.ai.lnn.LnnException;
+import org.zxg.ai.lnn.nn.Component;
+import org.zxg.ai.lnn.tensor.Tensor;
+
+/**
+ * Runs the requests of many threads through a component in batches. The
+ * requests which arrive together are joined along their first axis, up to a
+ * maximum batch size or until the first of them has waited a maximum time,
+ * and the outputs of the batch are split back along their first axis to the
+ * requests.
+ * <p>
+ * A request is a set of inputs of the component with the same length of the
+ * first axis, usually 1. The component must take inputs and return outputs
+ * which are batched along their first axis.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class BatchingServer implements Closeable {
+
+	private static final class Request {
+		final Tensor[] input;
+		final int rows;
+		final long arrivalTime;
+		final CompletableFuture<Tensor[]> output = new CompletableFuture<>();
+
+		Request(Tensor[] input, int rows, long arrivalTime) {
+			this.input = input;
+			this.rows = rows;
+			this.arrivalTime = arrivalTime;
+		}
+	}
+
+	/** Put in the queue by close() to stop a worker. */
+	private static final Request STOP = new Request(new Tensor[0], 0, 0);
+
+	private final Component component;
+	private final int maxBatchSize;
+	private final long maxWaitNanos;
+	private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+	private final List<Thread> workers = new ArrayList<>();
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final LatencyHistogram queueLatency = new LatencyHistogram();
+	private final AtomicLong batches = new AtomicLong();
+	private final AtomicLong batchedRows = new AtomicLong();
+	private volatile boolean closed;
+
+	public BatchingServer(Component component, int maxBatchSize, long maxWait, TimeUnit unit) {
+		this(component, maxBatchSize, maxWait, unit, 1);
+	}
+
+	/**
+	 * @param maxBatchSize the maximum length of the first axis of a batch; a
+	 *                     request which is longer runs alone
+	 * @param maxWait      the maximum time which a request waits for other
+	 *                     requests to join its batch
+	 * @param workerCount  the count of the threads which run batches at the
+	 *                     same time, which share the component
+	 */
+	public BatchingServer(Component component, int maxBatchSize, long maxWait, TimeUnit unit, int workerCount) {
+		if (maxBatchSize < 1) {
+			throw new IllegalArgumentException("maxBatchSize < 1");
+		}
+		if (workerCount < 1) {
+			throw new IllegalArgumentException("workerCount < 1");
+		}
+		this.component = component;
+		this.maxBatchSize = maxBatchSize;
+		this.maxWaitNanos = unit.toNanos(maxWait);
+		for (int i = 0; i < workerCount; i++) {
+			Thread worker = new Thread(this::work, "batching-server-" + i);
+			worker.setDaemon(true);
+			workers.add(worker);
+			worker.start();
+		}
+	}
+
+	/**
+	 * Queues a request, whose inputs must not be modified until its output is
+	 * complete.
+	 *
+	 * @return the outputs of the component for the request
+	 */
+	public CompletableFuture<Tensor[]> submit(Tensor... input) {
+		if (0 == input.length) {
+			throw new IllegalArgumentException("No input.");
+		}
+		final int rows = input[0].shape().get(0);
+		for (Tensor tensor : input) {
+			if (tensor.shape().get(0) != rows) {
+				throw new LnnException("The inputs of a request have different lengths of the first axis.");
+			}
+		}
+		Request request = new Request(input, rows, System.nanoTime());
+		queue.add(request);
+		// A request queued after the workers have stopped is taken back here, or
+		// by close().
+		if (closed && queue.remove(request)) {
+			request.output.completeExceptionally(new LnnException("The server has been closed."));
+		}
+		return request.output;
+	}
+
+	/**
+	 * Returns the histogram of the times from the submission of the requests
+	 * to the completion of their outputs.
+	 */
+	public LatencyHistogram latency() {
+		return latency;
+	}
+
+	/**
+	 * Returns the histogram of the times which the requests waited before their
+	 * batches started to run.
+	 */
+	public LatencyHistogram queueLatency() {
+		return queueLatency;
+	}
+
+	public long batchCount() {
+		return batches.get();
+	}
+
+	/**
+	 * Returns the mean length of the first axis of the batches which have run.
+	 */
+	public double meanBatchSize() {
+		final long n = batches.get();
+		return 0 == n ? 0 : (double) batchedRows.get() / n;
+	}
+
+	private void work() {
+		// The request which did not fit into the previous batch.
+		Request next = null;
+		List<Request> batch = new ArrayList<>();
+		try {
+			while (true) {
+				Request first = null != next ? next : queue.take();
+				next = null;
+				if (STOP == first) {
+					break;
+				}
+				batch.add(first);
+				int rows = first.rows;
+				final long deadline = first.arrivalTime + maxWaitNanos;
+				boolean stop = false;
+				while (rows < maxBatchSize) {
+					long timeout = deadline - System.nanoTime();
+					Request request = timeout > 0 ? queue.poll(timeout, TimeUnit.NANOSECONDS) : queue.poll();
+					if (null == request) {
+						break;
+					}
+					if (STOP == request) {
+						stop = true;
+						break;
+					}
+					if (rows + request.rows > maxBatchSize) {
+						next = request;
+						break;
+					}
+					batch.add(request);
+					rows += request.rows;
+				}
+				run(batch, rows);
+				batch.clear();
+				if (stop) {
+					break;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		LnnException closedException = new LnnException("The server has been closed.");
+		if (null != next) {
+			next.output.completeExceptionally(closedException);
+		}
+		for (Request request : batch) {
+			request.output.completeExceptionally(closedException);
+		}
+	}
+
+	private void run(List<Request> batch, int rows) {
+		final long startTime = System.nanoTime();
+		for (Request request : batch) {
+			queueLatency.record(startTime - request.arrivalTime);
+		}
+		try {
+			final int inputCount = batch.get(0).input.length;
+			Tensor[] input = new Tensor[inputCount];
+			for (int i = 0; i < inputCount; i++) {
+				if (1 == batch.size()) {
+					input[i] = batch.get(0).input[i];
+				} else {
+					Tensor[] parts = new Tensor[batch.size()];
+					for (int j = 0; j < parts.length; j++) {
+						if (batch.get(j).input.length != inputCount) {
+							throw new LnnException("The requests have different counts of inputs.");
+						}
+						parts[j] = batch.get(j).input[i];
+					}
+					input[i] = Tensor.concatenate(parts);
+				}
+			}
+			Tensor[] output = component.forward(input);
+			int begin = 0;
+			for (Request request : batch) {
+				Tensor[] requestOutput = new Tensor[output.length];
+				for (int i = 0; i < output.length; i++) {
+					requestOutput[i] = 1 == batch.size() ? output[i] : output[i].slice(begin, begin + request.rows);
+				}
+				begin += request.rows;
+				latency.record(System.nanoTime() - request.arrivalTime);
+				request.output.complete(requestOutput);
+			}
+		} catch (RuntimeException e) {
+			for (Request request : batch) {
+				request.output.completeExceptionally(e);
+			}
+		}
+		batches.incrementAndGet();
+		batchedRows.addAndGet(rows);
+	}
+
+	/**
+	 * Runs the queued requests, then stops the workers. The requests submitted
+	 * after that fail.
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		for (int i = 0; i < workers.size(); i++) {
+			queue.add(STOP);
+		}
+		for (Thread worker : workers) {
+			try {
+				worker.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		Request request;
+		while (null != (request = queue.poll())) {
+			if (STOP != request) {
+				request.output.completeExceptionally(new LnnException("The server has been closed."));
+			}
+		}
+	}
+}
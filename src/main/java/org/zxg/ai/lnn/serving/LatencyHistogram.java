@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.serving;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies in nanoseconds which can be recorded by several
+ * threads without locking. The buckets grow geometrically, four per power of
+ * two, so a percentile is known to within about 19%.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKETS = 4;
+	private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	private static int bucket(long nanos) {
+		if (nanos < SUB_BUCKETS) {
+			// Too small to be split, each of these latencies has its own bucket.
+			return (int) Math.max(0, nanos);
+		}
+		final int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		// The two bits after the leading one select the sub-bucket.
+		final int fraction = (int) (nanos >>> (exponent - 2)) & 3;
+		return exponent * SUB_BUCKETS + fraction;
+	}
+
+	/**
+	 * Returns the largest latency which falls into the bucket.
+	 */
+	private static long upperBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		final int exponent = bucket / SUB_BUCKETS;
+		final int fraction = bucket % SUB_BUCKETS;
+		if (exponent >= 62) {
+			return Long.MAX_VALUE;
+		}
+		return ((4L + fraction + 1) << (exponent - 2)) - 1;
+	}
+
+	public void record(long nanos) {
+		counts.incrementAndGet(bucket(nanos));
+		count.incrementAndGet();
+		sum.addAndGet(nanos);
+		long currentMax = max.get();
+		while (nanos > currentMax && !max.compareAndSet(currentMax, nanos)) {
+			currentMax = max.get();
+		}
+	}
+
+	public long count() {
+		return count.get();
+	}
+
+	public double mean() {
+		final long n = count.get();
+		return 0 == n ? 0 : (double) sum.get() / n;
+	}
+
+	public long max() {
+		return max.get();
+	}
+
+	/**
+	 * Returns an upper bound of the latency under which the given fraction of
+	 * the recorded latencies fall, for example 0.99 for the p99.
+	 */
+	public long percentile(double fraction) {
+		final long n = count.get();
+		if (0 == n) {
+			return 0;
+		}
+		final long rank = Math.max(1, (long) Math.ceil(fraction * n));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				return Math.min(upperBound(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * Returns, for each non-empty bucket in order, the largest latency which
+	 * falls into it and the count of the latencies recorded in it.
+	 */
+	public long[][] buckets() {
+		int nonEmpty = 0;
+		long[] snapshot = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+			if (0 != snapshot[i]) {
+				nonEmpty++;
+			}
+		}
+		long[][] buckets = new long[nonEmpty][];
+		for (int i = 0, j = 0; i < BUCKETS; i++) {
+			if (0 != snapshot[i]) {
+				buckets[j++] = new long[] { upperBound(i), snapshot[i] };
+			}
+		}
+		return buckets;
+	}
+
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		count.set(0);
+		sum.set(0);
+		max.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%d, mean=%.1fus, p50=%.1fus, p90=%.1fus, p99=%.1fus, max=%.1fus", count(),
+				mean() / 1e3, percentile(0.5) / 1e3, percentile(0.9) / 1e3, percentile(0.99) / 1e3, max() / 1e3);
+	}
+}
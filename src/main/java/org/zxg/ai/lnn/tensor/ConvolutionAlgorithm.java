@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor;
+
+/**
+ * The algorithms which can compute a cross-correlation of
+ * {@link Tensor#conv1d}, {@link Tensor#conv2d} or {@link Tensor#conv3d}.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public enum ConvolutionAlgorithm {
+	/** Chooses an algorithm by the shapes of the operands. */
+	AUTO,
+	/**
+	 * Computes each element of the result from the input and the weight, which
+	 * needs no scratch memory.
+	 */
+	DIRECT,
+	/**
+	 * Lowers the patches of the input into column matrices, and multiplies the
+	 * weight by them with the tiled matrix product, which reuses the data in
+	 * the caches or the local memory but needs a scratch array of the columns.
+	 * It only applies to {@link Tensor#conv2d} and {@link Tensor#conv3d}.
+	 */
+	IM2COL,
+	/**
+	 * Computes each 2x2 tile of the result with the Winograd algorithm
+	 * F(2x2, 3x3), which needs fewer multiplications than the other algorithms.
+	 * It only applies to {@link Tensor#conv2d} with a 3x3 weight, a stride of
+	 * 1, a dilation of 1 and 1 group, and the direct algorithm is used
+	 * otherwise. The weight is transformed once until it is modified.
+	 */
+	WINOGRAD,
+	/**
+	 * Multiplies the spectra of the input and the weight, whose cost does not
+	 * grow with the width of the kernel, which pays off for wide kernels. It
+	 * only applies to {@link Tensor#conv1d}, and the direct algorithm is used
+	 * otherwise. It rounds the elements more than the other algorithms, by
+	 * about the precision of the float times the logarithm of the length.
+	 */
+	FFT,
+	/**
+	 * Computes each output channel from its single input channel with a
+	 * dedicated kernel, which keeps a tile of the input channel in the local
+	 * memory or in a local array. It only applies to {@link Tensor#conv1d} and
+	 * {@link Tensor#conv2d} whose groups are the input channels, and the direct
+	 * algorithm is used otherwise.
+	 */
+	DEPTHWISE
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.zxg.ai.lnn.LnnException;
+import org.zxg.ai.lnn.tensor.kernel.FusedKernel;
+
+/**
+ * A lazy chain of elementwise operations on tensors of the same shape. The
+ * operations are only recorded until {@link #evaluate()}, which computes the
+ * whole chain in a single fused kernel, so that no intermediate tensor is
+ * created.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public final class Expression {
+
+	public static enum Operator {
+		TENSOR(0), VALUE(0), NEGATIVE(1), ABS(1), SIGN(1), ADD(2), SUB(2), MUL(2), SQUARE(1), DIV(2),
+		RECIPROCAL(1), SQRT(1), EXP(1), POW(2), LN(1), LOG(2), TANH(1), RELU(1), MAX(2), MIN(2);
+
+		public final int arity;
+
+		private Operator(int arity) {
+			this.arity = arity;
+		}
+	}
+
+	private final Operator operator;
+	private final List<Expression> operands;
+	private final Tensor tensor;
+	private final float value;
+
+	private Expression(Operator operator, List<Expression> operands, Tensor tensor, float value) {
+		this.operator = operator;
+		this.operands = operands;
+		this.tensor = tensor;
+		this.value = value;
+	}
+
+	public static Expression of(Tensor tensor) {
+		return new Expression(Operator.TENSOR, Collections.emptyList(), tensor, 0);
+	}
+
+	public static Expression value(float value) {
+		return new Expression(Operator.VALUE, Collections.emptyList(), null, value);
+	}
+
+	private Expression unary(Operator operator) {
+		return new Expression(operator, Collections.singletonList(this), null, 0);
+	}
+
+	private Expression binary(Operator operator, Expression other) {
+		List<Expression> operands = new ArrayList<>(2);
+		operands.add(this);
+		operands.add(other);
+		return new Expression(operator, Collections.unmodifiableList(operands), null, 0);
+	}
+
+	public Operator operator() {
+		return operator;
+	}
+
+	public List<Expression> operands() {
+		return operands;
+	}
+
+	/**
+	 * Returns the tensor of a {@link Operator#TENSOR} leaf.
+	 */
+	public Tensor tensor() {
+		return tensor;
+	}
+
+	/**
+	 * Returns the value of a {@link Operator#VALUE} leaf.
+	 */
+	public float value() {
+		return value;
+	}
+
+	public Expression negative() {
+		return unary(Operator.NEGATIVE);
+	}
+
+	public Expression abs() {
+		return unary(Operator.ABS);
+	}
+
+	public Expression sign() {
+		return unary(Operator.SIGN);
+	}
+
+	public Expression add(Expression other) {
+		return binary(Operator.ADD, other);
+	}
+
+	public Expression add(Tensor other) {
+		return add(of(other));
+	}
+
+	public Expression add(float value) {
+		return add(value(value));
+	}
+
+	public Expression sub(Expression other) {
+		return binary(Operator.SUB, other);
+	}
+
+	public Expression sub(Tensor other) {
+		return sub(of(other));
+	}
+
+	public Expression sub(float value) {
+		return sub(value(value));
+	}
+
+	public Expression mul(Expression other) {
+		return binary(Operator.MUL, other);
+	}
+
+	public Expression mul(Tensor other) {
+		return mul(of(other));
+	}
+
+	public Expression mul(float value) {
+		return mul(value(value));
+	}
+
+	public Expression square() {
+		return unary(Operator.SQUARE);
+	}
+
+	public Expression div(Expression other) {
+		return binary(Operator.DIV, other);
+	}
+
+	public Expression div(Tensor other) {
+		return div(of(other));
+	}
+
+	public Expression div(float value) {
+		return div(value(value));
+	}
+
+	public Expression reciprocal() {
+		return unary(Operator.RECIPROCAL);
+	}
+
+	public Expression sqrt() {
+		return unary(Operator.SQRT);
+	}
+
+	public Expression exp() {
+		return unary(Operator.EXP);
+	}
+
+	public Expression pow(Expression exponent) {
+		return binary(Operator.POW, exponent);
+	}
+
+	public Expression pow(Tensor exponent) {
+		return pow(of(exponent));
+	}
+
+	public Expression pow(float exponent) {
+		return pow(value(exponent));
+	}
+
+	public Expression ln() {
+		return unary(Operator.LN);
+	}
+
+	/**
+	 * Returns the logarithm of the antilogarithm with this expression as the
+	 * base.
+	 */
+	public Expression log(Expression antilogarithm) {
+		return binary(Operator.LOG, antilogarithm);
+	}
+
+	public Expression log(Tensor antilogarithm) {
+		return log(of(antilogarithm));
+	}
+
+	public Expression tanh() {
+		return unary(Operator.TANH);
+	}
+
+	public Expression relu() {
+		return unary(Operator.RELU);
+	}
+
+	/**
+	 * Returns the greater one of the elements, ignoring NaN.
+	 */
+	public Expression max(Expression other) {
+		return binary(Operator.MAX, other);
+	}
+
+	public Expression max(Tensor other) {
+		return max(of(other));
+	}
+
+	public Expression max(float value) {
+		return max(value(value));
+	}
+
+	/**
+	 * Returns the lesser one of the elements, ignoring NaN.
+	 */
+	public Expression min(Expression other) {
+		return binary(Operator.MIN, other);
+	}
+
+	public Expression min(Tensor other) {
+		return min(of(other));
+	}
+
+	public Expression min(float value) {
+		return min(value(value));
+	}
+
+	/**
+	 * Returns the distinct tensors of the expression in the order of their
+	 * first occurrence.
+	 */
+	public List<Tensor> tensors() {
+		Map<Tensor, Boolean> tensors = new IdentityHashMap<>();
+		List<Tensor> result = new ArrayList<>();
+		collectTensors(tensors, result);
+		return result;
+	}
+
+	private void collectTensors(Map<Tensor, Boolean> tensors, List<Tensor> result) {
+		if (Operator.TENSOR == operator) {
+			if (null == tensors.put(tensor, Boolean.TRUE)) {
+				result.add(tensor);
+			}
+		} else {
+			for (Expression operand : operands) {
+				operand.collectTensors(tensors, result);
+			}
+		}
+	}
+
+	/**
+	 * Computes the expression into a new tensor, which is like the first tensor
+	 * of the expression.
+	 */
+	public Tensor evaluate() {
+		List<Tensor> tensors = tensors();
+		if (tensors.isEmpty()) {
+			throw new LnnException("The expression has no tensor.");
+		}
+		Tensor first = tensors.get(0);
+		for (Tensor tensor : tensors) {
+			first.checkSameShape(tensor);
+		}
+		Tensor result = first.like();
+		first.device().kernel(FusedKernel.class).execute(this, result);
+		return result;
+	}
+
+	/**
+	 * Computes the expression into the result tensor, which may be one of the
+	 * tensors of the expression, since each element is computed from the
+	 * elements at the same index only.
+	 */
+	public Tensor evaluate(Tensor result) {
+		for (Tensor tensor : tensors()) {
+			result.checkSameShape(tensor);
+		}
+		result.mutableData();
+		result.device().kernel(FusedKernel.class).execute(this, result);
+		result.incrementVersion();
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		switch (operator) {
+		case TENSOR:
+			return "tensor";
+		case VALUE:
+			return Float.toString(value);
+		default:
+			return operator.name().toLowerCase() + operands;
+		}
+	}
+}
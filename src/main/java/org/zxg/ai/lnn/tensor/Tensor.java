@@ -16,10 +16,20 @@
  */
 package org.zxg.ai.lnn.tensor;
 
+import java.io.Closeable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.LinkedList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.zxg.ai.lnn.LnnException;
+import org.zxg.ai.lnn.opencl.BufferArena;
 import org.zxg.ai.lnn.opencl.Device;
 import org.zxg.ai.lnn.opencl.FloatArray;
 import org.zxg.ai.lnn.opencl.IntArray;
@@ -31,8 +41,6 @@ import org.zxg.ai.lnn.tensor.kernel.ArangeKernel;
 import org.zxg.ai.lnn.tensor.kernel.AvgPool1DKernel;
 import org.zxg.ai.lnn.tensor.kernel.AvgPool2DKernel;
 import org.zxg.ai.lnn.tensor.kernel.AvgPool3DKernel;
-import org.zxg.ai.lnn.tensor.kernel.AxisSliceKernel;
-import org.zxg.ai.lnn.tensor.kernel.BroadcastKernel;
 import org.zxg.ai.lnn.tensor.kernel.ConstantKernel;
 import org.zxg.ai.lnn.tensor.kernel.CrossCorrelation1DKernel;
 import org.zxg.ai.lnn.tensor.kernel.CrossCorrelation2DKernel;
@@ -40,11 +48,21 @@ import org.zxg.ai.lnn.tensor.kernel.CrossCorrelation3DKernel;
 import org.zxg.ai.lnn.tensor.kernel.CrossCorrelationTranspose1DKernel;
 import org.zxg.ai.lnn.tensor.kernel.CrossCorrelationTranspose2DKernel;
 import org.zxg.ai.lnn.tensor.kernel.CrossCorrelationTranspose3DKernel;
+import org.zxg.ai.lnn.tensor.kernel.CrossCorrelationWeightGradient1DKernel;
+import org.zxg.ai.lnn.tensor.kernel.CrossCorrelationWeightGradient2DKernel;
+import org.zxg.ai.lnn.tensor.kernel.CrossCorrelationWeightGradient3DKernel;
+import org.zxg.ai.lnn.tensor.kernel.DepthwiseCrossCorrelation1DKernel;
+import org.zxg.ai.lnn.tensor.kernel.DepthwiseCrossCorrelation2DKernel;
 import org.zxg.ai.lnn.tensor.kernel.DivideKernel;
 import org.zxg.ai.lnn.tensor.kernel.DivideValueKernel;
 import org.zxg.ai.lnn.tensor.kernel.DividedByValueKernel;
 import org.zxg.ai.lnn.tensor.kernel.EqualKernel;
-import org.zxg.ai.lnn.tensor.kernel.EqualsKernel;
+import org.zxg.ai.lnn.tensor.kernel.FftHermitianInputKernel;
+import org.zxg.ai.lnn.tensor.kernel.FftKernel;
+import org.zxg.ai.lnn.tensor.kernel.FftRealInputKernel;
+import org.zxg.ai.lnn.tensor.kernel.FftRealOutputKernel;
+import org.zxg.ai.lnn.tensor.kernel.Im2Col2DKernel;
+import org.zxg.ai.lnn.tensor.kernel.Im2Col3DKernel;
 import org.zxg.ai.lnn.tensor.kernel.LesserEqualKernel;
 import org.zxg.ai.lnn.tensor.kernel.LesserKernel;
 import org.zxg.ai.lnn.tensor.kernel.LogarithmKernel;
@@ -60,19 +78,24 @@ import org.zxg.ai.lnn.tensor.kernel.PowerKernel;
 import org.zxg.ai.lnn.tensor.kernel.PowerValueKernel;
 import org.zxg.ai.lnn.tensor.kernel.ProductKernel;
 import org.zxg.ai.lnn.tensor.kernel.ReciprocalKernel;
+import org.zxg.ai.lnn.tensor.kernel.ReduceAxisKernel;
+import org.zxg.ai.lnn.tensor.kernel.ReduceKernel;
+import org.zxg.ai.lnn.tensor.kernel.ReduceKernel.Operation;
 import org.zxg.ai.lnn.tensor.kernel.ReluKernel;
 import org.zxg.ai.lnn.tensor.kernel.SignKernel;
 import org.zxg.ai.lnn.tensor.kernel.SliceAssignKernel;
-import org.zxg.ai.lnn.tensor.kernel.SliceKernel;
+import org.zxg.ai.lnn.tensor.kernel.SpectrumProductKernel;
 import org.zxg.ai.lnn.tensor.kernel.SquareKernel;
 import org.zxg.ai.lnn.tensor.kernel.SquareRootKernel;
+import org.zxg.ai.lnn.tensor.kernel.StridedCopyKernel;
 import org.zxg.ai.lnn.tensor.kernel.SubtractKernel;
 import org.zxg.ai.lnn.tensor.kernel.SubtractValueKernel;
-import org.zxg.ai.lnn.tensor.kernel.SumAxisKernel;
 import org.zxg.ai.lnn.tensor.kernel.TakeKernel;
 import org.zxg.ai.lnn.tensor.kernel.TanhKernel;
-import org.zxg.ai.lnn.tensor.kernel.TransposeKernel;
 import org.zxg.ai.lnn.tensor.kernel.VectorProductKernel;
+import org.zxg.ai.lnn.tensor.kernel.WinogradInputTransformKernel;
+import org.zxg.ai.lnn.tensor.kernel.WinogradOutputTransformKernel;
+import org.zxg.ai.lnn.tensor.kernel.WinogradWeightTransformKernel;
 import org.zxg.ai.lnn.tuple.IntTuple2;
 import org.zxg.ai.lnn.tuple.IntTuple3;
 import org.zxg.ai.lnn.tuple.Tuple2;
@@ -82,8 +105,34 @@ import org.zxg.ai.lnn.tuple.Tuple2;
  */
 public class Tensor implements Cloneable {
 
-	private static float DEFAULT_PRECISION = 0.00001f;
-	private static Device DEFAULT_DEVICE;
+	private static volatile float DEFAULT_PRECISION = 0.00001f;
+	private static volatile Device DEFAULT_DEVICE;
+	/**
+	 * The most elements of the column matrices which are lowered at once by
+	 * {@link ConvolutionAlgorithm#IM2COL}. The images of a larger batch are
+	 * lowered in parts.
+	 */
+	private static final int MAX_COLUMNS_LENGTH = 1 << 22;
+	/**
+	 * The least output channels per group, and the least length of the dot
+	 * products, for which {@link ConvolutionAlgorithm#AUTO} lowers a
+	 * cross-correlation into columns.
+	 */
+	private static final int IM2COL_MIN_OUT_CHANNELS = 4;
+	private static final int IM2COL_MIN_DEPTH = 8;
+	/**
+	 * The least input channels and output channels for which
+	 * {@link ConvolutionAlgorithm#AUTO} uses the Winograd algorithm, below
+	 * which its transforms cost more than the multiplications which it saves.
+	 */
+	private static final int WINOGRAD_MIN_CHANNELS = 16;
+	/**
+	 * The least width of the kernel, counting the gaps of the dilation, for
+	 * which {@link ConvolutionAlgorithm#AUTO} computes a cross-correlation of
+	 * {@link #conv1d} through the Fourier transforms, whose cost grows with the
+	 * logarithm of the length instead of with the width of the kernel.
+	 */
+	private static final int FFT_MIN_KERNEL_WIDTH = 64;
 
 	public static void defaultPrecision(float precision) {
 		DEFAULT_PRECISION = Math.abs(precision);
@@ -99,7 +148,11 @@ public class Tensor implements Cloneable {
 
 	public static Device defaultDevice() {
 		if (null == DEFAULT_DEVICE) {
-			DEFAULT_DEVICE = Device.defaultDevice();
+			synchronized (Tensor.class) {
+				if (null == DEFAULT_DEVICE) {
+					DEFAULT_DEVICE = Device.defaultDevice();
+				}
+			}
 		}
 		return DEFAULT_DEVICE;
 	}
@@ -109,11 +162,95 @@ public class Tensor implements Cloneable {
 	private FloatArray data;
 	private IntArray shape;
 	private IntArray dimSizes;
+	private int version;
+	/**
+	 * The transform of this tensor as a weight of the Winograd
+	 * cross-correlation, which is computed again when the version of this
+	 * tensor changes.
+	 */
+	private volatile TransformedWeight winogradWeight;
+	/**
+	 * The index of the first element of a view in the data.
+	 */
+	private int offset;
+	/**
+	 * The strides of a view whose elements are not the whole data in order, or
+	 * null. It is set to null last when a view is materialized, so a thread
+	 * which sees null also sees the new data.
+	 */
+	private volatile IntArray strides;
+	/**
+	 * The reference of this tensor to data shared with views, or null if no
+	 * view has been created. The data is copied before being written while
+	 * other tensors reference it.
+	 */
+	private DataReference dataReference;
+
+	private static final ReferenceQueue<Tensor> COLLECTED_TENSORS = new ReferenceQueue<>();
+	private static final Set<DataReference> DATA_REFERENCES = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+	/**
+	 * A reference of a tensor to data shared with other tensors, which counts
+	 * the tensors using the data. It is released when the tensor is closed or
+	 * gets other data, when the tensor is garbage collected, and, for a view
+	 * created in a {@link BufferArena}, when the arena is closed. The data is
+	 * closed when its last reference is closed.
+	 */
+	private static final class DataReference extends WeakReference<Tensor> implements Closeable {
+
+		private final FloatArray data;
+		private final AtomicInteger count;
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		DataReference(Tensor tensor, AtomicInteger count) {
+			super(tensor, COLLECTED_TENSORS);
+			this.data = tensor.data;
+			this.count = count;
+			count.incrementAndGet();
+			DATA_REFERENCES.add(this);
+		}
+
+		boolean isReleased() {
+			return released.get();
+		}
+
+		/**
+		 * Releases this reference once.
+		 *
+		 * @return whether it was the last reference to the data
+		 */
+		boolean release() {
+			if (!released.compareAndSet(false, true)) {
+				return false;
+			}
+			clear();
+			DATA_REFERENCES.remove(this);
+			return 0 == count.decrementAndGet();
+		}
+
+		@Override
+		public void close() {
+			if (release()) {
+				data.close();
+			}
+		}
+	}
+
+	/**
+	 * Releases the references of the garbage collected tensors, so that they do
+	 * not keep the data of the others shared.
+	 */
+	private static void releaseCollectedReferences() {
+		Reference<? extends Tensor> reference;
+		while (null != (reference = COLLECTED_TENSORS.poll())) {
+			((DataReference) reference).release();
+		}
+	}
 
 	public Tensor(Tensor other) {
 		precision = other.precision;
 		device = other.device;
-		data = other.data.clone();
+		data = other.flatData().clone();
 		shape = other.shape.clone();
 		dimSizes = other.dimSizes.clone();
 	}
@@ -192,6 +329,34 @@ public class Tensor implements Cloneable {
 		this.data = data;
 	}
 
+	/**
+	 * Creates a view of the data of the source, which is shared until one of
+	 * the tensors is written.
+	 *
+	 * @param strides the strides of the view, or null for a contiguous view of
+	 *                the whole data
+	 */
+	private Tensor(Tensor source, IntArray shape, int offset, IntArray strides) {
+		this.precision = source.precision;
+		this.device = source.device;
+		this.data = source.data;
+		this.shape = shape;
+		ShapeInfo info = ShapeInfo.create(shape);
+		this.dimSizes = info.dimSizes;
+		this.offset = offset;
+		boolean contiguous = 0 == offset && info.size == data.length;
+		for (int i = 0; contiguous && null != strides && i < shape.length; i++) {
+			contiguous = 1 == shape.get(i) || strides.get(i) == dimSizes.get(i);
+		}
+		this.strides = contiguous ? null : strides;
+		releaseCollectedReferences();
+		if (null == source.dataReference) {
+			source.dataReference = new DataReference(source, new AtomicInteger());
+		}
+		this.dataReference = new DataReference(this, source.dataReference.count);
+		BufferArena.register(this.dataReference);
+	}
+
 	public Tensor create(int... shape) {
 		return new Tensor(precision, device, shape);
 	}
@@ -228,33 +393,149 @@ public class Tensor implements Cloneable {
 		return device.kernel(type);
 	}
 
+	/**
+	 * Returns the elements of this tensor in order, copying the elements of a
+	 * strided view into data of its own first. The returned array may be shared
+	 * with other views, so it must only be read.
+	 */
 	public FloatArray flatData() {
+		if (null != strides) {
+			// A model shared by several threads may hold views, which are
+			// materialized only once.
+			synchronized (this) {
+				if (null != strides) {
+					materialize();
+				}
+			}
+		}
+		return data;
+	}
+
+	/**
+	 * Returns the elements of this tensor in order for writing them, copying
+	 * them into data of its own first if the data is shared.
+	 */
+	FloatArray mutableData() {
+		if (null != strides) {
+			materialize();
+		} else if (isDataShared()) {
+			replaceData(data.clone());
+		}
 		return data;
 	}
 
+	private boolean isDataShared() {
+		if (null == dataReference) {
+			return false;
+		}
+		if (dataReference.isReleased()) {
+			return true;
+		}
+		if (dataReference.count.get() > 1) {
+			releaseCollectedReferences();
+		}
+		return dataReference.count.get() > 1;
+	}
+
+	private void materialize() {
+		FloatArray contiguousData = new FloatArray(size());
+		kernel(StridedCopyKernel.class).execute(this, contiguousData);
+		replaceData(contiguousData);
+		offset = 0;
+		strides = null;
+	}
+
+	/**
+	 * Makes the new array the data of this tensor only. The new array lives as
+	 * long as the previous data: it is held by the arena holding the previous
+	 * data, if any, and is not closed with a temporary arena otherwise.
+	 */
+	private void replaceData(FloatArray data) {
+		BufferArena.replace(this.data, data);
+		releaseDataReference();
+		this.data = data;
+	}
+
+	private void releaseDataReference() {
+		if (null != dataReference) {
+			dataReference.release();
+			dataReference = null;
+		}
+	}
+
+	/**
+	 * Returns whether the elements of this tensor are the whole data in order,
+	 * which is false for the strided views made by {@link #slice(int[], int[])},
+	 * {@link #transpose(int...)} and {@link #broadcastTo(int...)}.
+	 */
+	public boolean isContiguous() {
+		return null == strides;
+	}
+
+	/**
+	 * Returns the data of this tensor without copying a view, whose elements are
+	 * read with {@link #offset()} and {@link #strides()}.
+	 */
+	public FloatArray storage() {
+		return data;
+	}
+
+	public int offset() {
+		return offset;
+	}
+
+	/**
+	 * Returns the distances in the storage between the neighboring elements of
+	 * each axis, which are 0 for the broadcast axes.
+	 */
+	public IntArray strides() {
+		final IntArray strides = this.strides;
+		return null != strides ? strides : dimSizes;
+	}
+
 	public void flatData(float... data) {
-		if (data.length != this.data.length) {
+		if (data.length != size()) {
 			throw new ShapeException();
 		}
-		this.data = new FloatArray(data);
+		replaceData(new FloatArray(data));
+		offset = 0;
+		strides = null;
+		++version;
 	}
 
 	public void flatData(FloatArray data) {
-		if (data.length != this.data.length) {
+		if (data.length != size()) {
 			throw new ShapeException();
 		}
+		releaseDataReference();
 		this.data = data;
+		offset = 0;
+		strides = null;
+		++version;
+	}
+
+	/**
+	 * Returns the number of the in-place modifications of this tensor, which
+	 * lets autograd detect the changes of the tensors saved for backward.
+	 */
+	public int version() {
+		return version;
+	}
+
+	void incrementVersion() {
+		++version;
 	}
 
 	public void data(Object object) {
+		++version;
 		if (object instanceof Number) {
-			this.data.set(0, ((Number) object).floatValue());
+			mutableData().set(0, ((Number) object).floatValue());
 		} else if (object instanceof float[]) {
-			this.data.set(0, (float[]) object);
+			mutableData().set(0, (float[]) object);
 		} else if (object instanceof double[]) {
 			int index = 0;
 			for (double element : (double[]) object) {
-				this.data.set(index++, (float) element);
+				mutableData().set(index++, (float) element);
 			}
 		} else if (object instanceof Object[]) {
 			int index = 0;
@@ -265,14 +546,14 @@ public class Tensor implements Cloneable {
 				if (arrayIterator.hasNext()) {
 					Object objectElement = arrayIterator.next();
 					if (objectElement instanceof Number) {
-						this.data.set(index++, ((Number) objectElement).floatValue());
+						mutableData().set(index++, ((Number) objectElement).floatValue());
 					} else if (objectElement instanceof float[]) {
 						float[] floatsElement = (float[]) objectElement;
-						this.data.set(index, floatsElement);
+						mutableData().set(index, floatsElement);
 						index += floatsElement.length;
 					} else if (objectElement instanceof double[]) {
 						for (double value : (double[]) objectElement) {
-							this.data.set(index++, (float) value);
+							mutableData().set(index++, (float) value);
 						}
 					} else if (objectElement instanceof Object[]) {
 						iteratorStack.push(new ArrayIterator((Object[]) objectElement));
@@ -285,11 +566,11 @@ public class Tensor implements Cloneable {
 	}
 
 	public float scalar() {
-		return data.get(0);
+		return data.get(offset);
 	}
 
 	public int size() {
-		return data.length;
+		return 0 == shape.length ? 1 : shape.get(0) * dimSizes.get(0);
 	}
 
 	public IntArray shape() {
@@ -354,11 +635,12 @@ public class Tensor implements Cloneable {
 		if (indexes.length != shape.length) {
 			throw new DimException();
 		}
-		int i = 0;
+		final IntArray strides = strides();
+		int i = offset;
 		int dsi = 0;
 		for (int index : indexes) {
 			if (0 <= index && index < shape.get(dsi)) {
-				i += (index * dimSizes.get(dsi++));
+				i += (index * strides.get(dsi++));
 			} else {
 				throw new IndexOutOfBoundsException();
 			}
@@ -371,10 +653,13 @@ public class Tensor implements Cloneable {
 	}
 
 	public void set(float value, int... indexes) {
+		FloatArray data = mutableData();
 		data.set(dataIndex(indexes), value);
+		++version;
 	}
 
 	public Element element(int... indexes) {
+		mutableData();
 		return new Element(dataIndex(indexes));
 	}
 
@@ -391,10 +676,48 @@ public class Tensor implements Cloneable {
 		}
 
 		public void value(float value) {
-			data.set(index, value);
+			mutableData().set(index, value);
+			++version;
 		}
 	}
 
+	/**
+	 * Joins the tensors along their first axis, for example to run a batch made
+	 * of several requests. The other axes of the tensors must have the same
+	 * lengths, and the result is on the device of the first tensor.
+	 */
+	public static Tensor concatenate(Tensor... tensors) {
+		if (0 == tensors.length) {
+			throw new IllegalArgumentException("No tensor.");
+		}
+		final Tensor first = tensors[0];
+		final int[] shape = first.shape.get();
+		if (0 == shape.length) {
+			throw new ShapeException();
+		}
+		int rows = 0;
+		for (Tensor tensor : tensors) {
+			if (tensor.shape.length != shape.length) {
+				throw new ShapeException();
+			}
+			for (int i = 1; i < shape.length; i++) {
+				if (tensor.shape.get(i) != shape[i]) {
+					throw new ShapeException();
+				}
+			}
+			rows += tensor.shape.get(0);
+		}
+		shape[0] = rows;
+		Tensor result = new Tensor(first.precision, first.device, shape);
+		int position = 0;
+		for (Tensor tensor : tensors) {
+			final int size = tensor.size();
+			FloatArray.copy(tensor.flatData(), 0, result.data, position, size);
+			position += size;
+		}
+		return result;
+	}
+
 	public Tensor slice(int begin, int end) {
 		return slice(0, begin, end);
 	}
@@ -414,9 +737,8 @@ public class Tensor implements Cloneable {
 				shape[i] = end - begin;
 			}
 		}
-		Tensor result = create(shape);
-		kernel(AxisSliceKernel.class).execute(axis, begin, this, result);
-		return result;
+		final IntArray strides = strides();
+		return new Tensor(this, new IntArray(shape), offset + begin * strides.get(axis), strides);
 	}
 
 	public Tensor slice(int[] begin, int[] end) {
@@ -432,9 +754,12 @@ public class Tensor implements Cloneable {
 			}
 			shape[i] = elementOfEnd - elementOfBegin;
 		}
-		Tensor result = create(shape);
-		kernel(SliceKernel.class).execute(new IntArray(begin), this, result);
-		return result;
+		final IntArray strides = strides();
+		int offset = this.offset;
+		for (int i = 0; i < begin.length; i++) {
+			offset += begin[i] * strides.get(i);
+		}
+		return new Tensor(this, new IntArray(shape), offset, strides);
 	}
 
 	public void sliceAssign(int[] begin, Tensor value) {
@@ -447,7 +772,9 @@ public class Tensor implements Cloneable {
 				throw new IndexOutOfBoundsException();
 			}
 		}
+		mutableData();
 		kernel(SliceAssignKernel.class).execute(new IntArray(begin), value, this);
+		++version;
 	}
 
 	public Tensor take(int[] indexes) {
@@ -481,37 +808,37 @@ public class Tensor implements Cloneable {
 	}
 
 	public void setShape(int... shape) {
-		ShapeInfo info = ShapeInfo.create(shape);
-		if (info.size != data.length) {
-			FloatArray data = new FloatArray(info.size);
-			FloatArray.copy(this.data, 0, data, 0, this.data.length > info.size ? info.size : this.data.length);
-			this.data = data;
-		}
-		this.shape = new IntArray(shape);
-		this.dimSizes = info.dimSizes;
+		setShape(new IntArray(shape));
 	}
 
 	public void setShape(IntArray shape) {
 		ShapeInfo info = ShapeInfo.create(shape);
-		if (info.size != data.length) {
+		FloatArray flatData = flatData();
+		if (info.size != flatData.length) {
 			FloatArray data = new FloatArray(info.size);
-			FloatArray.copy(this.data, 0, data, 0, this.data.length > info.size ? info.size : this.data.length);
-			this.data = data;
+			FloatArray.copy(flatData, 0, data, 0, flatData.length > info.size ? info.size : flatData.length);
+			replaceData(data);
 		}
 		this.shape = shape;
 		this.dimSizes = info.dimSizes;
 	}
 
 	public Tensor reshape(int... shape) {
-		Tensor c = clone();
-		c.setShape(shape);
-		return c;
+		return reshape(new IntArray(shape));
 	}
 
+	/**
+	 * Returns a view with the new shape, which shares the data of this tensor
+	 * unless this tensor is a strided view or the sizes differ.
+	 */
 	public Tensor reshape(IntArray shape) {
-		Tensor c = clone();
-		c.setShape(shape);
-		return c;
+		if (ShapeInfo.create(shape).size != size()) {
+			Tensor c = clone();
+			c.setShape(shape);
+			return c;
+		}
+		flatData();
+		return new Tensor(this, shape, 0, null);
 	}
 
 	public Tensor like() {
@@ -534,7 +861,7 @@ public class Tensor implements Cloneable {
 
 	public Tensor transpose(int... permutation) {
 		if (this.shape.length < 2) {
-			return clone();
+			return new Tensor(this, shape, offset, strides());
 		} else {
 			if (null == permutation) {
 				permutation = new int[this.shape.length];
@@ -558,13 +885,14 @@ public class Tensor implements Cloneable {
 					}
 				}
 			}
-			int[] shape = new int[this.shape.length];
+			final IntArray strides = strides();
+			IntArray shape = new IntArray(this.shape.length);
+			IntArray permutedStrides = new IntArray(this.shape.length);
 			for (int i = 0; i < shape.length; i++) {
-				shape[i] = this.shape.get(permutation[i]);
+				shape.set(i, this.shape.get(permutation[i]));
+				permutedStrides.set(i, strides.get(permutation[i]));
 			}
-			Tensor result = create(shape);
-			kernel(TransposeKernel.class).execute(new IntArray(permutation), this, result);
-			return result;
+			return new Tensor(this, shape, offset, permutedStrides);
 		}
 	}
 
@@ -576,9 +904,7 @@ public class Tensor implements Cloneable {
 				throw new ShapeException();
 			}
 		}
-		Tensor result = create(shape);
-		kernel(BroadcastKernel.class).execute(this, result);
-		return result;
+		return broadcastTo(new IntArray(shape));
 	}
 
 	public Tensor broadcastTo(IntArray shape) {
@@ -589,9 +915,97 @@ public class Tensor implements Cloneable {
 				throw new ShapeException();
 			}
 		}
-		Tensor result = create(shape);
-		kernel(BroadcastKernel.class).execute(this, result);
-		return result;
+		return broadcastView(shape);
+	}
+
+	/**
+	 * Returns the shape which both shapes are broadcast to. The shapes are
+	 * aligned at their last axes, the missing leading axes of the shorter shape
+	 * are taken as 1, and an axis of length 1 is stretched to the length of the
+	 * other one.
+	 */
+	public static IntArray broadcastShape(IntArray shape1, IntArray shape2) {
+		final int ndim = Math.max(shape1.length, shape2.length);
+		IntArray shape = new IntArray(ndim);
+		for (int i = 0; i < ndim; i++) {
+			int i1 = i - (ndim - shape1.length);
+			int i2 = i - (ndim - shape2.length);
+			int length1 = i1 < 0 ? 1 : shape1.get(i1);
+			int length2 = i2 < 0 ? 1 : shape2.get(i2);
+			if (length1 != length2 && length1 != 1 && length2 != 1) {
+				throw new ShapeException();
+			}
+			shape.set(i, length1 != 1 ? length1 : length2);
+		}
+		return shape;
+	}
+
+	/**
+	 * Returns a view of this tensor broadcast to a shape with at least as many
+	 * axes, which are compatible by {@link #broadcastShape(IntArray, IntArray)}.
+	 * The stretched axes have stride 0, so no element is copied.
+	 */
+	private Tensor broadcastView(IntArray shape) {
+		if (sameShape(this.shape, shape)) {
+			return this;
+		}
+		final IntArray strides = strides();
+		final int leading = shape.length - this.shape.length;
+		IntArray broadcastStrides = new IntArray(shape.length);
+		for (int i = leading; i < shape.length; i++) {
+			broadcastStrides.set(i, this.shape.get(i - leading) != shape.get(i) ? 0 : strides.get(i - leading));
+		}
+		return new Tensor(this, shape, offset, broadcastStrides);
+	}
+
+	/**
+	 * Returns the other tensor broadcast to the shape of this tensor, as the
+	 * operand of an in-place operation.
+	 */
+	private Tensor broadcastOperand(Tensor other) {
+		if (sameShape(other)) {
+			return other;
+		}
+		checkSameShape(shape, broadcastShape(shape, other.shape));
+		return other.operandView(shape);
+	}
+
+	/**
+	 * Returns a broadcast view which is only read while an operation of this
+	 * class runs. It does not count as a reference to the data, so it does not
+	 * make the next in-place write of this tensor copy the data.
+	 */
+	private Tensor operandView(IntArray shape) {
+		Tensor view = broadcastView(shape);
+		if (view != this) {
+			view.dataReference.release();
+		}
+		return view;
+	}
+
+	/**
+	 * Sums a tensor, such as the gradient of a broadcast operand, over the axes
+	 * which are broadcast from the shape.
+	 */
+	public Tensor sumTo(IntArray shape) {
+		if (sameShape(this.shape, shape)) {
+			return this;
+		}
+		final int leading = this.shape.length - shape.length;
+		if (leading < 0) {
+			throw new DimException();
+		}
+		Tensor result = this;
+		for (int i = 0; i < this.shape.length; i++) {
+			int length = i < leading ? 1 : shape.get(i - leading);
+			if (length != this.shape.get(i)) {
+				if (1 != length) {
+					throw new ShapeException();
+				}
+				result = result.sumAxis(i);
+			}
+		}
+		return result.reshape(shape);
 	}
 
 	public Tensor expandDims(int axis, int times) {
@@ -625,7 +1039,8 @@ public class Tensor implements Cloneable {
 	}
 
 	public void constant(float constant) {
-		kernel(ConstantKernel.class).execute(constant, data);
+		kernel(ConstantKernel.class).execute(constant, mutableData());
+		++version;
 	}
 
 	public void constant(double constant) {
@@ -641,7 +1056,7 @@ public class Tensor implements Cloneable {
 	}
 
 	public void arange() {
-		arange(data.length);
+		arange(size());
 	}
 
 	public void arange(float stop) {
@@ -657,102 +1072,213 @@ public class Tensor implements Cloneable {
 	}
 
 	public void arange(float start, float stop, float step, int repeat) {
-		kernel(ArangeKernel.class).execute(start, stop, step, repeat, data);
+		kernel(ArangeKernel.class).execute(start, stop, step, repeat, mutableData());
+		++version;
+	}
+
+	/**
+	 * Starts a lazy chain of elementwise operations, which are computed by a
+	 * single fused kernel on {@link Expression#evaluate()}.
+	 */
+	public Expression lazy() {
+		return Expression.of(this);
+	}
+
+	public Tensor addi(Tensor other) {
+		lazy().add(broadcastOperand(other)).evaluate(this);
+		return this;
+	}
+
+	public Tensor addi(float value) {
+		lazy().add(value).evaluate(this);
+		return this;
+	}
+
+	public Tensor subi(Tensor other) {
+		lazy().sub(broadcastOperand(other)).evaluate(this);
+		return this;
+	}
+
+	public Tensor subi(float value) {
+		lazy().sub(value).evaluate(this);
+		return this;
+	}
+
+	public Tensor muli(Tensor other) {
+		lazy().mul(broadcastOperand(other)).evaluate(this);
+		return this;
+	}
+
+	public Tensor muli(float value) {
+		lazy().mul(value).evaluate(this);
+		return this;
+	}
+
+	public Tensor divi(Tensor other) {
+		lazy().div(broadcastOperand(other)).evaluate(this);
+		return this;
+	}
+
+	public Tensor divi(float value) {
+		lazy().div(value).evaluate(this);
+		return this;
+	}
+
+	/**
+	 * Adds {@code alpha * x} to this tensor in place.
+	 */
+	public Tensor axpy(float alpha, Tensor x) {
+		lazy().add(x.lazy().mul(alpha)).evaluate(this);
+		return this;
+	}
+
+	public Tensor clampi(float min, float max) {
+		lazy().max(min).min(max).evaluate(this);
+		return this;
+	}
+
+	public Tensor copyFrom(Tensor other) {
+		if (device != other.device) {
+			if (!shape.equals(other.shape)) {
+				throw new ShapeException();
+			}
+			++version;
+			FloatArray destination = mutableData();
+			FloatArray.copy(other.flatData(), 0, destination, 0, destination.length);
+			return this;
+		}
+		other.lazy().evaluate(this);
+		return this;
+	}
+
+	/**
+	 * Returns a copy of this tensor on the given device, or this tensor if it is
+	 * already on it. The data is copied through the host.
+	 */
+	public Tensor to(Device device) {
+		if (this.device == device) {
+			return this;
+		}
+		return new Tensor(precision, device, new FloatArray(flatData().hostBuffer()), shape.clone());
 	}
 
 	public Tensor negative() {
 		Tensor result = like();
-		kernel(NegativeKernel.class).execute(data, result.data);
+		kernel(NegativeKernel.class).execute(flatData(), result.data);
 		return result;
 	}
 
 	public Tensor abs() {
 		Tensor result = like();
-		kernel(AbsKernel.class).execute(data, result.data);
+		kernel(AbsKernel.class).execute(flatData(), result.data);
 		return result;
 	}
 
 	public Tensor sign() {
 		Tensor result = like();
-		kernel(SignKernel.class).execute(data, result.data);
+		kernel(SignKernel.class).execute(flatData(), result.data);
 		return result;
 	}
 
 	public Tensor add(Tensor other) {
-		checkSameShape(other);
+		if (!sameShape(other)) {
+			IntArray shape = broadcastShape(this.shape, other.shape);
+			return operandView(shape).lazy().add(other.operandView(shape)).evaluate();
+		}
+		if (null != strides || null != other.strides) {
+			return lazy().add(other).evaluate();
+		}
 		Tensor result = like();
-		kernel(AddKernel.class).execute(data, other.data, result.data);
+		kernel(AddKernel.class).execute(flatData(), other.flatData(), result.data);
 		return result;
 	}
 
 	public Tensor add(float value) {
 		Tensor result = like();
-		kernel(AddValueKernel.class).execute(data, value, result.data);
+		kernel(AddValueKernel.class).execute(flatData(), value, result.data);
 		return result;
 	}
 
 	public Tensor sub(Tensor other) {
-		checkSameShape(other);
+		if (!sameShape(other)) {
+			IntArray shape = broadcastShape(this.shape, other.shape);
+			return operandView(shape).lazy().sub(other.operandView(shape)).evaluate();
+		}
+		if (null != strides || null != other.strides) {
+			return lazy().sub(other).evaluate();
+		}
 		Tensor result = like();
-		kernel(SubtractKernel.class).execute(data, other.data, result.data);
+		kernel(SubtractKernel.class).execute(flatData(), other.flatData(), result.data);
 		return result;
 	}
 
 	public Tensor sub(float value) {
 		Tensor result = like();
-		kernel(SubtractValueKernel.class).execute(data, value, result.data);
+		kernel(SubtractValueKernel.class).execute(flatData(), value, result.data);
 		return result;
 	}
 
 	public Tensor mul(Tensor other) {
-		checkSameShape(other);
+		if (!sameShape(other)) {
+			IntArray shape = broadcastShape(this.shape, other.shape);
+			return operandView(shape).lazy().mul(other.operandView(shape)).evaluate();
+		}
+		if (null != strides || null != other.strides) {
+			return lazy().mul(other).evaluate();
+		}
 		Tensor result = like();
-		kernel(MultiplyKernel.class).execute(data, other.data, result.data);
+		kernel(MultiplyKernel.class).execute(flatData(), other.flatData(), result.data);
 		return result;
 	}
 
 	public Tensor mul(float value) {
 		Tensor result = like();
-		kernel(MultiplyValueKernel.class).execute(data, value, result.data);
+		kernel(MultiplyValueKernel.class).execute(flatData(), value, result.data);
 		return result;
 	}
 
 	public Tensor square() {
 		Tensor result = like();
-		kernel(SquareKernel.class).execute(data, result.data);
+		kernel(SquareKernel.class).execute(flatData(), result.data);
 		return result;
 	}
 
 	public Tensor div(Tensor other) {
-		checkSameShape(other);
+		if (!sameShape(other)) {
+			IntArray shape = broadcastShape(this.shape, other.shape);
+			return operandView(shape).lazy().div(other.operandView(shape)).evaluate();
+		}
+		if (null != strides || null != other.strides) {
+			return lazy().div(other).evaluate();
+		}
 		Tensor result = like();
-		kernel(DivideKernel.class).execute(data, other.data, result.data);
+		kernel(DivideKernel.class).execute(flatData(), other.flatData(), result.data);
 		return result;
 	}
 
 	public Tensor div(float value) {
 		Tensor result = like();
-		kernel(DivideValueKernel.class).execute(data, value, result.data);
+		kernel(DivideValueKernel.class).execute(flatData(), value, result.data);
 		return result;
 	}
 
 	public Tensor dividedBy(float value) {
 		Tensor result = like();
-		kernel(DividedByValueKernel.class).execute(value, data, result.data);
+		kernel(DividedByValueKernel.class).execute(value, flatData(), result.data);
 		return result;
 	}
 
 	public Tensor reciprocal() {
 		Tensor result = like();
-		kernel(ReciprocalKernel.class).execute(data, result.data);
+		kernel(ReciprocalKernel.class).execute(flatData(), result.data);
 		return result;
 	}
 
 	public Tensor dot(Tensor other) {
 		if (this.shape.length == 0) {
-			return other.mul(this.data.get(0));
+			return other.mul(scalar());
 		} else if (other.shape.length == 0) {
-			return this.mul(other.data.get(0));
+			return this.mul(other.scalar());
 		} else {
 			if (this.shape.get(this.shape.length - 1) != other.shape.get(0)) {
 				throw new ShapeException();
@@ -776,6 +1302,99 @@ public class Tensor implements Cloneable {
 		}
 	}
 
+	/**
+	 * Returns the discrete Fourier transforms of the rows along the last axis,
+	 * as {@link #rfft(int)} with the length of the rows.
+	 */
+	public Tensor rfft() {
+		if (ndim() < 1) {
+			throw new DimException();
+		}
+		return rfft(shape.get(shape.length - 1));
+	}
+
+	/**
+	 * Returns the discrete Fourier transforms of the rows along the last axis,
+	 * which are truncated or padded with zeros to the length n. As the rows
+	 * are real, only the first {@code n / 2 + 1} bins are returned, the others
+	 * being the conjugates of their mirrors. The last axis is replaced by the
+	 * bins, and an axis of length 2 is appended, which holds the real parts
+	 * and the imaginary parts.
+	 * <p>
+	 * The transforms are fastest for lengths whose only prime factors are 2, 3
+	 * and 5.
+	 */
+	public Tensor rfft(int n) {
+		if (ndim() < 1) {
+			throw new DimException();
+		}
+		if (n < 1) {
+			throw new LnnException();
+		}
+		final int length = shape.get(shape.length - 1);
+		final int rows = 0 == length ? 0 : size() / length;
+		final int bins = n / 2 + 1;
+		IntArray resultShape = new IntArray(shape.length + 1);
+		IntArray.copy(shape, 0, resultShape, 0, shape.length - 1);
+		resultShape.set(shape.length - 1, bins);
+		resultShape.set(shape.length, 2);
+		Tensor result = create(resultShape);
+		if (0 == rows) {
+			return result;
+		}
+		try (FloatArray signals = FloatArray.uninitialized(2 * rows * n)) {
+			kernel(FftRealInputKernel.class).execute(flatData(), 0, rows, length, n, 0, 1, signals);
+			kernel(FftKernel.class).execute(signals, rows, n, false, result.flatData(), bins);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the inverse of {@link #rfft()} for rows of an even length, as
+	 * {@link #irfft(int)} with {@code 2 * (bins - 1)}.
+	 */
+	public Tensor irfft() {
+		if (ndim() < 2) {
+			throw new DimException();
+		}
+		return irfft(2 * (shape.get(shape.length - 2) - 1));
+	}
+
+	/**
+	 * Returns the real rows of the length n whose discrete Fourier transforms
+	 * begin with the bins along the second last axis, which are truncated or
+	 * padded with zeros to {@code n / 2 + 1}. The last axis must hold the real
+	 * parts and the imaginary parts. The inverse transforms are divided by n,
+	 * so that {@code x.rfft(n).irfft(n)} is x for rows of the length n.
+	 */
+	public Tensor irfft(int n) {
+		if (ndim() < 2) {
+			throw new DimException();
+		}
+		if (shape.get(shape.length - 1) != 2) {
+			throw new ShapeException();
+		}
+		if (n < 1) {
+			throw new LnnException();
+		}
+		final int bins = shape.get(shape.length - 2);
+		final int rows = 0 == bins ? 0 : size() / (2 * bins);
+		IntArray resultShape = new IntArray(shape.length - 1);
+		IntArray.copy(shape, 0, resultShape, 0, shape.length - 2);
+		resultShape.set(shape.length - 2, n);
+		Tensor result = create(resultShape);
+		if (0 == rows) {
+			return result;
+		}
+		try (FloatArray spectra = FloatArray.uninitialized(2 * rows * n);
+				FloatArray signals = FloatArray.uninitialized(2 * rows * n)) {
+			kernel(FftHermitianInputKernel.class).execute(flatData(), rows, bins, n, spectra);
+			kernel(FftKernel.class).execute(spectra, rows, n, true, signals, n);
+			kernel(FftRealOutputKernel.class).execute(signals, rows, n, 1, n, 1f / n, result.flatData(), 0);
+		}
+		return result;
+	}
+
 	public Tensor conv1d(Tensor weight) {
 		return conv1d(weight, 1);
 	}
@@ -793,6 +1412,15 @@ public class Tensor implements Cloneable {
 	}
 
 	public Tensor conv1d(Tensor weight, int stride, int padding, int dilation, int groups) {
+		return conv1d(weight, stride, padding, dilation, groups, ConvolutionAlgorithm.AUTO);
+	}
+
+	/**
+	 * @param algorithm {@link ConvolutionAlgorithm#DIRECT} is used instead of
+	 *                  the algorithms which do not apply to the operands
+	 */
+	public Tensor conv1d(Tensor weight, int stride, int padding, int dilation, int groups,
+			ConvolutionAlgorithm algorithm) {
 		if (this.ndim() != 3 || weight.ndim() != 3) {
 			throw new DimException();
 		}
@@ -816,10 +1444,78 @@ public class Tensor implements Cloneable {
 		}
 		Tensor result = create(this.shape.get(0), weight.shape.get(0),
 				(this.shape.get(2) + 2 * padding - dilation * (weight.shape.get(2) - 1) - 1) / stride + 1);
-		kernel(CrossCorrelation1DKernel.class).execute(this, weight, stride, padding, dilation, groups, result);
+		final boolean depthwise = groups == this.shape.get(1);
+		if (ConvolutionAlgorithm.AUTO == algorithm) {
+			if (1 == stride && dilation * (weight.shape.get(2) - 1) + 1 >= FFT_MIN_KERNEL_WIDTH) {
+				algorithm = ConvolutionAlgorithm.FFT;
+			} else if (depthwise && groups > 1) {
+				algorithm = ConvolutionAlgorithm.DEPTHWISE;
+			} else {
+				algorithm = ConvolutionAlgorithm.DIRECT;
+			}
+		}
+		if (ConvolutionAlgorithm.FFT == algorithm) {
+			fftConv1d(weight, stride, padding, dilation, groups, result);
+		} else if (ConvolutionAlgorithm.DEPTHWISE == algorithm && depthwise) {
+			kernel(DepthwiseCrossCorrelation1DKernel.class).execute(this, weight, stride, padding, dilation, result);
+		} else {
+			kernel(CrossCorrelation1DKernel.class).execute(this, weight, stride, padding, dilation, groups, result);
+		}
 		return result;
 	}
 
+	/**
+	 * Computes a cross-correlation through the Fourier transforms: the spectra
+	 * of the padded images and of the dilated weight are multiplied bin by
+	 * bin, and the result is the inverse transform of the products. The length
+	 * of the transforms is long enough that the circular cross-correlation
+	 * does not wrap around into the result, and has no prime factors other
+	 * than 2, 3 and 5.
+	 */
+	private void fftConv1d(Tensor weight, int stride, int padding, int dilation, int groups, Tensor result) {
+		final int inChannels = this.shape.get(1);
+		final int inputLength = this.shape.get(2);
+		final int outChannels = weight.shape.get(0);
+		final int weightRows = outChannels * weight.shape.get(1);
+		final int kernelWidth = weight.shape.get(2);
+		final int outputLength = result.shape.get(2);
+		// The last element of the result which is needed, counting the stride.
+		final int outputSpan = (outputLength - 1) * stride + 1;
+		final int n = FftKernel.fastLength(
+				Math.max(Math.max(inputLength + padding, (kernelWidth - 1) * dilation + 1), outputSpan));
+		final int bins = n / 2 + 1;
+		final int batchSize = this.shape.get(0);
+		final int batchPart = columnsBatchPart(2 * (inChannels + outChannels) * n, batchSize);
+		FftRealInputKernel realInput = kernel(FftRealInputKernel.class);
+		FftKernel fft = kernel(FftKernel.class);
+		SpectrumProductKernel spectrumProduct = kernel(SpectrumProductKernel.class);
+		FftHermitianInputKernel hermitianInput = kernel(FftHermitianInputKernel.class);
+		FftRealOutputKernel realOutput = kernel(FftRealOutputKernel.class);
+		final int signalRows = Math.max(weightRows, batchPart * Math.max(inChannels, outChannels));
+		try (FloatArray signals = FloatArray.uninitialized(2 * signalRows * n);
+				FloatArray weightSpectra = FloatArray.uninitialized(2 * weightRows * bins);
+				FloatArray inputSpectra = FloatArray.uninitialized(2 * batchPart * inChannels * bins);
+				FloatArray products = FloatArray.uninitialized(2 * batchPart * outChannels * bins);
+				FloatArray outputs = FloatArray.uninitialized(2 * batchPart * outChannels * outputSpan)) {
+			realInput.execute(weight.flatData(), 0, weightRows, kernelWidth, n, 0, dilation, signals);
+			fft.execute(signals, weightRows, n, false, weightSpectra, bins);
+			final FloatArray inputData = this.flatData();
+			final FloatArray resultData = result.flatData();
+			for (int batchBegin = 0; batchBegin < batchSize; batchBegin += batchPart) {
+				final int batchCount = Math.min(batchPart, batchSize - batchBegin);
+				realInput.execute(inputData, batchBegin * inChannels * inputLength, batchCount * inChannels,
+						inputLength, n, padding, 1, signals);
+				fft.execute(signals, batchCount * inChannels, n, false, inputSpectra, bins);
+				spectrumProduct.execute(inputSpectra, weightSpectra, batchCount, inChannels, outChannels, groups, bins,
+						products);
+				hermitianInput.execute(products, batchCount * outChannels, bins, n, signals);
+				fft.execute(signals, batchCount * outChannels, n, true, outputs, outputSpan);
+				realOutput.execute(outputs, batchCount * outChannels, outputSpan, stride, outputLength, 1f / n,
+						resultData, batchBegin * outChannels * outputLength);
+			}
+		}
+	}
+
 	public Tensor conv2d(Tensor weight) {
 		return conv2d(weight, new IntTuple2(1, 1));
 	}
@@ -837,6 +1533,11 @@ public class Tensor implements Cloneable {
 	}
 
 	public Tensor conv2d(Tensor weight, IntTuple2 stride, IntTuple2 padding, IntTuple2 dilation, int groups) {
+		return conv2d(weight, stride, padding, dilation, groups, ConvolutionAlgorithm.AUTO);
+	}
+
+	public Tensor conv2d(Tensor weight, IntTuple2 stride, IntTuple2 padding, IntTuple2 dilation, int groups,
+			ConvolutionAlgorithm algorithm) {
 		if (this.ndim() != 4 || weight.ndim() != 4) {
 			throw new DimException();
 		}
@@ -861,7 +1562,46 @@ public class Tensor implements Cloneable {
 		Tensor result = create(this.shape.get(0), weight.shape.get(0),
 				(this.shape.get(2) + 2 * padding.e0 - dilation.e0 * (weight.shape.get(2) - 1) - 1) / stride.e0 + 1,
 				(this.shape.get(3) + 2 * padding.e1 - dilation.e1 * (weight.shape.get(3) - 1) - 1) / stride.e1 + 1);
-		kernel(CrossCorrelation2DKernel.class).execute(this, weight, stride, padding, dilation, groups, result);
+		final boolean winogradApplies = 3 == weight.shape.get(2) && 3 == weight.shape.get(3) && 1 == stride.e0
+				&& 1 == stride.e1 && 1 == dilation.e0 && 1 == dilation.e1 && 1 == groups;
+		final boolean depthwise = groups == this.shape.get(1);
+		if (ConvolutionAlgorithm.AUTO == algorithm) {
+			if (depthwise && groups > 1) {
+				algorithm = ConvolutionAlgorithm.DEPTHWISE;
+			} else {
+				algorithm = convolutionAlgorithm(weight, groups);
+			}
+			if (ConvolutionAlgorithm.IM2COL == algorithm && winogradApplies
+					&& this.shape.get(1) >= WINOGRAD_MIN_CHANNELS && weight.shape.get(0) >= WINOGRAD_MIN_CHANNELS) {
+				algorithm = ConvolutionAlgorithm.WINOGRAD;
+			}
+		} else if (ConvolutionAlgorithm.WINOGRAD == algorithm && !winogradApplies
+				|| ConvolutionAlgorithm.DEPTHWISE == algorithm && !depthwise) {
+			algorithm = ConvolutionAlgorithm.DIRECT;
+		}
+		if (ConvolutionAlgorithm.DEPTHWISE == algorithm) {
+			kernel(DepthwiseCrossCorrelation2DKernel.class).execute(this, weight, stride, padding, dilation, result);
+		} else if (ConvolutionAlgorithm.WINOGRAD == algorithm) {
+			winogradConv2d(weight, padding, result);
+		} else if (ConvolutionAlgorithm.IM2COL == algorithm) {
+			final IntTuple2 kernelSize = new IntTuple2(weight.shape.get(2), weight.shape.get(3));
+			final IntTuple2 outputSize = new IntTuple2(result.shape.get(2), result.shape.get(3));
+			final int rows = this.shape.get(1) * kernelSize.e0 * kernelSize.e1;
+			final int outputLength = outputSize.e0 * outputSize.e1;
+			final int batchSize = this.shape.get(0);
+			final int batchPart = columnsBatchPart(rows * outputLength, batchSize);
+			try (FloatArray columns = FloatArray.uninitialized(batchPart * rows * outputLength)) {
+				Im2Col2DKernel im2col = kernel(Im2Col2DKernel.class);
+				for (int batchBegin = 0; batchBegin < batchSize; batchBegin += batchPart) {
+					final int batchCount = Math.min(batchPart, batchSize - batchBegin);
+					im2col.execute(this, batchBegin, batchCount, kernelSize, stride, padding, dilation, outputSize,
+							columns);
+					multiplyColumns(weight, groups, columns, rows, outputLength, batchBegin, batchCount, result);
+				}
+			}
+		} else {
+			kernel(CrossCorrelation2DKernel.class).execute(this, weight, stride, padding, dilation, groups, result);
+		}
 		return result;
 	}
 
@@ -882,6 +1622,11 @@ public class Tensor implements Cloneable {
 	}
 
 	public Tensor conv3d(Tensor weight, IntTuple3 stride, IntTuple3 padding, IntTuple3 dilation, int groups) {
+		return conv3d(weight, stride, padding, dilation, groups, ConvolutionAlgorithm.AUTO);
+	}
+
+	public Tensor conv3d(Tensor weight, IntTuple3 stride, IntTuple3 padding, IntTuple3 dilation, int groups,
+			ConvolutionAlgorithm algorithm) {
 		if (this.ndim() != 5 || weight.ndim() != 5) {
 			throw new DimException();
 		}
@@ -907,10 +1652,141 @@ public class Tensor implements Cloneable {
 				(this.shape.get(2) + 2 * padding.e0 - dilation.e0 * (weight.shape.get(2) - 1) - 1) / stride.e0 + 1,
 				(this.shape.get(3) + 2 * padding.e1 - dilation.e1 * (weight.shape.get(3) - 1) - 1) / stride.e1 + 1,
 				(this.shape.get(4) + 2 * padding.e2 - dilation.e2 * (weight.shape.get(4) - 1) - 1) / stride.e2 + 1);
-		kernel(CrossCorrelation3DKernel.class).execute(this, weight, stride, padding, dilation, groups, result);
+		if (ConvolutionAlgorithm.AUTO == algorithm) {
+			algorithm = convolutionAlgorithm(weight, groups);
+		}
+		if (ConvolutionAlgorithm.IM2COL == algorithm) {
+			final IntTuple3 kernelSize = new IntTuple3(weight.shape.get(2), weight.shape.get(3), weight.shape.get(4));
+			final IntTuple3 outputSize = new IntTuple3(result.shape.get(2), result.shape.get(3), result.shape.get(4));
+			final int rows = this.shape.get(1) * kernelSize.e0 * kernelSize.e1 * kernelSize.e2;
+			final int outputLength = outputSize.e0 * outputSize.e1 * outputSize.e2;
+			final int batchSize = this.shape.get(0);
+			final int batchPart = columnsBatchPart(rows * outputLength, batchSize);
+			try (FloatArray columns = FloatArray.uninitialized(batchPart * rows * outputLength)) {
+				Im2Col3DKernel vol2col = kernel(Im2Col3DKernel.class);
+				for (int batchBegin = 0; batchBegin < batchSize; batchBegin += batchPart) {
+					final int batchCount = Math.min(batchPart, batchSize - batchBegin);
+					vol2col.execute(this, batchBegin, batchCount, kernelSize, stride, padding, dilation, outputSize,
+							columns);
+					multiplyColumns(weight, groups, columns, rows, outputLength, batchBegin, batchCount, result);
+				}
+			}
+		} else {
+			kernel(CrossCorrelation3DKernel.class).execute(this, weight, stride, padding, dilation, groups, result);
+		}
 		return result;
 	}
 
+	/**
+	 * Chooses the algorithm of a cross-correlation. Lowering the input into
+	 * columns copies each element of the input once per element of the
+	 * kernel, which pays off when the product reuses the columns for enough
+	 * output channels and the dot products are long enough.
+	 */
+	private static ConvolutionAlgorithm convolutionAlgorithm(Tensor weight, int groups) {
+		final int outGroupSize = weight.shape.get(0) / groups;
+		final int depth = weight.size() / weight.shape.get(0);
+		if (outGroupSize >= IM2COL_MIN_OUT_CHANNELS && depth >= IM2COL_MIN_DEPTH) {
+			return ConvolutionAlgorithm.IM2COL;
+		}
+		return ConvolutionAlgorithm.DIRECT;
+	}
+
+	/**
+	 * Returns how many images are lowered into columns at once, so that the
+	 * columns take at most {@link #MAX_COLUMNS_LENGTH} elements, but at least
+	 * one image.
+	 */
+	private static int columnsBatchPart(int imageColumnsLength, int batchSize) {
+		return Math.max(1, Math.min(batchSize, MAX_COLUMNS_LENGTH / imageColumnsLength));
+	}
+
+	/**
+	 * Multiplies the weight of each group by the rows of the columns of the
+	 * group, into the result of the lowered images.
+	 */
+	private static void multiplyColumns(Tensor weight, int groups, FloatArray columns, int rows, int outputLength,
+			int batchBegin, int batchCount, Tensor result) {
+		final int outChannels = weight.shape.get(0);
+		final int outGroupSize = outChannels / groups;
+		final int depth = rows / groups;
+		final FloatArray weightData = weight.flatData();
+		final FloatArray resultData = result.flatData();
+		ProductKernel product = result.kernel(ProductKernel.class);
+		for (int group = 0; group < groups; group++) {
+			product.gemm(outGroupSize, outputLength, depth, batchCount, weightData, group * outGroupSize * depth, 0,
+					columns, group * depth * outputLength, rows * outputLength, resultData,
+					(batchBegin * outChannels + group * outGroupSize) * outputLength, outChannels * outputLength);
+		}
+	}
+
+	/**
+	 * Computes a cross-correlation with a 3x3 weight, a stride of 1, a
+	 * dilation of 1 and 1 group by the Winograd algorithm F(2x2, 3x3), which
+	 * computes each 2x2 tile of the result with 16 multiplications instead of
+	 * 36. The transformed tiles of each of the 16 elements are multiplied by
+	 * the transformed weight with the tiled matrix product.
+	 */
+	private void winogradConv2d(Tensor weight, IntTuple2 padding, Tensor result) {
+		final int inChannels = this.shape.get(1);
+		final int outChannels = weight.shape.get(0);
+		final IntTuple2 tiles = new IntTuple2((result.shape.get(2) + 1) / 2, (result.shape.get(3) + 1) / 2);
+		final int imageTiles = tiles.e0 * tiles.e1;
+		final int batchSize = this.shape.get(0);
+		final int batchPart = columnsBatchPart(16 * (inChannels + outChannels) * imageTiles, batchSize);
+		final FloatArray transformedWeight = weight.winogradWeight();
+		try (FloatArray transformedInput = FloatArray.uninitialized(16 * inChannels * batchPart * imageTiles);
+				FloatArray products = FloatArray.uninitialized(16 * outChannels * batchPart * imageTiles)) {
+			WinogradInputTransformKernel inputTransform = kernel(WinogradInputTransformKernel.class);
+			ProductKernel product = kernel(ProductKernel.class);
+			WinogradOutputTransformKernel outputTransform = kernel(WinogradOutputTransformKernel.class);
+			for (int batchBegin = 0; batchBegin < batchSize; batchBegin += batchPart) {
+				final int batchCount = Math.min(batchPart, batchSize - batchBegin);
+				final int tileCount = batchCount * imageTiles;
+				inputTransform.execute(this, batchBegin, batchCount, padding, tiles, transformedInput);
+				product.gemm(outChannels, tileCount, inChannels, 16, transformedWeight, 0, outChannels * inChannels,
+						transformedInput, 0, inChannels * tileCount, products, 0, outChannels * tileCount);
+				outputTransform.execute(products, batchBegin, batchCount, tiles, result);
+			}
+		}
+	}
+
+	/**
+	 * Returns the transform of this 3x3 weight for the Winograd
+	 * cross-correlation, which is cached until this tensor is modified, so
+	 * that repeated inference transforms the weight only once.
+	 */
+	private FloatArray winogradWeight() {
+		TransformedWeight transformed = winogradWeight;
+		if (null == transformed || transformed.version != version) {
+			synchronized (this) {
+				transformed = winogradWeight;
+				if (null == transformed || transformed.version != version) {
+					FloatArray data = FloatArray.uninitialized(16 * shape.get(0) * shape.get(1));
+					// The cache lives as long as this tensor, not as the current arena.
+					BufferArena.detach(data);
+					kernel(WinogradWeightTransformKernel.class).execute(this, data);
+					if (null != transformed) {
+						transformed.data.close();
+					}
+					transformed = new TransformedWeight(data, version);
+					winogradWeight = transformed;
+				}
+			}
+		}
+		return transformed.data;
+	}
+
+	private static final class TransformedWeight {
+		final FloatArray data;
+		final int version;
+
+		TransformedWeight(FloatArray data, int version) {
+			this.data = data;
+			this.version = version;
+		}
+	}
+
 	public Tensor convTranspose1d(Tensor weight) {
 		return convTranspose1d(weight, 1);
 	}
@@ -1079,6 +1955,74 @@ public class Tensor implements Cloneable {
 		return result;
 	}
 
+	/**
+	 * Returns the gradient of the weight of
+	 * {@link #conv1d(Tensor, int, int, int, int)} on this input, given the
+	 * gradient of its result.
+	 */
+	public Tensor conv1dWeightGradient(Tensor resultGradient, int kernelWidth, int stride, int padding,
+			int dilation, int groups) {
+		if (this.ndim() != 3 || resultGradient.ndim() != 3) {
+			throw new DimException();
+		}
+		if (this.shape.get(0) != resultGradient.shape.get(0)) {
+			throw new LnnException();
+		}
+		if (this.shape.get(1) % groups != 0 || resultGradient.shape.get(1) % groups != 0) {
+			throw new LnnException();
+		}
+		Tensor result = create(resultGradient.shape.get(1), this.shape.get(1) / groups, kernelWidth);
+		kernel(CrossCorrelationWeightGradient1DKernel.class).execute(this, resultGradient, stride, padding, dilation,
+				groups, result);
+		return result;
+	}
+
+	/**
+	 * Returns the gradient of the weight of
+	 * {@link #conv2d(Tensor, IntTuple2, IntTuple2, IntTuple2, int)} on this
+	 * input, given the gradient of its result.
+	 */
+	public Tensor conv2dWeightGradient(Tensor resultGradient, IntTuple2 kernelSize, IntTuple2 stride,
+			IntTuple2 padding, IntTuple2 dilation, int groups) {
+		if (this.ndim() != 4 || resultGradient.ndim() != 4) {
+			throw new DimException();
+		}
+		if (this.shape.get(0) != resultGradient.shape.get(0)) {
+			throw new LnnException();
+		}
+		if (this.shape.get(1) % groups != 0 || resultGradient.shape.get(1) % groups != 0) {
+			throw new LnnException();
+		}
+		Tensor result = create(resultGradient.shape.get(1), this.shape.get(1) / groups, kernelSize.e0,
+				kernelSize.e1);
+		kernel(CrossCorrelationWeightGradient2DKernel.class).execute(this, resultGradient, stride, padding, dilation,
+				groups, result);
+		return result;
+	}
+
+	/**
+	 * Returns the gradient of the weight of
+	 * {@link #conv3d(Tensor, IntTuple3, IntTuple3, IntTuple3, int)} on this
+	 * input, given the gradient of its result.
+	 */
+	public Tensor conv3dWeightGradient(Tensor resultGradient, IntTuple3 kernelSize, IntTuple3 stride,
+			IntTuple3 padding, IntTuple3 dilation, int groups) {
+		if (this.ndim() != 5 || resultGradient.ndim() != 5) {
+			throw new DimException();
+		}
+		if (this.shape.get(0) != resultGradient.shape.get(0)) {
+			throw new LnnException();
+		}
+		if (this.shape.get(1) % groups != 0 || resultGradient.shape.get(1) % groups != 0) {
+			throw new LnnException();
+		}
+		Tensor result = create(resultGradient.shape.get(1), this.shape.get(1) / groups, kernelSize.e0,
+				kernelSize.e1, kernelSize.e2);
+		kernel(CrossCorrelationWeightGradient3DKernel.class).execute(this, resultGradient, stride, padding, dilation,
+				groups, result);
+		return result;
+	}
+
 	public Tensor avgPool1d(int kernelSize) {
 		return avgPool1d(kernelSize, kernelSize);
 	}
@@ -1323,81 +2267,156 @@ public class Tensor implements Cloneable {
 
 	public Tensor sqrt() {
 		Tensor result = like();
-		kernel(SquareRootKernel.class).execute(data, result.data);
+		kernel(SquareRootKernel.class).execute(flatData(), result.data);
 		return result;
 	}
 
 	public Tensor exp() {
 		Tensor result = like();
-		kernel(NaturalExponentiationKernel.class).execute(data, result.data);
+		kernel(NaturalExponentiationKernel.class).execute(flatData(), result.data);
 		return result;
 	}
 
 	public Tensor pow(Tensor exponent) {
-		checkSameShape(exponent);
+		if (!sameShape(exponent)) {
+			IntArray shape = broadcastShape(this.shape, exponent.shape);
+			return operandView(shape).lazy().pow(exponent.operandView(shape)).evaluate();
+		}
+		if (null != strides || null != exponent.strides) {
+			return lazy().pow(exponent).evaluate();
+		}
 		Tensor result = like();
-		kernel(PowerKernel.class).execute(data, exponent.data, result.data);
+		kernel(PowerKernel.class).execute(flatData(), exponent.flatData(), result.data);
 		return result;
 	}
 
 	public Tensor pow(float exponent) {
 		Tensor result = like();
-		kernel(PowerValueKernel.class).execute(data, exponent, result.data);
+		kernel(PowerValueKernel.class).execute(flatData(), exponent, result.data);
 		return result;
 	}
 
 	public Tensor ln() {
 		Tensor result = like();
-		kernel(NaturalLogarithmKernel.class).execute(data, result.data);
+		kernel(NaturalLogarithmKernel.class).execute(flatData(), result.data);
 		return result;
 	}
 
 	public Tensor log(Tensor antilogarithm) {
 		checkSameShape(antilogarithm);
 		Tensor result = like();
-		kernel(LogarithmKernel.class).execute(data, antilogarithm.data, result.data);
+		kernel(LogarithmKernel.class).execute(flatData(), antilogarithm.flatData(), result.data);
 		return result;
 	}
 
 	public Tensor tanh() {
 		Tensor result = like();
-		kernel(TanhKernel.class).execute(data, result.data);
+		kernel(TanhKernel.class).execute(flatData(), result.data);
 		return result;
 	}
 
 	public Tensor relu() {
 		Tensor result = like();
-		kernel(ReluKernel.class).execute(data, result.data);
+		kernel(ReluKernel.class).execute(flatData(), result.data);
 		return result;
 	}
 
-	public Tensor sumAxis(int axis) {
-		if (1 == this.data.length) {
-			return clone();
-		}
-		IntArray shape = new IntArray(this.shape.length);
-		IntArray.copy(this.shape, 0, shape, 0, shape.length);
+	/**
+	 * Reduces all the elements to a scalar tensor in a single launch.
+	 *
+	 * @param other the tensor of {@link Operation#MAX_ABS_DIFF}, or null
+	 * @param index the scalar tensor which receives the index of
+	 *              {@link Operation#ARGMAX}, or null
+	 */
+	protected Tensor reduce(Operation operation, Tensor other, IntTensor index) {
+		Tensor result = create(new IntArray(0));
+		kernel(ReduceKernel.class).execute(operation, flatData(), null != other ? other.flatData() : null, result.data,
+				null != index ? index.flatData() : null);
+		return result;
+	}
+
+	/**
+	 * Reduces an axis, which is kept with length 1.
+	 *
+	 * @param indexes the tensor with the shape of the result which receives the
+	 *                indexes of {@link Operation#ARGMAX}, or null
+	 */
+	protected Tensor reduceAxis(Operation operation, int axis, IntTensor indexes) {
+		Tensor result = create(reducedShape(axis));
+		kernel(ReduceAxisKernel.class).execute(operation, axis, this, result, indexes);
+		return result;
+	}
+
+	private IntArray reducedShape(int axis) {
 		if (axis < 0 || axis > this.shape.length - 1) {
 			throw new IndexOutOfBoundsException();
 		}
+		IntArray shape = new IntArray(this.shape.length);
+		IntArray.copy(this.shape, 0, shape, 0, shape.length);
 		shape.set(axis, 1);
-		Tensor result = create(shape);
-		kernel(SumAxisKernel.class).execute(axis, this, result);
-		return result;
+		return shape;
 	}
 
-	public Tensor sum() {
-		Tensor result = this;
-		for (int axis = 0; axis < shape.length; axis++) {
-			if (shape.get(axis) != 1) {
-				result = result.sumAxis(axis);
-			}
-		}
-		if (this == result) {
-			result = result.clone();
+	public Tensor sumAxis(int axis) {
+		if (1 == size()) {
+			return clone();
 		}
-		result.setShape(new IntArray(0));
-		return result;
+		return reduceAxis(Operation.SUM, axis, null);
+	}
+
+	public Tensor sum() {
+		return reduce(Operation.SUM, null, null);
+	}
+
+	public Tensor meanAxis(int axis) {
+		return sumAxis(axis).div(shape.get(axis));
+	}
+
+	public Tensor mean() {
+		return sum().div(size());
+	}
+
+	public Tensor maxAxis(int axis) {
+		return reduceAxis(Operation.MAX, axis, null);
+	}
+
+	public Tensor max() {
+		return reduce(Operation.MAX, null, null);
+	}
+
+	public Tensor minAxis(int axis) {
+		return reduceAxis(Operation.MIN, axis, null);
+	}
+
+	public Tensor min() {
+		return reduce(Operation.MIN, null, null);
+	}
+
+	/**
+	 * Returns the indexes of the first greatest elements along the axis, which
+	 * is kept with length 1. NaN elements are ignored.
+	 */
+	public IntTensor argmaxAxis(int axis) {
+		IntTensor indexes = new IntTensor(device, reducedShape(axis));
+		reduceAxis(Operation.ARGMAX, axis, indexes);
+		return indexes;
+	}
+
+	/**
+	 * Returns the flat index of the first greatest element as a scalar tensor.
+	 * NaN elements are ignored.
+	 */
+	public IntTensor argmax() {
+		IntTensor index = new IntTensor(device, new IntArray(0));
+		reduce(Operation.ARGMAX, null, index);
+		return index;
+	}
+
+	/**
+	 * Returns the Euclidean norm of all the elements.
+	 */
+	public Tensor norm() {
+		return reduce(Operation.SUM_SQUARE, null, null).sqrt();
 	}
 
 	protected float selectPrecision(float otherPrecision) {
@@ -1407,14 +2426,14 @@ public class Tensor implements Cloneable {
 	public Tensor lesser(Tensor other) {
 		checkSameShape(other);
 		Tensor result = like();
-		kernel(LesserKernel.class).execute(selectPrecision(other.precision), this.data, other.data, result.data);
+		kernel(LesserKernel.class).execute(selectPrecision(other.precision), flatData(), other.flatData(), result.data);
 		return result;
 	}
 
 	public Tensor lesserEqual(Tensor other) {
 		checkSameShape(other);
 		Tensor result = like();
-		kernel(LesserEqualKernel.class).execute(selectPrecision(other.precision), this.data, other.data, result.data);
+		kernel(LesserEqualKernel.class).execute(selectPrecision(other.precision), flatData(), other.flatData(), result.data);
 		return result;
 	}
 
@@ -1429,14 +2448,14 @@ public class Tensor implements Cloneable {
 	public Tensor equal(Tensor other) {
 		checkSameShape(other);
 		Tensor result = like();
-		kernel(EqualKernel.class).execute(selectPrecision(other.precision), this.data, other.data, result.data);
+		kernel(EqualKernel.class).execute(selectPrecision(other.precision), flatData(), other.flatData(), result.data);
 		return result;
 	}
 
 	public Tensor notEqual(Tensor other) {
 		checkSameShape(other);
 		Tensor result = like();
-		kernel(NotEqualKernel.class).execute(selectPrecision(other.precision), this.data, other.data, result.data);
+		kernel(NotEqualKernel.class).execute(selectPrecision(other.precision), flatData(), other.flatData(), result.data);
 		return result;
 	}
 
@@ -1455,14 +2474,14 @@ public class Tensor implements Cloneable {
 		if (!shape.equals(other.shape)) {
 			return false;
 		}
-		return kernel(EqualsKernel.class).execute(selectPrecision(other.precision), this.data, other.data);
+		return !(reduce(Operation.MAX_ABS_DIFF, other, null).data.get(0) > selectPrecision(other.precision));
 	}
 
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + data.hashCode();
+		result = prime * result + flatData().hashCode();
 		result = prime * result + shape.hashCode();
 		return result;
 	}
@@ -1472,6 +2491,52 @@ public class Tensor implements Cloneable {
 		return new Tensor(this);
 	}
 
+	/**
+	 * Blocks until the asynchronous kernel calls which use the data of this
+	 * tensor are complete. Reading the tensor waits for them anyway, so this is
+	 * only needed to bound the work queued on an asynchronous {@link Device},
+	 * or to time it.
+	 */
+	public Tensor await() {
+		data.await();
+		return this;
+	}
+
+	/**
+	 * Gives the data of this tensor back to the buffer pool, once no view of it
+	 * is used any more. The tensor must not be used any more.
+	 */
+	public void close() {
+		if (null == dataReference || dataReference.release()) {
+			data.close();
+		}
+		TransformedWeight transformed = winogradWeight;
+		if (null != transformed) {
+			transformed.data.close();
+			winogradWeight = null;
+		}
+	}
+
+	/**
+	 * Keeps this tensor from being closed with the current {@link BufferArena},
+	 * so that it can be used after the arena is closed.
+	 */
+	public Tensor keep() {
+		BufferArena arena = BufferArena.current();
+		if (null != arena) {
+			arena.keep(data);
+			arena.keep(shape);
+			arena.keep(dimSizes);
+			if (null != strides) {
+				arena.keep(strides);
+			}
+			if (null != dataReference) {
+				arena.keep(dataReference);
+			}
+		}
+		return this;
+	}
+
 	protected void appendDim(final StringBuilder b, final int shapeIndex, final int dataIndex) {
 		b.append('[');
 		final int dimLength = shape.get(shapeIndex);
@@ -1494,7 +2559,7 @@ public class Tensor implements Cloneable {
 				if (i != 0) {
 					b.append(", ");
 				}
-				b.append(data.get(dataIndex + i));
+				b.append(flatData().get(dataIndex + i));
 			}
 		}
 		b.append(']');
@@ -1504,7 +2569,7 @@ public class Tensor implements Cloneable {
 	public String toString() {
 		StringBuilder b = new StringBuilder();
 		if (shape.length == 0) {
-			b.append(data.get(0));
+			b.append(scalar());
 		} else {
 			appendDim(b, 0, 0);
 		}
@@ -59,7 +59,8 @@ public class TensorRandom {
 
 	public void uniform(float low, float high, Tensor t) {
 		nextSeed();
-		t.device().kernel(UniformRandomKernel.class).execute(MASK, MULTIPLIER, ADDEND, seed, low, high, t.flatData());
+		t.device().kernel(UniformRandomKernel.class).execute(MASK, MULTIPLIER, ADDEND, seed, low, high, t.mutableData());
+		t.incrementVersion();
 	}
 
 	public void normal(Tensor t) {
@@ -69,7 +70,8 @@ public class TensorRandom {
 	public void normal(float mean, float standardDeviation, Tensor t) {
 		nextSeed();
 		t.device().kernel(NormalRandomKernel.class).execute(MASK, MULTIPLIER, ADDEND, seed, mean, standardDeviation,
-				t.flatData());
+				t.mutableData());
+		t.incrementVersion();
 	}
 
 	public void shuffle(Device device, IntArray array) {
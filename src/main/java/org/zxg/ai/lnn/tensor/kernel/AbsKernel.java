@@ -20,10 +20,12 @@ import org.zxg.ai.lnn.opencl.Calling;
 import org.zxg.ai.lnn.opencl.FloatArray;
 import org.zxg.ai.lnn.opencl.Kernel;
 import org.zxg.ai.lnn.opencl.Range1D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
 
 /**
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
+@SharedProgram("Elementwise.cl")
 public class AbsKernel extends Kernel {
 
 	public void execute(FloatArray source, FloatArray result) {
@@ -20,10 +20,12 @@ import org.zxg.ai.lnn.opencl.Calling;
 import org.zxg.ai.lnn.opencl.FloatArray;
 import org.zxg.ai.lnn.opencl.Kernel;
 import org.zxg.ai.lnn.opencl.Range1D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
 
 /**
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
+@SharedProgram("Indexing.cl")
 public class ArangeKernel extends Kernel {
 
 	public void execute(float start, float stop, float step, int repeat, FloatArray result) {
@@ -20,11 +20,13 @@ import org.zxg.ai.lnn.opencl.Calling;
 import org.zxg.ai.lnn.opencl.FloatArray;
 import org.zxg.ai.lnn.opencl.Kernel;
 import org.zxg.ai.lnn.opencl.Range1D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
 import org.zxg.ai.lnn.tensor.Tensor;
 
 /**
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
+@SharedProgram("Convolution.cl")
 public class AvgPool1DKernel extends Kernel {
 
 	public void execute(Tensor input, int kernelSize, int stride, int padding, boolean countIncludePad, Tensor result) {
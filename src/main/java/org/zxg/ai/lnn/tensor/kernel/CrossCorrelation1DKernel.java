@@ -20,11 +20,13 @@ import org.zxg.ai.lnn.opencl.Calling;
 import org.zxg.ai.lnn.opencl.FloatArray;
 import org.zxg.ai.lnn.opencl.Kernel;
 import org.zxg.ai.lnn.opencl.Range1D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
 import org.zxg.ai.lnn.tensor.Tensor;
 
 /**
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
+@SharedProgram("Convolution.cl")
 public class CrossCorrelation1DKernel extends Kernel {
 
 	public void execute(Tensor input, Tensor weight, int stride, int padding, int dilation, int groups, Tensor result) {
@@ -20,12 +20,14 @@ import org.zxg.ai.lnn.opencl.Calling;
 import org.zxg.ai.lnn.opencl.FloatArray;
 import org.zxg.ai.lnn.opencl.Kernel;
 import org.zxg.ai.lnn.opencl.Range1D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
 import org.zxg.ai.lnn.tensor.Tensor;
 import org.zxg.ai.lnn.tuple.IntTuple3;
 
 /**
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
+@SharedProgram("Convolution.cl")
 public class CrossCorrelation3DKernel extends Kernel {
 
 	public void execute(Tensor input, Tensor weight, IntTuple3 stride, IntTuple3 padding, IntTuple3 dilation,
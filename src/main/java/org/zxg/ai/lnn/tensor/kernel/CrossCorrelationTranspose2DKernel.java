@@ -20,12 +20,14 @@ import org.zxg.ai.lnn.opencl.Calling;
 import org.zxg.ai.lnn.opencl.FloatArray;
 import org.zxg.ai.lnn.opencl.Kernel;
 import org.zxg.ai.lnn.opencl.Range1D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
 import org.zxg.ai.lnn.tensor.Tensor;
 import org.zxg.ai.lnn.tuple.IntTuple2;
 
 /**
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
+@SharedProgram("Convolution.cl")
 public class CrossCorrelationTranspose2DKernel extends Kernel {
 
 	public void execute(Tensor input, Tensor weight, IntTuple2 stride, IntTuple2 padding, int groups,
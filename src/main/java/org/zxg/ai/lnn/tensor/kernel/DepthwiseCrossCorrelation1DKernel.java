@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel;
+
+import org.zxg.ai.lnn.opencl.CacheArg;
+import org.zxg.ai.lnn.opencl.Calling;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.opencl.Kernel;
+import org.zxg.ai.lnn.opencl.Range2D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
+import org.zxg.ai.lnn.tensor.Tensor;
+
+/**
+ * Computes a depthwise cross-correlation, whose groups are the input
+ * channels, so that each output channel reads a single input channel. A
+ * work-group computes {@link #TILE_LENGTH} elements of an output channel of an
+ * image from their input span in local memory. The generic kernel is used if
+ * the span does not fit into the local memory.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+@SharedProgram("Convolution.cl")
+public class DepthwiseCrossCorrelation1DKernel extends Kernel {
+
+	public static final int TILE_LENGTH = 64;
+
+	public void execute(Tensor input, Tensor weight, int stride, int padding, int dilation, Tensor result) {
+		final int tileLength = (TILE_LENGTH - 1) * stride + (weight.shape().get(2) - 1) * dilation + 1;
+		if ((long) tileLength * Float.BYTES > device().clDevice.getLocalMemSize()) {
+			device().kernel(CrossCorrelation1DKernel.class).execute(input, weight, stride, padding, dilation,
+					input.shape().get(1), result);
+			return;
+		}
+		FloatArray resultData = result.flatData();
+		Calling c = call();
+		c.arg(stride).arg(padding).arg(dilation).arg(tileLength);
+		c.in(input.shape()).in(weight.shape()).in(result.shape());
+		c.in(input.flatData()).in(weight.flatData()).out(resultData);
+		c.local(CacheArg.Type.FLOAT, tileLength);
+		c.pass(new Range2D(roundUp(result.shape().get(2), TILE_LENGTH), result.shape().get(0) * result.shape().get(1),
+				TILE_LENGTH, 1));
+		c.execute();
+	}
+
+	private static int roundUp(int value, int multiple) {
+		return (value + multiple - 1) / multiple * multiple;
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel;
+
+import org.zxg.ai.lnn.opencl.CacheArg;
+import org.zxg.ai.lnn.opencl.Calling;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.opencl.Kernel;
+import org.zxg.ai.lnn.opencl.Range3D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
+import org.zxg.ai.lnn.tensor.Tensor;
+import org.zxg.ai.lnn.tuple.IntTuple2;
+
+/**
+ * Computes a depthwise cross-correlation, whose groups are the input
+ * channels, so that each output channel reads a single input channel. A
+ * work-group computes a {@link #TILE_SIZE} x {@link #TILE_SIZE} tile of an
+ * output channel of an image from its input tile in local memory, which each
+ * input element is loaded into once instead of once per element of the
+ * kernel. The generic kernel is used if the input tile does not fit into the
+ * local memory.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+@SharedProgram("Convolution.cl")
+public class DepthwiseCrossCorrelation2DKernel extends Kernel {
+
+	public static final int TILE_SIZE = 16;
+
+	public void execute(Tensor input, Tensor weight, IntTuple2 stride, IntTuple2 padding, IntTuple2 dilation,
+			Tensor result) {
+		final int tileHeight = (TILE_SIZE - 1) * stride.e0 + (weight.shape().get(2) - 1) * dilation.e0 + 1;
+		final int tileWidth = (TILE_SIZE - 1) * stride.e1 + (weight.shape().get(3) - 1) * dilation.e1 + 1;
+		if ((long) tileHeight * tileWidth * Float.BYTES > device().clDevice.getLocalMemSize()) {
+			device().kernel(CrossCorrelation2DKernel.class).execute(input, weight, stride, padding, dilation,
+					input.shape().get(1), result);
+			return;
+		}
+		FloatArray resultData = result.flatData();
+		Calling c = call();
+		c.arg(stride.e0).arg(stride.e1);
+		c.arg(padding.e0).arg(padding.e1);
+		c.arg(dilation.e0).arg(dilation.e1);
+		c.arg(tileHeight).arg(tileWidth);
+		c.in(input.shape()).in(weight.shape()).in(result.shape());
+		c.in(input.flatData()).in(weight.flatData()).out(resultData);
+		c.local(CacheArg.Type.FLOAT, tileHeight * tileWidth);
+		c.pass(new Range3D(roundUp(result.shape().get(3), TILE_SIZE), roundUp(result.shape().get(2), TILE_SIZE),
+				result.shape().get(0) * result.shape().get(1), TILE_SIZE, TILE_SIZE, 1));
+		c.execute();
+	}
+
+	private static int roundUp(int value, int multiple) {
+		return (value + multiple - 1) / multiple * multiple;
+	}
+}
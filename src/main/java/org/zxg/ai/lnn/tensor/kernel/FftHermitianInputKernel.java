@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel;
+
+import org.zxg.ai.lnn.opencl.Calling;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.opencl.Kernel;
+import org.zxg.ai.lnn.opencl.Range1D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
+
+/**
+ * Expands the first bins of the spectra of real signals into the whole
+ * spectra of n complex numbers for {@link FftKernel}. The frequencies above
+ * n / 2 are the conjugates of their mirrors, and the bins which are not given
+ * are zeros.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+@SharedProgram("Fourier.cl")
+public class FftHermitianInputKernel extends Kernel {
+
+	/**
+	 * @param input  the rows of {@code bins} complex numbers, one after another
+	 * @param result receives {@code rows * n} complex numbers
+	 */
+	public void execute(FloatArray input, int rows, int bins, int n, FloatArray result) {
+		Calling c = call();
+		c.arg(bins).arg(n);
+		c.in(input).out(result);
+		c.pass(new Range1D(rows * n));
+		c.execute();
+	}
+}
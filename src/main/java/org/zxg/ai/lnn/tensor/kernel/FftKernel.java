@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel;
+
+import java.util.Arrays;
+
+import org.zxg.ai.lnn.opencl.Calling;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.opencl.Kernel;
+import org.zxg.ai.lnn.opencl.Range1D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
+
+/**
+ * Computes the discrete Fourier transforms of rows of complex numbers, each
+ * of which is stored as its real part followed by its imaginary part, with
+ * the mixed-radix Stockham algorithm. Each pass combines the transforms of
+ * the previous passes with butterflies of one of the radices which the length
+ * is factored into, so a length whose only prime factors are 2, 3 and 5 is
+ * the fastest, and a large prime factor costs as much as a direct transform
+ * of its length.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+@SharedProgram("Fourier.cl")
+public class FftKernel extends Kernel {
+
+	/**
+	 * Returns the radices of the passes for the length, fours first, then the
+	 * other prime factors in increasing order.
+	 */
+	public static int[] radices(int n) {
+		if (n < 1) {
+			throw new IllegalArgumentException("n < 1");
+		}
+		if (1 == n) {
+			return new int[] { 1 };
+		}
+		int[] radices = new int[32];
+		int count = 0;
+		while (0 == n % 4) {
+			radices[count++] = 4;
+			n /= 4;
+		}
+		for (int factor = 2; n > 1; factor++) {
+			while (0 == n % factor) {
+				radices[count++] = factor;
+				n /= factor;
+			}
+			if (factor * factor > n && n > 1) {
+				radices[count++] = n;
+				break;
+			}
+		}
+		return Arrays.copyOf(radices, count);
+	}
+
+	/**
+	 * Returns the smallest length which is not less than the given one, and
+	 * whose only prime factors are 2, 3 and 5.
+	 */
+	public static int fastLength(int n) {
+		int best = Integer.MAX_VALUE;
+		for (long power2 = 1; power2 < 2L * n; power2 *= 2) {
+			for (long power3 = power2; power3 < 2L * n; power3 *= 3) {
+				for (long length = power3; length < 2L * n; length *= 5) {
+					if (length >= n && length < best) {
+						best = (int) length;
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @param rows         the count of the transforms, whose inputs are stored
+	 *                     one after another
+	 * @param inverse      whether to compute the inverse transforms, which are
+	 *                     not divided by n
+	 * @param result       receives the first {@code resultLength} elements of
+	 *                     each transform, one transform after another
+	 * @param resultLength at most n
+	 */
+	public void execute(FloatArray input, int rows, int n, boolean inverse, FloatArray result, int resultLength) {
+		final int[] radices = radices(n);
+		// The passes alternate between two buffers, so that the last one writes
+		// the result. The result is one of them if it holds whole transforms.
+		final FloatArray first = radices.length > 1 ? FloatArray.uninitialized(rows * n * 2) : null;
+		final FloatArray second = radices.length > 2
+				? (n == resultLength ? result : FloatArray.uninitialized(rows * n * 2))
+				: null;
+		try {
+			FloatArray source = input;
+			int subLength = 1;
+			for (int i = 0; i < radices.length; i++) {
+				final int remainingPasses = radices.length - 1 - i;
+				final FloatArray destination = 0 == remainingPasses ? result
+						: (1 == remainingPasses % 2 ? first : second);
+				pass(source, rows, n, radices[i], subLength, inverse, destination,
+						0 == remainingPasses ? resultLength : n);
+				source = destination;
+				subLength *= radices[i];
+			}
+		} finally {
+			if (null != first) {
+				first.close();
+			}
+			if (null != second && second != result) {
+				second.close();
+			}
+		}
+	}
+
+	/**
+	 * Combines the transforms of {@code subLength} elements into transforms of
+	 * {@code subLength * radix} elements.
+	 */
+	protected void pass(FloatArray input, int rows, int n, int radix, int subLength, boolean inverse,
+			FloatArray result, int resultLength) {
+		Calling c = call();
+		c.arg(n).arg(radix).arg(subLength).arg(inverse ? 1f : -1f).arg(resultLength);
+		c.in(input).out(result);
+		c.pass(new Range1D(rows * (n / radix)));
+		c.execute();
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel;
+
+import org.zxg.ai.lnn.opencl.Calling;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.opencl.Kernel;
+import org.zxg.ai.lnn.opencl.Range1D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
+
+/**
+ * Puts rows of real numbers into rows of n complex numbers for
+ * {@link FftKernel}. Element i of an input row goes to position
+ * {@code start + i * step} of its result row, and the other positions are
+ * zeros. The elements which fall beyond n are dropped.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+@SharedProgram("Fourier.cl")
+public class FftRealInputKernel extends Kernel {
+
+	/**
+	 * @param input  the rows of {@code length} elements, one after another from
+	 *               {@code inputOffset}
+	 * @param result receives {@code rows * n} complex numbers
+	 */
+	public void execute(FloatArray input, int inputOffset, int rows, int length, int n, int start, int step,
+			FloatArray result) {
+		Calling c = call();
+		c.arg(inputOffset).arg(length).arg(n).arg(start).arg(step);
+		c.in(input).out(result);
+		c.pass(new Range1D(rows * n));
+		c.execute();
+	}
+}
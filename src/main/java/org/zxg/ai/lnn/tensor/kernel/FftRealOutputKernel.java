@@ -18,23 +18,29 @@ package org.zxg.ai.lnn.tensor.kernel;
 
 import org.zxg.ai.lnn.opencl.Calling;
 import org.zxg.ai.lnn.opencl.FloatArray;
-import org.zxg.ai.lnn.opencl.IntArray;
 import org.zxg.ai.lnn.opencl.Kernel;
 import org.zxg.ai.lnn.opencl.Range1D;
-import org.zxg.ai.lnn.tensor.Tensor;
+import org.zxg.ai.lnn.opencl.SharedProgram;
 
 /**
+ * Takes the scaled real parts of every {@code step}-th element of rows of
+ * complex numbers into rows of {@code length} real numbers, which are stored
+ * one after another from an offset of the result.
+ *
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
-public class SliceKernel extends Kernel {
+@SharedProgram("Fourier.cl")
+public class FftRealOutputKernel extends Kernel {
 
-	public void execute(IntArray begin, Tensor source, Tensor result) {
-		FloatArray resultData = result.flatData();
+	/**
+	 * @param rowLength the count of the complex numbers of an input row
+	 */
+	public void execute(FloatArray input, int rows, int rowLength, int step, int length, float scale,
+			FloatArray result, int resultOffset) {
 		Calling c = call();
-		c.arg(result.ndim()).in(begin);
-		c.in(source.dimSizes()).in(result.dimSizes());
-		c.in(source.flatData()).out(resultData);
-		c.pass(new Range1D(resultData.length));
+		c.arg(rowLength).arg(step).arg(length).arg(resultOffset).arg(scale);
+		c.in(input).out(result);
+		c.pass(new Range1D(rows * length));
 		c.execute();
 	}
 }
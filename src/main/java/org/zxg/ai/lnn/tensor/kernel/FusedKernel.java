@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.zxg.ai.lnn.opencl.Calling;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.opencl.Kernel;
+import org.zxg.ai.lnn.opencl.Program;
+import org.zxg.ai.lnn.opencl.Range1D;
+import org.zxg.ai.lnn.tensor.Expression;
+import org.zxg.ai.lnn.tensor.Tensor;
+
+/**
+ * Computes an {@link Expression} with a kernel generated from it. Each
+ * distinct tensor of the expression is read once per element, strided views in
+ * place by their offsets and strides, and the values are passed as arguments,
+ * so the expressions which only differ in their values share one program,
+ * which is built once per device. A contiguous tensor whose data is the data
+ * of the result, as in an in-place operation, is read from the result, which
+ * is then passed once as read and written.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class FusedKernel extends Kernel {
+
+	private static final String FUNCTIONS = "float square(const float x) {\n\treturn x * x;\n}\n\n"
+			+ "float relu(const float x) {\n\treturn x > 0 ? x : 0;\n}\n\n";
+
+	public void execute(Expression expression, Tensor result) {
+		final List<Tensor> tensors = expression.tensors();
+		final Map<Tensor, Integer> tensorIndexes = new IdentityHashMap<>();
+		final FloatArray resultData = result.flatData();
+		final StringBuilder layout = new StringBuilder();
+		boolean inPlace = false;
+		for (Tensor tensor : tensors) {
+			tensorIndexes.put(tensor, tensorIndexes.size());
+			if (!tensor.isContiguous()) {
+				layout.append('s');
+			} else if (tensor.storage() == resultData) {
+				layout.append('r');
+				inPlace = true;
+			} else {
+				layout.append('c');
+			}
+		}
+		final int ndim = layout.indexOf("s") < 0 ? 0 : result.ndim();
+		final float[] values = new float[countValues(expression)];
+		final StringBuilder body = new StringBuilder();
+		appendExpression(body, expression, tensorIndexes, values, new int[1]);
+		final String signature = layout + ":" + ndim + ":" + values.length + ":" + body;
+		Program program = program(signature, () -> source(layout.toString(), ndim, values.length, body.toString()));
+		Calling c = call(program, getClass().getName() + ":" + signature);
+		for (Tensor tensor : tensors) {
+			if (tensor.isContiguous() && tensor.storage() == resultData) {
+				continue;
+			}
+			c.in(tensor.storage());
+		}
+		for (Tensor tensor : tensors) {
+			if (!tensor.isContiguous()) {
+				c.arg(tensor.offset());
+				for (int d = 0; d < ndim; d++) {
+					c.arg(tensor.strides().get(d));
+				}
+			}
+		}
+		for (int d = 1; d < ndim; d++) {
+			c.arg(result.shape().get(d));
+		}
+		for (float value : values) {
+			c.arg(value);
+		}
+		if (inPlace) {
+			c.inOut(resultData);
+		} else {
+			c.out(resultData);
+		}
+		c.pass(new Range1D(resultData.length));
+		c.execute();
+	}
+
+	private static int countValues(Expression expression) {
+		if (Expression.Operator.VALUE == expression.operator()) {
+			return 1;
+		}
+		int count = 0;
+		for (Expression operand : expression.operands()) {
+			count += countValues(operand);
+		}
+		return count;
+	}
+
+	private static void appendExpression(StringBuilder b, Expression expression, Map<Tensor, Integer> tensorIndexes,
+			float[] values, int[] valueCount) {
+		final List<Expression> operands = expression.operands();
+		switch (expression.operator()) {
+		case TENSOR:
+			b.append('e').append(tensorIndexes.get(expression.tensor()));
+			return;
+		case VALUE:
+			values[valueCount[0]] = expression.value();
+			b.append('v').append(valueCount[0]++);
+			return;
+		case ADD:
+		case SUB:
+		case MUL:
+		case DIV:
+			b.append('(');
+			appendExpression(b, operands.get(0), tensorIndexes, values, valueCount);
+			b.append(operatorSymbol(expression.operator()));
+			appendExpression(b, operands.get(1), tensorIndexes, values, valueCount);
+			b.append(')');
+			return;
+		case NEGATIVE:
+			b.append("(-");
+			appendExpression(b, operands.get(0), tensorIndexes, values, valueCount);
+			b.append(')');
+			return;
+		case RECIPROCAL:
+			b.append("(1.0f / ");
+			appendExpression(b, operands.get(0), tensorIndexes, values, valueCount);
+			b.append(')');
+			return;
+		case LOG:
+			b.append("(log(");
+			appendExpression(b, operands.get(1), tensorIndexes, values, valueCount);
+			b.append(") / log(");
+			appendExpression(b, operands.get(0), tensorIndexes, values, valueCount);
+			b.append("))");
+			return;
+		default:
+			b.append(functionName(expression.operator())).append('(');
+			for (int i = 0; i < operands.size(); i++) {
+				if (i > 0) {
+					b.append(", ");
+				}
+				appendExpression(b, operands.get(i), tensorIndexes, values, valueCount);
+			}
+			b.append(')');
+		}
+	}
+
+	private static String operatorSymbol(Expression.Operator operator) {
+		switch (operator) {
+		case ADD:
+			return " + ";
+		case SUB:
+			return " - ";
+		case MUL:
+			return " * ";
+		default:
+			return " / ";
+		}
+	}
+
+	private static String functionName(Expression.Operator operator) {
+		switch (operator) {
+		case ABS:
+			return "fabs";
+		case LN:
+			return "log";
+		case MAX:
+			return "fmax";
+		case MIN:
+			return "fmin";
+		default:
+			return operator.name().toLowerCase();
+		}
+	}
+
+	/**
+	 * Generates the kernel, which reads the strided views by the coordinates of
+	 * the element in the result, computed once from the lengths of the axes.
+	 *
+	 * @param layout a 'c' for each contiguous tensor, an 's' for each strided
+	 *               view and an 'r' for each tensor read from the result
+	 */
+	private static String source(String layout, int ndim, int valueCount, String body) {
+		StringBuilder b = new StringBuilder(FUNCTIONS);
+		b.append("__kernel void run(");
+		for (int i = 0; i < layout.length(); i++) {
+			if ('r' != layout.charAt(i)) {
+				b.append("__global const float* t").append(i).append(", ");
+			}
+		}
+		for (int i = 0; i < layout.length(); i++) {
+			if ('s' == layout.charAt(i)) {
+				b.append("const int o").append(i).append(", ");
+				for (int d = 0; d < ndim; d++) {
+					b.append("const int s").append(i).append('_').append(d).append(", ");
+				}
+			}
+		}
+		for (int d = 1; d < ndim; d++) {
+			b.append("const int n").append(d).append(", ");
+		}
+		for (int i = 0; i < valueCount; i++) {
+			b.append("const float v").append(i).append(", ");
+		}
+		b.append("__global float* result) {\n");
+		b.append("\tconst size_t gid = get_global_id(0);\n");
+		if (ndim > 0) {
+			b.append("\tint r = gid;\n");
+			for (int d = ndim - 1; d > 0; d--) {
+				b.append("\tconst int c").append(d).append(" = r % n").append(d).append(";\n");
+				b.append("\tr /= n").append(d).append(";\n");
+			}
+			b.append("\tconst int c0 = r;\n");
+		}
+		for (int i = 0; i < layout.length(); i++) {
+			b.append("\tconst float e").append(i).append(" = ");
+			if ('r' == layout.charAt(i)) {
+				b.append("result[");
+			} else {
+				b.append('t').append(i).append('[');
+			}
+			if ('s' == layout.charAt(i)) {
+				b.append('o').append(i);
+				for (int d = 0; d < ndim; d++) {
+					b.append(" + c").append(d).append(" * s").append(i).append('_').append(d);
+				}
+			} else {
+				b.append("gid");
+			}
+			b.append("];\n");
+		}
+		b.append("\tresult[gid] = ").append(body).append(";\n}\n");
+		return b.toString();
+	}
+}
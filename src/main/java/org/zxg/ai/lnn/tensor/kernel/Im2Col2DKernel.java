@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel;
+
+import org.zxg.ai.lnn.opencl.Calling;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.opencl.Kernel;
+import org.zxg.ai.lnn.opencl.Range1D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
+import org.zxg.ai.lnn.tensor.Tensor;
+import org.zxg.ai.lnn.tuple.IntTuple2;
+
+/**
+ * Lowers the patches of a 2D cross-correlation into column matrices, so
+ * that the cross-correlation becomes a product of the weight and the
+ * columns. For each image of the batch, the rows of its matrix are indexed by
+ * (channel, kernel row, kernel column) and the columns by (output row, output
+ * column). The elements which fall into the padding are zeros.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+@SharedProgram("Convolution.cl")
+public class Im2Col2DKernel extends Kernel {
+
+	/**
+	 * Lowers the images {@code [batchBegin, batchBegin + batchCount)} of the
+	 * input into the beginning of the columns.
+	 */
+	public void execute(Tensor input, int batchBegin, int batchCount, IntTuple2 kernelSize, IntTuple2 stride,
+			IntTuple2 padding, IntTuple2 dilation, IntTuple2 outputSize, FloatArray columns) {
+		Calling c = call();
+		c.arg(batchBegin);
+		c.arg(kernelSize.e0).arg(kernelSize.e1);
+		c.arg(stride.e0).arg(stride.e1);
+		c.arg(padding.e0).arg(padding.e1);
+		c.arg(dilation.e0).arg(dilation.e1);
+		c.arg(outputSize.e0).arg(outputSize.e1);
+		c.in(input.shape()).in(input.dimSizes()).in(input.flatData()).out(columns);
+		final int rows = batchCount * input.shape().get(1) * kernelSize.e0 * kernelSize.e1;
+		c.pass(new Range1D(rows * outputSize.e0 * outputSize.e1));
+		c.execute();
+	}
+}
@@ -20,6 +20,7 @@ import org.zxg.ai.lnn.opencl.Calling;
 import org.zxg.ai.lnn.opencl.FloatArray;
 import org.zxg.ai.lnn.opencl.Kernel;
 import org.zxg.ai.lnn.opencl.Range1D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
 import org.zxg.ai.lnn.tensor.IntTensor;
 import org.zxg.ai.lnn.tensor.Tensor;
 import org.zxg.ai.lnn.tuple.IntTuple2;
@@ -27,6 +28,7 @@ import org.zxg.ai.lnn.tuple.IntTuple2;
 /**
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
+@SharedProgram("Convolution.cl")
 public class MaxPool2DKernel extends Kernel {
 
 	public void execute(Tensor input, IntTuple2 kernelSize, IntTuple2 stride, IntTuple2 padding, IntTuple2 dilation,
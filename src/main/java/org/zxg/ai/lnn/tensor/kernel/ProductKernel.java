@@ -16,31 +16,74 @@
  */
 package org.zxg.ai.lnn.tensor.kernel;
 
-import org.zxg.ai.lnn.opencl.CacheArg;
 import org.zxg.ai.lnn.opencl.Calling;
 import org.zxg.ai.lnn.opencl.FloatArray;
 import org.zxg.ai.lnn.opencl.Kernel;
-import org.zxg.ai.lnn.opencl.Range1D;
-import org.zxg.ai.lnn.opencl.Range2D;
+import org.zxg.ai.lnn.opencl.Range3D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
 import org.zxg.ai.lnn.tensor.Tensor;
 
 /**
+ * Multiplies matrices with a tiled kernel, which needs no scratch memory
+ * besides the tiles in the local memory of the device.
+ *
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
+@SharedProgram("Reduction.cl")
 public class ProductKernel extends Kernel {
 
+	public static final int TILE_SIZE = 16;
+	public static final int WORK_PER_ITEM = 4;
+
+	/**
+	 * Computes the product of the last axis of the left tensor and the first
+	 * axis of the right tensor. The leading axes of the left tensor are
+	 * flattened into the rows and the trailing axes of the right tensor into
+	 * the columns of the product.
+	 */
 	public void execute(Tensor left, Tensor right, Tensor result) {
-		FloatArray resultData = result.flatData();
-		final int cacheWidth = resultData.length;
-		final int cacheHeight = right.shape().get(0);
+		final FloatArray rightData = right.flatData();
+		final FloatArray resultData = result.flatData();
+		final int k = right.shape().get(0);
+		if (0 == k || 0 == resultData.length) {
+			return;
+		}
+		final int n = rightData.length / k;
+		final int m = resultData.length / n;
+		gemm(m, n, k, 1, left.flatData(), 0, 0, rightData, 0, 0, resultData, 0, 0);
+	}
+
+	/**
+	 * Computes {@code result[b] = left[b] * right[b]} for each {@code b} of the
+	 * batch, where {@code left[b]} is the row-major {@code m * k} matrix
+	 * starting at {@code leftOffset + b * leftBatchStride}, and so on. A batch
+	 * stride of 0 shares one matrix between the whole batch.
+	 */
+	public void gemm(int m, int n, int k, int batch, FloatArray left, int leftOffset, int leftBatchStride,
+			FloatArray right, int rightOffset, int rightBatchStride, FloatArray result, int resultOffset,
+			int resultBatchStride) {
+		if (m <= 0 || n <= 0 || batch <= 0) {
+			return;
+		}
 		Calling c = call();
-		c.arg(left.ndim() - 1).arg(right.ndim()).arg(cacheHeight);
-		c.in(left.dimSizes()).in(right.dimSizes()).in(result.dimSizes());
-		c.in(left.flatData()).in(right.flatData());
-		c.cache(CacheArg.Type.FLOAT, cacheWidth * cacheHeight);
-		c.out(resultData);
-		c.pass(new Range2D(cacheWidth, cacheHeight));
-		c.pass(new Range1D(cacheWidth));
+		c.arg(m).arg(n).arg(k);
+		c.arg(leftOffset).arg(leftBatchStride);
+		c.arg(rightOffset).arg(rightBatchStride);
+		c.arg(resultOffset).arg(resultBatchStride);
+		c.in(left).in(right);
+		final boolean overwritten = 0 == resultOffset && (1 == batch || m * n == resultBatchStride)
+				&& m * n * batch == result.length;
+		if (overwritten) {
+			c.out(result);
+		} else {
+			c.inOut(result);
+		}
+		c.pass(new Range3D(roundUp(n, TILE_SIZE), roundUp(m, TILE_SIZE) / WORK_PER_ITEM, batch, TILE_SIZE,
+				TILE_SIZE / WORK_PER_ITEM, 1));
 		c.execute();
 	}
+
+	private static int roundUp(int value, int multiple) {
+		return (value + multiple - 1) / multiple * multiple;
+	}
 }
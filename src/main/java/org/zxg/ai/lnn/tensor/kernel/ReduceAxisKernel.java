@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel;
+
+import org.zxg.ai.lnn.opencl.CacheArg;
+import org.zxg.ai.lnn.opencl.Calling;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.opencl.Kernel;
+import org.zxg.ai.lnn.opencl.Range2D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
+import org.zxg.ai.lnn.tensor.IntTensor;
+import org.zxg.ai.lnn.tensor.Tensor;
+import org.zxg.ai.lnn.tensor.kernel.ReduceKernel.Operation;
+
+/**
+ * Reduces an axis with one work-group for each element of the result, which
+ * makes a tree reduction in its local memory. {@link Operation#MAX_ABS_DIFF}
+ * is not supported.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+@SharedProgram("Reduction.cl")
+public class ReduceAxisKernel extends Kernel {
+
+	/**
+	 * @param result        the tensor with the shape of the source, except that
+	 *                      the axis is 1
+	 * @param resultIndexes the tensor with the shape of the result which
+	 *                      receives the indexes of {@link Operation#ARGMAX}, or
+	 *                      null
+	 */
+	public void execute(Operation operation, int axis, Tensor source, Tensor result, IntTensor resultIndexes) {
+		final int axisLength = source.shape().get(axis);
+		final FloatArray resultData = result.flatData();
+		final int groupSize = ReduceKernel.groupSize(device(), maxWorkGroupSize(), axisLength);
+		Calling c = call();
+		c.arg(operation.ordinal()).arg(axisLength).arg(source.dimSizes().get(axis));
+		c.in(source.flatData()).out(resultData);
+		if (null != resultIndexes) {
+			c.out(resultIndexes.flatData());
+		} else {
+			c.nullPtr();
+		}
+		c.local(CacheArg.Type.FLOAT, groupSize).local(CacheArg.Type.INT, groupSize);
+		c.pass(new Range2D(groupSize, resultData.length, groupSize, 1));
+		c.execute();
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel;
+
+import org.zxg.ai.lnn.opencl.CacheArg;
+import org.zxg.ai.lnn.opencl.Calling;
+import org.zxg.ai.lnn.opencl.Device;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.opencl.IntArray;
+import org.zxg.ai.lnn.opencl.Kernel;
+import org.zxg.ai.lnn.opencl.Range1D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
+
+/**
+ * Reduces all the elements of an array with a tree reduction in the local
+ * memory of the work-groups, in two passes of a single launch.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+@SharedProgram("Reduction.cl")
+public class ReduceKernel extends Kernel {
+
+	public static enum Operation {
+		SUM, MAX, MIN, SUM_SQUARE,
+		/** The greatest absolute difference between two arrays. */
+		MAX_ABS_DIFF,
+		/** The greatest element and its first index. */
+		ARGMAX
+	}
+
+	/** The largest work-group size of the reductions. */
+	public static final int MAX_GROUP_SIZE = 256;
+
+	/**
+	 * Returns a power-of-two work-group size for reducing the length, within the
+	 * limits of the device and of the kernel.
+	 *
+	 * @param maxWorkGroupSize the largest work-group size of the kernel on the
+	 *                         device
+	 */
+	static int groupSize(Device device, long maxWorkGroupSize, int length) {
+		int groupSize = Integer.highestOneBit(
+				(int) Math.min(MAX_GROUP_SIZE, Math.min(device.clDevice.getMaxWorkGroupSize(), maxWorkGroupSize)));
+		while (groupSize > 1 && groupSize / 2 >= length) {
+			groupSize /= 2;
+		}
+		return groupSize;
+	}
+
+	/**
+	 * @param other       the second array of {@link Operation#MAX_ABS_DIFF}, or
+	 *                    null
+	 * @param result      the array of one element which receives the reduced
+	 *                    value
+	 * @param resultIndex the array of one element which receives the index of
+	 *                    {@link Operation#ARGMAX}, or null
+	 */
+	public void execute(Operation operation, FloatArray source, FloatArray other, FloatArray result,
+			IntArray resultIndex) {
+		final int groupSize = groupSize(device(), maxWorkGroupSize(), source.length);
+		final int groups = Math.max(1, Math.min((source.length + groupSize - 1) / groupSize, groupSize * 4));
+		Calling c = call();
+		c.arg(operation.ordinal()).arg(source.length).arg(groups);
+		c.in(source);
+		if (null != other) {
+			c.in(other);
+		} else {
+			c.nullPtr();
+		}
+		c.cache(CacheArg.Type.FLOAT, groups).cache(CacheArg.Type.INT, groups);
+		c.out(result);
+		if (null != resultIndex) {
+			c.out(resultIndex);
+		} else {
+			c.nullPtr();
+		}
+		c.local(CacheArg.Type.FLOAT, groupSize).local(CacheArg.Type.INT, groupSize);
+		c.pass(new Range1D(groups * groupSize, groupSize));
+		c.pass(new Range1D(groupSize, groupSize));
+		c.execute();
+	}
+}
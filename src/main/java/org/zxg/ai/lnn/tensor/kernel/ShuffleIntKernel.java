@@ -21,10 +21,12 @@ import org.zxg.ai.lnn.opencl.Calling;
 import org.zxg.ai.lnn.opencl.IntArray;
 import org.zxg.ai.lnn.opencl.Kernel;
 import org.zxg.ai.lnn.opencl.Range1D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
 
 /**
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
+@SharedProgram("Random.cl")
 public class ShuffleIntKernel extends Kernel {
 
 	public void execute(long MASK, long MULTIPLIER, long ADDEND, long seed, IntArray result) {
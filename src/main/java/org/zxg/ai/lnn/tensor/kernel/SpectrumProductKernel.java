@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel;
+
+import org.zxg.ai.lnn.opencl.Calling;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.opencl.Kernel;
+import org.zxg.ai.lnn.opencl.Range1D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
+
+/**
+ * Computes the spectra of the cross-correlations of the channels of the
+ * images with the weight, bin by bin, from their spectra: the spectrum of an
+ * output channel is the sum over the input channels of its group of the
+ * input spectra times the conjugates of the weight spectra.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+@SharedProgram("Fourier.cl")
+public class SpectrumProductKernel extends Kernel {
+
+	/**
+	 * @param input  the spectra of the shape (batchCount, inChannels, bins)
+	 * @param weight the spectra of the shape (outChannels, inChannels / groups,
+	 *               bins)
+	 * @param result receives the spectra of the shape (batchCount, outChannels,
+	 *               bins)
+	 */
+	public void execute(FloatArray input, FloatArray weight, int batchCount, int inChannels, int outChannels,
+			int groups, int bins, FloatArray result) {
+		Calling c = call();
+		c.arg(bins).arg(inChannels).arg(outChannels).arg(groups);
+		c.in(input).in(weight).out(result);
+		c.pass(new Range1D(batchCount * outChannels * bins));
+		c.execute();
+	}
+}
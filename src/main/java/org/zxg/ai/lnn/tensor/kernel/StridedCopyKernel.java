@@ -20,20 +20,28 @@ import org.zxg.ai.lnn.opencl.Calling;
 import org.zxg.ai.lnn.opencl.FloatArray;
 import org.zxg.ai.lnn.opencl.Kernel;
 import org.zxg.ai.lnn.opencl.Range1D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
 import org.zxg.ai.lnn.tensor.Tensor;
 
 /**
+ * Copies the elements of a strided view into contiguous data.
+ *
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
-public class AxisSliceKernel extends Kernel {
+@SharedProgram("Indexing.cl")
+public class StridedCopyKernel extends Kernel {
 
-	public void execute(int axis, int begin, Tensor source, Tensor result) {
-		FloatArray resultData = result.flatData();
+	public void execute(Tensor source, FloatArray result) {
+		final int ndim = source.ndim();
 		Calling c = call();
-		c.arg(axis).arg(begin);
-		c.in(source.dimSizes()).in(result.dimSizes());
-		c.in(source.flatData()).out(resultData);
-		c.pass(new Range1D(resultData.length));
+		c.arg(ndim).arg(source.offset());
+		if (0 == ndim) {
+			c.nullPtr().nullPtr();
+		} else {
+			c.in(source.dimSizes()).in(source.strides());
+		}
+		c.in(source.storage()).out(result);
+		c.pass(new Range1D(result.length));
 		c.execute();
 	}
 }
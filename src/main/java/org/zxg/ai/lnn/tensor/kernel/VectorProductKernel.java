@@ -20,11 +20,13 @@ import org.zxg.ai.lnn.opencl.CacheArg;
 import org.zxg.ai.lnn.opencl.Calling;
 import org.zxg.ai.lnn.opencl.Kernel;
 import org.zxg.ai.lnn.opencl.Range1D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
 import org.zxg.ai.lnn.tensor.Tensor;
 
 /**
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
+@SharedProgram("Reduction.cl")
 public class VectorProductKernel extends Kernel {
 
 	public void execute(Tensor left, Tensor right, Tensor result) {
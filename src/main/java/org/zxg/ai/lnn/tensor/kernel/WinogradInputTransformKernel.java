@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel;
+
+import org.zxg.ai.lnn.opencl.Calling;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.opencl.Kernel;
+import org.zxg.ai.lnn.opencl.Range1D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
+import org.zxg.ai.lnn.tensor.Tensor;
+import org.zxg.ai.lnn.tuple.IntTuple2;
+
+/**
+ * Transforms the 4x4 tiles of the input of the Winograd cross-correlation
+ * F(2x2, 3x3), computing {@code B^T d B} for each tile. The tiles overlap by
+ * two rows and two columns, and the elements which fall into the padding or
+ * beyond the input are zeros. The result holds 16 matrices of the shape
+ * (channels, tiles), where the tiles are ordered by (image, tile row, tile
+ * column).
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+@SharedProgram("Convolution.cl")
+public class WinogradInputTransformKernel extends Kernel {
+
+	/**
+	 * Transforms the tiles of the images
+	 * {@code [batchBegin, batchBegin + batchCount)} of the input.
+	 *
+	 * @param tiles the count of the tiles along the height and the width
+	 */
+	public void execute(Tensor input, int batchBegin, int batchCount, IntTuple2 padding, IntTuple2 tiles,
+			FloatArray result) {
+		final int channels = input.shape().get(1);
+		final int tileCount = batchCount * tiles.e0 * tiles.e1;
+		Calling c = call();
+		c.arg(batchBegin).arg(padding.e0).arg(padding.e1).arg(tiles.e0).arg(tiles.e1).arg(channels * tileCount);
+		c.in(input.shape()).in(input.dimSizes()).in(input.flatData()).out(result);
+		c.pass(new Range1D(channels * tileCount));
+		c.execute();
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel;
+
+import org.zxg.ai.lnn.opencl.Calling;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.opencl.Kernel;
+import org.zxg.ai.lnn.opencl.Range1D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
+import org.zxg.ai.lnn.tensor.Tensor;
+import org.zxg.ai.lnn.tuple.IntTuple2;
+
+/**
+ * Transforms the products of the Winograd cross-correlation F(2x2, 3x3) back
+ * into 2x2 tiles of the result, computing {@code A^T m A} for each tile. The
+ * products are 16 matrices of the shape (output channels, tiles), laid out
+ * as the result of {@link WinogradInputTransformKernel}.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+@SharedProgram("Convolution.cl")
+public class WinogradOutputTransformKernel extends Kernel {
+
+	/**
+	 * Writes the tiles of the images
+	 * {@code [batchBegin, batchBegin + batchCount)} of the result.
+	 */
+	public void execute(FloatArray products, int batchBegin, int batchCount, IntTuple2 tiles, Tensor result) {
+		final int outChannels = result.shape().get(1);
+		final int tileCount = batchCount * tiles.e0 * tiles.e1;
+		final FloatArray resultData = result.flatData();
+		Calling c = call();
+		c.arg(batchBegin).arg(tiles.e0).arg(tiles.e1).arg(outChannels * tileCount);
+		c.in(result.shape()).in(result.dimSizes()).in(products).inOut(resultData);
+		c.pass(new Range1D(outChannels * tileCount));
+		c.execute();
+	}
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel;
+
+import org.zxg.ai.lnn.opencl.Calling;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.opencl.Kernel;
+import org.zxg.ai.lnn.opencl.Range1D;
+import org.zxg.ai.lnn.opencl.SharedProgram;
+import org.zxg.ai.lnn.tensor.Tensor;
+
+/**
+ * Transforms a 3x3 weight for the Winograd cross-correlation F(2x2, 3x3),
+ * computing {@code G g G^T} for each pair of an output channel and an input
+ * channel. The result holds 16 matrices of the shape (output channels, input
+ * channels), one for each element of the 4x4 transformed kernel.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+@SharedProgram("Convolution.cl")
+public class WinogradWeightTransformKernel extends Kernel {
+
+	public void execute(Tensor weight, FloatArray result) {
+		final int outChannels = weight.shape().get(0);
+		final int inChannels = weight.shape().get(1);
+		Calling c = call();
+		c.arg(outChannels * inChannels);
+		c.in(weight.flatData()).out(result);
+		c.pass(new Range1D(outChannels * inChannels));
+		c.execute();
+	}
+}
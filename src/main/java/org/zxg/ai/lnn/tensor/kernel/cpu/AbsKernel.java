@@ -14,26 +14,26 @@
  * You should have received a copy of the GNU Affero General Public License
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
-package org.zxg.ai.lnn.tensor.kernel;
+package org.zxg.ai.lnn.tensor.kernel.cpu;
 
-import org.zxg.ai.lnn.opencl.Calling;
+import java.nio.FloatBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
 import org.zxg.ai.lnn.opencl.FloatArray;
-import org.zxg.ai.lnn.opencl.Kernel;
-import org.zxg.ai.lnn.opencl.Range1D;
-import org.zxg.ai.lnn.tensor.Tensor;
 
 /**
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
-public class SumAxisKernel extends Kernel {
+public class AbsKernel extends org.zxg.ai.lnn.tensor.kernel.AbsKernel {
 
-	public void execute(int axis, Tensor source, Tensor result) {
-		FloatArray resultData = result.flatData();
-		Calling c = call();
-		c.arg(axis).arg(source.shape().get(axis));
-		c.in(source.dimSizes()).in(result.dimSizes());
-		c.in(source.flatData()).out(resultData);
-		c.pass(new Range1D(resultData.length));
-		c.execute();
+	@Override
+	public void execute(FloatArray source, FloatArray result) {
+		final FloatBuffer sourceBuffer = source.hostBuffer();
+		final FloatBuffer resultBuffer = result.writableHostBuffer();
+		((CpuDevice) device()).parallelFor(result.length, (begin, end) -> {
+			for (int i = begin; i < end; i++) {
+				resultBuffer.put(i, Math.abs(sourceBuffer.get(i)));
+			}
+		});
 	}
 }
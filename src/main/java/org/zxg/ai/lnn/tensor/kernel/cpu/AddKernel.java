@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+
+/**
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class AddKernel extends org.zxg.ai.lnn.tensor.kernel.AddKernel {
+
+	@Override
+	public void execute(FloatArray left, FloatArray right, FloatArray result) {
+		final FloatBuffer leftBuffer = left.hostBuffer();
+		final FloatBuffer rightBuffer = right.hostBuffer();
+		final FloatBuffer resultBuffer = result.writableHostBuffer();
+		((CpuDevice) device()).parallelFor(result.length, (begin, end) -> {
+			for (int i = begin; i < end; i++) {
+				resultBuffer.put(i, leftBuffer.get(i) + rightBuffer.get(i));
+			}
+		});
+	}
+}
@@ -14,25 +14,25 @@
  * You should have received a copy of the GNU Affero General Public License
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
-package org.zxg.ai.lnn.tensor.kernel;
+package org.zxg.ai.lnn.tensor.kernel.cpu;
 
-import org.zxg.ai.lnn.opencl.Calling;
+import java.nio.FloatBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
 import org.zxg.ai.lnn.opencl.FloatArray;
-import org.zxg.ai.lnn.opencl.Kernel;
-import org.zxg.ai.lnn.opencl.Range1D;
-import org.zxg.ai.lnn.opencl.ShortArray;
 
 /**
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
-public class EqualsKernel extends Kernel {
+public class ConstantKernel extends org.zxg.ai.lnn.tensor.kernel.ConstantKernel {
 
-	public boolean execute(float precision, FloatArray left, FloatArray right) {
-		ShortArray result = new ShortArray(new short[] { 0 });
-		Calling c = call();
-		c.arg(precision).in(left).in(right).inOut(result);
-		c.pass(new Range1D(left.length));
-		c.execute();
-		return 0 == result.get(0);
+	@Override
+	public void execute(float constant, FloatArray result) {
+		final FloatBuffer resultBuffer = result.writableHostBuffer();
+		((CpuDevice) device()).parallelFor(result.length, (begin, end) -> {
+			for (int i = begin; i < end; i++) {
+				resultBuffer.put(i, constant);
+			}
+		});
 	}
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.tensor.Tensor;
+import org.zxg.ai.lnn.tuple.IntTuple2;
+
+/**
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class CrossCorrelation2DKernel extends org.zxg.ai.lnn.tensor.kernel.CrossCorrelation2DKernel {
+
+	@Override
+	public void execute(Tensor input, Tensor weight, IntTuple2 stride, IntTuple2 padding, IntTuple2 dilation,
+			int groups, Tensor result) {
+		final int strideH = stride.e0;
+		final int strideW = stride.e1;
+		final int paddingH = padding.e0;
+		final int paddingW = padding.e1;
+		final int dilationH = dilation.e0;
+		final int dilationW = dilation.e1;
+		final int[] inputShape = input.shape().get();
+		final int[] weightShape = weight.shape().get();
+		final int[] inputDimSizes = input.dimSizes().get();
+		final int[] weightDimSizes = weight.dimSizes().get();
+		final int[] resultDimSizes = result.dimSizes().get();
+		final FloatBuffer inputBuffer = input.flatData().hostBuffer();
+		final FloatBuffer weightBuffer = weight.flatData().hostBuffer();
+		final FloatArray resultData = result.flatData();
+		final FloatBuffer resultBuffer = resultData.writableHostBuffer();
+
+		final int resultGroupSize = result.shape().get(1) / groups;
+		final int inputGroupSize = weightShape[1];
+		final int kernelHeight = weightShape[2];
+		final int kernelWidth = weightShape[3];
+		((CpuDevice) device()).parallelFor(resultData.length,
+				CpuDevice.grain(inputGroupSize * kernelHeight * kernelWidth), (begin, end) -> {
+					for (int gid = begin; gid < end; gid++) {
+						int rest = gid;
+						final int resultCoordinate0 = rest / resultDimSizes[0];
+						rest %= resultDimSizes[0];
+						final int resultCoordinate1 = rest / resultDimSizes[1];
+						rest %= resultDimSizes[1];
+						final int resultCoordinate2 = rest / resultDimSizes[2];
+						final int resultCoordinate3 = rest % resultDimSizes[2];
+
+						final int groupNumber = resultCoordinate1 / resultGroupSize;
+
+						final int inputCoordinate1Base = groupNumber * inputGroupSize;
+						final int inputCoordinate2Base = resultCoordinate2 * strideH - paddingH;
+						final int inputCoordinate3Base = resultCoordinate3 * strideW - paddingW;
+
+						float resultValue = 0;
+						for (int inChannelGroupIndex = 0; inChannelGroupIndex < inputGroupSize; ++inChannelGroupIndex) {
+							final int inputIndexBase = resultCoordinate0 * inputDimSizes[0]
+									+ (inputCoordinate1Base + inChannelGroupIndex) * inputDimSizes[1];
+							final int weightIndexBase = resultCoordinate1 * weightDimSizes[0]
+									+ inChannelGroupIndex * weightDimSizes[1];
+							for (int kernelHeightIndex = 0; kernelHeightIndex < kernelHeight; ++kernelHeightIndex) {
+								final int inputCoordinate2 = inputCoordinate2Base + kernelHeightIndex * dilationH;
+								if (inputCoordinate2 < 0 || inputCoordinate2 >= inputShape[2]) {
+									continue;
+								}
+								final int inputIndexBase2 = inputIndexBase + inputCoordinate2 * inputDimSizes[2];
+								final int weightIndexBase2 = weightIndexBase + kernelHeightIndex * weightDimSizes[2];
+								for (int kernelWidthIndex = 0; kernelWidthIndex < kernelWidth; ++kernelWidthIndex) {
+									final int inputCoordinate3 = inputCoordinate3Base + kernelWidthIndex * dilationW;
+									if (inputCoordinate3 > -1 && inputCoordinate3 < inputShape[3]) {
+										resultValue += inputBuffer.get(inputIndexBase2 + inputCoordinate3)
+												* weightBuffer.get(weightIndexBase2 + kernelWidthIndex);
+									}
+								}
+							}
+						}
+						resultBuffer.put(gid, resultValue);
+					}
+				});
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.tensor.Tensor;
+
+/**
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class CrossCorrelationTranspose1DKernel
+		extends org.zxg.ai.lnn.tensor.kernel.CrossCorrelationTranspose1DKernel {
+
+	@Override
+	public void execute(Tensor input, Tensor weight, int stride, int padding, int groups, int dilation, Tensor result) {
+		final int[] inputShape = input.shape().get();
+		final int[] weightShape = weight.shape().get();
+		final int[] inputDimSizes = input.dimSizes().get();
+		final int[] weightDimSizes = weight.dimSizes().get();
+		final int[] resultDimSizes = result.dimSizes().get();
+		final FloatBuffer inputBuffer = input.flatData().hostBuffer();
+		final FloatBuffer weightBuffer = weight.flatData().hostBuffer();
+		final FloatArray resultData = result.flatData();
+		final FloatBuffer resultBuffer = resultData.writableHostBuffer();
+
+		final int resultGroupSize = result.shape().get(1) / groups;
+		final int inputGroupSize = inputShape[1] / groups;
+		final int kernelWidth = weightShape[2];
+		((CpuDevice) device()).parallelFor(resultData.length, CpuDevice.grain(inputGroupSize * kernelWidth),
+				(begin, end) -> {
+					for (int gid = begin; gid < end; gid++) {
+						int rest = gid;
+						final int resultCoordinate0 = rest / resultDimSizes[0];
+						rest %= resultDimSizes[0];
+						final int resultCoordinate1 = rest / resultDimSizes[1];
+						final int resultCoordinate2 = rest % resultDimSizes[1];
+
+						final int groupNumber = resultCoordinate1 / resultGroupSize;
+						final int resultGroupIndex = resultCoordinate1 % resultGroupSize;
+
+						final int inputCoordinate1Base = groupNumber * inputGroupSize;
+						final int inputCoordinate2Base = resultCoordinate2 + padding;
+
+						float resultValue = 0;
+						for (int inChannelGroupIndex = 0; inChannelGroupIndex < inputGroupSize; ++inChannelGroupIndex) {
+							final int inputCoordinate1 = inputCoordinate1Base + inChannelGroupIndex;
+							final int inputIndexBase = resultCoordinate0 * inputDimSizes[0]
+									+ inputCoordinate1 * inputDimSizes[1];
+							final int weightIndexBase = inputCoordinate1 * weightDimSizes[0]
+									+ resultGroupIndex * weightDimSizes[1];
+							for (int kernelWidthIndex = 0; kernelWidthIndex < kernelWidth; ++kernelWidthIndex) {
+								int inputCoordinate2 = inputCoordinate2Base - kernelWidthIndex * dilation;
+								if (0 == inputCoordinate2 % stride) {
+									inputCoordinate2 /= stride;
+									if (inputCoordinate2 > -1 && inputCoordinate2 < inputShape[2]) {
+										resultValue += inputBuffer.get(inputIndexBase + inputCoordinate2)
+												* weightBuffer.get(weightIndexBase + kernelWidthIndex);
+									}
+								}
+							}
+						}
+						resultBuffer.put(gid, resultValue);
+					}
+				});
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.tensor.Tensor;
+import org.zxg.ai.lnn.tuple.IntTuple3;
+
+/**
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class CrossCorrelationTranspose3DKernel
+		extends org.zxg.ai.lnn.tensor.kernel.CrossCorrelationTranspose3DKernel {
+
+	@Override
+	public void execute(Tensor input, Tensor weight, IntTuple3 stride, IntTuple3 padding, int groups,
+			IntTuple3 dilation, Tensor result) {
+		final int strideD = stride.e0;
+		final int strideH = stride.e1;
+		final int strideW = stride.e2;
+		final int paddingD = padding.e0;
+		final int paddingH = padding.e1;
+		final int paddingW = padding.e2;
+		final int dilationD = dilation.e0;
+		final int dilationH = dilation.e1;
+		final int dilationW = dilation.e2;
+		final int[] inputShape = input.shape().get();
+		final int[] weightShape = weight.shape().get();
+		final int[] inputDimSizes = input.dimSizes().get();
+		final int[] weightDimSizes = weight.dimSizes().get();
+		final int[] resultDimSizes = result.dimSizes().get();
+		final FloatBuffer inputBuffer = input.flatData().hostBuffer();
+		final FloatBuffer weightBuffer = weight.flatData().hostBuffer();
+		final FloatArray resultData = result.flatData();
+		final FloatBuffer resultBuffer = resultData.writableHostBuffer();
+
+		final int resultGroupSize = result.shape().get(1) / groups;
+		final int inputGroupSize = inputShape[1] / groups;
+		final int kernelDepth = weightShape[2];
+		final int kernelHeight = weightShape[3];
+		final int kernelWidth = weightShape[4];
+		((CpuDevice) device()).parallelFor(resultData.length,
+				CpuDevice.grain(inputGroupSize * kernelDepth * kernelHeight * kernelWidth), (begin, end) -> {
+					for (int gid = begin; gid < end; gid++) {
+						int rest = gid;
+						final int resultCoordinate0 = rest / resultDimSizes[0];
+						rest %= resultDimSizes[0];
+						final int resultCoordinate1 = rest / resultDimSizes[1];
+						rest %= resultDimSizes[1];
+						final int resultCoordinate2 = rest / resultDimSizes[2];
+						rest %= resultDimSizes[2];
+						final int resultCoordinate3 = rest / resultDimSizes[3];
+						final int resultCoordinate4 = rest % resultDimSizes[3];
+
+						final int groupNumber = resultCoordinate1 / resultGroupSize;
+						final int resultGroupIndex = resultCoordinate1 % resultGroupSize;
+
+						final int inputCoordinate1Base = groupNumber * inputGroupSize;
+						final int inputCoordinate2Base = resultCoordinate2 + paddingD;
+						final int inputCoordinate3Base = resultCoordinate3 + paddingH;
+						final int inputCoordinate4Base = resultCoordinate4 + paddingW;
+
+						float resultValue = 0;
+						for (int inChannelGroupIndex = 0; inChannelGroupIndex < inputGroupSize; ++inChannelGroupIndex) {
+							final int inputCoordinate1 = inputCoordinate1Base + inChannelGroupIndex;
+							final int inputIndexBase = resultCoordinate0 * inputDimSizes[0]
+									+ inputCoordinate1 * inputDimSizes[1];
+							final int weightIndexBase = inputCoordinate1 * weightDimSizes[0]
+									+ resultGroupIndex * weightDimSizes[1];
+							for (int kernelDepthIndex = 0; kernelDepthIndex < kernelDepth; ++kernelDepthIndex) {
+								int inputCoordinate2 = inputCoordinate2Base - kernelDepthIndex * dilationD;
+								if (0 != inputCoordinate2 % strideD) {
+									continue;
+								}
+								inputCoordinate2 /= strideD;
+								if (inputCoordinate2 < 0 || inputCoordinate2 >= inputShape[2]) {
+									continue;
+								}
+								final int inputIndexBase2 = inputIndexBase + inputCoordinate2 * inputDimSizes[2];
+								final int weightIndexBase2 = weightIndexBase + kernelDepthIndex * weightDimSizes[2];
+								for (int kernelHeightIndex = 0; kernelHeightIndex < kernelHeight; ++kernelHeightIndex) {
+									int inputCoordinate3 = inputCoordinate3Base - kernelHeightIndex * dilationH;
+									if (0 != inputCoordinate3 % strideH) {
+										continue;
+									}
+									inputCoordinate3 /= strideH;
+									if (inputCoordinate3 < 0 || inputCoordinate3 >= inputShape[3]) {
+										continue;
+									}
+									final int inputIndexBase3 = inputIndexBase2 + inputCoordinate3 * inputDimSizes[3];
+									final int weightIndexBase3 = weightIndexBase2
+											+ kernelHeightIndex * weightDimSizes[3];
+									for (int kernelWidthIndex = 0; kernelWidthIndex < kernelWidth; ++kernelWidthIndex) {
+										int inputCoordinate4 = inputCoordinate4Base - kernelWidthIndex * dilationW;
+										if (0 == inputCoordinate4 % strideW) {
+											inputCoordinate4 /= strideW;
+											if (inputCoordinate4 > -1 && inputCoordinate4 < inputShape[4]) {
+												resultValue += inputBuffer.get(inputIndexBase3 + inputCoordinate4)
+														* weightBuffer.get(weightIndexBase3 + kernelWidthIndex);
+											}
+										}
+									}
+								}
+							}
+						}
+						resultBuffer.put(gid, resultValue);
+					}
+				});
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.tensor.Tensor;
+import org.zxg.ai.lnn.tuple.IntTuple2;
+
+/**
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class CrossCorrelationWeightGradient2DKernel
+		extends org.zxg.ai.lnn.tensor.kernel.CrossCorrelationWeightGradient2DKernel {
+
+	@Override
+	public void execute(Tensor input, Tensor gradient, IntTuple2 stride, IntTuple2 padding, IntTuple2 dilation,
+			int groups, Tensor result) {
+		final int strideH = stride.e0;
+		final int strideW = stride.e1;
+		final int paddingH = padding.e0;
+		final int paddingW = padding.e1;
+		final int dilationH = dilation.e0;
+		final int dilationW = dilation.e1;
+		final int[] inputShape = input.shape().get();
+		final int[] gradientShape = gradient.shape().get();
+		final int[] inputDimSizes = input.dimSizes().get();
+		final int[] gradientDimSizes = gradient.dimSizes().get();
+		final int[] resultDimSizes = result.dimSizes().get();
+		final FloatBuffer inputBuffer = input.flatData().hostBuffer();
+		final FloatBuffer gradientBuffer = gradient.flatData().hostBuffer();
+		final FloatArray resultData = result.flatData();
+		final FloatBuffer resultBuffer = resultData.writableHostBuffer();
+
+		final int gradientGroupSize = gradientShape[1] / groups;
+		final int inputGroupSize = result.shape().get(1);
+		final int batchSize = gradientShape[0];
+		((CpuDevice) device()).parallelFor(resultData.length,
+				CpuDevice.grain(batchSize * gradientShape[2] * gradientShape[3]), (begin, end) -> {
+					for (int gid = begin; gid < end; gid++) {
+						int rest = gid;
+						final int resultCoordinate0 = rest / resultDimSizes[0];
+						rest %= resultDimSizes[0];
+						final int resultCoordinate1 = rest / resultDimSizes[1];
+						rest %= resultDimSizes[1];
+						final int resultCoordinate2 = rest / resultDimSizes[2];
+						final int resultCoordinate3 = rest % resultDimSizes[2];
+
+						final int groupNumber = resultCoordinate0 / gradientGroupSize;
+						final int inputCoordinate1 = groupNumber * inputGroupSize + resultCoordinate1;
+						final int inputCoordinate2Base = resultCoordinate2 * dilationH - paddingH;
+						final int inputCoordinate3Base = resultCoordinate3 * dilationW - paddingW;
+
+						float resultValue = 0;
+						for (int batchIndex = 0; batchIndex < batchSize; ++batchIndex) {
+							final int inputIndexBase = batchIndex * inputDimSizes[0] + inputCoordinate1 * inputDimSizes[1];
+							final int gradientIndexBase = batchIndex * gradientDimSizes[0]
+									+ resultCoordinate0 * gradientDimSizes[1];
+							for (int gradientCoordinate2 = 0; gradientCoordinate2 < gradientShape[2]; ++gradientCoordinate2) {
+								final int inputCoordinate2 = inputCoordinate2Base + gradientCoordinate2 * strideH;
+								if (inputCoordinate2 < 0 || inputCoordinate2 >= inputShape[2]) {
+									continue;
+								}
+								final int inputIndexBase2 = inputIndexBase + inputCoordinate2 * inputDimSizes[2];
+								final int gradientIndexBase2 = gradientIndexBase
+										+ gradientCoordinate2 * gradientDimSizes[2];
+								for (int gradientCoordinate3 = 0; gradientCoordinate3 < gradientShape[3]; ++gradientCoordinate3) {
+									final int inputCoordinate3 = inputCoordinate3Base + gradientCoordinate3 * strideW;
+									if (inputCoordinate3 > -1 && inputCoordinate3 < inputShape[3]) {
+										resultValue += inputBuffer.get(inputIndexBase2 + inputCoordinate3)
+												* gradientBuffer.get(gradientIndexBase2 + gradientCoordinate3);
+									}
+								}
+							}
+						}
+						resultBuffer.put(gid, resultValue);
+					}
+				});
+	}
+}
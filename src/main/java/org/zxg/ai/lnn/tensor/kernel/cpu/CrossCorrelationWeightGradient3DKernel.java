@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.tensor.Tensor;
+import org.zxg.ai.lnn.tuple.IntTuple3;
+
+/**
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class CrossCorrelationWeightGradient3DKernel
+		extends org.zxg.ai.lnn.tensor.kernel.CrossCorrelationWeightGradient3DKernel {
+
+	@Override
+	public void execute(Tensor input, Tensor gradient, IntTuple3 stride, IntTuple3 padding, IntTuple3 dilation,
+			int groups, Tensor result) {
+		final int strideD = stride.e0;
+		final int strideH = stride.e1;
+		final int strideW = stride.e2;
+		final int paddingD = padding.e0;
+		final int paddingH = padding.e1;
+		final int paddingW = padding.e2;
+		final int dilationD = dilation.e0;
+		final int dilationH = dilation.e1;
+		final int dilationW = dilation.e2;
+		final int[] inputShape = input.shape().get();
+		final int[] gradientShape = gradient.shape().get();
+		final int[] inputDimSizes = input.dimSizes().get();
+		final int[] gradientDimSizes = gradient.dimSizes().get();
+		final int[] resultDimSizes = result.dimSizes().get();
+		final FloatBuffer inputBuffer = input.flatData().hostBuffer();
+		final FloatBuffer gradientBuffer = gradient.flatData().hostBuffer();
+		final FloatArray resultData = result.flatData();
+		final FloatBuffer resultBuffer = resultData.writableHostBuffer();
+
+		final int gradientGroupSize = gradientShape[1] / groups;
+		final int inputGroupSize = result.shape().get(1);
+		final int batchSize = gradientShape[0];
+		((CpuDevice) device()).parallelFor(resultData.length,
+				CpuDevice.grain(batchSize * gradientShape[2] * gradientShape[3] * gradientShape[4]), (begin, end) -> {
+					for (int gid = begin; gid < end; gid++) {
+						int rest = gid;
+						final int resultCoordinate0 = rest / resultDimSizes[0];
+						rest %= resultDimSizes[0];
+						final int resultCoordinate1 = rest / resultDimSizes[1];
+						rest %= resultDimSizes[1];
+						final int resultCoordinate2 = rest / resultDimSizes[2];
+						rest %= resultDimSizes[2];
+						final int resultCoordinate3 = rest / resultDimSizes[3];
+						final int resultCoordinate4 = rest % resultDimSizes[3];
+
+						final int groupNumber = resultCoordinate0 / gradientGroupSize;
+						final int inputCoordinate1 = groupNumber * inputGroupSize + resultCoordinate1;
+						final int inputCoordinate2Base = resultCoordinate2 * dilationD - paddingD;
+						final int inputCoordinate3Base = resultCoordinate3 * dilationH - paddingH;
+						final int inputCoordinate4Base = resultCoordinate4 * dilationW - paddingW;
+
+						float resultValue = 0;
+						for (int batchIndex = 0; batchIndex < batchSize; ++batchIndex) {
+							final int inputIndexBase = batchIndex * inputDimSizes[0] + inputCoordinate1 * inputDimSizes[1];
+							final int gradientIndexBase = batchIndex * gradientDimSizes[0]
+									+ resultCoordinate0 * gradientDimSizes[1];
+							for (int gradientCoordinate2 = 0; gradientCoordinate2 < gradientShape[2]; ++gradientCoordinate2) {
+								final int inputCoordinate2 = inputCoordinate2Base + gradientCoordinate2 * strideD;
+								if (inputCoordinate2 < 0 || inputCoordinate2 >= inputShape[2]) {
+									continue;
+								}
+								final int inputIndexBase2 = inputIndexBase + inputCoordinate2 * inputDimSizes[2];
+								final int gradientIndexBase2 = gradientIndexBase
+										+ gradientCoordinate2 * gradientDimSizes[2];
+								for (int gradientCoordinate3 = 0; gradientCoordinate3 < gradientShape[3]; ++gradientCoordinate3) {
+									final int inputCoordinate3 = inputCoordinate3Base + gradientCoordinate3 * strideH;
+									if (inputCoordinate3 < 0 || inputCoordinate3 >= inputShape[3]) {
+										continue;
+									}
+									final int inputIndexBase3 = inputIndexBase2 + inputCoordinate3 * inputDimSizes[3];
+									final int gradientIndexBase3 = gradientIndexBase2
+											+ gradientCoordinate3 * gradientDimSizes[3];
+									for (int gradientCoordinate4 = 0; gradientCoordinate4 < gradientShape[4]; ++gradientCoordinate4) {
+										final int inputCoordinate4 = inputCoordinate4Base + gradientCoordinate4 * strideW;
+										if (inputCoordinate4 > -1 && inputCoordinate4 < inputShape[4]) {
+											resultValue += inputBuffer.get(inputIndexBase3 + inputCoordinate4)
+													* gradientBuffer.get(gradientIndexBase3 + gradientCoordinate4);
+										}
+									}
+								}
+							}
+						}
+						resultBuffer.put(gid, resultValue);
+					}
+				});
+	}
+}
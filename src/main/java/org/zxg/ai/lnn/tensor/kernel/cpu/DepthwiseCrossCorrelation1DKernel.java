@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.tensor.Tensor;
+
+/**
+ * Copies an input channel into a local array with its padding, then adds
+ * each element of the kernel times the padded channel to the output channel,
+ * which the compiler can vectorize for a stride of 1. The padded channel is
+ * reused by the consecutive output channels of the same input channel.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class DepthwiseCrossCorrelation1DKernel
+		extends org.zxg.ai.lnn.tensor.kernel.DepthwiseCrossCorrelation1DKernel {
+
+	@Override
+	public void execute(Tensor input, Tensor weight, int stride, int padding, int dilation, Tensor result) {
+		final int inChannels = input.shape().get(1);
+		final int inputLength = input.shape().get(2);
+		final int outChannels = result.shape().get(1);
+		final int outputLength = result.shape().get(2);
+		final int kernelWidth = weight.shape().get(2);
+		final FloatBuffer inputBuffer = input.flatData().hostBuffer();
+		final FloatBuffer weightBuffer = weight.flatData().hostBuffer();
+		final FloatBuffer resultBuffer = result.flatData().writableHostBuffer();
+
+		final int multiplier = outChannels / inChannels;
+		// Only the elements which the output reaches are padded.
+		final int paddedLength = Math.max(inputLength + padding,
+				(outputLength - 1) * stride + (kernelWidth - 1) * dilation + 1);
+		final int planes = result.shape().get(0) * outChannels;
+		((CpuDevice) device()).parallelFor(planes, CpuDevice.grain(outputLength * kernelWidth), (begin, end) -> {
+			final float[] padded = new float[paddedLength];
+			final float[] kernel = new float[kernelWidth];
+			final float[] output = new float[outputLength];
+			final FloatBuffer inputRows = inputBuffer.duplicate();
+			final FloatBuffer weightRows = weightBuffer.duplicate();
+			final FloatBuffer resultRows = resultBuffer.duplicate();
+			int paddedPlane = -1;
+			for (int plane = begin; plane < end; plane++) {
+				final int outChannel = plane % outChannels;
+				final int inputPlane = plane / outChannels * inChannels + outChannel / multiplier;
+				if (inputPlane != paddedPlane) {
+					Arrays.fill(padded, 0);
+					inputRows.position(inputPlane * inputLength);
+					inputRows.get(padded, padding, inputLength);
+					paddedPlane = inputPlane;
+				}
+				weightRows.position(outChannel * kernelWidth);
+				weightRows.get(kernel);
+				Arrays.fill(output, 0);
+				for (int kernelWidthIndex = 0; kernelWidthIndex < kernelWidth; ++kernelWidthIndex) {
+					final float weightValue = kernel[kernelWidthIndex];
+					final int paddedIndex = kernelWidthIndex * dilation;
+					if (1 == stride) {
+						for (int i = 0; i < outputLength; ++i) {
+							output[i] += weightValue * padded[paddedIndex + i];
+						}
+					} else {
+						for (int i = 0; i < outputLength; ++i) {
+							output[i] += weightValue * padded[paddedIndex + i * stride];
+						}
+					}
+				}
+				resultRows.position(plane * outputLength);
+				resultRows.put(output);
+			}
+		});
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.tensor.Tensor;
+import org.zxg.ai.lnn.tuple.IntTuple2;
+
+/**
+ * Copies an input channel into a local array with its padding, then computes
+ * a row of the output channel at a time by adding each element of the kernel
+ * times a row of the padded channel, which the compiler can vectorize for a
+ * stride of 1. The padded channel is reused by the consecutive output
+ * channels of the same input channel.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class DepthwiseCrossCorrelation2DKernel
+		extends org.zxg.ai.lnn.tensor.kernel.DepthwiseCrossCorrelation2DKernel {
+
+	@Override
+	public void execute(Tensor input, Tensor weight, IntTuple2 stride, IntTuple2 padding, IntTuple2 dilation,
+			Tensor result) {
+		final int strideH = stride.e0;
+		final int strideW = stride.e1;
+		final int dilationH = dilation.e0;
+		final int dilationW = dilation.e1;
+		final int inChannels = input.shape().get(1);
+		final int inputHeight = input.shape().get(2);
+		final int inputWidth = input.shape().get(3);
+		final int outChannels = result.shape().get(1);
+		final int outputHeight = result.shape().get(2);
+		final int outputWidth = result.shape().get(3);
+		final int kernelHeight = weight.shape().get(2);
+		final int kernelWidth = weight.shape().get(3);
+		final FloatBuffer inputBuffer = input.flatData().hostBuffer();
+		final FloatBuffer weightBuffer = weight.flatData().hostBuffer();
+		final FloatBuffer resultBuffer = result.flatData().writableHostBuffer();
+
+		final int multiplier = outChannels / inChannels;
+		// Only the rows and the columns which the output reaches are padded.
+		final int paddedHeight = Math.max(inputHeight + padding.e0,
+				(outputHeight - 1) * strideH + (kernelHeight - 1) * dilationH + 1);
+		final int paddedWidth = Math.max(inputWidth + padding.e1,
+				(outputWidth - 1) * strideW + (kernelWidth - 1) * dilationW + 1);
+		final int planes = result.shape().get(0) * outChannels;
+		final int planeCost = outputHeight * outputWidth * kernelHeight * kernelWidth;
+		((CpuDevice) device()).parallelFor(planes, CpuDevice.grain(planeCost), (begin, end) -> {
+			final float[] padded = new float[paddedHeight * paddedWidth];
+			final float[] kernel = new float[kernelHeight * kernelWidth];
+			final float[] outputRow = new float[outputWidth];
+			final FloatBuffer inputRows = inputBuffer.duplicate();
+			final FloatBuffer weightRows = weightBuffer.duplicate();
+			final FloatBuffer resultRows = resultBuffer.duplicate();
+			int paddedPlane = -1;
+			for (int plane = begin; plane < end; plane++) {
+				final int outChannel = plane % outChannels;
+				final int inputPlane = plane / outChannels * inChannels + outChannel / multiplier;
+				if (inputPlane != paddedPlane) {
+					Arrays.fill(padded, 0);
+					for (int inputRow = 0; inputRow < inputHeight; ++inputRow) {
+						inputRows.position((inputPlane * inputHeight + inputRow) * inputWidth);
+						inputRows.get(padded, (inputRow + padding.e0) * paddedWidth + padding.e1, inputWidth);
+					}
+					paddedPlane = inputPlane;
+				}
+				weightRows.position(outChannel * kernel.length);
+				weightRows.get(kernel);
+				resultRows.position(plane * outputHeight * outputWidth);
+				for (int outputRowIndex = 0; outputRowIndex < outputHeight; ++outputRowIndex) {
+					Arrays.fill(outputRow, 0);
+					for (int kernelHeightIndex = 0; kernelHeightIndex < kernelHeight; ++kernelHeightIndex) {
+						final int paddedRowIndex = (outputRowIndex * strideH + kernelHeightIndex * dilationH)
+								* paddedWidth;
+						for (int kernelWidthIndex = 0; kernelWidthIndex < kernelWidth; ++kernelWidthIndex) {
+							final float weightValue = kernel[kernelHeightIndex * kernelWidth + kernelWidthIndex];
+							final int paddedIndex = paddedRowIndex + kernelWidthIndex * dilationW;
+							if (1 == strideW) {
+								for (int i = 0; i < outputWidth; ++i) {
+									outputRow[i] += weightValue * padded[paddedIndex + i];
+								}
+							} else {
+								for (int i = 0; i < outputWidth; ++i) {
+									outputRow[i] += weightValue * padded[paddedIndex + i * strideW];
+								}
+							}
+						}
+					}
+					resultRows.put(outputRow);
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+
+/**
+ * Transforms a row at a time in local arrays, so that the passes do not go
+ * through the buffers. The roots of unity of the last length are cached, and
+ * the butterflies of the radices 2, 3, 4 and 5 are unrolled.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class FftKernel extends org.zxg.ai.lnn.tensor.kernel.FftKernel {
+
+	private static final class Roots {
+		final int n;
+		final float[] cosines;
+		final float[] sines;
+
+		Roots(int n) {
+			this.n = n;
+			cosines = new float[n];
+			sines = new float[n];
+			for (int i = 0; i < n; i++) {
+				final double angle = 2 * Math.PI * i / n;
+				cosines[i] = (float) Math.cos(angle);
+				sines[i] = (float) Math.sin(angle);
+			}
+		}
+	}
+
+	private volatile Roots roots;
+
+	private Roots roots(int n) {
+		Roots current = roots;
+		if (null == current || current.n != n) {
+			current = new Roots(n);
+			roots = current;
+		}
+		return current;
+	}
+
+	@Override
+	public void execute(FloatArray input, int rows, int n, boolean inverse, FloatArray result, int resultLength) {
+		final int[] radices = radices(n);
+		final Roots roots = roots(n);
+		final float sign = inverse ? 1 : -1;
+		final FloatBuffer inputBuffer = input.hostBuffer();
+		final FloatBuffer resultBuffer = result.writableHostBuffer();
+		((CpuDevice) device()).parallelFor(rows, CpuDevice.grain(n * radices.length * 4), (begin, end) -> {
+			float[] source = new float[n * 2];
+			float[] destination = new float[n * 2];
+			final FloatBuffer inputRows = inputBuffer.duplicate();
+			final FloatBuffer resultRows = resultBuffer.duplicate();
+			for (int row = begin; row < end; row++) {
+				inputRows.position(row * n * 2);
+				inputRows.get(source);
+				int subLength = 1;
+				for (int radix : radices) {
+					pass(source, n, radix, subLength, sign, roots, destination);
+					float[] swap = source;
+					source = destination;
+					destination = swap;
+					subLength *= radix;
+				}
+				resultRows.position(row * resultLength * 2);
+				resultRows.put(source, 0, resultLength * 2);
+			}
+		});
+	}
+
+	/**
+	 * Runs the butterflies of a twiddle factor one after another, so that each
+	 * factor is looked up once per pass.
+	 */
+	private static void pass(float[] input, int n, int radix, int subLength, float sign, Roots roots,
+			float[] result) {
+		final int butterflies = n / radix;
+		final int length = subLength * radix;
+		final int rootStep = n / length;
+		final float[] cosines = roots.cosines;
+		final float[] sines = roots.sines;
+		if (1 == radix) {
+			System.arraycopy(input, 0, result, 0, n * 2);
+		} else if (2 == radix) {
+			for (int k = 0; k < subLength; k++) {
+				final float cosine = cosines[k * rootStep];
+				final float sine = sign * sines[k * rootStep];
+				for (int j = k; j < butterflies; j += subLength) {
+					final int inputIndex = j * 2;
+					final float x0 = input[inputIndex];
+					final float y0 = input[inputIndex + 1];
+					final float x = input[inputIndex + butterflies * 2];
+					final float y = input[inputIndex + butterflies * 2 + 1];
+					final float x1 = x * cosine - y * sine;
+					final float y1 = x * sine + y * cosine;
+					final int resultIndex = ((j - k) * 2 + k) * 2;
+					result[resultIndex] = x0 + x1;
+					result[resultIndex + 1] = y0 + y1;
+					result[resultIndex + subLength * 2] = x0 - x1;
+					result[resultIndex + subLength * 2 + 1] = y0 - y1;
+				}
+			}
+		} else if (4 == radix) {
+			final int inputStep = butterflies * 2;
+			final int resultStep = subLength * 2;
+			for (int k = 0; k < subLength; k++) {
+				final int root = k * rootStep;
+				final float cosine1 = cosines[root];
+				final float sine1 = sign * sines[root];
+				final float cosine2 = cosines[root * 2];
+				final float sine2 = sign * sines[root * 2];
+				final float cosine3 = cosines[root * 3];
+				final float sine3 = sign * sines[root * 3];
+				for (int j = k; j < butterflies; j += subLength) {
+					int inputIndex = j * 2;
+					final float x0 = input[inputIndex];
+					final float y0 = input[inputIndex + 1];
+					inputIndex += inputStep;
+					float x = input[inputIndex];
+					float y = input[inputIndex + 1];
+					final float x1 = x * cosine1 - y * sine1;
+					final float y1 = x * sine1 + y * cosine1;
+					inputIndex += inputStep;
+					x = input[inputIndex];
+					y = input[inputIndex + 1];
+					final float x2 = x * cosine2 - y * sine2;
+					final float y2 = x * sine2 + y * cosine2;
+					inputIndex += inputStep;
+					x = input[inputIndex];
+					y = input[inputIndex + 1];
+					final float x3 = x * cosine3 - y * sine3;
+					final float y3 = x * sine3 + y * cosine3;
+					final float sumX02 = x0 + x2;
+					final float sumY02 = y0 + y2;
+					final float differenceX02 = x0 - x2;
+					final float differenceY02 = y0 - y2;
+					final float sumX13 = x1 + x3;
+					final float sumY13 = y1 + y3;
+					// (x1 - x3) times the root of the quarter turn, sign * i.
+					final float rotatedX13 = sign * (y3 - y1);
+					final float rotatedY13 = sign * (x1 - x3);
+					final int resultIndex = ((j - k) * 4 + k) * 2;
+					result[resultIndex] = sumX02 + sumX13;
+					result[resultIndex + 1] = sumY02 + sumY13;
+					result[resultIndex + resultStep] = differenceX02 + rotatedX13;
+					result[resultIndex + resultStep + 1] = differenceY02 + rotatedY13;
+					result[resultIndex + resultStep * 2] = sumX02 - sumX13;
+					result[resultIndex + resultStep * 2 + 1] = sumY02 - sumY13;
+					result[resultIndex + resultStep * 3] = differenceX02 - rotatedX13;
+					result[resultIndex + resultStep * 3 + 1] = differenceY02 - rotatedY13;
+				}
+			}
+		} else if (3 == radix) {
+			final int inputStep = butterflies * 2;
+			final int resultStep = subLength * 2;
+			// The imaginary part of the root of a third of a turn; its real part is -1/2.
+			final float rootSine = sign * (float) Math.sqrt(0.75);
+			for (int k = 0; k < subLength; k++) {
+				final int root = k * rootStep;
+				final float cosine1 = cosines[root];
+				final float sine1 = sign * sines[root];
+				final float cosine2 = cosines[root * 2];
+				final float sine2 = sign * sines[root * 2];
+				for (int j = k; j < butterflies; j += subLength) {
+					int inputIndex = j * 2;
+					final float x0 = input[inputIndex];
+					final float y0 = input[inputIndex + 1];
+					inputIndex += inputStep;
+					float x = input[inputIndex];
+					float y = input[inputIndex + 1];
+					final float x1 = x * cosine1 - y * sine1;
+					final float y1 = x * sine1 + y * cosine1;
+					inputIndex += inputStep;
+					x = input[inputIndex];
+					y = input[inputIndex + 1];
+					final float x2 = x * cosine2 - y * sine2;
+					final float y2 = x * sine2 + y * cosine2;
+					final float sumX = x1 + x2;
+					final float sumY = y1 + y2;
+					final float middleX = x0 - 0.5f * sumX;
+					final float middleY = y0 - 0.5f * sumY;
+					// i times the root sine times (x1 - x2).
+					final float rotatedX = rootSine * (y2 - y1);
+					final float rotatedY = rootSine * (x1 - x2);
+					final int resultIndex = ((j - k) * 3 + k) * 2;
+					result[resultIndex] = x0 + sumX;
+					result[resultIndex + 1] = y0 + sumY;
+					result[resultIndex + resultStep] = middleX + rotatedX;
+					result[resultIndex + resultStep + 1] = middleY + rotatedY;
+					result[resultIndex + resultStep * 2] = middleX - rotatedX;
+					result[resultIndex + resultStep * 2 + 1] = middleY - rotatedY;
+				}
+			}
+		} else if (5 == radix) {
+			final int inputStep = butterflies * 2;
+			final int resultStep = subLength * 2;
+			// The roots of a fifth and of two fifths of a turn.
+			final float rootCosine1 = (float) Math.cos(2 * Math.PI / 5);
+			final float rootSine1 = sign * (float) Math.sin(2 * Math.PI / 5);
+			final float rootCosine2 = (float) Math.cos(4 * Math.PI / 5);
+			final float rootSine2 = sign * (float) Math.sin(4 * Math.PI / 5);
+			for (int k = 0; k < subLength; k++) {
+				final int root = k * rootStep;
+				final float cosine1 = cosines[root];
+				final float sine1 = sign * sines[root];
+				final float cosine2 = cosines[root * 2];
+				final float sine2 = sign * sines[root * 2];
+				final float cosine3 = cosines[root * 3];
+				final float sine3 = sign * sines[root * 3];
+				final float cosine4 = cosines[root * 4];
+				final float sine4 = sign * sines[root * 4];
+				for (int j = k; j < butterflies; j += subLength) {
+					int inputIndex = j * 2;
+					final float x0 = input[inputIndex];
+					final float y0 = input[inputIndex + 1];
+					inputIndex += inputStep;
+					float x = input[inputIndex];
+					float y = input[inputIndex + 1];
+					final float x1 = x * cosine1 - y * sine1;
+					final float y1 = x * sine1 + y * cosine1;
+					inputIndex += inputStep;
+					x = input[inputIndex];
+					y = input[inputIndex + 1];
+					final float x2 = x * cosine2 - y * sine2;
+					final float y2 = x * sine2 + y * cosine2;
+					inputIndex += inputStep;
+					x = input[inputIndex];
+					y = input[inputIndex + 1];
+					final float x3 = x * cosine3 - y * sine3;
+					final float y3 = x * sine3 + y * cosine3;
+					inputIndex += inputStep;
+					x = input[inputIndex];
+					y = input[inputIndex + 1];
+					final float x4 = x * cosine4 - y * sine4;
+					final float y4 = x * sine4 + y * cosine4;
+					final float sumX14 = x1 + x4;
+					final float sumY14 = y1 + y4;
+					final float sumX23 = x2 + x3;
+					final float sumY23 = y2 + y3;
+					final float differenceX14 = x1 - x4;
+					final float differenceY14 = y1 - y4;
+					final float differenceX23 = x2 - x3;
+					final float differenceY23 = y2 - y3;
+					final float realX1 = x0 + rootCosine1 * sumX14 + rootCosine2 * sumX23;
+					final float realY1 = y0 + rootCosine1 * sumY14 + rootCosine2 * sumY23;
+					final float realX2 = x0 + rootCosine2 * sumX14 + rootCosine1 * sumX23;
+					final float realY2 = y0 + rootCosine2 * sumY14 + rootCosine1 * sumY23;
+					// i times the sums of the root sines times the differences.
+					final float imaginaryX1 = -(rootSine1 * differenceY14 + rootSine2 * differenceY23);
+					final float imaginaryY1 = rootSine1 * differenceX14 + rootSine2 * differenceX23;
+					final float imaginaryX2 = -(rootSine2 * differenceY14 - rootSine1 * differenceY23);
+					final float imaginaryY2 = rootSine2 * differenceX14 - rootSine1 * differenceX23;
+					final int resultIndex = ((j - k) * 5 + k) * 2;
+					result[resultIndex] = x0 + sumX14 + sumX23;
+					result[resultIndex + 1] = y0 + sumY14 + sumY23;
+					result[resultIndex + resultStep] = realX1 + imaginaryX1;
+					result[resultIndex + resultStep + 1] = realY1 + imaginaryY1;
+					result[resultIndex + resultStep * 2] = realX2 + imaginaryX2;
+					result[resultIndex + resultStep * 2 + 1] = realY2 + imaginaryY2;
+					result[resultIndex + resultStep * 3] = realX2 - imaginaryX2;
+					result[resultIndex + resultStep * 3 + 1] = realY2 - imaginaryY2;
+					result[resultIndex + resultStep * 4] = realX1 - imaginaryX1;
+					result[resultIndex + resultStep * 4 + 1] = realY1 - imaginaryY1;
+				}
+			}
+		} else {
+			final float[] twiddleCosines = new float[radix];
+			final float[] twiddleSines = new float[radix];
+			final float[] twiddled = new float[radix * 2];
+			final int butterflyRootStep = n / radix;
+			for (int k = 0; k < subLength; k++) {
+				for (int r = 0; r < radix; r++) {
+					twiddleCosines[r] = cosines[k * r * rootStep];
+					twiddleSines[r] = sign * sines[k * r * rootStep];
+				}
+				for (int j = k; j < butterflies; j += subLength) {
+					for (int r = 0; r < radix; r++) {
+						final float x = input[(j + r * butterflies) * 2];
+						final float y = input[(j + r * butterflies) * 2 + 1];
+						twiddled[r * 2] = x * twiddleCosines[r] - y * twiddleSines[r];
+						twiddled[r * 2 + 1] = x * twiddleSines[r] + y * twiddleCosines[r];
+					}
+					final int resultIndexBase = (j - k) * radix + k;
+					for (int q = 0; q < radix; q++) {
+						float real = 0;
+						float imaginary = 0;
+						// The exponent of the root of the butterfly, r * q modulo the radix.
+						for (int r = 0, exponent = 0; r < radix; r++) {
+							final int root = exponent * butterflyRootStep;
+							final float cosine = cosines[root];
+							final float sine = sign * sines[root];
+							final float x = twiddled[r * 2];
+							final float y = twiddled[r * 2 + 1];
+							real += x * cosine - y * sine;
+							imaginary += x * sine + y * cosine;
+							exponent += q;
+							if (exponent >= radix) {
+								exponent -= radix;
+							}
+						}
+						final int resultIndex = (resultIndexBase + q * subLength) * 2;
+						result[resultIndex] = real;
+						result[resultIndex + 1] = imaginary;
+					}
+				}
+			}
+		}
+	}
+}
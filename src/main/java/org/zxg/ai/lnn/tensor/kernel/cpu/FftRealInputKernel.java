@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+
+/**
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class FftRealInputKernel extends org.zxg.ai.lnn.tensor.kernel.FftRealInputKernel {
+
+	@Override
+	public void execute(FloatArray input, int inputOffset, int rows, int length, int n, int start, int step,
+			FloatArray result) {
+		final FloatBuffer inputBuffer = input.hostBuffer();
+		final FloatBuffer resultBuffer = result.writableHostBuffer();
+		((CpuDevice) device()).parallelFor(rows, CpuDevice.grain(n), (begin, end) -> {
+			final float[] complexRow = new float[n * 2];
+			final FloatBuffer resultRows = resultBuffer.duplicate();
+			for (int row = begin; row < end; row++) {
+				Arrays.fill(complexRow, 0);
+				final int inputIndexBase = inputOffset + row * length;
+				for (int i = 0, position = start; i < length && position < n; i++, position += step) {
+					complexRow[position * 2] = inputBuffer.get(inputIndexBase + i);
+				}
+				resultRows.position(row * n * 2);
+				resultRows.put(complexRow);
+			}
+		});
+	}
+}
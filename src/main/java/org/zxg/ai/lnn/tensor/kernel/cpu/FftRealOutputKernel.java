@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+
+/**
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class FftRealOutputKernel extends org.zxg.ai.lnn.tensor.kernel.FftRealOutputKernel {
+
+	@Override
+	public void execute(FloatArray input, int rows, int rowLength, int step, int length, float scale,
+			FloatArray result, int resultOffset) {
+		final FloatBuffer inputBuffer = input.hostBuffer();
+		final FloatBuffer resultBuffer = result.writableHostBuffer();
+		((CpuDevice) device()).parallelFor(rows, CpuDevice.grain(length), (begin, end) -> {
+			final float[] realRow = new float[length];
+			final FloatBuffer resultRows = resultBuffer.duplicate();
+			for (int row = begin; row < end; row++) {
+				final int inputIndexBase = row * rowLength * 2;
+				for (int i = 0; i < length; i++) {
+					realRow[i] = scale * inputBuffer.get(inputIndexBase + i * step * 2);
+				}
+				resultRows.position(resultOffset + row * length);
+				resultRows.put(realRow);
+			}
+		});
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+import java.util.List;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.tensor.Expression;
+import org.zxg.ai.lnn.tensor.Tensor;
+
+/**
+ * Computes an {@link Expression} with a tree of element functions, in one
+ * parallel loop over the elements.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class FusedKernel extends org.zxg.ai.lnn.tensor.kernel.FusedKernel {
+
+	@FunctionalInterface
+	private static interface Element {
+		float get(int index);
+	}
+
+	@Override
+	public void execute(Expression expression, Tensor result) {
+		final Element element = compile(expression);
+		final FloatArray resultData = result.flatData();
+		final FloatBuffer resultBuffer = resultData.writableHostBuffer();
+		((CpuDevice) device()).parallelFor(resultData.length, (begin, end) -> {
+			for (int i = begin; i < end; i++) {
+				resultBuffer.put(i, element.get(i));
+			}
+		});
+	}
+
+	private static Element compile(Expression expression) {
+		final List<Expression> operands = expression.operands();
+		final Element a = operands.size() > 0 ? compile(operands.get(0)) : null;
+		final Element b = operands.size() > 1 ? compile(operands.get(1)) : null;
+		switch (expression.operator()) {
+		case TENSOR: {
+			final Tensor tensor = expression.tensor();
+			final FloatBuffer buffer = tensor.storage().hostBuffer();
+			if (tensor.isContiguous()) {
+				return buffer::get;
+			}
+			final int offset = tensor.offset();
+			final int[] shape = tensor.shape().get();
+			final int[] strides = tensor.strides().get();
+			return i -> {
+				int index = offset;
+				for (int d = shape.length - 1; d >= 0; d--) {
+					index += (i % shape[d]) * strides[d];
+					i /= shape[d];
+				}
+				return buffer.get(index);
+			};
+		}
+		case VALUE: {
+			final float value = expression.value();
+			return i -> value;
+		}
+		case NEGATIVE:
+			return i -> -a.get(i);
+		case ABS:
+			return i -> Math.abs(a.get(i));
+		case SIGN:
+			return i -> {
+				float x = a.get(i);
+				return x > 0 ? 1 : (x < 0 ? -1 : 0);
+			};
+		case ADD:
+			return i -> a.get(i) + b.get(i);
+		case SUB:
+			return i -> a.get(i) - b.get(i);
+		case MUL:
+			return i -> a.get(i) * b.get(i);
+		case SQUARE:
+			return i -> {
+				float x = a.get(i);
+				return x * x;
+			};
+		case DIV:
+			return i -> a.get(i) / b.get(i);
+		case RECIPROCAL:
+			return i -> 1.0f / a.get(i);
+		case SQRT:
+			return i -> (float) Math.sqrt(a.get(i));
+		case EXP:
+			return i -> (float) Math.exp(a.get(i));
+		case POW:
+			return i -> (float) Math.pow(a.get(i), b.get(i));
+		case LN:
+			return i -> (float) Math.log(a.get(i));
+		case LOG:
+			return i -> (float) (Math.log(b.get(i)) / Math.log(a.get(i)));
+		case TANH:
+			return i -> (float) Math.tanh(a.get(i));
+		case MAX:
+			return i -> {
+				float x = a.get(i);
+				float y = b.get(i);
+				return x >= y || Float.isNaN(y) ? x : y;
+			};
+		case MIN:
+			return i -> {
+				float x = a.get(i);
+				float y = b.get(i);
+				return x <= y || Float.isNaN(y) ? x : y;
+			};
+		default:
+			return i -> {
+				float x = a.get(i);
+				return x > 0 ? x : 0;
+			};
+		}
+	}
+}
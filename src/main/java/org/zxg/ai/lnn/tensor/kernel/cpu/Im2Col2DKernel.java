@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.tensor.Tensor;
+import org.zxg.ai.lnn.tuple.IntTuple2;
+
+/**
+ * Lowers a row of the columns at a time, in a local array which is then
+ * copied into the columns in bulk.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class Im2Col2DKernel extends org.zxg.ai.lnn.tensor.kernel.Im2Col2DKernel {
+
+	@Override
+	public void execute(Tensor input, int batchBegin, int batchCount, IntTuple2 kernelSize, IntTuple2 stride,
+			IntTuple2 padding, IntTuple2 dilation, IntTuple2 outputSize, FloatArray columns) {
+		final int channels = input.shape().get(1);
+		final int inputHeight = input.shape().get(2);
+		final int inputWidth = input.shape().get(3);
+		final int[] inputDimSizes = input.dimSizes().get();
+		final FloatBuffer inputBuffer = input.flatData().hostBuffer();
+		final FloatBuffer columnsBuffer = columns.writableHostBuffer();
+
+		final int kernelHeight = kernelSize.e0;
+		final int kernelWidth = kernelSize.e1;
+		final int outputHeight = outputSize.e0;
+		final int outputWidth = outputSize.e1;
+		final int outputLength = outputHeight * outputWidth;
+		final int rows = batchCount * channels * kernelHeight * kernelWidth;
+		((CpuDevice) device()).parallelFor(rows, CpuDevice.grain(outputLength), (begin, end) -> {
+			final float[] column = new float[outputLength];
+			final FloatBuffer columnRows = columnsBuffer.duplicate();
+			for (int row = begin; row < end; row++) {
+				final int kernelWidthIndex = row % kernelWidth;
+				int rest = row / kernelWidth;
+				final int kernelHeightIndex = rest % kernelHeight;
+				rest /= kernelHeight;
+				final int channel = rest % channels;
+				final int batchIndex = batchBegin + rest / channels;
+
+				final int inputIndexBase = batchIndex * inputDimSizes[0] + channel * inputDimSizes[1];
+				final int inputRowBase = kernelHeightIndex * dilation.e0 - padding.e0;
+				final int inputColumnBase = kernelWidthIndex * dilation.e1 - padding.e1;
+				int columnIndex = 0;
+				for (int outputRow = 0; outputRow < outputHeight; ++outputRow) {
+					final int inputRow = inputRowBase + outputRow * stride.e0;
+					if (inputRow < 0 || inputRow >= inputHeight) {
+						Arrays.fill(column, columnIndex, columnIndex + outputWidth, 0);
+						columnIndex += outputWidth;
+						continue;
+					}
+					final int inputRowIndex = inputIndexBase + inputRow * inputDimSizes[2];
+					for (int outputColumn = 0; outputColumn < outputWidth; ++outputColumn) {
+						final int inputColumn = inputColumnBase + outputColumn * stride.e1;
+						column[columnIndex++] = inputColumn > -1 && inputColumn < inputWidth
+								? inputBuffer.get(inputRowIndex + inputColumn)
+								: 0;
+					}
+				}
+				columnRows.position(row * outputLength);
+				columnRows.put(column);
+			}
+		});
+	}
+}
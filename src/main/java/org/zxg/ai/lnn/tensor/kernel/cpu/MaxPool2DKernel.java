@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.tensor.IntTensor;
+import org.zxg.ai.lnn.tensor.Tensor;
+import org.zxg.ai.lnn.tuple.IntTuple2;
+
+/**
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class MaxPool2DKernel extends org.zxg.ai.lnn.tensor.kernel.MaxPool2DKernel {
+
+	@Override
+	public void execute(Tensor input, IntTuple2 kernelSize, IntTuple2 stride, IntTuple2 padding, IntTuple2 dilation,
+			Tensor result, IntTensor indices) {
+		final int kernelHeight = kernelSize.e0;
+		final int kernelWidth = kernelSize.e1;
+		final int strideH = stride.e0;
+		final int strideW = stride.e1;
+		final int paddingH = padding.e0;
+		final int paddingW = padding.e1;
+		final int dilationH = dilation.e0;
+		final int dilationW = dilation.e1;
+		final int[] inputShape = input.shape().get();
+		final int[] inputDimSizes = input.dimSizes().get();
+		final int[] resultDimSizes = result.dimSizes().get();
+		final FloatBuffer inputBuffer = input.flatData().hostBuffer();
+		final FloatArray resultData = result.flatData();
+		final FloatBuffer resultBuffer = resultData.writableHostBuffer();
+		final IntBuffer indicesBuffer = indices != null ? indices.flatData().writableHostBuffer() : null;
+		((CpuDevice) device()).parallelFor(resultData.length, CpuDevice.grain(kernelHeight * kernelWidth),
+				(begin, end) -> {
+					for (int gid = begin; gid < end; gid++) {
+						int rest = gid;
+						final int resultCoordinate0 = rest / resultDimSizes[0];
+						rest %= resultDimSizes[0];
+						final int resultCoordinate1 = rest / resultDimSizes[1];
+						rest %= resultDimSizes[1];
+						final int resultCoordinate2 = rest / resultDimSizes[2];
+						final int resultCoordinate3 = rest % resultDimSizes[2];
+
+						final int inputIndexBase = resultCoordinate0 * inputDimSizes[0]
+								+ resultCoordinate1 * inputDimSizes[1];
+						final int inputCoordinate2Base = resultCoordinate2 * strideH - paddingH;
+						final int inputCoordinate3Base = resultCoordinate3 * strideW - paddingW;
+
+						float maxValue = 0;
+						int maxIndex = -1;
+						for (int kernelHeightIndex = 0; kernelHeightIndex < kernelHeight; ++kernelHeightIndex) {
+							final int inputCoordinate2 = inputCoordinate2Base + kernelHeightIndex * dilationH;
+							if (inputCoordinate2 > -1 && inputCoordinate2 < inputShape[2]) {
+								for (int kernelWidthIndex = 0; kernelWidthIndex < kernelWidth; ++kernelWidthIndex) {
+									final int inputCoordinate3 = inputCoordinate3Base + kernelWidthIndex * dilationW;
+									if (inputCoordinate3 > -1 && inputCoordinate3 < inputShape[3]) {
+										final int planeIndex = inputCoordinate2 * inputDimSizes[2] + inputCoordinate3;
+										final float value = inputBuffer.get(inputIndexBase + planeIndex);
+										if (-1 == maxIndex || value > maxValue) {
+											maxValue = value;
+											maxIndex = planeIndex;
+										}
+									}
+								}
+							}
+						}
+						resultBuffer.put(gid, maxValue);
+						if (indicesBuffer != null) {
+							indicesBuffer.put(gid, maxIndex);
+						}
+					}
+				});
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+
+/**
+ * Generates the same numbers as the OpenCL kernel for the same seed, up to
+ * the precision of the math functions.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class NormalRandomKernel extends org.zxg.ai.lnn.tensor.kernel.NormalRandomKernel {
+
+	private static float nextFloat(long MASK, long MULTIPLIER, long ADDEND, long seed, int index) {
+		seed = seed * (index + 1);
+		seed = (seed ^ MULTIPLIER) & MASK;
+		seed = (seed * MULTIPLIER + ADDEND) & MASK;
+		final int next24 = (int) (seed >>> 24);
+		return next24 / ((float) (1 << 24));
+	}
+
+	@Override
+	public void execute(long MASK, long MULTIPLIER, long ADDEND, long seed, float mean, float standardDeviation,
+			FloatArray result) {
+		final FloatBuffer resultBuffer = result.writableHostBuffer();
+		((CpuDevice) device()).parallelFor(result.length, (begin, end) -> {
+			for (int gid = begin; gid < end; gid++) {
+				if ((gid % 2) == 0) {
+					final float u1 = nextFloat(MASK, MULTIPLIER, ADDEND, seed, gid);
+					final float u2 = nextFloat(MASK, MULTIPLIER, ADDEND, seed, gid + 1);
+					final float z0 = (float) (Math.sqrt(-2 * Math.log(u1)) * Math.cos(Math.PI * 2 * u2));
+					resultBuffer.put(gid, z0 * standardDeviation + mean);
+				} else {
+					final float u1 = nextFloat(MASK, MULTIPLIER, ADDEND, seed, gid - 1);
+					final float u2 = nextFloat(MASK, MULTIPLIER, ADDEND, seed, gid);
+					final float z1 = (float) (Math.sqrt(-2 * Math.log(u1)) * Math.sin(Math.PI * 2 * u2));
+					resultBuffer.put(gid, z1 * standardDeviation + mean);
+				}
+			}
+		});
+	}
+}
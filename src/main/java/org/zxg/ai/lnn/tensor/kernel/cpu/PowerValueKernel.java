@@ -14,27 +14,26 @@
  * You should have received a copy of the GNU Affero General Public License
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
-package org.zxg.ai.lnn.tensor.kernel;
+package org.zxg.ai.lnn.tensor.kernel.cpu;
 
-import org.zxg.ai.lnn.opencl.Calling;
+import java.nio.FloatBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
 import org.zxg.ai.lnn.opencl.FloatArray;
-import org.zxg.ai.lnn.opencl.IntArray;
-import org.zxg.ai.lnn.opencl.Kernel;
-import org.zxg.ai.lnn.opencl.Range1D;
-import org.zxg.ai.lnn.tensor.Tensor;
 
 /**
  * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
  */
-public class TransposeKernel extends Kernel {
+public class PowerValueKernel extends org.zxg.ai.lnn.tensor.kernel.PowerValueKernel {
 
-	public void execute(IntArray permutation, Tensor source, Tensor result) {
-		FloatArray resultData = result.flatData();
-		Calling c = call();
-		c.in(permutation);
-		c.in(source.dimSizes()).in(result.dimSizes());
-		c.in(source.flatData()).out(resultData);
-		c.pass(new Range1D(resultData.length));
-		c.execute();
+	@Override
+	public void execute(FloatArray base, float exponent, FloatArray result) {
+		final FloatBuffer baseBuffer = base.hostBuffer();
+		final FloatBuffer resultBuffer = result.writableHostBuffer();
+		((CpuDevice) device()).parallelFor(result.length, (begin, end) -> {
+			for (int i = begin; i < end; i++) {
+				resultBuffer.put(i, (float) Math.pow(baseBuffer.get(i), exponent));
+			}
+		});
 	}
 }
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+
+/**
+ * Multiplies matrices with blocks sized for the caches, and a micro kernel
+ * which keeps a {@code ROWS * COLUMNS} block of the result in registers.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class ProductKernel extends org.zxg.ai.lnn.tensor.kernel.ProductKernel {
+
+	/** The rows of a panel of the left matrix. */
+	private static final int ROWS = 4;
+	/** The columns of a panel of the right matrix. */
+	private static final int COLUMNS = 4;
+	/** The rows of the left matrix multiplied by one task. */
+	private static final int ROW_BLOCK = 64;
+	/** The depth of the blocks which are reused from the caches. */
+	private static final int DEPTH_BLOCK = 256;
+	/** The columns of the block of the right matrix reused from the caches. */
+	private static final int COLUMN_BLOCK = 512;
+
+	@Override
+	public void gemm(int m, int n, int k, int batch, FloatArray left, int leftOffset, int leftBatchStride,
+			FloatArray right, int rightOffset, int rightBatchStride, FloatArray result, int resultOffset,
+			int resultBatchStride) {
+		if (m <= 0 || n <= 0 || batch <= 0) {
+			return;
+		}
+		final CpuDevice device = (CpuDevice) device();
+		final FloatBuffer leftBuffer = left.hostBuffer();
+		final FloatBuffer rightBuffer = right.hostBuffer();
+		final FloatBuffer resultBuffer = result.writableHostBuffer();
+		final int columnPanels = (n + COLUMNS - 1) / COLUMNS;
+		final int rowBlocks = (m + ROW_BLOCK - 1) / ROW_BLOCK;
+		final int columnBlocks = (n + COLUMN_BLOCK - 1) / COLUMN_BLOCK;
+		float[] packedRight = null;
+		int packedRightBase = -1;
+		for (int b = 0; b < batch; b++) {
+			final int leftBase = leftOffset + b * leftBatchStride;
+			final int rightBase = rightOffset + b * rightBatchStride;
+			final int resultBase = resultOffset + b * resultBatchStride;
+			if (rightBase != packedRightBase) {
+				packedRight = packRight(device, rightBuffer, rightBase, n, k, columnPanels);
+				packedRightBase = rightBase;
+			}
+			final float[] packed = packedRight;
+			device.parallelFor(rowBlocks * columnBlocks, CpuDevice.grain(ROW_BLOCK * COLUMN_BLOCK * k),
+					(begin, end) -> {
+						final float[] packedLeft = new float[ROW_BLOCK * DEPTH_BLOCK];
+						final float[] sums = new float[ROW_BLOCK * COLUMN_BLOCK];
+						final FloatBuffer resultRows = resultBuffer.duplicate();
+						for (int block = begin; block < end; block++) {
+							final int rowBegin = (block / columnBlocks) * ROW_BLOCK;
+							final int rows = Math.min(ROW_BLOCK, m - rowBegin);
+							final int columnBegin = (block % columnBlocks) * COLUMN_BLOCK;
+							final int columns = Math.min(COLUMN_BLOCK, n - columnBegin);
+							multiplyBlock(leftBuffer, leftBase + rowBegin * k, rows, columnBegin, columns, k, packed,
+									packedLeft, sums);
+							for (int row = 0; row < rows; row++) {
+								resultRows.position(resultBase + (rowBegin + row) * n + columnBegin);
+								resultRows.put(sums, row * COLUMN_BLOCK, columns);
+							}
+						}
+					});
+		}
+	}
+
+	/**
+	 * Packs the right matrix into panels of {@link #COLUMNS} columns, where the
+	 * elements of a panel are stored row by row, and the missing columns of the
+	 * last panel are zeros.
+	 */
+	private static float[] packRight(CpuDevice device, FloatBuffer rightBuffer, int rightBase, int n, int k,
+			int columnPanels) {
+		final float[] packed = new float[columnPanels * k * COLUMNS];
+		device.parallelFor(columnPanels, CpuDevice.grain(k * COLUMNS), (begin, end) -> {
+			for (int panel = begin; panel < end; panel++) {
+				final int columnBegin = panel * COLUMNS;
+				final int columns = Math.min(COLUMNS, n - columnBegin);
+				int packedIndex = panel * k * COLUMNS;
+				for (int p = 0; p < k; p++, packedIndex += COLUMNS) {
+					final int rightIndex = rightBase + p * n + columnBegin;
+					for (int column = 0; column < columns; column++) {
+						packed[packedIndex + column] = rightBuffer.get(rightIndex + column);
+					}
+				}
+			}
+		});
+		return packed;
+	}
+
+	/**
+	 * Multiplies the given rows of the left matrix by the given columns of the
+	 * right matrix into the sums, whose rows are {@link #COLUMN_BLOCK} long.
+	 */
+	private static void multiplyBlock(FloatBuffer leftBuffer, int leftBase, int rows, int columnBegin, int columns,
+			int k, float[] packedRight, float[] packedLeft, float[] sums) {
+		final int rowPanels = (rows + ROWS - 1) / ROWS;
+		Arrays.fill(sums, 0);
+		for (int depthBegin = 0; depthBegin < k; depthBegin += DEPTH_BLOCK) {
+			final int depth = Math.min(DEPTH_BLOCK, k - depthBegin);
+			packLeft(leftBuffer, leftBase, rows, k, depthBegin, depth, packedLeft);
+			for (int rowPanel = 0; rowPanel < rowPanels; rowPanel++) {
+				final int row = rowPanel * ROWS;
+				final int panelRows = Math.min(ROWS, rows - row);
+				final int leftIndex = rowPanel * depth * ROWS;
+				for (int column = 0; column < columns; column += COLUMNS) {
+					final int rightIndex = (((columnBegin + column) / COLUMNS) * k + depthBegin) * COLUMNS;
+					multiplyPanels(packedLeft, leftIndex, packedRight, rightIndex, depth, sums,
+							row * COLUMN_BLOCK + column, COLUMN_BLOCK, panelRows, Math.min(COLUMNS, columns - column));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Packs a block of the left matrix into panels of {@link #ROWS} rows, where
+	 * the elements of a panel are stored column by column, and the missing rows
+	 * of the last panel are zeros.
+	 */
+	private static void packLeft(FloatBuffer leftBuffer, int leftBase, int rows, int k, int depthBegin, int depth,
+			float[] packedLeft) {
+		final int rowPanels = (rows + ROWS - 1) / ROWS;
+		for (int rowPanel = 0; rowPanel < rowPanels; rowPanel++) {
+			final int panelBase = rowPanel * depth * ROWS;
+			for (int r = 0; r < ROWS; r++) {
+				final int row = rowPanel * ROWS + r;
+				if (row < rows) {
+					final int leftIndex = leftBase + row * k + depthBegin;
+					for (int p = 0; p < depth; p++) {
+						packedLeft[panelBase + p * ROWS + r] = leftBuffer.get(leftIndex + p);
+					}
+				} else {
+					for (int p = 0; p < depth; p++) {
+						packedLeft[panelBase + p * ROWS + r] = 0;
+					}
+				}
+			}
+		}
+	}
+
+	private static void multiplyPanels(float[] packedLeft, int leftIndex, float[] packedRight, int rightIndex,
+			int depth, float[] sums, int sumIndex, int sumStride, int rows, int columns) {
+		float c00 = 0, c01 = 0, c02 = 0, c03 = 0;
+		float c10 = 0, c11 = 0, c12 = 0, c13 = 0;
+		float c20 = 0, c21 = 0, c22 = 0, c23 = 0;
+		float c30 = 0, c31 = 0, c32 = 0, c33 = 0;
+		for (int p = 0; p < depth; p++, leftIndex += ROWS, rightIndex += COLUMNS) {
+			final float a0 = packedLeft[leftIndex];
+			final float a1 = packedLeft[leftIndex + 1];
+			final float a2 = packedLeft[leftIndex + 2];
+			final float a3 = packedLeft[leftIndex + 3];
+			final float b0 = packedRight[rightIndex];
+			final float b1 = packedRight[rightIndex + 1];
+			final float b2 = packedRight[rightIndex + 2];
+			final float b3 = packedRight[rightIndex + 3];
+			c00 += a0 * b0;
+			c01 += a0 * b1;
+			c02 += a0 * b2;
+			c03 += a0 * b3;
+			c10 += a1 * b0;
+			c11 += a1 * b1;
+			c12 += a1 * b2;
+			c13 += a1 * b3;
+			c20 += a2 * b0;
+			c21 += a2 * b1;
+			c22 += a2 * b2;
+			c23 += a2 * b3;
+			c30 += a3 * b0;
+			c31 += a3 * b1;
+			c32 += a3 * b2;
+			c33 += a3 * b3;
+		}
+		final float[] block = { c00, c01, c02, c03, c10, c11, c12, c13, c20, c21, c22, c23, c30, c31, c32, c33 };
+		for (int r = 0; r < rows; r++) {
+			final int rowIndex = sumIndex + r * sumStride;
+			for (int c = 0; c < columns; c++) {
+				sums[rowIndex + c] += block[r * COLUMNS + c];
+			}
+		}
+	}
+}
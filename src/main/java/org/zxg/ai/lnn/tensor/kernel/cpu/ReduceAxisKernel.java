@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.tensor.IntTensor;
+import org.zxg.ai.lnn.tensor.Tensor;
+import org.zxg.ai.lnn.tensor.kernel.ReduceKernel.Operation;
+
+/**
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class ReduceAxisKernel extends org.zxg.ai.lnn.tensor.kernel.ReduceAxisKernel {
+
+	@Override
+	public void execute(Operation operation, int axis, Tensor source, Tensor result, IntTensor resultIndexes) {
+		final int axisLength = source.shape().get(axis);
+		final int inner = source.dimSizes().get(axis);
+		final FloatBuffer sourceBuffer = source.flatData().hostBuffer();
+		final FloatArray resultData = result.flatData();
+		final FloatBuffer resultBuffer = resultData.writableHostBuffer();
+		final IntBuffer indexBuffer = null != resultIndexes ? resultIndexes.flatData().writableHostBuffer() : null;
+		((CpuDevice) device()).parallelFor(resultData.length, CpuDevice.grain(axisLength), (begin, end) -> {
+			for (int gid = begin; gid < end; gid++) {
+				int sourceIndex = (gid / inner) * axisLength * inner + gid % inner;
+				ReduceKernel.Accumulator accumulator = new ReduceKernel.Accumulator(operation);
+				for (int i = 0; i < axisLength; i++, sourceIndex += inner) {
+					accumulator.add(sourceBuffer.get(sourceIndex), i);
+				}
+				resultBuffer.put(gid, accumulator.value);
+				if (null != indexBuffer) {
+					indexBuffer.put(gid, accumulator.index);
+				}
+			}
+		});
+	}
+}
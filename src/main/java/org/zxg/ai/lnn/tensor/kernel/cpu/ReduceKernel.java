@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.opencl.IntArray;
+
+/**
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class ReduceKernel extends org.zxg.ai.lnn.tensor.kernel.ReduceKernel {
+
+	/**
+	 * Accumulates the elements in order. As fmax and fmin of OpenCL, the
+	 * maximum and the minimum ignore NaN, and the arg maximum keeps the first
+	 * index of the greatest element.
+	 */
+	static final class Accumulator {
+
+		private final Operation operation;
+		float value;
+		int index = -1;
+
+		Accumulator(Operation operation) {
+			this.operation = operation;
+			switch (operation) {
+			case MAX:
+			case ARGMAX:
+				value = Float.NEGATIVE_INFINITY;
+				break;
+			case MIN:
+				value = Float.POSITIVE_INFINITY;
+				break;
+			default:
+				value = 0;
+			}
+		}
+
+		void add(float element, int elementIndex) {
+			switch (operation) {
+			case SUM:
+				value += element;
+				break;
+			case SUM_SQUARE:
+				value += element * element;
+				break;
+			case MIN:
+				if (element < value) {
+					value = element;
+				}
+				break;
+			case ARGMAX:
+				if (element > value || (index < 0 && element == value)) {
+					value = element;
+					index = elementIndex;
+				}
+				break;
+			default:
+				if (element > value) {
+					value = element;
+				}
+			}
+		}
+
+		void add(Accumulator other) {
+			switch (operation) {
+			case SUM:
+			case SUM_SQUARE:
+				value += other.value;
+				break;
+			case ARGMAX:
+				if (other.index >= 0) {
+					add(other.value, other.index);
+				}
+				break;
+			default:
+				add(other.value, other.index);
+			}
+		}
+	}
+
+	@Override
+	public void execute(Operation operation, FloatArray source, FloatArray other, FloatArray result,
+			IntArray resultIndex) {
+		final CpuDevice device = (CpuDevice) device();
+		final FloatBuffer sourceBuffer = source.hostBuffer();
+		final FloatBuffer otherBuffer = Operation.MAX_ABS_DIFF == operation ? other.hostBuffer() : null;
+		final int length = source.length;
+		final int chunks = Math.max(1,
+				Math.min(device.parallelism() * 4, (length + CpuDevice.DEFAULT_GRAIN - 1) / CpuDevice.DEFAULT_GRAIN));
+		final int chunkSize = (length + chunks - 1) / chunks;
+		final Accumulator[] partials = new Accumulator[chunks];
+		device.parallelFor(chunks, 1, (begin, end) -> {
+			for (int chunk = begin; chunk < end; chunk++) {
+				Accumulator accumulator = new Accumulator(operation);
+				for (int i = chunk * chunkSize, last = Math.min(length, i + chunkSize); i < last; i++) {
+					if (null != otherBuffer) {
+						accumulator.add(Math.abs(sourceBuffer.get(i) - otherBuffer.get(i)), i);
+					} else {
+						accumulator.add(sourceBuffer.get(i), i);
+					}
+				}
+				partials[chunk] = accumulator;
+			}
+		});
+		Accumulator accumulator = new Accumulator(operation);
+		for (Accumulator partial : partials) {
+			accumulator.add(partial);
+		}
+		result.writableHostBuffer().put(0, accumulator.value);
+		if (null != resultIndex) {
+			resultIndex.writableHostBuffer().put(0, accumulator.index);
+		}
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.opencl.IntArray;
+import org.zxg.ai.lnn.tensor.Tensor;
+
+/**
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class SliceAssignKernel extends org.zxg.ai.lnn.tensor.kernel.SliceAssignKernel {
+
+	@Override
+	public void execute(IntArray begin, Tensor source, Tensor result) {
+		final int ndim = result.ndim();
+		final int[] beginArray = begin.get();
+		final int[] sourceDimSizes = source.dimSizes().get();
+		final int[] resultDimSizes = result.dimSizes().get();
+		final FloatArray sourceData = source.flatData();
+		final FloatBuffer sourceBuffer = sourceData.hostBuffer();
+		final FloatBuffer resultBuffer = result.flatData().writableHostBuffer();
+		((CpuDevice) device()).parallelFor(sourceData.length, (rangeBegin, rangeEnd) -> {
+			for (int gid = rangeBegin; gid < rangeEnd; gid++) {
+				int resultIndex = 0;
+				for (int sourceIndex = gid, dimSizesIndex = 0; dimSizesIndex < ndim; dimSizesIndex++) {
+					resultIndex += (((sourceIndex / sourceDimSizes[dimSizesIndex]) + beginArray[dimSizesIndex])
+							* resultDimSizes[dimSizesIndex]);
+					sourceIndex %= sourceDimSizes[dimSizesIndex];
+				}
+				resultBuffer.put(resultIndex, sourceBuffer.get(gid));
+			}
+		});
+	}
+}
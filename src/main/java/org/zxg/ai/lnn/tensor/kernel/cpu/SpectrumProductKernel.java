@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+
+/**
+ * Accumulates the spectrum of an output channel in a local array, one input
+ * channel at a time, so that the spectra are read in order.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class SpectrumProductKernel extends org.zxg.ai.lnn.tensor.kernel.SpectrumProductKernel {
+
+	@Override
+	public void execute(FloatArray input, FloatArray weight, int batchCount, int inChannels, int outChannels,
+			int groups, int bins, FloatArray result) {
+		final FloatBuffer inputBuffer = input.hostBuffer();
+		final FloatBuffer weightBuffer = weight.hostBuffer();
+		final FloatBuffer resultBuffer = result.writableHostBuffer();
+		final int inGroupSize = inChannels / groups;
+		final int outGroupSize = outChannels / groups;
+		((CpuDevice) device()).parallelFor(batchCount * outChannels, CpuDevice.grain(inGroupSize * bins * 4),
+				(begin, end) -> {
+					final float[] spectrum = new float[bins * 2];
+					final float[] inputSpectrum = new float[bins * 2];
+					final float[] weightSpectrum = new float[bins * 2];
+					final FloatBuffer inputRows = inputBuffer.duplicate();
+					final FloatBuffer weightRows = weightBuffer.duplicate();
+					final FloatBuffer resultRows = resultBuffer.duplicate();
+					for (int row = begin; row < end; row++) {
+						final int outChannel = row % outChannels;
+						final int batchIndex = row / outChannels;
+						final int inChannelBegin = outChannel / outGroupSize * inGroupSize;
+						Arrays.fill(spectrum, 0);
+						for (int c = 0; c < inGroupSize; c++) {
+							inputRows.position((batchIndex * inChannels + inChannelBegin + c) * bins * 2);
+							inputRows.get(inputSpectrum);
+							weightRows.position((outChannel * inGroupSize + c) * bins * 2);
+							weightRows.get(weightSpectrum);
+							for (int i = 0; i < bins * 2; i += 2) {
+								final float x = inputSpectrum[i];
+								final float y = inputSpectrum[i + 1];
+								final float u = weightSpectrum[i];
+								final float v = weightSpectrum[i + 1];
+								spectrum[i] += x * u + y * v;
+								spectrum[i + 1] += y * u - x * v;
+							}
+						}
+						resultRows.position(row * bins * 2);
+						resultRows.put(spectrum);
+					}
+				});
+	}
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.opencl.IntArray;
+import org.zxg.ai.lnn.tensor.Tensor;
+
+/**
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class TakeKernel extends org.zxg.ai.lnn.tensor.kernel.TakeKernel {
+
+	@Override
+	public void execute(int axis, IntArray indexes, Tensor source, Tensor result) {
+		final int ndim = source.ndim();
+		final int[] takeIndexes = indexes.get();
+		final int[] sourceDimSizes = source.dimSizes().get();
+		final int[] resultDimSizes = result.dimSizes().get();
+		final FloatBuffer sourceBuffer = source.flatData().hostBuffer();
+		final FloatArray resultData = result.flatData();
+		final FloatBuffer resultBuffer = resultData.writableHostBuffer();
+		((CpuDevice) device()).parallelFor(resultData.length, (begin, end) -> {
+			for (int gid = begin; gid < end; gid++) {
+				int sourceIndex = 0;
+				for (int resultIndex = gid, dimSizesIndex = 0; dimSizesIndex < ndim; dimSizesIndex++) {
+					final int coordinate = resultIndex / resultDimSizes[dimSizesIndex];
+					if (axis != dimSizesIndex) {
+						sourceIndex += (coordinate * sourceDimSizes[dimSizesIndex]);
+					} else {
+						sourceIndex += (takeIndexes[coordinate] * sourceDimSizes[dimSizesIndex]);
+					}
+					resultIndex %= resultDimSizes[dimSizesIndex];
+				}
+				resultBuffer.put(gid, sourceBuffer.get(sourceIndex));
+			}
+		});
+	}
+}
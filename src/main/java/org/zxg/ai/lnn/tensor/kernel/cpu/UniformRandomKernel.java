@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+
+/**
+ * Generates the same numbers as the OpenCL kernel for the same seed.
+ *
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class UniformRandomKernel extends org.zxg.ai.lnn.tensor.kernel.UniformRandomKernel {
+
+	@Override
+	public void execute(long MASK, long MULTIPLIER, long ADDEND, long seed, float low, float high, FloatArray result) {
+		final float interval = high - low;
+		final FloatBuffer resultBuffer = result.writableHostBuffer();
+		((CpuDevice) device()).parallelFor(result.length, (begin, end) -> {
+			for (int gid = begin; gid < end; gid++) {
+				long next = seed * (gid + 1L);
+				next = (next ^ MULTIPLIER) & MASK;
+				next = (next * MULTIPLIER + ADDEND) & MASK;
+				final int next24 = (int) (next >>> 24);
+				final float nextFloat = next24 / ((float) (1 << 24));
+				resultBuffer.put(gid, nextFloat * interval + low);
+			}
+		});
+	}
+}
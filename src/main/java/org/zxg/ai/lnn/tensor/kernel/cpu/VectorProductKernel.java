@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.tensor.Tensor;
+
+/**
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class VectorProductKernel extends org.zxg.ai.lnn.tensor.kernel.VectorProductKernel {
+
+	@Override
+	public void execute(Tensor left, Tensor right, Tensor result) {
+		final CpuDevice device = (CpuDevice) device();
+		final FloatArray leftData = left.flatData();
+		final FloatBuffer leftBuffer = leftData.hostBuffer();
+		final FloatBuffer rightBuffer = right.flatData().hostBuffer();
+		final int length = leftData.length;
+		final int chunkSize = Math.max(CpuDevice.DEFAULT_GRAIN,
+				(length + device.parallelism() - 1) / device.parallelism());
+		final float[] partialSums = new float[(length + chunkSize - 1) / chunkSize];
+		device.parallelFor(partialSums.length, 1, (begin, end) -> {
+			for (int chunk = begin; chunk < end; chunk++) {
+				float sum = 0;
+				for (int i = chunk * chunkSize, limit = Math.min(i + chunkSize, length); i < limit; i++) {
+					sum += leftBuffer.get(i) * rightBuffer.get(i);
+				}
+				partialSums[chunk] = sum;
+			}
+		});
+		float resultValue = 0;
+		for (float partialSum : partialSums) {
+			resultValue += partialSum;
+		}
+		result.flatData().set(0, resultValue);
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.tensor.Tensor;
+import org.zxg.ai.lnn.tuple.IntTuple2;
+
+/**
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class WinogradInputTransformKernel extends org.zxg.ai.lnn.tensor.kernel.WinogradInputTransformKernel {
+
+	@Override
+	public void execute(Tensor input, int batchBegin, int batchCount, IntTuple2 padding, IntTuple2 tiles,
+			FloatArray result) {
+		final int channels = input.shape().get(1);
+		final int inputHeight = input.shape().get(2);
+		final int inputWidth = input.shape().get(3);
+		final int[] inputDimSizes = input.dimSizes().get();
+		final FloatBuffer inputBuffer = input.flatData().hostBuffer();
+		final FloatBuffer resultBuffer = result.writableHostBuffer();
+
+		final int tilesH = tiles.e0;
+		final int tilesW = tiles.e1;
+		final int tileCount = batchCount * tilesH * tilesW;
+		final int matrixLength = channels * tileCount;
+		((CpuDevice) device()).parallelFor(matrixLength, CpuDevice.grain(64), (begin, end) -> {
+			final float[] d = new float[16];
+			final float[] bd = new float[16];
+			for (int gid = begin; gid < end; gid++) {
+				final int channel = gid / tileCount;
+				int tile = gid % tileCount;
+				final int tileW = tile % tilesW;
+				tile /= tilesW;
+				final int tileH = tile % tilesH;
+				final int batchIndex = batchBegin + tile / tilesH;
+
+				final int rowBase = tileH * 2 - padding.e0;
+				final int columnBase = tileW * 2 - padding.e1;
+				final int inputIndexBase = batchIndex * inputDimSizes[0] + channel * inputDimSizes[1];
+				for (int i = 0; i < 4; ++i) {
+					final int row = rowBase + i;
+					final boolean rowInside = row > -1 && row < inputHeight;
+					final int inputRowIndex = inputIndexBase + row * inputDimSizes[2];
+					for (int j = 0; j < 4; ++j) {
+						final int column = columnBase + j;
+						d[i * 4 + j] = rowInside && column > -1 && column < inputWidth
+								? inputBuffer.get(inputRowIndex + column)
+								: 0;
+					}
+				}
+				// B^T d, where the rows of B^T are (1, 0, -1, 0), (0, 1, 1, 0),
+				// (0, -1, 1, 0) and (0, 1, 0, -1).
+				for (int j = 0; j < 4; ++j) {
+					bd[j] = d[j] - d[8 + j];
+					bd[4 + j] = d[4 + j] + d[8 + j];
+					bd[8 + j] = d[8 + j] - d[4 + j];
+					bd[12 + j] = d[4 + j] - d[12 + j];
+				}
+				for (int i = 0; i < 4; ++i) {
+					final int row = i * 4;
+					resultBuffer.put(row * matrixLength + gid, bd[row] - bd[row + 2]);
+					resultBuffer.put((row + 1) * matrixLength + gid, bd[row + 1] + bd[row + 2]);
+					resultBuffer.put((row + 2) * matrixLength + gid, bd[row + 2] - bd[row + 1]);
+					resultBuffer.put((row + 3) * matrixLength + gid, bd[row + 1] - bd[row + 3]);
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.tensor.Tensor;
+import org.zxg.ai.lnn.tuple.IntTuple2;
+
+/**
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class WinogradOutputTransformKernel extends org.zxg.ai.lnn.tensor.kernel.WinogradOutputTransformKernel {
+
+	@Override
+	public void execute(FloatArray products, int batchBegin, int batchCount, IntTuple2 tiles, Tensor result) {
+		final int outChannels = result.shape().get(1);
+		final int resultHeight = result.shape().get(2);
+		final int resultWidth = result.shape().get(3);
+		final int[] resultDimSizes = result.dimSizes().get();
+		final FloatBuffer productsBuffer = products.hostBuffer();
+		final FloatBuffer resultBuffer = result.flatData().writableHostBuffer();
+
+		final int tilesH = tiles.e0;
+		final int tilesW = tiles.e1;
+		final int tileCount = batchCount * tilesH * tilesW;
+		final int matrixLength = outChannels * tileCount;
+		((CpuDevice) device()).parallelFor(matrixLength, CpuDevice.grain(64), (begin, end) -> {
+			final float[] am = new float[8];
+			for (int gid = begin; gid < end; gid++) {
+				final int outChannel = gid / tileCount;
+				int tile = gid % tileCount;
+				final int tileW = tile % tilesW;
+				tile /= tilesW;
+				final int tileH = tile % tilesH;
+				final int batchIndex = batchBegin + tile / tilesH;
+
+				// A^T m, where the rows of A^T are (1, 1, 1, 0) and (0, 1, -1, -1).
+				for (int j = 0; j < 4; ++j) {
+					final float m0 = productsBuffer.get(j * matrixLength + gid);
+					final float m1 = productsBuffer.get((4 + j) * matrixLength + gid);
+					final float m2 = productsBuffer.get((8 + j) * matrixLength + gid);
+					final float m3 = productsBuffer.get((12 + j) * matrixLength + gid);
+					am[j] = m0 + m1 + m2;
+					am[4 + j] = m1 - m2 - m3;
+				}
+				final int resultIndexBase = batchIndex * resultDimSizes[0] + outChannel * resultDimSizes[1];
+				final int column = tileW * 2;
+				for (int i = 0; i < 2; ++i) {
+					final int row = tileH * 2 + i;
+					if (row >= resultHeight) {
+						break;
+					}
+					final int resultIndex = resultIndexBase + row * resultDimSizes[2] + column;
+					resultBuffer.put(resultIndex, am[i * 4] + am[i * 4 + 1] + am[i * 4 + 2]);
+					if (column + 1 < resultWidth) {
+						resultBuffer.put(resultIndex + 1, am[i * 4 + 1] - am[i * 4 + 2] - am[i * 4 + 3]);
+					}
+				}
+			}
+		});
+	}
+}
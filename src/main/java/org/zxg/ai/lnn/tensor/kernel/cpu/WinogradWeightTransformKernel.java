@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.cpu;
+
+import java.nio.FloatBuffer;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.FloatArray;
+import org.zxg.ai.lnn.tensor.Tensor;
+
+/**
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class WinogradWeightTransformKernel extends org.zxg.ai.lnn.tensor.kernel.WinogradWeightTransformKernel {
+
+	@Override
+	public void execute(Tensor weight, FloatArray result) {
+		final int matrixLength = weight.shape().get(0) * weight.shape().get(1);
+		final FloatBuffer weightBuffer = weight.flatData().hostBuffer();
+		final FloatBuffer resultBuffer = result.writableHostBuffer();
+		((CpuDevice) device()).parallelFor(matrixLength, CpuDevice.grain(64), (begin, end) -> {
+			final float[] gg = new float[12];
+			for (int gid = begin; gid < end; gid++) {
+				final int weightIndex = gid * 9;
+				// G g, where the rows of G are (1, 0, 0), (1/2, 1/2, 1/2),
+				// (1/2, -1/2, 1/2) and (0, 0, 1).
+				for (int j = 0; j < 3; ++j) {
+					final float g0 = weightBuffer.get(weightIndex + j);
+					final float g1 = weightBuffer.get(weightIndex + 3 + j);
+					final float g2 = weightBuffer.get(weightIndex + 6 + j);
+					gg[j] = g0;
+					gg[3 + j] = 0.5f * (g0 + g1 + g2);
+					gg[6 + j] = 0.5f * (g0 - g1 + g2);
+					gg[9 + j] = g2;
+				}
+				for (int i = 0; i < 4; ++i) {
+					final float g0 = gg[i * 3];
+					final float g1 = gg[i * 3 + 1];
+					final float g2 = gg[i * 3 + 2];
+					resultBuffer.put((i * 4) * matrixLength + gid, g0);
+					resultBuffer.put((i * 4 + 1) * matrixLength + gid, 0.5f * (g0 + g1 + g2));
+					resultBuffer.put((i * 4 + 2) * matrixLength + gid, 0.5f * (g0 - g1 + g2));
+					resultBuffer.put((i * 4 + 3) * matrixLength + gid, g2);
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2019, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.zxg.ai.lnn.tensor.kernel.integer.cpu;
+
+import java.nio.IntBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.zxg.ai.lnn.cpu.CpuDevice;
+import org.zxg.ai.lnn.opencl.IntArray;
+
+/**
+ * @author <a href="mailto:xianguang.zhou@outlook.com">Xianguang Zhou</a>
+ */
+public class EqualsKernel extends org.zxg.ai.lnn.tensor.kernel.integer.EqualsKernel {
+
+	@Override
+	public boolean execute(IntArray left, IntArray right) {
+		final IntBuffer leftBuffer = left.hostBuffer();
+		final IntBuffer rightBuffer = right.hostBuffer();
+		final AtomicBoolean different = new AtomicBoolean();
+		((CpuDevice) device()).parallelFor(left.length, (begin, end) -> {
+			for (int i = begin; i < end && !different.get(); i++) {
+				if (leftBuffer.get(i) != rightBuffer.get(i)) {
+					different.set(true);
+				}
+			}
+		});
+		return !different.get();
+	}
+}
@@ -1,28 +0,0 @@
-/*
- * Copyright (c) 2019, 2020, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
- *
- * This program is free software: you can redistribute it and/or modify
- * it under the terms of the GNU Affero General Public License as published by
- * the Free Software Foundation, either version 3 of the License, or
- * (at your option) any later version.
- *
- * This program is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
- * GNU Affero General Public License for more details.
- *
- * You should have received a copy of the GNU Affero General Public License
- * along with this program.  If not, see <http://www.gnu.org/licenses/>.
- */
-__kernel void run(
-		const float start,
-		const float stop,
-		const float step,
-		const int repeat,
-		__global float* result) {
-    size_t gid = get_global_id(0);
-    float value = start + (gid / repeat) * step;
-    if (value < stop) {
-    	result[gid] = value;
-    }
-}
@@ -0,0 +1,1189 @@
+/*
+ * Copyright (c) 2019, 2020, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+void gidToCoordinate(size_t gid, int* coordinate, __constant int* dimSizes, const int ndim) {
+	for (int i = 0; i < ndim - 1; i++) {
+		coordinate[i] = gid / dimSizes[i];
+		gid %= dimSizes[i];
+	}
+	coordinate[ndim - 1] = gid;
+}
+
+int coordinateToGid(int* coordinate, __constant int* dimSizes, const int ndim) {
+	int gid = coordinate[ndim - 1];
+	for (int i = 0; i < ndim - 1; i++) {
+		gid += coordinate[i] * dimSizes[i];
+	}
+	return gid;
+}
+
+__kernel void crossCorrelation1DKernel(
+		const int stride,
+		const int padding,
+		const int dilation,
+		const int groups,
+		__constant int* inputShape,
+		__constant int* weightShape,
+		__constant int* resultShape,
+		__constant int* inputDimSizes,
+		__constant int* weightDimSizes,
+		__constant int* resultDimSizes,
+		__constant float* input,
+		__constant float* weight,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+
+	int resultCoordinate[3];
+	gidToCoordinate(gid, resultCoordinate, resultDimSizes, 3);
+
+	const int resultGroupSize = resultShape[1] / groups;
+	const int groupNumber = resultCoordinate[1] / resultGroupSize;
+	const int inputGroupSize = weightShape[1];
+
+	int inputCoordinate[3];
+	inputCoordinate[0] = resultCoordinate[0];
+	const int inputCoordinate1Base = groupNumber * inputGroupSize;
+	const int inputCoordinate2Base = resultCoordinate[2] * stride - padding;
+
+	int weightCoordinate[3];
+	weightCoordinate[0] = resultCoordinate[1];
+
+	float resultValue = 0;
+	const int kernelWidth = weightShape[2];
+	for (int inChannelGroupIndex = 0; inChannelGroupIndex < inputGroupSize; ++inChannelGroupIndex) {
+		inputCoordinate[1] = inputCoordinate1Base + inChannelGroupIndex;
+		weightCoordinate[1] = inChannelGroupIndex;
+		for (int kernelWidthIndex = 0; kernelWidthIndex < kernelWidth; ++kernelWidthIndex) {
+			inputCoordinate[2] = inputCoordinate2Base + kernelWidthIndex * dilation;
+			float inputValue;
+			if (inputCoordinate[2] > -1 && inputCoordinate[2] < inputShape[2]) {
+				inputValue = input[coordinateToGid(inputCoordinate, inputDimSizes, 3)];
+			} else {
+				inputValue = 0;
+			}
+
+			weightCoordinate[2] = kernelWidthIndex;
+			float weightValue = weight[coordinateToGid(weightCoordinate, weightDimSizes, 3)];
+
+			resultValue += (inputValue * weightValue);
+		}
+	}
+	result[gid] = resultValue;
+}
+
+__kernel void crossCorrelation2DKernel(
+		const int strideH,
+		const int strideW,
+		const int paddingH,
+		const int paddingW,
+		const int dilationH,
+		const int dilationW,
+		const int groups,
+		__constant int* inputShape,
+		__constant int* weightShape,
+		__constant int* resultShape,
+		__constant int* inputDimSizes,
+		__constant int* weightDimSizes,
+		__constant int* resultDimSizes,
+		__constant float* input,
+		__constant float* weight,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+
+	int resultCoordinate[4];
+	gidToCoordinate(gid, resultCoordinate, resultDimSizes, 4);
+
+	const int resultGroupSize = resultShape[1] / groups;
+	const int groupNumber = resultCoordinate[1] / resultGroupSize;
+	const int inputGroupSize = weightShape[1];
+
+	int inputCoordinate[4];
+	inputCoordinate[0] = resultCoordinate[0];
+	const int inputCoordinate1Base = groupNumber * inputGroupSize;
+	const int inputCoordinate2Base = resultCoordinate[2] * strideH - paddingH;
+	const int inputCoordinate3Base = resultCoordinate[3] * strideW - paddingW;
+
+	int weightCoordinate[4];
+	weightCoordinate[0] = resultCoordinate[1];
+
+	float resultValue = 0;
+	const int kernelHeight = weightShape[2];
+	const int kernelWidth = weightShape[3];
+	for (int inChannelGroupIndex = 0; inChannelGroupIndex < inputGroupSize; ++inChannelGroupIndex) {
+		inputCoordinate[1] = inputCoordinate1Base + inChannelGroupIndex;
+		weightCoordinate[1] = inChannelGroupIndex;
+		for (int kernelHeightIndex = 0; kernelHeightIndex < kernelHeight; ++kernelHeightIndex) {
+			inputCoordinate[2] = inputCoordinate2Base + kernelHeightIndex * dilationH;
+			weightCoordinate[2] = kernelHeightIndex;
+			for (int kernelWidthIndex = 0; kernelWidthIndex < kernelWidth; ++kernelWidthIndex) {
+				inputCoordinate[3] = inputCoordinate3Base + kernelWidthIndex * dilationW;
+				float inputValue;
+				if (inputCoordinate[2] > -1
+					&& inputCoordinate[2] < inputShape[2]
+					&& inputCoordinate[3] > -1
+					&& inputCoordinate[3] < inputShape[3]) {
+					inputValue = input[coordinateToGid(inputCoordinate, inputDimSizes, 4)];
+				} else {
+					inputValue = 0;
+				}
+
+				weightCoordinate[3] = kernelWidthIndex;
+				float weightValue = weight[coordinateToGid(weightCoordinate, weightDimSizes, 4)];
+
+				resultValue += (inputValue * weightValue);
+			}
+		}
+	}
+	result[gid] = resultValue;
+}
+
+__kernel void crossCorrelation3DKernel(
+		const int strideD,
+		const int strideH,
+		const int strideW,
+		const int paddingD,
+		const int paddingH,
+		const int paddingW,
+		const int dilationD,
+		const int dilationH,
+		const int dilationW,
+		const int groups,
+		__constant int* inputShape,
+		__constant int* weightShape,
+		__constant int* resultShape,
+		__constant int* inputDimSizes,
+		__constant int* weightDimSizes,
+		__constant int* resultDimSizes,
+		__constant float* input,
+		__constant float* weight,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+
+	int resultCoordinate[5];
+	gidToCoordinate(gid, resultCoordinate, resultDimSizes, 5);
+
+	const int resultGroupSize = resultShape[1] / groups;
+	const int groupNumber = resultCoordinate[1] / resultGroupSize;
+	const int inputGroupSize = weightShape[1];
+
+	int inputCoordinate[5];
+	inputCoordinate[0] = resultCoordinate[0];
+	const int inputCoordinate1Base = groupNumber * inputGroupSize;
+	const int inputCoordinate2Base = resultCoordinate[2] * strideD - paddingD;
+	const int inputCoordinate3Base = resultCoordinate[3] * strideH - paddingH;
+	const int inputCoordinate4Base = resultCoordinate[4] * strideW - paddingW;
+
+	int weightCoordinate[5];
+	weightCoordinate[0] = resultCoordinate[1];
+
+	float resultValue = 0;
+	const int kernelDepth = weightShape[2];
+	const int kernelHeight = weightShape[3];
+	const int kernelWidth = weightShape[4];
+	for (int inChannelGroupIndex = 0; inChannelGroupIndex < inputGroupSize; ++inChannelGroupIndex) {
+		inputCoordinate[1] = inputCoordinate1Base + inChannelGroupIndex;
+		weightCoordinate[1] = inChannelGroupIndex;
+		for (int kernelDepthIndex = 0; kernelDepthIndex < kernelDepth; ++kernelDepthIndex) {
+			inputCoordinate[2] = inputCoordinate2Base + kernelDepthIndex * dilationD;
+			weightCoordinate[2] = kernelDepthIndex;
+			for (int kernelHeightIndex = 0; kernelHeightIndex < kernelHeight; ++kernelHeightIndex) {
+				inputCoordinate[3] = inputCoordinate3Base + kernelHeightIndex * dilationH;
+				weightCoordinate[3] = kernelHeightIndex;
+				for (int kernelWidthIndex = 0; kernelWidthIndex < kernelWidth; ++kernelWidthIndex) {
+					inputCoordinate[4] = inputCoordinate4Base + kernelWidthIndex * dilationW;
+					float inputValue;
+					if (inputCoordinate[2] > -1
+							&& inputCoordinate[2] < inputShape[2]
+							&& inputCoordinate[3] > -1
+							&& inputCoordinate[3] < inputShape[3]
+							&& inputCoordinate[4] > -1
+							&& inputCoordinate[4] < inputShape[4]) {
+						inputValue = input[coordinateToGid(inputCoordinate, inputDimSizes, 5)];
+					} else {
+						inputValue = 0;
+					}
+
+					weightCoordinate[4] = kernelWidthIndex;
+					float weightValue = weight[coordinateToGid(weightCoordinate, weightDimSizes, 5)];
+
+					resultValue += (inputValue * weightValue);
+				}
+			}
+		}
+	}
+	result[gid] = resultValue;
+}
+
+__kernel void crossCorrelationTranspose1DKernel(
+		const int stride,
+		const int padding,
+		const int groups,
+		const int dilation,
+		__constant int* inputShape,
+		__constant int* weightShape,
+		__constant int* resultShape,
+		__constant int* inputDimSizes,
+		__constant int* weightDimSizes,
+		__constant int* resultDimSizes,
+		__constant float* input,
+		__constant float* weight,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+
+	int resultCoordinate[3];
+	gidToCoordinate(gid, resultCoordinate, resultDimSizes, 3);
+
+	const int resultGroupSize = resultShape[1] / groups;
+	const int groupNumber = resultCoordinate[1] / resultGroupSize;
+	const int resultGroupIndex = resultCoordinate[1] % resultGroupSize;
+	const int inputGroupSize = inputShape[1] / groups;
+
+	int inputCoordinate[3];
+	inputCoordinate[0] = resultCoordinate[0];
+	const int inputCoordinate1Base = groupNumber * inputGroupSize;
+	const int inputCoordinate2Base = resultCoordinate[2] + padding;
+
+	int weightCoordinate[3];
+	weightCoordinate[1] = resultGroupIndex;
+
+	float resultValue = 0;
+	const int kernelWidth = weightShape[2];
+	for (int inChannelGroupIndex = 0; inChannelGroupIndex < inputGroupSize; ++inChannelGroupIndex) {
+		inputCoordinate[1] = inputCoordinate1Base + inChannelGroupIndex;
+		weightCoordinate[0] = inputCoordinate[1];
+		for (int kernelWidthIndex = 0; kernelWidthIndex < kernelWidth; ++kernelWidthIndex) {
+			inputCoordinate[2] = inputCoordinate2Base - kernelWidthIndex * dilation;
+			float inputValue = 0;
+			if (0 == inputCoordinate[2] % stride) {
+				inputCoordinate[2] /= stride;
+				if (inputCoordinate[2] > -1 && inputCoordinate[2] < inputShape[2]) {
+					inputValue = input[coordinateToGid(inputCoordinate, inputDimSizes, 3)];
+				}
+			}
+
+			weightCoordinate[2] = kernelWidthIndex;
+			float weightValue = weight[coordinateToGid(weightCoordinate, weightDimSizes, 3)];
+
+			resultValue += (inputValue * weightValue);
+		}
+	}
+	result[gid] = resultValue;
+}
+
+__kernel void crossCorrelationTranspose2DKernel(
+		const int strideH,
+		const int strideW,
+		const int paddingH,
+		const int paddingW,
+		const int groups,
+		const int dilationH,
+		const int dilationW,
+		__constant int* inputShape,
+		__constant int* weightShape,
+		__constant int* resultShape,
+		__constant int* inputDimSizes,
+		__constant int* weightDimSizes,
+		__constant int* resultDimSizes,
+		__constant float* input,
+		__constant float* weight,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+
+	int resultCoordinate[4];
+	gidToCoordinate(gid, resultCoordinate, resultDimSizes, 4);
+
+	const int resultGroupSize = resultShape[1] / groups;
+	const int groupNumber = resultCoordinate[1] / resultGroupSize;
+	const int resultGroupIndex = resultCoordinate[1] % resultGroupSize;
+	const int inputGroupSize = inputShape[1] / groups;
+
+	int inputCoordinate[4];
+	inputCoordinate[0] = resultCoordinate[0];
+	const int inputCoordinate1Base = groupNumber * inputGroupSize;
+	const int inputCoordinate2Base = resultCoordinate[2] + paddingH;
+	const int inputCoordinate3Base = resultCoordinate[3] + paddingW;
+
+	int weightCoordinate[4];
+	weightCoordinate[1] = resultGroupIndex;
+
+	float resultValue = 0;
+	const int kernelHeight = weightShape[2];
+	const int kernelWidth = weightShape[3];
+	for (int inChannelGroupIndex = 0; inChannelGroupIndex < inputGroupSize; ++inChannelGroupIndex) {
+		inputCoordinate[1] = inputCoordinate1Base + inChannelGroupIndex;
+		weightCoordinate[0] = inputCoordinate[1];
+		for (int kernelHeightIndex = 0; kernelHeightIndex < kernelHeight; ++kernelHeightIndex) {
+			inputCoordinate[2] = inputCoordinate2Base - kernelHeightIndex * dilationH;
+			if (0 == inputCoordinate[2] % strideH) {
+				inputCoordinate[2] /= strideH;
+				if (inputCoordinate[2] > -1 && inputCoordinate[2] < inputShape[2]) {
+					weightCoordinate[2] = kernelHeightIndex;
+					for (int kernelWidthIndex = 0; kernelWidthIndex < kernelWidth; ++kernelWidthIndex) {
+						inputCoordinate[3] = inputCoordinate3Base - kernelWidthIndex * dilationW;
+						float inputValue = 0;
+						if (0 == inputCoordinate[3] % strideW) {
+							inputCoordinate[3] /= strideW;
+							if (inputCoordinate[3] > -1 && inputCoordinate[3] < inputShape[3]) {
+								inputValue = input[coordinateToGid(inputCoordinate, inputDimSizes, 4)];
+							}
+						}
+
+						weightCoordinate[3] = kernelWidthIndex;
+						float weightValue = weight[coordinateToGid(weightCoordinate, weightDimSizes, 4)];
+
+						resultValue += (inputValue * weightValue);
+					}
+				}
+			}
+		}
+	}
+	result[gid] = resultValue;
+}
+
+__kernel void crossCorrelationTranspose3DKernel(
+		const int strideD,
+		const int strideH,
+		const int strideW,
+		const int paddingD,
+		const int paddingH,
+		const int paddingW,
+		const int groups,
+		const int dilationD,
+		const int dilationH,
+		const int dilationW,
+		__constant int* inputShape,
+		__constant int* weightShape,
+		__constant int* resultShape,
+		__constant int* inputDimSizes,
+		__constant int* weightDimSizes,
+		__constant int* resultDimSizes,
+		__constant float* input,
+		__constant float* weight,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+
+	int resultCoordinate[5];
+	gidToCoordinate(gid, resultCoordinate, resultDimSizes, 5);
+
+	const int resultGroupSize = resultShape[1] / groups;
+	const int groupNumber = resultCoordinate[1] / resultGroupSize;
+	const int resultGroupIndex = resultCoordinate[1] % resultGroupSize;
+	const int inputGroupSize = inputShape[1] / groups;
+
+	int inputCoordinate[5];
+	inputCoordinate[0] = resultCoordinate[0];
+	const int inputCoordinate1Base = groupNumber * inputGroupSize;
+	const int inputCoordinate2Base = resultCoordinate[2] + paddingD;
+	const int inputCoordinate3Base = resultCoordinate[3] + paddingH;
+	const int inputCoordinate4Base = resultCoordinate[4] + paddingW;
+
+	int weightCoordinate[5];
+	weightCoordinate[1] = resultGroupIndex;
+
+	float resultValue = 0;
+	const int kernelDepth = weightShape[2];
+	const int kernelHeight = weightShape[3];
+	const int kernelWidth = weightShape[4];
+	for (int inChannelGroupIndex = 0; inChannelGroupIndex < inputGroupSize; ++inChannelGroupIndex) {
+		inputCoordinate[1] = inputCoordinate1Base + inChannelGroupIndex;
+		weightCoordinate[0] = inputCoordinate[1];
+		for (int kernelDepthIndex = 0; kernelDepthIndex < kernelDepth; ++kernelDepthIndex) {
+			inputCoordinate[2] = inputCoordinate2Base - kernelDepthIndex * dilationD;
+			if (0 == inputCoordinate[2] % strideD) {
+				inputCoordinate[2] /= strideD;
+				if (inputCoordinate[2] > -1 && inputCoordinate[2] < inputShape[2]) {
+					weightCoordinate[2] = kernelDepthIndex;
+					for (int kernelHeightIndex = 0; kernelHeightIndex < kernelHeight; ++kernelHeightIndex) {
+						inputCoordinate[3] = inputCoordinate3Base - kernelHeightIndex * dilationH;
+						if (0 == inputCoordinate[3] % strideH) {
+							inputCoordinate[3] /= strideH;
+							if (inputCoordinate[3] > -1 && inputCoordinate[3] < inputShape[3]) {
+								weightCoordinate[3] = kernelHeightIndex;
+								for (int kernelWidthIndex = 0; kernelWidthIndex < kernelWidth; ++kernelWidthIndex) {
+									inputCoordinate[4] = inputCoordinate4Base - kernelWidthIndex * dilationW;
+									float inputValue = 0;
+									if (0 == inputCoordinate[4] % strideW) {
+										inputCoordinate[4] /= strideW;
+										if (inputCoordinate[4] > -1 && inputCoordinate[4] < inputShape[4]) {
+											inputValue = input[coordinateToGid(inputCoordinate, inputDimSizes, 5)];
+										}
+									}
+
+									weightCoordinate[4] = kernelWidthIndex;
+									float weightValue = weight[coordinateToGid(weightCoordinate, weightDimSizes, 5)];
+
+									resultValue += (inputValue * weightValue);
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+	result[gid] = resultValue;
+}
+
+__kernel void maxPool1DKernel(
+		const int kernelWidth,
+		const int stride,
+		const int padding,
+		const int dilation,
+		__constant int* inputShape,
+		__constant int* resultShape,
+		__constant int* inputDimSizes,
+		__constant int* resultDimSizes,
+		__constant float* input,
+		__global float* result,
+		__global int* indices) {
+	const size_t gid = get_global_id(0);
+
+	int resultCoordinate[3];
+	gidToCoordinate(gid, resultCoordinate, resultDimSizes, 3);
+
+	int inputCoordinate[3];
+	inputCoordinate[0] = resultCoordinate[0];
+	inputCoordinate[1] = resultCoordinate[1];
+	const int inputCoordinate2Base = resultCoordinate[2] * stride - padding;
+
+	float maxValue = 0;
+	int maxIndex = -1;
+	for (int kernelWidthIndex = 0; kernelWidthIndex < kernelWidth; ++kernelWidthIndex) {
+		inputCoordinate[2] = inputCoordinate2Base + kernelWidthIndex * dilation;
+		if (inputCoordinate[2] > -1 && inputCoordinate[2] < inputShape[2]) {
+			float value = input[coordinateToGid(inputCoordinate, inputDimSizes, 3)];
+			if (-1 == maxIndex || value > maxValue) {
+				maxValue = value;
+				maxIndex = inputCoordinate[2];
+			}
+		}
+	}
+	result[gid] = maxValue;
+	if (indices != 0) {
+		indices[gid] = maxIndex;
+	}
+}
+
+__kernel void maxPool2DKernel(
+		__constant float* input,
+		__constant int* inputShape,
+		__constant int* inputDimSizes,
+		__global float* result,
+		__constant int* resultDimSizes,
+		__global int* indices,
+		const int kernelHeight,
+		const int kernelWidth,
+		const int strideH,
+		const int strideW,
+		const int paddingH,
+		const int paddingW,
+		const int dilationH,
+		const int dilationW) {
+	const size_t gid = get_global_id(0);
+
+	int resultCoordinate[4];
+	gidToCoordinate(gid, resultCoordinate, resultDimSizes, 4);
+
+	int inputCoordinate[4];
+	inputCoordinate[0] = resultCoordinate[0];
+	inputCoordinate[1] = resultCoordinate[1];
+	const int inputCoordinate2Base = resultCoordinate[2] * strideH - paddingH;
+	const int inputCoordinate3Base = resultCoordinate[3] * strideW - paddingW;
+
+	float maxValue = 0;
+	int maxIndex = -1;
+	for (int kernelHeightIndex = 0; kernelHeightIndex < kernelHeight; ++kernelHeightIndex) {
+		inputCoordinate[2] = inputCoordinate2Base + kernelHeightIndex * dilationH;
+		if (inputCoordinate[2] > -1 && inputCoordinate[2] < inputShape[2]) {
+			for (int kernelWidthIndex = 0; kernelWidthIndex < kernelWidth; ++kernelWidthIndex) {
+				inputCoordinate[3] = inputCoordinate3Base + kernelWidthIndex * dilationW;
+				if (inputCoordinate[3] > -1 && inputCoordinate[3] < inputShape[3]) {
+					float value = input[coordinateToGid(inputCoordinate, inputDimSizes, 4)];
+					if (-1 == maxIndex || value > maxValue) {
+						maxValue = value;
+						maxIndex = inputCoordinate[2] * inputDimSizes[2] + inputCoordinate[3];
+					}
+				}
+			}
+		}
+	}
+	result[gid] = maxValue;
+	if (indices != 0) {
+		indices[gid] = maxIndex;
+	}
+}
+
+__kernel void avgPool1DKernel(
+		const int kernelWidth,
+		const int stride,
+		const int padding,
+		const short countIncludePad,
+		__constant int* inputShape,
+		__constant int* resultShape,
+		__constant int* inputDimSizes,
+		__constant int* resultDimSizes,
+		__constant float* input,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+
+	int resultCoordinate[3];
+	gidToCoordinate(gid, resultCoordinate, resultDimSizes, 3);
+
+	int inputCoordinate[3];
+	inputCoordinate[0] = resultCoordinate[0];
+	inputCoordinate[1] = resultCoordinate[1];
+	const int inputCoordinate2Base = resultCoordinate[2] * stride - padding;
+
+	float sum = 0;
+	int count = 0;
+	for (int kernelWidthIndex = 0; kernelWidthIndex < kernelWidth; ++kernelWidthIndex) {
+		inputCoordinate[2] = inputCoordinate2Base + kernelWidthIndex;
+		if (inputCoordinate[2] > -1 && inputCoordinate[2] < inputShape[2]) {
+			sum += input[coordinateToGid(inputCoordinate, inputDimSizes, 3)];
+			if (0 == countIncludePad) {
+				++count;
+			}
+		}
+	}
+	if (countIncludePad) {
+		result[gid] = sum / kernelWidth;
+	} else {
+		if (count) {
+			result[gid] = sum / count;
+		} else {
+			result[gid] = 0;
+		}
+	}
+}
+
+__kernel void avgPool2DKernel(
+		const int kernelHeight,
+		const int kernelWidth,
+		const int strideH,
+		const int strideW,
+		const int paddingH,
+		const int paddingW,
+		const short countIncludePad,
+		const int divisorOverride,
+		__constant int* inputShape,
+		__constant int* resultShape,
+		__constant int* inputDimSizes,
+		__constant int* resultDimSizes,
+		__constant float* input,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+
+	int resultCoordinate[4];
+	gidToCoordinate(gid, resultCoordinate, resultDimSizes, 4);
+
+	int inputCoordinate[4];
+	inputCoordinate[0] = resultCoordinate[0];
+	inputCoordinate[1] = resultCoordinate[1];
+	const int inputCoordinate2Base = resultCoordinate[2] * strideH - paddingH;
+	const int inputCoordinate3Base = resultCoordinate[3] * strideW - paddingW;
+
+	float sum = 0;
+	int count = 0;
+	for (int kernelHeightIndex = 0; kernelHeightIndex < kernelHeight; ++kernelHeightIndex) {
+		inputCoordinate[2] = inputCoordinate2Base + kernelHeightIndex;
+		if (inputCoordinate[2] > -1 && inputCoordinate[2] < inputShape[2]) {
+			for (int kernelWidthIndex = 0; kernelWidthIndex < kernelWidth; ++kernelWidthIndex) {
+				inputCoordinate[3] = inputCoordinate3Base + kernelWidthIndex;
+				if (inputCoordinate[3] > -1 && inputCoordinate[3] < inputShape[3]) {
+					sum += input[coordinateToGid(inputCoordinate, inputDimSizes, 4)];
+					if (0 == countIncludePad) {
+						++count;
+					}
+				}
+			}
+		}
+	}
+	if (divisorOverride) {
+		result[gid] = sum / divisorOverride;
+	} else if (countIncludePad) {
+		result[gid] = sum / (kernelHeight * kernelWidth);
+	} else {
+		if (count) {
+			result[gid] = sum / count;
+		} else {
+			result[gid] = 0;
+		}
+	}
+}
+
+__kernel void avgPool3DKernel(
+		const int kernelDepth,
+		const int kernelHeight,
+		const int kernelWidth,
+		const int strideD,
+		const int strideH,
+		const int strideW,
+		const int paddingD,
+		const int paddingH,
+		const int paddingW,
+		const short countIncludePad,
+		const int divisorOverride,
+		__constant int* inputShape,
+		__constant int* resultShape,
+		__constant int* inputDimSizes,
+		__constant int* resultDimSizes,
+		__constant float* input,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+
+	int resultCoordinate[5];
+	gidToCoordinate(gid, resultCoordinate, resultDimSizes, 5);
+
+	int inputCoordinate[5];
+	inputCoordinate[0] = resultCoordinate[0];
+	inputCoordinate[1] = resultCoordinate[1];
+	const int inputCoordinate2Base = resultCoordinate[2] * strideD - paddingD;
+	const int inputCoordinate3Base = resultCoordinate[3] * strideH - paddingH;
+	const int inputCoordinate4Base = resultCoordinate[4] * strideW - paddingW;
+
+	float sum = 0;
+	int count = 0;
+	for (int kernelDepthIndex = 0; kernelDepthIndex < kernelDepth; ++kernelDepthIndex) {
+		inputCoordinate[2] = inputCoordinate2Base + kernelDepthIndex;
+		if (inputCoordinate[2] > -1 && inputCoordinate[2] < inputShape[2]) {
+			for (int kernelHeightIndex = 0; kernelHeightIndex < kernelHeight; ++kernelHeightIndex) {
+				inputCoordinate[3] = inputCoordinate3Base + kernelHeightIndex;
+				if (inputCoordinate[3] > -1 && inputCoordinate[3] < inputShape[3]) {
+					for (int kernelWidthIndex = 0; kernelWidthIndex < kernelWidth; ++kernelWidthIndex) {
+						inputCoordinate[4] = inputCoordinate4Base + kernelWidthIndex;
+						if (inputCoordinate[4] > -1 && inputCoordinate[4] < inputShape[4]) {
+							sum += input[coordinateToGid(inputCoordinate, inputDimSizes, 5)];
+							if (0 == countIncludePad) {
+								++count;
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+	if (divisorOverride) {
+		result[gid] = sum / divisorOverride;
+	} else if (countIncludePad) {
+		result[gid] = sum / (kernelDepth * kernelHeight * kernelWidth);
+	} else {
+		if (count) {
+			result[gid] = sum / count;
+		} else {
+			result[gid] = 0;
+		}
+	}
+}
+
+__kernel void crossCorrelationWeightGradient1DKernel(
+		const int stride,
+		const int padding,
+		const int dilation,
+		const int groups,
+		__constant int* inputShape,
+		__constant int* gradientShape,
+		__constant int* resultShape,
+		__constant int* inputDimSizes,
+		__constant int* gradientDimSizes,
+		__constant int* resultDimSizes,
+		__constant float* input,
+		__constant float* gradient,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+
+	int resultCoordinate[3];
+	gidToCoordinate(gid, resultCoordinate, resultDimSizes, 3);
+
+	const int gradientGroupSize = gradientShape[1] / groups;
+	const int groupNumber = resultCoordinate[0] / gradientGroupSize;
+	const int inputGroupSize = resultShape[1];
+
+	int inputCoordinate[3];
+	inputCoordinate[1] = groupNumber * inputGroupSize + resultCoordinate[1];
+	const int inputCoordinate2Base = resultCoordinate[2] * dilation - padding;
+
+	int gradientCoordinate[3];
+	gradientCoordinate[1] = resultCoordinate[0];
+
+	float resultValue = 0;
+	const int batchSize = gradientShape[0];
+	for (int batchIndex = 0; batchIndex < batchSize; ++batchIndex) {
+		inputCoordinate[0] = batchIndex;
+		gradientCoordinate[0] = batchIndex;
+		for (gradientCoordinate[2] = 0; gradientCoordinate[2] < gradientShape[2]; ++gradientCoordinate[2]) {
+			inputCoordinate[2] = inputCoordinate2Base + gradientCoordinate[2] * stride;
+			if (inputCoordinate[2] > -1 && inputCoordinate[2] < inputShape[2]) {
+				resultValue += input[coordinateToGid(inputCoordinate, inputDimSizes, 3)]
+						* gradient[coordinateToGid(gradientCoordinate, gradientDimSizes, 3)];
+			}
+		}
+	}
+	result[gid] = resultValue;
+}
+
+__kernel void crossCorrelationWeightGradient2DKernel(
+		const int strideH,
+		const int strideW,
+		const int paddingH,
+		const int paddingW,
+		const int dilationH,
+		const int dilationW,
+		const int groups,
+		__constant int* inputShape,
+		__constant int* gradientShape,
+		__constant int* resultShape,
+		__constant int* inputDimSizes,
+		__constant int* gradientDimSizes,
+		__constant int* resultDimSizes,
+		__constant float* input,
+		__constant float* gradient,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+
+	int resultCoordinate[4];
+	gidToCoordinate(gid, resultCoordinate, resultDimSizes, 4);
+
+	const int gradientGroupSize = gradientShape[1] / groups;
+	const int groupNumber = resultCoordinate[0] / gradientGroupSize;
+	const int inputGroupSize = resultShape[1];
+
+	int inputCoordinate[4];
+	inputCoordinate[1] = groupNumber * inputGroupSize + resultCoordinate[1];
+	const int inputCoordinate2Base = resultCoordinate[2] * dilationH - paddingH;
+	const int inputCoordinate3Base = resultCoordinate[3] * dilationW - paddingW;
+
+	int gradientCoordinate[4];
+	gradientCoordinate[1] = resultCoordinate[0];
+
+	float resultValue = 0;
+	const int batchSize = gradientShape[0];
+	for (int batchIndex = 0; batchIndex < batchSize; ++batchIndex) {
+		inputCoordinate[0] = batchIndex;
+		gradientCoordinate[0] = batchIndex;
+		for (gradientCoordinate[2] = 0; gradientCoordinate[2] < gradientShape[2]; ++gradientCoordinate[2]) {
+			inputCoordinate[2] = inputCoordinate2Base + gradientCoordinate[2] * strideH;
+			if (inputCoordinate[2] < 0 || inputCoordinate[2] >= inputShape[2]) {
+				continue;
+			}
+			for (gradientCoordinate[3] = 0; gradientCoordinate[3] < gradientShape[3]; ++gradientCoordinate[3]) {
+				inputCoordinate[3] = inputCoordinate3Base + gradientCoordinate[3] * strideW;
+				if (inputCoordinate[3] > -1 && inputCoordinate[3] < inputShape[3]) {
+					resultValue += input[coordinateToGid(inputCoordinate, inputDimSizes, 4)]
+							* gradient[coordinateToGid(gradientCoordinate, gradientDimSizes, 4)];
+				}
+			}
+		}
+	}
+	result[gid] = resultValue;
+}
+
+__kernel void crossCorrelationWeightGradient3DKernel(
+		const int strideD,
+		const int strideH,
+		const int strideW,
+		const int paddingD,
+		const int paddingH,
+		const int paddingW,
+		const int dilationD,
+		const int dilationH,
+		const int dilationW,
+		const int groups,
+		__constant int* inputShape,
+		__constant int* gradientShape,
+		__constant int* resultShape,
+		__constant int* inputDimSizes,
+		__constant int* gradientDimSizes,
+		__constant int* resultDimSizes,
+		__constant float* input,
+		__constant float* gradient,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+
+	int resultCoordinate[5];
+	gidToCoordinate(gid, resultCoordinate, resultDimSizes, 5);
+
+	const int gradientGroupSize = gradientShape[1] / groups;
+	const int groupNumber = resultCoordinate[0] / gradientGroupSize;
+	const int inputGroupSize = resultShape[1];
+
+	int inputCoordinate[5];
+	inputCoordinate[1] = groupNumber * inputGroupSize + resultCoordinate[1];
+	const int inputCoordinate2Base = resultCoordinate[2] * dilationD - paddingD;
+	const int inputCoordinate3Base = resultCoordinate[3] * dilationH - paddingH;
+	const int inputCoordinate4Base = resultCoordinate[4] * dilationW - paddingW;
+
+	int gradientCoordinate[5];
+	gradientCoordinate[1] = resultCoordinate[0];
+
+	float resultValue = 0;
+	const int batchSize = gradientShape[0];
+	for (int batchIndex = 0; batchIndex < batchSize; ++batchIndex) {
+		inputCoordinate[0] = batchIndex;
+		gradientCoordinate[0] = batchIndex;
+		for (gradientCoordinate[2] = 0; gradientCoordinate[2] < gradientShape[2]; ++gradientCoordinate[2]) {
+			inputCoordinate[2] = inputCoordinate2Base + gradientCoordinate[2] * strideD;
+			if (inputCoordinate[2] < 0 || inputCoordinate[2] >= inputShape[2]) {
+				continue;
+			}
+			for (gradientCoordinate[3] = 0; gradientCoordinate[3] < gradientShape[3]; ++gradientCoordinate[3]) {
+				inputCoordinate[3] = inputCoordinate3Base + gradientCoordinate[3] * strideH;
+				if (inputCoordinate[3] < 0 || inputCoordinate[3] >= inputShape[3]) {
+					continue;
+				}
+				for (gradientCoordinate[4] = 0; gradientCoordinate[4] < gradientShape[4]; ++gradientCoordinate[4]) {
+					inputCoordinate[4] = inputCoordinate4Base + gradientCoordinate[4] * strideW;
+					if (inputCoordinate[4] > -1 && inputCoordinate[4] < inputShape[4]) {
+						resultValue += input[coordinateToGid(inputCoordinate, inputDimSizes, 5)]
+								* gradient[coordinateToGid(gradientCoordinate, gradientDimSizes, 5)];
+					}
+				}
+			}
+		}
+	}
+	result[gid] = resultValue;
+}
+
+__kernel void im2Col2DKernel(
+		const int batchBegin,
+		const int kernelH,
+		const int kernelW,
+		const int strideH,
+		const int strideW,
+		const int paddingH,
+		const int paddingW,
+		const int dilationH,
+		const int dilationW,
+		const int outputH,
+		const int outputW,
+		__constant int* inputShape,
+		__constant int* inputDimSizes,
+		__constant float* input,
+		__global float* columns) {
+	const size_t gid = get_global_id(0);
+
+	size_t rest = gid;
+	const int outputWIndex = rest % outputW;
+	rest /= outputW;
+	const int outputHIndex = rest % outputH;
+	rest /= outputH;
+	const int kernelWIndex = rest % kernelW;
+	rest /= kernelW;
+	const int kernelHIndex = rest % kernelH;
+	rest /= kernelH;
+	const int channel = rest % inputShape[1];
+	const int batchIndex = batchBegin + rest / inputShape[1];
+
+	const int inputCoordinate2 = outputHIndex * strideH - paddingH + kernelHIndex * dilationH;
+	const int inputCoordinate3 = outputWIndex * strideW - paddingW + kernelWIndex * dilationW;
+	if (inputCoordinate2 > -1 && inputCoordinate2 < inputShape[2]
+			&& inputCoordinate3 > -1 && inputCoordinate3 < inputShape[3]) {
+		columns[gid] = input[batchIndex * inputDimSizes[0] + channel * inputDimSizes[1]
+				+ inputCoordinate2 * inputDimSizes[2] + inputCoordinate3];
+	} else {
+		columns[gid] = 0;
+	}
+}
+
+__kernel void im2Col3DKernel(
+		const int batchBegin,
+		const int kernelD,
+		const int kernelH,
+		const int kernelW,
+		const int strideD,
+		const int strideH,
+		const int strideW,
+		const int paddingD,
+		const int paddingH,
+		const int paddingW,
+		const int dilationD,
+		const int dilationH,
+		const int dilationW,
+		const int outputD,
+		const int outputH,
+		const int outputW,
+		__constant int* inputShape,
+		__constant int* inputDimSizes,
+		__constant float* input,
+		__global float* columns) {
+	const size_t gid = get_global_id(0);
+
+	size_t rest = gid;
+	const int outputWIndex = rest % outputW;
+	rest /= outputW;
+	const int outputHIndex = rest % outputH;
+	rest /= outputH;
+	const int outputDIndex = rest % outputD;
+	rest /= outputD;
+	const int kernelWIndex = rest % kernelW;
+	rest /= kernelW;
+	const int kernelHIndex = rest % kernelH;
+	rest /= kernelH;
+	const int kernelDIndex = rest % kernelD;
+	rest /= kernelD;
+	const int channel = rest % inputShape[1];
+	const int batchIndex = batchBegin + rest / inputShape[1];
+
+	const int inputCoordinate2 = outputDIndex * strideD - paddingD + kernelDIndex * dilationD;
+	const int inputCoordinate3 = outputHIndex * strideH - paddingH + kernelHIndex * dilationH;
+	const int inputCoordinate4 = outputWIndex * strideW - paddingW + kernelWIndex * dilationW;
+	if (inputCoordinate2 > -1 && inputCoordinate2 < inputShape[2]
+			&& inputCoordinate3 > -1 && inputCoordinate3 < inputShape[3]
+			&& inputCoordinate4 > -1 && inputCoordinate4 < inputShape[4]) {
+		columns[gid] = input[batchIndex * inputDimSizes[0] + channel * inputDimSizes[1]
+				+ inputCoordinate2 * inputDimSizes[2] + inputCoordinate3 * inputDimSizes[3] + inputCoordinate4];
+	} else {
+		columns[gid] = 0;
+	}
+}
+
+__kernel void winogradWeightTransformKernel(
+		const int matrixLength,
+		__constant float* weight,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+
+	__constant float* g = weight + gid * 9;
+	// G g, where the rows of G are (1, 0, 0), (1/2, 1/2, 1/2), (1/2, -1/2, 1/2)
+	// and (0, 0, 1).
+	float gg[4][3];
+	for (int j = 0; j < 3; ++j) {
+		const float g0 = g[j];
+		const float g1 = g[3 + j];
+		const float g2 = g[6 + j];
+		gg[0][j] = g0;
+		gg[1][j] = 0.5f * (g0 + g1 + g2);
+		gg[2][j] = 0.5f * (g0 - g1 + g2);
+		gg[3][j] = g2;
+	}
+	for (int i = 0; i < 4; ++i) {
+		const float g0 = gg[i][0];
+		const float g1 = gg[i][1];
+		const float g2 = gg[i][2];
+		result[(i * 4) * matrixLength + gid] = g0;
+		result[(i * 4 + 1) * matrixLength + gid] = 0.5f * (g0 + g1 + g2);
+		result[(i * 4 + 2) * matrixLength + gid] = 0.5f * (g0 - g1 + g2);
+		result[(i * 4 + 3) * matrixLength + gid] = g2;
+	}
+}
+
+__kernel void winogradInputTransformKernel(
+		const int batchBegin,
+		const int paddingH,
+		const int paddingW,
+		const int tilesH,
+		const int tilesW,
+		const int matrixLength,
+		__constant int* inputShape,
+		__constant int* inputDimSizes,
+		__constant float* input,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+
+	const int tileCount = matrixLength / inputShape[1];
+	const int channel = gid / tileCount;
+	int tile = gid % tileCount;
+	const int tileW = tile % tilesW;
+	tile /= tilesW;
+	const int tileH = tile % tilesH;
+	const int batchIndex = batchBegin + tile / tilesH;
+
+	const int rowBase = tileH * 2 - paddingH;
+	const int columnBase = tileW * 2 - paddingW;
+	const int inputIndexBase = batchIndex * inputDimSizes[0] + channel * inputDimSizes[1];
+	float d[4][4];
+	for (int i = 0; i < 4; ++i) {
+		const int row = rowBase + i;
+		for (int j = 0; j < 4; ++j) {
+			const int column = columnBase + j;
+			if (row > -1 && row < inputShape[2] && column > -1 && column < inputShape[3]) {
+				d[i][j] = input[inputIndexBase + row * inputDimSizes[2] + column];
+			} else {
+				d[i][j] = 0;
+			}
+		}
+	}
+	// B^T d, where the rows of B^T are (1, 0, -1, 0), (0, 1, 1, 0),
+	// (0, -1, 1, 0) and (0, 1, 0, -1).
+	float bd[4][4];
+	for (int j = 0; j < 4; ++j) {
+		bd[0][j] = d[0][j] - d[2][j];
+		bd[1][j] = d[1][j] + d[2][j];
+		bd[2][j] = d[2][j] - d[1][j];
+		bd[3][j] = d[1][j] - d[3][j];
+	}
+	for (int i = 0; i < 4; ++i) {
+		result[(i * 4) * matrixLength + gid] = bd[i][0] - bd[i][2];
+		result[(i * 4 + 1) * matrixLength + gid] = bd[i][1] + bd[i][2];
+		result[(i * 4 + 2) * matrixLength + gid] = bd[i][2] - bd[i][1];
+		result[(i * 4 + 3) * matrixLength + gid] = bd[i][1] - bd[i][3];
+	}
+}
+
+__kernel void winogradOutputTransformKernel(
+		const int batchBegin,
+		const int tilesH,
+		const int tilesW,
+		const int matrixLength,
+		__constant int* resultShape,
+		__constant int* resultDimSizes,
+		__constant float* products,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+
+	const int tileCount = matrixLength / resultShape[1];
+	const int outChannel = gid / tileCount;
+	int tile = gid % tileCount;
+	const int tileW = tile % tilesW;
+	tile /= tilesW;
+	const int tileH = tile % tilesH;
+	const int batchIndex = batchBegin + tile / tilesH;
+
+	// A^T m, where the rows of A^T are (1, 1, 1, 0) and (0, 1, -1, -1).
+	float am[2][4];
+	for (int j = 0; j < 4; ++j) {
+		const float m0 = products[j * matrixLength + gid];
+		const float m1 = products[(4 + j) * matrixLength + gid];
+		const float m2 = products[(8 + j) * matrixLength + gid];
+		const float m3 = products[(12 + j) * matrixLength + gid];
+		am[0][j] = m0 + m1 + m2;
+		am[1][j] = m1 - m2 - m3;
+	}
+	const int resultIndexBase = batchIndex * resultDimSizes[0] + outChannel * resultDimSizes[1];
+	for (int i = 0; i < 2; ++i) {
+		const int row = tileH * 2 + i;
+		if (row >= resultShape[2]) {
+			break;
+		}
+		const int resultRowBase = resultIndexBase + row * resultDimSizes[2];
+		const int column = tileW * 2;
+		result[resultRowBase + column] = am[i][0] + am[i][1] + am[i][2];
+		if (column + 1 < resultShape[3]) {
+			result[resultRowBase + column + 1] = am[i][1] - am[i][2] - am[i][3];
+		}
+	}
+}
+
+/*
+ * The depthwise cross-correlations, where each input channel is a group of
+ * its own. A work-group computes a tile of an output channel of an image,
+ * whose input tile is first loaded into local memory by all its work items.
+ * The output channels of an input channel are consecutive.
+ */
+#define DEPTHWISE_TILE_SIZE 16
+#define DEPTHWISE_TILE_LENGTH 64
+
+__kernel void depthwiseCrossCorrelation1DKernel(
+		const int stride,
+		const int padding,
+		const int dilation,
+		const int tileLength,
+		__constant int* inputShape,
+		__constant int* weightShape,
+		__constant int* resultShape,
+		__global const float* input,
+		__global const float* weight,
+		__global float* result,
+		__local float* tile) {
+	const int localColumn = get_local_id(0);
+	const int column = get_global_id(0);
+	const int plane = get_global_id(1);
+
+	const int outChannels = resultShape[1];
+	const int outChannel = plane % outChannels;
+	const int batchIndex = plane / outChannels;
+	const int inChannel = outChannel / (outChannels / inputShape[1]);
+	const int inputLength = inputShape[2];
+	const int kernelWidth = weightShape[2];
+
+	const int columnBase = get_group_id(0) * DEPTHWISE_TILE_LENGTH * stride - padding;
+	input += (batchIndex * inputShape[1] + inChannel) * inputLength;
+	for (int i = localColumn; i < tileLength; i += DEPTHWISE_TILE_LENGTH) {
+		const int inputColumn = columnBase + i;
+		tile[i] = inputColumn > -1 && inputColumn < inputLength ? input[inputColumn] : 0;
+	}
+	barrier(CLK_LOCAL_MEM_FENCE);
+
+	if (column < resultShape[2]) {
+		weight += outChannel * kernelWidth;
+		const int tileIndexBase = localColumn * stride;
+		float resultValue = 0;
+		for (int kernelWidthIndex = 0; kernelWidthIndex < kernelWidth; ++kernelWidthIndex) {
+			resultValue += tile[tileIndexBase + kernelWidthIndex * dilation] * weight[kernelWidthIndex];
+		}
+		result[plane * resultShape[2] + column] = resultValue;
+	}
+}
+
+__kernel void depthwiseCrossCorrelation2DKernel(
+		const int strideH,
+		const int strideW,
+		const int paddingH,
+		const int paddingW,
+		const int dilationH,
+		const int dilationW,
+		const int tileHeight,
+		const int tileWidth,
+		__constant int* inputShape,
+		__constant int* weightShape,
+		__constant int* resultShape,
+		__global const float* input,
+		__global const float* weight,
+		__global float* result,
+		__local float* tile) {
+	const int localColumn = get_local_id(0);
+	const int localRow = get_local_id(1);
+	const int column = get_global_id(0);
+	const int row = get_global_id(1);
+	const int plane = get_global_id(2);
+
+	const int outChannels = resultShape[1];
+	const int outChannel = plane % outChannels;
+	const int batchIndex = plane / outChannels;
+	const int inChannel = outChannel / (outChannels / inputShape[1]);
+	const int inputHeight = inputShape[2];
+	const int inputWidth = inputShape[3];
+	const int kernelHeight = weightShape[2];
+	const int kernelWidth = weightShape[3];
+
+	const int rowBase = get_group_id(1) * DEPTHWISE_TILE_SIZE * strideH - paddingH;
+	const int columnBase = get_group_id(0) * DEPTHWISE_TILE_SIZE * strideW - paddingW;
+	input += (batchIndex * inputShape[1] + inChannel) * inputHeight * inputWidth;
+	for (int i = localRow * DEPTHWISE_TILE_SIZE + localColumn; i < tileHeight * tileWidth;
+			i += DEPTHWISE_TILE_SIZE * DEPTHWISE_TILE_SIZE) {
+		const int inputRow = rowBase + i / tileWidth;
+		const int inputColumn = columnBase + i % tileWidth;
+		if (inputRow > -1 && inputRow < inputHeight && inputColumn > -1 && inputColumn < inputWidth) {
+			tile[i] = input[inputRow * inputWidth + inputColumn];
+		} else {
+			tile[i] = 0;
+		}
+	}
+	barrier(CLK_LOCAL_MEM_FENCE);
+
+	if (row < resultShape[2] && column < resultShape[3]) {
+		weight += outChannel * kernelHeight * kernelWidth;
+		float resultValue = 0;
+		for (int kernelHeightIndex = 0; kernelHeightIndex < kernelHeight; ++kernelHeightIndex) {
+			const int tileIndexBase = (localRow * strideH + kernelHeightIndex * dilationH) * tileWidth
+					+ localColumn * strideW;
+			for (int kernelWidthIndex = 0; kernelWidthIndex < kernelWidth; ++kernelWidthIndex) {
+				resultValue += tile[tileIndexBase + kernelWidthIndex * dilationW]
+						* weight[kernelHeightIndex * kernelWidth + kernelWidthIndex];
+			}
+		}
+		result[(plane * resultShape[2] + row) * resultShape[3] + column] = resultValue;
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2019, 2020, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+__kernel void absKernel(__constant float* source, __global float* result) {
+	size_t gid = get_global_id(0);
+	result[gid] = fabs(source[gid]);
+}
+
+__kernel void addKernel(__constant float* left, __constant float* right, __global float* result) {
+	size_t gid = get_global_id(0);
+	result[gid] = left[gid] + right[gid];
+}
+
+__kernel void addValueKernel(__constant float* left, const float right, __global float* result) {
+	size_t gid = get_global_id(0);
+	result[gid] = left[gid] + right;
+}
+
+__kernel void subtractKernel(__constant float* left, __constant float* right, __global float* result) {
+	size_t gid = get_global_id(0);
+	result[gid] = left[gid] - right[gid];
+}
+
+__kernel void subtractValueKernel(__constant float* left, const float right, __global float* result) {
+	size_t gid = get_global_id(0);
+	result[gid] = left[gid] - right;
+}
+
+__kernel void multiplyKernel(__constant float* left, __constant float* right, __global float* result) {
+	size_t gid = get_global_id(0);
+	result[gid] = left[gid] * right[gid];
+}
+
+__kernel void multiplyValueKernel(__constant float* left, const float right, __global float* result) {
+	size_t gid = get_global_id(0);
+	result[gid] = left[gid] * right;
+}
+
+__kernel void divideKernel(__constant float* left, __constant float* right, __global float* result) {
+	size_t gid = get_global_id(0);
+	result[gid] = left[gid] / right[gid];
+}
+
+__kernel void divideValueKernel(__constant float* left, const float right, __global float* result) {
+	size_t gid = get_global_id(0);
+	result[gid] = left[gid] / right;
+}
+
+__kernel void dividedByValueKernel(const float value, __constant float* source, __global float* result) {
+	const size_t gid = get_global_id(0);
+	result[gid] = value / source[gid];
+}
+
+__kernel void negativeKernel(__constant float* source, __global float* result) {
+	size_t gid = get_global_id(0);
+	result[gid] = -source[gid];
+}
+
+__kernel void reciprocalKernel(__constant float* source, __global float* result) {
+	size_t gid = get_global_id(0);
+	result[gid] = 1.0f / source[gid];
+}
+
+__kernel void squareKernel(__constant float* source, __global float* result) {
+	const size_t gid = get_global_id(0);
+	const float element = source[gid];
+	result[gid] = element * element;
+}
+
+__kernel void squareRootKernel(__constant float* square, __global float* result) {
+	size_t gid = get_global_id(0);
+	result[gid] = sqrt(square[gid]);
+}
+
+__kernel void naturalExponentiationKernel(__constant float* exponent, __global float* result) {
+	size_t gid = get_global_id(0);
+	result[gid] = exp(exponent[gid]);
+}
+
+__kernel void naturalLogarithmKernel(__constant float* antilogarithm, __global float* result) {
+	size_t gid = get_global_id(0);
+	result[gid] = log(antilogarithm[gid]);
+}
+
+__kernel void logarithmKernel(
+		__constant float* base,
+		__constant float* antilogarithm,
+		__global float* result) {
+	size_t gid = get_global_id(0);
+	result[gid] = log(antilogarithm[gid]) / log(base[gid]);
+}
+
+__kernel void powerKernel(__constant float* base, __constant float* exponent, __global float* result) {
+	size_t gid = get_global_id(0);
+	result[gid] = pow(base[gid], exponent[gid]);
+}
+
+__kernel void powerValueKernel(__constant float* base, const float exponent, __global float* result) {
+	size_t gid = get_global_id(0);
+	result[gid] = pow(base[gid], exponent);
+}
+
+__kernel void tanhKernel(__constant float* source, __global float* result) {
+	size_t gid = get_global_id(0);
+	result[gid] = tanh(source[gid]);
+}
+
+__kernel void reluKernel(__constant float* source, __global float* result) {
+	size_t gid = get_global_id(0);
+	float element = source[gid];
+	if (element > 0) {
+		result[gid] = element;
+	} else {
+		result[gid] = 0;
+	}
+}
+
+__kernel void signKernel(__constant float* source, __global float* result) {
+	size_t gid = get_global_id(0);
+	float element = source[gid];
+	if (element > 0) {
+		result[gid] = 1;
+	} else if (element < 0) {
+		result[gid] = -1;
+	} else {
+		result[gid] = 0;
+	}
+}
+
+__kernel void constantKernel(const float constValue, __global float* result) {
+	size_t gid = get_global_id(0);
+	result[gid] = constValue;
+}
+
+__kernel void equalKernel(
+		const float precision,
+		__constant float* left,
+		__constant float* right,
+		__global float* result) {
+	size_t gid = get_global_id(0);
+	if (fabs(left[gid] - right[gid]) > precision) {
+		result[gid] = 0;
+	} else {
+		result[gid] = 1;
+	}
+}
+
+__kernel void notEqualKernel(
+		const float precision,
+		__constant float* left,
+		__constant float* right,
+		__global float* result) {
+	size_t gid = get_global_id(0);
+	if (fabs(left[gid] - right[gid]) > precision) {
+		result[gid] = 1;
+	} else {
+		result[gid] = 0;
+	}
+}
+
+__kernel void lesserKernel(
+		const float precision,
+		__constant float* left,
+		__constant float* right,
+		__global float* result) {
+	size_t gid = get_global_id(0);
+	if (right[gid] - left[gid] > precision) {
+		result[gid] = 1;
+	} else {
+		result[gid] = 0;
+	}
+}
+
+__kernel void lesserEqualKernel(
+		const float precision,
+		__constant float* left,
+		__constant float* right,
+		__global float* result) {
+	size_t gid = get_global_id(0);
+	if (left[gid] - right[gid] > precision) {
+		result[gid] = 0;
+	} else {
+		result[gid] = 1;
+	}
+}
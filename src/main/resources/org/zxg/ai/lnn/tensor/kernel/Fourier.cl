@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2019, 2020, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+__kernel void fftKernel(
+		const int n,
+		const int radix,
+		const int subLength,
+		const float sign,
+		const int resultLength,
+		__global const float* input,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+
+	const int butterflies = n / radix;
+	const int row = gid / butterflies;
+	const int j = gid % butterflies;
+	const int k = j % subLength;
+	const int length = subLength * radix;
+	const int inputBase = (row * n + j) * 2;
+	const int resultIndexBase = (j / subLength) * length + k;
+	const int resultBase = row * resultLength * 2;
+	for (int q = 0; q < radix; ++q) {
+		const int resultIndex = resultIndexBase + q * subLength;
+		if (resultIndex >= resultLength) {
+			break;
+		}
+		float real = 0;
+		float imaginary = 0;
+		for (int r = 0; r < radix; ++r) {
+			// The twiddle factor of the sub-transform times the root of the
+			// butterfly, as one root of unity of the combined length.
+			const int exponent = (k * r + ((r * q) % radix) * subLength) % length;
+			float cosine;
+			const float sine = sincos(sign * 2 * M_PI_F * exponent / length, &cosine);
+			const int inputIndex = inputBase + r * butterflies * 2;
+			const float x = input[inputIndex];
+			const float y = input[inputIndex + 1];
+			real += x * cosine - y * sine;
+			imaginary += x * sine + y * cosine;
+		}
+		result[resultBase + resultIndex * 2] = real;
+		result[resultBase + resultIndex * 2 + 1] = imaginary;
+	}
+}
+
+__kernel void fftRealInputKernel(
+		const int inputOffset,
+		const int length,
+		const int n,
+		const int start,
+		const int step,
+		__global const float* input,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+
+	const int row = gid / n;
+	const int position = gid % n - start;
+	float value = 0;
+	if (position > -1 && position % step == 0 && position / step < length) {
+		value = input[inputOffset + row * length + position / step];
+	}
+	result[gid * 2] = value;
+	result[gid * 2 + 1] = 0;
+}
+
+__kernel void fftHermitianInputKernel(
+		const int bins,
+		const int n,
+		__global const float* input,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+
+	const int row = gid / n;
+	const int frequency = gid % n;
+	const bool mirrored = frequency > n / 2;
+	const int bin = mirrored ? n - frequency : frequency;
+	float real = 0;
+	float imaginary = 0;
+	if (bin < bins) {
+		real = input[(row * bins + bin) * 2];
+		imaginary = input[(row * bins + bin) * 2 + 1];
+	}
+	result[gid * 2] = real;
+	result[gid * 2 + 1] = mirrored ? -imaginary : imaginary;
+}
+
+__kernel void fftRealOutputKernel(
+		const int rowLength,
+		const int step,
+		const int length,
+		const int resultOffset,
+		const float scale,
+		__global const float* input,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+
+	const int row = gid / length;
+	const int position = gid % length;
+	result[resultOffset + gid] = scale * input[(row * rowLength + position * step) * 2];
+}
+
+__kernel void spectrumProductKernel(
+		const int bins,
+		const int inChannels,
+		const int outChannels,
+		const int groups,
+		__global const float* input,
+		__global const float* weight,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+
+	const int bin = gid % bins;
+	const int outChannel = (gid / bins) % outChannels;
+	const int batchIndex = gid / bins / outChannels;
+	const int inGroupSize = inChannels / groups;
+	const int inChannelBegin = outChannel / (outChannels / groups) * inGroupSize;
+	float real = 0;
+	float imaginary = 0;
+	for (int c = 0; c < inGroupSize; ++c) {
+		const int inputIndex = ((batchIndex * inChannels + inChannelBegin + c) * bins + bin) * 2;
+		const int weightIndex = ((outChannel * inGroupSize + c) * bins + bin) * 2;
+		const float x = input[inputIndex];
+		const float y = input[inputIndex + 1];
+		const float u = weight[weightIndex];
+		const float v = weight[weightIndex + 1];
+		// X conj(W), the spectrum of the cross-correlation.
+		real += x * u + y * v;
+		imaginary += y * u - x * v;
+	}
+	result[gid * 2] = real;
+	result[gid * 2 + 1] = imaginary;
+}
@@ -14,7 +14,53 @@
  * You should have received a copy of the GNU Affero General Public License
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
-__kernel void run(
+__kernel void arangeKernel(
+		const float start,
+		const float stop,
+		const float step,
+		const int repeat,
+		__global float* result) {
+    size_t gid = get_global_id(0);
+    float value = start + (gid / repeat) * step;
+    if (value < stop) {
+    	result[gid] = value;
+    }
+}
+
+__kernel void stridedCopyKernel(
+		const int ndim,
+		const int offset,
+		__constant int* dimSizes,
+		__constant int* strides,
+		__global const float* source,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+	int sourceIndex = offset;
+	for (int resultIndex = gid, dimSizesIndex = 0; dimSizesIndex < ndim; dimSizesIndex++) {
+		sourceIndex += ((resultIndex / dimSizes[dimSizesIndex]) * strides[dimSizesIndex]);
+		resultIndex %= dimSizes[dimSizesIndex];
+	}
+	result[gid] = source[sourceIndex];
+}
+
+__kernel void sliceAssignKernel(
+		const int ndim,
+		__constant int* begin,
+		__constant int* sourceDimSizes,
+		__constant int* resultDimSizes,
+		__constant float* source,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+	int resultIndex = 0;
+	for (int sourceIndex = gid, dimSizesIndex = 0; dimSizesIndex < ndim; dimSizesIndex++) {
+		resultIndex += (((sourceIndex / sourceDimSizes[dimSizesIndex]) + begin[dimSizesIndex])
+				* resultDimSizes[dimSizesIndex]);
+		sourceIndex %= sourceDimSizes[dimSizesIndex];
+	}
+	result[resultIndex] = source[gid];
+}
+
+__kernel void takeKernel(
 		const int ndim,
 		const int takeAxis,
 		__constant int* takeIndexes,
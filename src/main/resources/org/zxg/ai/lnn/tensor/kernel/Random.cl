@@ -22,7 +22,19 @@ float nextFloat(long MASK, long MULTIPLIER, long ADDEND, long seed, int index) {
 	return next24 / ((float) (1 << 24));
 }
 
-__kernel void run(
+__kernel void uniformRandomKernel(
+		const long MASK,
+		const long MULTIPLIER,
+		const long ADDEND,
+		const long seed,
+		const float low,
+		const float interval,
+		__global float* result) {
+	const size_t gid = get_global_id(0);
+	result[gid] = nextFloat(MASK, MULTIPLIER, ADDEND, seed, gid) * interval + low;
+}
+
+__kernel void normalRandomKernel(
 		const long MASK,
 		const long MULTIPLIER,
 		const long ADDEND,
@@ -43,3 +55,25 @@ __kernel void run(
 		result[gid] = z1 * standardDeviation + mean;
 	}
 }
+
+__kernel void shuffleIntKernel(
+		const long MASK,
+		const long MULTIPLIER,
+		const long ADDEND,
+		const long seed,
+		const int resultLength,
+		__global int* cache,
+		__global int* result,
+		const int passId) {
+	if (0 == passId) {
+		const size_t gid = get_global_id(0);
+		cache[gid] = (int) floor(nextFloat(MASK, MULTIPLIER, ADDEND, seed, gid) * (gid + 1));
+	} else {
+		for (size_t index = resultLength - 1; index > 0; index--) {
+			const int swapIndex = cache[index];
+			const int element = result[index];
+			result[index] = result[swapIndex];
+			result[swapIndex] = element;
+		}
+	}
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2019, 2020, Xianguang Zhou <xianguang.zhou@outlook.com>. All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+#define SUM 0
+#define MAX 1
+#define MIN 2
+#define SUM_SQUARE 3
+#define MAX_ABS_DIFF 4
+#define ARGMAX 5
+
+float identity(const int operation) {
+	switch (operation) {
+	case MAX:
+	case ARGMAX:
+		return -INFINITY;
+	case MIN:
+		return INFINITY;
+	default:
+		return 0;
+	}
+}
+
+float combine(const int operation, const float value, const float otherValue) {
+	switch (operation) {
+	case MAX:
+	case MAX_ABS_DIFF:
+		return fmax(value, otherValue);
+	case MIN:
+		return fmin(value, otherValue);
+	default:
+		return value + otherValue;
+	}
+}
+
+/*
+ * Keeps the first index of the greatest value, ignoring NaN values and
+ * negative indexes.
+ */
+void combineArgmax(float* value, int* index, const float otherValue, const int otherIndex) {
+	if (otherIndex < 0 || isnan(otherValue)) {
+		return;
+	}
+	if (*index < 0 || otherValue > *value || (otherValue == *value && otherIndex < *index)) {
+		*value = otherValue;
+		*index = otherIndex;
+	}
+}
+
+/*
+ * Reduces the values of the work-group in local memory. The local size must
+ * be a power of two.
+ */
+void reduceGroup(
+		const int operation,
+		float value,
+		int index,
+		__local float* localValues,
+		__local int* localIndexes) {
+	const int localId = get_local_id(0);
+	localValues[localId] = value;
+	localIndexes[localId] = index;
+	barrier(CLK_LOCAL_MEM_FENCE);
+	for (int offset = get_local_size(0) / 2; offset > 0; offset /= 2) {
+		if (localId < offset) {
+			if (ARGMAX == operation) {
+				float reducedValue = localValues[localId];
+				int reducedIndex = localIndexes[localId];
+				combineArgmax(&reducedValue, &reducedIndex, localValues[localId + offset],
+						localIndexes[localId + offset]);
+				localValues[localId] = reducedValue;
+				localIndexes[localId] = reducedIndex;
+			} else {
+				localValues[localId] = combine(operation, localValues[localId], localValues[localId + offset]);
+			}
+		}
+		barrier(CLK_LOCAL_MEM_FENCE);
+	}
+}
+
+float load(const int operation, __global const float* source, __global const float* other, const int index) {
+	const float value = source[index];
+	switch (operation) {
+	case SUM_SQUARE:
+		return value * value;
+	case MAX_ABS_DIFF:
+		return fabs(value - other[index]);
+	default:
+		return value;
+	}
+}
+
+/*
+ * Reduces all the elements of the source in two passes. In pass 0 each
+ * work-group reduces a strided part of the source to a partial value, and in
+ * pass 1 a single work-group reduces the partial values.
+ */
+__kernel void reduceKernel(
+		const int operation,
+		const int length,
+		const int groups,
+		__global const float* source,
+		__global const float* other,
+		__global float* partialValues,
+		__global int* partialIndexes,
+		__global float* result,
+		__global int* resultIndex,
+		__local float* localValues,
+		__local int* localIndexes,
+		const int passId) {
+	const int localId = get_local_id(0);
+	const int localSize = get_local_size(0);
+	float value = identity(operation);
+	int index = -1;
+	if (0 == passId) {
+		const int step = groups * localSize;
+		for (int i = get_group_id(0) * localSize + localId; i < length; i += step) {
+			if (ARGMAX == operation) {
+				combineArgmax(&value, &index, source[i], i);
+			} else {
+				value = combine(operation, value, load(operation, source, other, i));
+			}
+		}
+	} else {
+		for (int i = localId; i < groups; i += localSize) {
+			if (ARGMAX == operation) {
+				combineArgmax(&value, &index, partialValues[i], partialIndexes[i]);
+			} else {
+				value = combine(operation, value, partialValues[i]);
+			}
+		}
+	}
+	reduceGroup(operation, value, index, localValues, localIndexes);
+	if (0 == localId) {
+		if (0 == passId) {
+			partialValues[get_group_id(0)] = localValues[0];
+			partialIndexes[get_group_id(0)] = localIndexes[0];
+		} else {
+			result[0] = localValues[0];
+			if (ARGMAX == operation) {
+				resultIndex[0] = localIndexes[0];
+			}
+		}
+	}
+}
+
+/*
+ * Reduces the axis of the source, seen as an outer * axisLength * inner
+ * array. Each work-group reduces the axis for one element of the result, whose
+ * index is the second global id.
+ */
+__kernel void reduceAxisKernel(
+		const int operation,
+		const int axisLength,
+		const int inner,
+		__global const float* source,
+		__global float* result,
+		__global int* resultIndexes,
+		__local float* localValues,
+		__local int* localIndexes) {
+	const int localId = get_local_id(0);
+	const int resultIndex = get_global_id(1);
+	const int sourceIndexBase = (resultIndex / inner) * axisLength * inner + resultIndex % inner;
+	float value = identity(operation);
+	int index = -1;
+	for (int axisIndex = localId; axisIndex < axisLength; axisIndex += get_local_size(0)) {
+		const float element = source[sourceIndexBase + axisIndex * inner];
+		switch (operation) {
+		case ARGMAX:
+			combineArgmax(&value, &index, element, axisIndex);
+			break;
+		case SUM_SQUARE:
+			value += element * element;
+			break;
+		default:
+			value = combine(operation, value, element);
+		}
+	}
+	reduceGroup(operation, value, index, localValues, localIndexes);
+	if (0 == localId) {
+		result[resultIndex] = localValues[0];
+		if (ARGMAX == operation) {
+			resultIndexes[resultIndex] = localIndexes[0];
+		}
+	}
+}
+
+__kernel void vectorProductKernel(
+		const int cacheLength,
+		__constant float* left,
+		__constant float* right,
+		__global float* cache,
+		__global float* result,
+		const int passId) {
+	if(0 == passId) {
+		size_t gid = get_global_id(0);
+		cache[gid] = left[gid] * right[gid];
+	} else {
+		float resultValue = 0;
+		for (int i = 0; i < cacheLength;) {
+			resultValue += cache[i++];
+		}
+		result[0] = resultValue;
+	}
+}
+
+/*
+ * Computes result = left * right for a batch of row-major matrices, where
+ * left is m * k, right is k * n and result is m * n. Each work-group computes
+ * a TILE_SIZE * TILE_SIZE tile of the result from tiles of left and right
+ * kept in local memory, and each work item computes WORK_PER_ITEM rows of
+ * one column of the tile.
+ */
+#define TILE_SIZE 16
+#define WORK_PER_ITEM 4
+#define ROW_STEP (TILE_SIZE / WORK_PER_ITEM)
+
+__kernel void productKernel(
+		const int m,
+		const int n,
+		const int k,
+		const int leftOffset,
+		const int leftBatchStride,
+		const int rightOffset,
+		const int rightBatchStride,
+		const int resultOffset,
+		const int resultBatchStride,
+		__global const float* left,
+		__global const float* right,
+		__global float* result) {
+	__local float leftTile[TILE_SIZE][TILE_SIZE];
+	__local float rightTile[TILE_SIZE][TILE_SIZE];
+
+	const int localColumn = get_local_id(0);
+	const int localRow = get_local_id(1);
+	const int column = get_group_id(0) * TILE_SIZE + localColumn;
+	const int rowBase = get_group_id(1) * TILE_SIZE + localRow;
+	const int batch = get_global_id(2);
+	left += leftOffset + batch * leftBatchStride;
+	right += rightOffset + batch * rightBatchStride;
+	result += resultOffset + batch * resultBatchStride;
+
+	float sums[WORK_PER_ITEM];
+	for (int w = 0; w < WORK_PER_ITEM; ++w) {
+		sums[w] = 0;
+	}
+
+	for (int tileBase = 0; tileBase < k; tileBase += TILE_SIZE) {
+		const int leftColumn = tileBase + localColumn;
+		for (int w = 0; w < WORK_PER_ITEM; ++w) {
+			const int tileRow = localRow + w * ROW_STEP;
+			const int row = rowBase + w * ROW_STEP;
+			leftTile[tileRow][localColumn] = (row < m && leftColumn < k) ? left[row * k + leftColumn] : 0;
+			const int rightRow = tileBase + tileRow;
+			rightTile[tileRow][localColumn] = (rightRow < k && column < n) ? right[rightRow * n + column] : 0;
+		}
+		barrier(CLK_LOCAL_MEM_FENCE);
+
+		for (int i = 0; i < TILE_SIZE; ++i) {
+			const float rightValue = rightTile[i][localColumn];
+			for (int w = 0; w < WORK_PER_ITEM; ++w) {
+				sums[w] += leftTile[localRow + w * ROW_STEP][i] * rightValue;
+			}
+		}
+		barrier(CLK_LOCAL_MEM_FENCE);
+	}
+
+	if (column < n) {
+		for (int w = 0; w < WORK_PER_ITEM; ++w) {
+			const int row = rowBase + w * ROW_STEP;
+			if (row < m) {
+				result[row * n + column] = sums[w];
+			}
+		}
+	}
+}